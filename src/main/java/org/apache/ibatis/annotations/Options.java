@@ -21,6 +21,7 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
+import org.apache.ibatis.mapping.ReadFrom;
 import org.apache.ibatis.mapping.ResultSetType;
 import org.apache.ibatis.mapping.StatementType;
 
@@ -63,4 +64,33 @@ public @interface Options {
   String keyColumn() default "";
   
   String resultSets() default "";
+
+  /**
+   * Where a select reads from when the environment has replicas.
+   * @since 3.5.0
+   */
+  ReadFrom readFrom() default ReadFrom.DEFAULT;
+
+  /**
+   * The parameter property routing the statement to one shard when the environment is sharded.
+   * @since 3.5.0
+   */
+  String shardKey() default "";
+
+  /**
+   * The collection of the parameter to split in chunks of {@link #chunkSize()} elements, running one query per chunk.
+   * @since 3.5.0
+   */
+  String chunkBy() default "";
+
+  /**
+   * @since 3.5.0
+   */
+  int chunkSize() default -1;
+
+  /**
+   * The number of chunks queried at the same time, each on its own connection.
+   * @since 3.5.0
+   */
+  int chunkParallelism() default 1;
 }
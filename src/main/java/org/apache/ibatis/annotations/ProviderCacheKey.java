@@ -0,0 +1,55 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares that the SQL a provider method returns depends only on the given properties of the parameter object,
+ * besides the {@link org.apache.ibatis.builder.annotation.ProviderContext}. The SQL is then parsed once per
+ * parameter type and values of these properties, and the provider method is not invoked again for them.
+ * <p>
+ * Without properties the SQL depends only on the provider context, so it is parsed once per parameter type.
+ * The values of the properties must implement {@code equals} and {@code hashCode}, like strings, numbers and enums do.
+ * The number of SQLs kept per statement is limited by {@link #size()}, whatever the {@code dynamicSqlCacheSize} setting.
+ *
+ * <pre>
+ * &#064;ProviderCacheKey({"table", "columns"})
+ * public String select(Map&lt;String, Object&gt; params) {
+ *   ...
+ * }
+ * </pre>
+ *
+ * @since 3.5.0
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface ProviderCacheKey {
+  /**
+   * @return the properties of the parameter object the SQL depends on
+   */
+  String[] value() default {};
+
+  /**
+   * @return the maximum number of SQLs kept for the statement, the SQLs of other values are not cached
+   */
+  int size() default 32;
+}
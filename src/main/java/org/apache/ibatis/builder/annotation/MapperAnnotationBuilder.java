@@ -391,7 +391,12 @@ public class MapperAnnotationBuilder {
           null,
           languageDriver,
           // ResultSets
-          options != null ? nullOrEmpty(options.resultSets()) : null);
+          options != null ? nullOrEmpty(options.resultSets()) : null,
+          options != null ? options.readFrom() : null,
+          options != null ? nullOrEmpty(options.shardKey()) : null,
+          options != null ? nullOrEmpty(options.chunkBy()) : null,
+          options != null && options.chunkSize() > 0 ? options.chunkSize() : null,
+          options != null ? options.chunkParallelism() : null);
     }
   }
 
@@ -708,7 +713,7 @@ public class MapperAnnotationBuilder {
 
     assistant.addMappedStatement(id, sqlSource, statementType, sqlCommandType, fetchSize, timeout, parameterMap, parameterTypeClass, resultMap, resultTypeClass, resultSetTypeEnum,
         flushCache, useCache, false,
-        keyGenerator, keyProperty, keyColumn, null, languageDriver, null);
+        keyGenerator, keyProperty, keyColumn, null, languageDriver, null, ReadFrom.PRIMARY, null, null, null, null);
 
     id = assistant.applyCurrentNamespace(id, false);
 
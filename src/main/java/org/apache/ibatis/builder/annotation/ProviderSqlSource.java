@@ -15,16 +15,24 @@
  */
 package org.apache.ibatis.builder.annotation;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+import org.apache.ibatis.annotations.ProviderCacheKey;
 import org.apache.ibatis.builder.BuilderException;
 import org.apache.ibatis.builder.SqlSourceBuilder;
+import org.apache.ibatis.cache.CacheKey;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.SqlSource;
 import org.apache.ibatis.parsing.PropertyParser;
+import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.reflection.ParamNameResolver;
 import org.apache.ibatis.session.Configuration;
 
@@ -43,6 +51,18 @@ public class ProviderSqlSource implements SqlSource {
   private ProviderContext providerContext;
   private Integer providerContextIndex;
 
+  /**
+   * 调用提供者方法的MethodHandle,参数展开为数组;方法不能通过公共的Lookup访问时为null,使用反射调用
+   */
+  private final MethodHandle providerMethodHandle;
+
+  /**
+   * 提供者方法声明的SQL所依赖的参数属性,为null时不缓存
+   */
+  private final String[] cacheKeyProperties;
+  private final Map<CacheKey, SqlSource> sqlSourceCache;
+  private final int sqlSourceCacheSize;
+
   /**
    * @deprecated Please use the {@link #ProviderSqlSource(Configuration, Object, Class, Method)} instead of this.
    */
@@ -83,6 +103,18 @@ public class ProviderSqlSource implements SqlSource {
       throw new BuilderException("Error creating SqlSource for SqlProvider. Method '"
           + providerMethodName + "' not found in SqlProvider '" + this.providerType.getName() + "'.");
     }
+    this.providerMethodHandle = methodHandle(this.providerMethod);
+    // 注解本身就开启缓存,与dynamicSqlCacheSize无关
+    ProviderCacheKey cacheKey = this.providerMethod.getAnnotation(ProviderCacheKey.class);
+    if (cacheKey != null) {
+      this.cacheKeyProperties = cacheKey.value();
+      this.sqlSourceCache = new ConcurrentHashMap<>();
+      this.sqlSourceCacheSize = cacheKey.size();
+    } else {
+      this.cacheKeyProperties = null;
+      this.sqlSourceCache = null;
+      this.sqlSourceCacheSize = 0;
+    }
     for (int i = 0; i< this.providerMethodParameterTypes.length; i++) {
       Class<?> parameterType = this.providerMethodParameterTypes[i];
       if (parameterType == ProviderContext.class) {
@@ -99,10 +131,36 @@ public class ProviderSqlSource implements SqlSource {
 
   @Override
   public BoundSql getBoundSql(Object parameterObject) {
-    SqlSource sqlSource = createSqlSource(parameterObject);
+    SqlSource sqlSource;
+    if (sqlSourceCache == null) {
+      sqlSource = createSqlSource(parameterObject);
+    } else {
+      // 提供者声明了SQL只依赖于这些属性,相同的属性值直接使用解析过的SQL
+      CacheKey key = createCacheKey(parameterObject);
+      sqlSource = sqlSourceCache.get(key);
+      if (sqlSource == null) {
+        sqlSource = createSqlSource(parameterObject);
+        // 缓存满了之后其它的属性值每次调用提供者方法
+        if (sqlSourceCache.size() < sqlSourceCacheSize) {
+          sqlSourceCache.putIfAbsent(key, sqlSource);
+        }
+      }
+    }
     return sqlSource.getBoundSql(parameterObject);
   }
 
+  private CacheKey createCacheKey(Object parameterObject) {
+    CacheKey key = new CacheKey();
+    key.update(parameterObject == null ? Object.class : parameterObject.getClass());
+    if (parameterObject != null && cacheKeyProperties.length > 0) {
+      MetaObject metaObject = configuration.newMetaObject(parameterObject);
+      for (String property : cacheKeyProperties) {
+        key.update(metaObject.getValue(property));
+      }
+    }
+    return key;
+  }
+
   private SqlSource createSqlSource(Object parameterObject) {
     try {
       int bindParameterCount = providerMethodParameterTypes.length - (providerContext == null ? 0 : 1);
@@ -164,10 +222,44 @@ public class ProviderSqlSource implements SqlSource {
     if (!Modifier.isStatic(providerMethod.getModifiers())) {
       targetObject = providerType.newInstance();
     }
-    CharSequence sql = (CharSequence) providerMethod.invoke(targetObject, args);
+    CharSequence sql;
+    if (providerMethodHandle == null) {
+      sql = (CharSequence) providerMethod.invoke(targetObject, args);
+    } else {
+      sql = (CharSequence) invokeProviderMethodHandle(targetObject, args);
+    }
     return sql != null ? sql.toString() : null;
   }
 
+  /**
+   * 和反射调用一样,把提供者方法抛出的异常包装为 InvocationTargetException
+   */
+  private Object invokeProviderMethodHandle(Object targetObject, Object[] args) throws InvocationTargetException {
+    try {
+      if (Modifier.isStatic(providerMethod.getModifiers())) {
+        return (Object) providerMethodHandle.invokeExact(args);
+      }
+      return (Object) providerMethodHandle.invokeExact(targetObject, args);
+    } catch (Throwable t) {
+      throw new InvocationTargetException(t);
+    }
+  }
+
+  /**
+   * @return a handle taking the target object if the method is not static and the arguments as an array,
+   *     or null if the method is not accessible with a public lookup
+   */
+  private static MethodHandle methodHandle(Method method) {
+    try {
+      MethodHandle handle = MethodHandles.publicLookup().unreflect(method);
+      int parameterCount = method.getParameterTypes().length;
+      int arity = Modifier.isStatic(method.getModifiers()) ? parameterCount : parameterCount + 1;
+      return handle.asType(MethodType.genericMethodType(arity)).asSpreader(Object[].class, parameterCount);
+    } catch (IllegalAccessException e) {
+      return null;
+    }
+  }
+
   private String replacePlaceholder(String sql) {
     return PropertyParser.parse(sql, configuration.getVariables());
   }
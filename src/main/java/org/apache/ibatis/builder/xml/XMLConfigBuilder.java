@@ -17,14 +17,19 @@ package org.apache.ibatis.builder.xml;
 
 import java.io.InputStream;
 import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
 import javax.sql.DataSource;
 
 import org.apache.ibatis.builder.BaseBuilder;
 import org.apache.ibatis.builder.BuilderException;
 import org.apache.ibatis.datasource.DataSourceFactory;
+import org.apache.ibatis.datasource.ReplicaSelector;
 import org.apache.ibatis.executor.ErrorContext;
 import org.apache.ibatis.executor.loader.ProxyFactory;
+import org.apache.ibatis.executor.pagination.PaginationDialect;
+import org.apache.ibatis.executor.sharding.ShardingStrategy;
 import org.apache.ibatis.io.Resources;
 import org.apache.ibatis.io.VFS;
 import org.apache.ibatis.logging.Log;
@@ -378,12 +383,29 @@ public class XMLConfigBuilder extends BaseBuilder {
     configuration.setDefaultExecutorType(ExecutorType.valueOf(props.getProperty("defaultExecutorType", "SIMPLE")));
     configuration.setDefaultStatementTimeout(integerValueOf(props.getProperty("defaultStatementTimeout"), null));
     configuration.setDefaultFetchSize(integerValueOf(props.getProperty("defaultFetchSize"), null));
+    configuration.setAdaptiveFetchSizeEnabled(booleanValueOf(props.getProperty("adaptiveFetchSizeEnabled"), false));
+    configuration.setAdaptiveFetchSizeMin(integerValueOf(props.getProperty("adaptiveFetchSizeMin"), 10));
+    configuration.setAdaptiveFetchSizeMax(integerValueOf(props.getProperty("adaptiveFetchSizeMax"), 1000));
+    configuration.setCursorPrefetchSize(integerValueOf(props.getProperty("cursorPrefetchSize"), null));
+    Class<? extends PaginationDialect> paginationDialect = resolveClass(props.getProperty("paginationDialect"));
+    if (paginationDialect != null) {
+      configuration.setPaginationDialect(paginationDialect.newInstance());
+    }
     configuration.setMapUnderscoreToCamelCase(booleanValueOf(props.getProperty("mapUnderscoreToCamelCase"), false));
     configuration.setSafeRowBoundsEnabled(booleanValueOf(props.getProperty("safeRowBoundsEnabled"), false));
     configuration.setLocalCacheScope(LocalCacheScope.valueOf(props.getProperty("localCacheScope", "SESSION")));
     configuration.setJdbcTypeForNull(JdbcType.valueOf(props.getProperty("jdbcTypeForNull", "OTHER")));
     configuration.setLazyLoadTriggerMethods(stringSetValueOf(props.getProperty("lazyLoadTriggerMethods"), "equals,clone,hashCode,toString"));
     configuration.setSafeResultHandlerEnabled(booleanValueOf(props.getProperty("safeResultHandlerEnabled"), true));
+    configuration.setNestedResultStreamingEnabled(booleanValueOf(props.getProperty("nestedResultStreamingEnabled"), false));
+    configuration.setRowMapperCompilationEnabled(booleanValueOf(props.getProperty("rowMapperCompilationEnabled"), false));
+    configuration.setAutoMappingPlanCacheSize(integerValueOf(props.getProperty("autoMappingPlanCacheSize"), 1024));
+    configuration.setResultSetMetadataCacheEnabled(booleanValueOf(props.getProperty("resultSetMetadataCacheEnabled"), false));
+    configuration.setParameterBinderCompilationEnabled(booleanValueOf(props.getProperty("parameterBinderCompilationEnabled"), false));
+    configuration.setDynamicSqlCompilationEnabled(booleanValueOf(props.getProperty("dynamicSqlCompilationEnabled"), false));
+    configuration.setNativeExpressionEvaluationEnabled(booleanValueOf(props.getProperty("nativeExpressionEvaluationEnabled"), false));
+    configuration.setDynamicSqlCacheSize(integerValueOf(props.getProperty("dynamicSqlCacheSize"), 0));
+    configuration.setReadColumnsByIndex(booleanValueOf(props.getProperty("readColumnsByIndex"), false));
     configuration.setDefaultScriptingLanguage(resolveClass(props.getProperty("defaultScriptingLanguage")));
     @SuppressWarnings("unchecked")
     Class<? extends TypeHandler> typeHandler = (Class<? extends TypeHandler>)resolveClass(props.getProperty("defaultEnumTypeHandler"));
@@ -431,6 +453,8 @@ public class XMLConfigBuilder extends BaseBuilder {
           Environment.Builder environmentBuilder = new Environment.Builder(id)
               .transactionFactory(txFactory)
               .dataSource(dataSource);
+          replicasElement(child.evalNode("replicas"), environmentBuilder);
+          shardsElement(child.evalNode("shards"), environmentBuilder);
           configuration.setEnvironment(environmentBuilder.build());
         }
       }
@@ -518,6 +542,46 @@ public class XMLConfigBuilder extends BaseBuilder {
     throw new BuilderException("Environment declaration requires a DataSourceFactory.");
   }
 
+  /**
+   * 解析只读副本，没有写入的会话中的查询语句从副本读取
+   * <replicas selector="ROUND_ROBIN">
+       <dataSource type="POOLED">...</dataSource>
+     </replicas>
+   */
+  private void replicasElement(XNode context, Environment.Builder environmentBuilder) throws Exception {
+    if (context != null) {
+      List<DataSource> replicaDataSources = new ArrayList<>();
+      for (XNode child : context.getChildren()) {
+        replicaDataSources.add(dataSourceElement(child).getDataSource());
+      }
+      environmentBuilder.replicaDataSources(replicaDataSources);
+      String selector = context.getStringAttribute("selector");
+      if (selector != null) {
+        environmentBuilder.replicaSelector((ReplicaSelector) resolveClass(selector).newInstance());
+      }
+    }
+  }
+
+  /**
+   * 解析分片，环境本身的数据源是第一个分片
+   * <shards strategy="HASH">
+       <dataSource type="POOLED">...</dataSource>
+     </shards>
+   */
+  private void shardsElement(XNode context, Environment.Builder environmentBuilder) throws Exception {
+    if (context != null) {
+      List<DataSource> shardDataSources = new ArrayList<>();
+      for (XNode child : context.getChildren()) {
+        shardDataSources.add(dataSourceElement(child).getDataSource());
+      }
+      environmentBuilder.shardDataSources(shardDataSources);
+      String strategy = context.getStringAttribute("strategy");
+      if (strategy != null) {
+        environmentBuilder.shardingStrategy((ShardingStrategy) resolveClass(strategy).newInstance());
+      }
+    }
+  }
+
   /**
    * typeHandler 解析
    * <typeHandlers>
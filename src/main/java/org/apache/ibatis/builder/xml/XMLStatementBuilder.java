@@ -120,6 +120,12 @@ public class XMLStatementBuilder extends BaseBuilder {
     // Parse the SQL (pre: <selectKey> and <include> were parsed and removed)  解析SQL语句啦
     SqlSource sqlSource = langDriver.createSqlSource(configuration, context, parameterTypeClass);
     String resultSets = context.getStringAttribute("resultSets");
+    String readFrom = context.getStringAttribute("readFrom");
+    ReadFrom readFromEnum = readFrom == null ? null : ReadFrom.valueOf(readFrom);
+    String shardKey = context.getStringAttribute("shardKey");
+    String chunkBy = context.getStringAttribute("chunkBy");
+    Integer chunkSize = context.getIntAttribute("chunkSize");
+    Integer chunkParallelism = context.getIntAttribute("chunkParallelism");
 
     //http://www.mybatis.org/mybatis-3/zh/sqlmap-xml.html
     String keyProperty = context.getStringAttribute("keyProperty");
@@ -141,7 +147,8 @@ public class XMLStatementBuilder extends BaseBuilder {
     builderAssistant.addMappedStatement(id, sqlSource, statementType, sqlCommandType,
         fetchSize, timeout, parameterMap, parameterTypeClass, resultMap, resultTypeClass,
         resultSetTypeEnum, flushCache, useCache, resultOrdered, 
-        keyGenerator, keyProperty, keyColumn, databaseId, langDriver, resultSets);
+        keyGenerator, keyProperty, keyColumn, databaseId, langDriver, resultSets, readFromEnum, shardKey,
+        chunkBy, chunkSize, chunkParallelism);
   }
 
   private void processSelectKeyNodes(String id, Class<?> parameterTypeClass, LanguageDriver langDriver) {
@@ -188,7 +195,7 @@ public class XMLStatementBuilder extends BaseBuilder {
     builderAssistant.addMappedStatement(id, sqlSource, statementType, sqlCommandType,
         fetchSize, timeout, parameterMap, parameterTypeClass, resultMap, resultTypeClass,
         resultSetTypeEnum, flushCache, useCache, resultOrdered,
-        keyGenerator, keyProperty, keyColumn, databaseId, langDriver, null);
+        keyGenerator, keyProperty, keyColumn, databaseId, langDriver, null, ReadFrom.PRIMARY, null, null, null, null);
 
     id = builderAssistant.applyCurrentNamespace(id, false);
 
@@ -0,0 +1,84 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.columnar;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.BitSet;
+
+/**
+ * A column of a {@link ColumnarResult}, holding the values of all its rows.
+ *
+ * @since 3.5.0
+ */
+public abstract class Column {
+
+  static final int INITIAL_CAPACITY = 16;
+
+  private final String name;
+  private final BitSet nulls = new BitSet();
+  int size;
+
+  Column(String name) {
+    this.name = name;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Gets the number of rows of this column.
+   */
+  public int size() {
+    return size;
+  }
+
+  public boolean isNull(int row) {
+    checkRow(row);
+    return nulls.get(row);
+  }
+
+  /**
+   * Gets the value of a row, boxed.
+   *
+   * @return the value, or null if the column was SQL NULL in that row
+   */
+  public abstract Object getValue(int row);
+
+  /**
+   * Appends the value of the current row of the result set.
+   */
+  abstract void read(ResultSet rs, int columnIndex) throws SQLException;
+
+  void nextRow(boolean wasNull) {
+    if (wasNull) {
+      nulls.set(size);
+    }
+    size++;
+  }
+
+  void checkRow(int row) {
+    if (row < 0 || row >= size) {
+      throw new IndexOutOfBoundsException("Row " + row + " is out of range, the column '" + name + "' has " + size + " rows");
+    }
+  }
+
+  static int newCapacity(int capacity) {
+    return capacity + (capacity >> 1) + 1;
+  }
+
+}
@@ -0,0 +1,172 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.columnar;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.apache.ibatis.executor.resultset.ResultSetWrapper;
+import org.apache.ibatis.type.ByteTypeHandler;
+import org.apache.ibatis.type.DoubleTypeHandler;
+import org.apache.ibatis.type.FloatTypeHandler;
+import org.apache.ibatis.type.IntegerTypeHandler;
+import org.apache.ibatis.type.LongTypeHandler;
+import org.apache.ibatis.type.ShortTypeHandler;
+import org.apache.ibatis.type.StringTypeHandler;
+import org.apache.ibatis.type.TypeHandler;
+
+/**
+ * The rows of a result set stored by column instead of as one object per row.
+ * <p>
+ * A statement whose result type is this class returns a single columnar result holding all its rows.
+ * Numeric columns are read into primitive arrays and string columns are dictionary encoded,
+ * which avoids creating an object per row and per value for wide analytical queries.
+ * Any other column, or a column whose type handler is not a built-in one, is read with its type handler.
+ *
+ * @since 3.5.0
+ */
+public final class ColumnarResult {
+
+  private final List<Column> columns;
+  private final Map<String, Column> columnsByName = new HashMap<>();
+  private final int rowCount;
+
+  private ColumnarResult(List<Column> columns, int rowCount) {
+    this.columns = Collections.unmodifiableList(columns);
+    this.rowCount = rowCount;
+    for (Column column : columns) {
+      final String key = column.getName().toUpperCase(Locale.ENGLISH);
+      if (!columnsByName.containsKey(key)) {
+        columnsByName.put(key, column);
+      }
+    }
+  }
+
+  public int getRowCount() {
+    return rowCount;
+  }
+
+  public int getColumnCount() {
+    return columns.size();
+  }
+
+  public List<String> getColumnNames() {
+    final List<String> columnNames = new ArrayList<>(columns.size());
+    for (Column column : columns) {
+      columnNames.add(column.getName());
+    }
+    return columnNames;
+  }
+
+  public List<Column> getColumns() {
+    return columns;
+  }
+
+  /**
+   * Gets a column by its 0-based position in the result set.
+   */
+  public Column getColumn(int index) {
+    return columns.get(index);
+  }
+
+  /**
+   * Gets a column by name, ignoring case.
+   *
+   * @return the first column with that name, or null if there is none
+   */
+  public Column getColumn(String name) {
+    return columnsByName.get(name.toUpperCase(Locale.ENGLISH));
+  }
+
+  public IntColumn getIntColumn(String name) {
+    return (IntColumn) getColumn(name);
+  }
+
+  public LongColumn getLongColumn(String name) {
+    return (LongColumn) getColumn(name);
+  }
+
+  public DoubleColumn getDoubleColumn(String name) {
+    return (DoubleColumn) getColumn(name);
+  }
+
+  public StringColumn getStringColumn(String name) {
+    return (StringColumn) getColumn(name);
+  }
+
+  public ObjectColumn getObjectColumn(String name) {
+    return (ObjectColumn) getColumn(name);
+  }
+
+  /**
+   * Reads the rows of a result set into a columnar result.
+   */
+  public static class Builder {
+
+    private final ResultSet resultSet;
+    private final List<Column> columns = new ArrayList<>();
+    private int rowCount;
+
+    public Builder(ResultSetWrapper rsw) {
+      this.resultSet = rsw.getResultSet();
+      for (String columnName : rsw.getColumnNames()) {
+        columns.add(newColumn(columnName, rsw.getTypeHandler(Object.class, columnName)));
+      }
+    }
+
+    private static Column newColumn(String columnName, TypeHandler<?> typeHandler) {
+      // subclasses and custom handlers may read the value differently, so only the built-in handlers are replaced
+      final Class<?> handlerType = typeHandler.getClass();
+      if (handlerType == IntegerTypeHandler.class || handlerType == ShortTypeHandler.class
+          || handlerType == ByteTypeHandler.class) {
+        return new IntColumn(columnName);
+      } else if (handlerType == LongTypeHandler.class) {
+        return new LongColumn(columnName);
+      } else if (handlerType == DoubleTypeHandler.class || handlerType == FloatTypeHandler.class) {
+        return new DoubleColumn(columnName);
+      } else if (handlerType == StringTypeHandler.class) {
+        return new StringColumn(columnName);
+      }
+      return new ObjectColumn(columnName, typeHandler);
+    }
+
+    /**
+     * Appends the current row of the result set.
+     */
+    public Builder addRow() throws SQLException {
+      for (int i = 0; i < columns.size(); i++) {
+        columns.get(i).read(resultSet, i + 1);
+      }
+      rowCount++;
+      return this;
+    }
+
+    public int getRowCount() {
+      return rowCount;
+    }
+
+    public ColumnarResult build() {
+      return new ColumnarResult(columns, rowCount);
+    }
+  }
+
+}
@@ -0,0 +1,66 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.columnar;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+/**
+ * A column of double values, read with {@link ResultSet#getDouble(int)}.
+ *
+ * @since 3.5.0
+ */
+public final class DoubleColumn extends Column {
+
+  private double[] values = new double[INITIAL_CAPACITY];
+
+  DoubleColumn(String name) {
+    super(name);
+  }
+
+  /**
+   * Gets the value of a row.
+   *
+   * @return the value, or 0 if the column was SQL NULL in that row
+   */
+  public double getDouble(int row) {
+    checkRow(row);
+    return values[row];
+  }
+
+  @Override
+  public Object getValue(int row) {
+    return isNull(row) ? null : Double.valueOf(values[row]);
+  }
+
+  /**
+   * Gets a copy of the values of all rows, with 0 for SQL NULL.
+   */
+  public double[] toArray() {
+    return Arrays.copyOf(values, size);
+  }
+
+  @Override
+  void read(ResultSet rs, int columnIndex) throws SQLException {
+    if (size == values.length) {
+      values = Arrays.copyOf(values, newCapacity(size));
+    }
+    values[size] = rs.getDouble(columnIndex);
+    nextRow(rs.wasNull());
+  }
+
+}
@@ -0,0 +1,63 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.columnar;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+import org.apache.ibatis.type.TypeHandler;
+
+/**
+ * A column of objects, read with the type handler of the column. Used for the types that have no primitive
+ * or dictionary encoded column, and for columns with a custom type handler.
+ *
+ * @since 3.5.0
+ */
+public final class ObjectColumn extends Column {
+
+  private final TypeHandler<?> typeHandler;
+  private Object[] values = new Object[INITIAL_CAPACITY];
+
+  ObjectColumn(String name, TypeHandler<?> typeHandler) {
+    super(name);
+    this.typeHandler = typeHandler;
+  }
+
+  @Override
+  public Object getValue(int row) {
+    checkRow(row);
+    return values[row];
+  }
+
+  /**
+   * Gets a copy of the values of all rows.
+   */
+  public Object[] toArray() {
+    return Arrays.copyOf(values, size);
+  }
+
+  @Override
+  void read(ResultSet rs, int columnIndex) throws SQLException {
+    if (size == values.length) {
+      values = Arrays.copyOf(values, newCapacity(size));
+    }
+    final Object value = typeHandler.getResult(rs, columnIndex);
+    values[size] = value;
+    nextRow(value == null);
+  }
+
+}
@@ -0,0 +1,103 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.columnar;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A dictionary encoded column of strings. Each row holds the code of its value in the dictionary,
+ * so repeated values are stored once.
+ *
+ * @since 3.5.0
+ */
+public final class StringColumn extends Column {
+
+  /**
+   * The code of SQL NULL.
+   */
+  public static final int NULL_CODE = -1;
+
+  private int[] codes = new int[INITIAL_CAPACITY];
+  private final List<String> dictionary = new ArrayList<>();
+  private final Map<String, Integer> codesByValue = new HashMap<>();
+
+  StringColumn(String name) {
+    super(name);
+  }
+
+  public String getString(int row) {
+    checkRow(row);
+    final int code = codes[row];
+    return code == NULL_CODE ? null : dictionary.get(code);
+  }
+
+  @Override
+  public Object getValue(int row) {
+    return getString(row);
+  }
+
+  /**
+   * Gets the code of the value of a row.
+   *
+   * @return the index of the value in {@link #getDictionary()}, or {@link #NULL_CODE}
+   */
+  public int getCode(int row) {
+    checkRow(row);
+    return codes[row];
+  }
+
+  /**
+   * Gets a copy of the codes of all rows.
+   */
+  public int[] getCodes() {
+    return Arrays.copyOf(codes, size);
+  }
+
+  /**
+   * Gets the distinct values of this column, in the order they were first read.
+   */
+  public List<String> getDictionary() {
+    return Collections.unmodifiableList(dictionary);
+  }
+
+  @Override
+  void read(ResultSet rs, int columnIndex) throws SQLException {
+    if (size == codes.length) {
+      codes = Arrays.copyOf(codes, newCapacity(size));
+    }
+    final String value = rs.getString(columnIndex);
+    if (value == null) {
+      codes[size] = NULL_CODE;
+    } else {
+      Integer code = codesByValue.get(value);
+      if (code == null) {
+        code = dictionary.size();
+        dictionary.add(value);
+        codesByValue.put(value, code);
+      }
+      codes[size] = code;
+    }
+    nextRow(value == null);
+  }
+
+}
@@ -16,6 +16,10 @@
 package org.apache.ibatis.cursor;
 
 import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Cursor contract to handle fetching items lazily using an Iterator.
@@ -42,4 +46,30 @@ public interface Cursor<T> extends Closeable, Iterable<T> {
      * @return -1 if the first cursor item has not been retrieved. The index of the current item retrieved.
      */
     int getCurrentIndex();
+
+    /**
+     * Returns a sequential stream over the cursor items. Closing the stream closes the cursor.
+     * @return a sequential stream
+     * @since 3.5.0
+     */
+    default Stream<T> stream() {
+        return StreamSupport.stream(spliterator(), false).onClose(() -> {
+            try {
+                close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Returns a parallel stream over the cursor items. Rows are still read sequentially from the database, in growing
+     * batches, but when the result map has no nested result maps nor nested selects they are mapped to objects
+     * concurrently by the stream worker threads. Closing the stream closes the cursor.
+     * @return a parallel stream
+     * @since 3.5.0
+     */
+    default Stream<T> parallelStream() {
+        return stream().parallel();
+    }
 }
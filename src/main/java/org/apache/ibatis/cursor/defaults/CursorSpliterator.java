@@ -0,0 +1,120 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cursor.defaults;
+
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+/**
+ * A spliterator over a cursor, splitting in growing batches.
+ * <p>
+ * Advancing goes through the iterator of the cursor. Each split reads the next batch from the cursor on the thread
+ * that splits, growing by {@code batchUnit} up to {@code maxBatch}, so that parallel streams process the batches on
+ * their worker threads while the cursor goes on reading. By default a batch holds objects taken from the iterator;
+ * a cursor may read its batches otherwise, for example as rows that are mapped when the batch is processed.
+ * </p>
+ *
+ * @since 3.5.0
+ */
+class CursorSpliterator<T> implements Spliterator<T> {
+
+    static final int BATCH_UNIT = 128;
+    static final int MAX_BATCH = 4096;
+
+    /**
+     * Reads the next batch of a cursor.
+     */
+    interface BatchReader<T> {
+
+        /**
+         * @param maxSize the maximum number of objects of the batch
+         * @return the next batch, or null if the cursor has no more objects
+         */
+        Spliterator<T> read(int maxSize);
+    }
+
+    private final Iterator<T> iterator;
+    private final BatchReader<T> batchReader;
+    private final int batchUnit;
+    private final int maxBatch;
+    private int batchSize;
+
+    CursorSpliterator(Iterator<T> iterator) {
+        this(iterator, BATCH_UNIT, MAX_BATCH);
+    }
+
+    CursorSpliterator(Iterator<T> iterator, int batchUnit, int maxBatch) {
+        this(iterator, null, batchUnit, maxBatch);
+    }
+
+    /**
+     * @param batchReader reads the batches of the splits, null to take them from the iterator
+     */
+    CursorSpliterator(Iterator<T> iterator, BatchReader<T> batchReader, int batchUnit, int maxBatch) {
+        this.iterator = iterator;
+        this.batchReader = batchReader != null ? batchReader : this::readFromIterator;
+        this.batchUnit = batchUnit;
+        this.maxBatch = maxBatch;
+        this.batchSize = batchUnit;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        if (!iterator.hasNext()) {
+            return false;
+        }
+        action.accept(iterator.next());
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super T> action) {
+        iterator.forEachRemaining(action);
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+        Spliterator<T> batch = batchReader.read(batchSize);
+        if (batch != null) {
+            batchSize = Math.min(batchSize + batchUnit, maxBatch);
+        }
+        return batch;
+    }
+
+    private Spliterator<T> readFromIterator(int maxSize) {
+        if (!iterator.hasNext()) {
+            return null;
+        }
+        Object[] batch = new Object[maxSize];
+        int size = 0;
+        do {
+            batch[size++] = iterator.next();
+        } while (size < batch.length && iterator.hasNext());
+        return Spliterators.spliterator(batch, 0, size, ORDERED);
+    }
+
+    @Override
+    public long estimateSize() {
+        return Long.MAX_VALUE;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED;
+    }
+}
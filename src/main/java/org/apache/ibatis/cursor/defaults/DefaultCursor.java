@@ -17,17 +17,21 @@ package org.apache.ibatis.cursor.defaults;
 
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.executor.resultset.DefaultResultSetHandler;
+import org.apache.ibatis.executor.resultset.DetachedRows;
 import org.apache.ibatis.executor.resultset.ResultSetWrapper;
 import org.apache.ibatis.mapping.ResultMap;
 import org.apache.ibatis.session.ResultContext;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.Seek;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
 
 /**
  * This is the default implementation of a MyBatis Cursor.
@@ -49,6 +53,7 @@ public class DefaultCursor<T> implements Cursor<T> {
 
     private CursorStatus status = CursorStatus.CREATED;
     private int indexWithRowBound = -1;
+    private T lastObject;
 
     private enum CursorStatus {
 
@@ -101,12 +106,29 @@ public class DefaultCursor<T> implements Cursor<T> {
         return cursorIterator;
     }
 
+    /**
+     * Rows are read sequentially from the ResultSet. When the result map allows it, each split copies a growing batch
+     * of rows out of the ResultSet, and the batch is mapped by the thread that processes it, so that parallel streams
+     * map the rows on their worker threads. Otherwise, and for a {@link Seek} which needs the last object of the page,
+     * each split hands a batch of objects mapped by the cursor.
+     */
+    @Override
+    public Spliterator<T> spliterator() {
+        Iterator<T> iterator = iterator();
+        if (rowBounds instanceof Seek || !resultSetHandler.supportsDetachedMapping(resultMap)) {
+            return new CursorSpliterator<>(iterator);
+        }
+        return new CursorSpliterator<>(iterator, this::fetchNextRowsUsingRowBound,
+            CursorSpliterator.BATCH_UNIT, CursorSpliterator.MAX_BATCH);
+    }
+
     @Override
     public void close() {
         if (isClosed()) {
             return;
         }
 
+        resultSetHandler.recordFetchedRows();
         ResultSet rs = rsw.getResultSet();
         try {
             if (rs != null) {
@@ -146,17 +168,51 @@ public class DefaultCursor<T> implements Cursor<T> {
         T next = objectWrapperResultHandler.result;
         if (next != null) {
             indexWithRowBound++;
+            lastObject = next;
         }
         // No more object or limit reached
         if (next == null || getReadItemsCount() == rowBounds.getOffset() + rowBounds.getLimit()) {
             close();
             status = CursorStatus.CONSUMED;
+            resultSetHandler.completeSeek(Math.max(0, getReadItemsCount() - rowBounds.getOffset()), lastObject);
+            lastObject = null;
         }
         objectWrapperResultHandler.result = null;
 
         return next;
     }
 
+    /**
+     * @return the next rows, to be mapped by the thread processing them, or null if there are no more rows
+     */
+    protected Spliterator<T> fetchNextRowsUsingRowBound(int batchSize) {
+        if (isClosed()) {
+            return null;
+        }
+
+        final DetachedRows rows;
+        try {
+            status = CursorStatus.OPEN;
+            ResultSet rs = rsw.getResultSet();
+            while (indexWithRowBound + 1 < rowBounds.getOffset() && rs.next()) {
+                indexWithRowBound++;
+            }
+            // 偏移量加上不限制的行数会溢出int
+            long remaining = (long) rowBounds.getOffset() + rowBounds.getLimit() - getReadItemsCount();
+            int maxRows = (int) Math.max(0, Math.min(batchSize, remaining));
+            rows = resultSetHandler.copyRows(rsw, resultMap, maxRows);
+            indexWithRowBound += rows.size();
+            // No more rows or limit reached
+            if (rows.size() < maxRows || rows.size() == remaining) {
+                close();
+                status = CursorStatus.CONSUMED;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+        return rows.size() == 0 ? null : new DetachedRowsSpliterator(rows);
+    }
+
     private boolean isClosed() {
         return status == CursorStatus.CLOSED || status == CursorStatus.CONSUMED;
     }
@@ -176,6 +232,55 @@ public class DefaultCursor<T> implements Cursor<T> {
         }
     }
 
+    /**
+     * Maps its batch of rows on the thread that consumes it.
+     */
+    private class DetachedRowsSpliterator implements Spliterator<T> {
+
+        private final DetachedRows rows;
+        private Spliterator<T> mapped;
+
+        DetachedRowsSpliterator(DetachedRows rows) {
+            this.rows = rows;
+        }
+
+        private Spliterator<T> mapped() {
+            if (mapped == null) {
+                try {
+                    mapped = resultSetHandler.<T>handleDetachedRows(rsw, resultMap, rows).spliterator();
+                } catch (SQLException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+            return mapped;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            return mapped().tryAdvance(action);
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            mapped().forEachRemaining(action);
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            return null;
+        }
+
+        @Override
+        public long estimateSize() {
+            return mapped == null ? rows.size() : mapped.estimateSize();
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED;
+        }
+    }
+
     private class CursorIterator implements Iterator<T> {
 
         /**
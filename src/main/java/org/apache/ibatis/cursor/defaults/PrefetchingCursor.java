@@ -0,0 +1,256 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cursor.defaults;
+
+import org.apache.ibatis.cursor.Cursor;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A Cursor that reads ahead of its consumer.
+ * <p>
+ * A dedicated thread drives the underlying cursor, i.e. the ResultSet and the row mapping, and hands the mapped
+ * objects over through a bounded buffer, so that network fetch and row mapping overlap with the consumer's own
+ * processing. Exceptions raised while fetching are rethrown to the consumer, in order, after the objects fetched
+ * before them. Closing the cursor stops the reading thread before the underlying cursor is closed, and ends the
+ * iteration of a consumer waiting for the next object on another thread.
+ * </p>
+ * The underlying cursor must not run nested selects, as these would use the session from the reading thread.
+ * For the same reason, as most drivers do not support concurrent use of a connection, the session refuses to run
+ * other statements, commit or roll back while the reading thread is active, i.e. until the cursor is consumed or closed.
+ *
+ * @since 3.5.0
+ */
+public class PrefetchingCursor<T> implements Cursor<T> {
+
+    private static final Object END = new Object();
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private final Cursor<T> delegate;
+    private final BlockingQueue<Object> buffer;
+    private final int initialIndex;
+
+    private final CursorIterator cursorIterator = new CursorIterator();
+    private boolean iteratorRetrieved;
+
+    private Thread reader;
+    private volatile boolean reading;
+    private volatile boolean closed;
+    private boolean consumed;
+
+    public PrefetchingCursor(Cursor<T> delegate, int bufferSize) {
+        this.delegate = delegate;
+        this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        this.initialIndex = delegate.getCurrentIndex();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return reader != null && !closed && !consumed;
+    }
+
+    @Override
+    public boolean isConsumed() {
+        return consumed;
+    }
+
+    @Override
+    public int getCurrentIndex() {
+        return initialIndex + cursorIterator.iteratorIndex + 1;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        if (iteratorRetrieved) {
+            throw new IllegalStateException("Cannot open more than one iterator on a Cursor");
+        }
+        iteratorRetrieved = true;
+        return cursorIterator;
+    }
+
+    /**
+     * @return true while the reading thread is active and may use the ResultSet, and so the connection, of the cursor
+     */
+    public boolean isReading() {
+        return reading;
+    }
+
+    /**
+     * @return true once the cursor has been closed, whether it was consumed or not
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (reader != null) {
+            // unblock the reading thread and wait for it to leave the ResultSet
+            buffer.clear();
+            boolean interrupted = false;
+            while (reader.isAlive()) {
+                try {
+                    reader.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            buffer.clear();
+            // wake up a consumer blocked on the buffer by another thread
+            buffer.offer(END);
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        try {
+            delegate.close();
+        } catch (Exception e) {
+            // ignore
+        }
+    }
+
+    private void startReader() {
+        reader = new Thread(this::read, "mybatis-cursor-prefetch-" + THREAD_COUNTER.incrementAndGet());
+        reader.setDaemon(true);
+        reading = true;
+        reader.start();
+    }
+
+    private void read() {
+        Object last = END;
+        try {
+            for (T object : delegate) {
+                if (!hand(object)) {
+                    return;
+                }
+            }
+        } catch (Throwable t) {
+            last = new Failure(t);
+        } finally {
+            reading = false;
+        }
+        hand(last);
+    }
+
+    /**
+     * @return false if the cursor has been closed while waiting for room in the buffer
+     */
+    private boolean hand(Object object) {
+        try {
+            while (!closed) {
+                if (buffer.offer(object, 100, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T fetchNextObject() {
+        if (closed || consumed) {
+            return null;
+        }
+        if (reader == null) {
+            startReader();
+        }
+        Object next;
+        try {
+            next = buffer.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the next cursor item", e);
+        }
+        if (next == END) {
+            if (!closed) {
+                consumed = true;
+            }
+            return null;
+        }
+        if (next instanceof Failure) {
+            consumed = true;
+            Throwable cause = ((Failure) next).cause;
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new RuntimeException(cause);
+        }
+        return (T) next;
+    }
+
+    private static class Failure {
+        private final Throwable cause;
+
+        Failure(Throwable cause) {
+            this.cause = cause;
+        }
+    }
+
+    private class CursorIterator implements Iterator<T> {
+
+        /**
+         * Holder for the next object to be returned
+         */
+        T object;
+
+        /**
+         * Index of objects returned using next(), and as such, visible to users.
+         */
+        int iteratorIndex = -1;
+
+        @Override
+        public boolean hasNext() {
+            if (object == null) {
+                object = fetchNextObject();
+            }
+            return object != null;
+        }
+
+        @Override
+        public T next() {
+            T next = object;
+
+            if (next == null) {
+                next = fetchNextObject();
+            }
+
+            if (next != null) {
+                object = null;
+                iteratorIndex++;
+                return next;
+            }
+            throw new NoSuchElementException();
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("Cannot remove element from Cursor");
+        }
+    }
+}
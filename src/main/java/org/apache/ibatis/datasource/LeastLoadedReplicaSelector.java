@@ -0,0 +1,63 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+/**
+ * Chooses the replica with the fewest sessions currently holding one of its connections,
+ * the first one listed on ties.
+ *
+ * @since 3.5.0
+ */
+public class LeastLoadedReplicaSelector implements ReplicaSelector {
+
+  private final Map<DataSource, AtomicInteger> activeConnections = new ConcurrentHashMap<>();
+
+  @Override
+  public DataSource select(List<DataSource> replicas) {
+    DataSource selected = null;
+    AtomicInteger selectedCount = null;
+    for (DataSource replica : replicas) {
+      AtomicInteger count = activeConnections.computeIfAbsent(replica, k -> new AtomicInteger());
+      if (selectedCount == null || count.get() < selectedCount.get()) {
+        selected = replica;
+        selectedCount = count;
+      }
+    }
+    selectedCount.incrementAndGet();
+    return selected;
+  }
+
+  @Override
+  public void release(DataSource replica) {
+    AtomicInteger count = activeConnections.get(replica);
+    if (count != null) {
+      count.decrementAndGet();
+    }
+  }
+
+  public int getActiveConnections(DataSource replica) {
+    AtomicInteger count = activeConnections.get(replica);
+    return count == null ? 0 : count.get();
+  }
+
+}
@@ -0,0 +1,38 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+/**
+ * Chooses the replicas in turn.
+ *
+ * @since 3.5.0
+ */
+public class RoundRobinReplicaSelector implements ReplicaSelector {
+
+  private final AtomicInteger counter = new AtomicInteger();
+
+  @Override
+  public DataSource select(List<DataSource> replicas) {
+    int index = (counter.getAndIncrement() & Integer.MAX_VALUE) % replicas.size();
+    return replicas.get(index);
+  }
+
+}
@@ -18,6 +18,9 @@ package org.apache.ibatis.executor;
 import org.apache.ibatis.cache.CacheKey;
 import org.apache.ibatis.cache.impl.PerpetualCache;
 import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.cursor.defaults.PrefetchingCursor;
+import org.apache.ibatis.executor.pagination.KeysetPagination;
+import org.apache.ibatis.executor.pagination.Pagination;
 import org.apache.ibatis.executor.statement.StatementUtil;
 import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.logging.LogFactory;
@@ -29,15 +32,20 @@ import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.LocalCacheScope;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.Seek;
 import org.apache.ibatis.transaction.Transaction;
 import org.apache.ibatis.type.TypeHandlerRegistry;
 
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
+import javax.sql.DataSource;
+
 import static org.apache.ibatis.executor.ExecutionPlaceholder.EXECUTION_PLACEHOLDER;
 
 /**
@@ -85,6 +93,18 @@ public abstract class BaseExecutor implements Executor {
    */
   private boolean closed;
 
+  /**
+   * 读写分离：从副本读取的连接，以及会话是否已经写过主库（写过之后一直读主库）
+   */
+  private DataSource replicaDataSource;
+  private Connection replicaConnection;
+  private boolean wroteToPrimary;
+
+  /**
+   * 预读游标：后台线程读取结果集时，会话的连接不能同时执行其他语句
+   */
+  private final List<PrefetchingCursor<?>> prefetchingCursors = new ArrayList<>();
+
   protected BaseExecutor(Configuration configuration, Transaction transaction) {
     this.transaction = transaction;
     this.deferredLoads = new ConcurrentLinkedQueue<>();
@@ -105,12 +125,17 @@ public abstract class BaseExecutor implements Executor {
 
   @Override
   public void close(boolean forceRollback) {
+    closePrefetchingCursors();
     try {
       try {
         rollback(forceRollback);
       } finally {
-        if (transaction != null) {
-          transaction.close();
+        try {
+          if (transaction != null) {
+            transaction.close();
+          }
+        } finally {
+          closeReplicaConnection();
         }
       }
     } catch (SQLException e) {
@@ -137,6 +162,7 @@ public abstract class BaseExecutor implements Executor {
       throw new ExecutorException("Executor was closed.");
     }
     clearLocalCache();
+    wroteToPrimary = true;
     return doUpdate(ms, parameter);
   }
 
@@ -149,14 +175,18 @@ public abstract class BaseExecutor implements Executor {
     if (closed) {
       throw new ExecutorException("Executor was closed.");
     }
+    checkNoPrefetchingCursorReading();
     return doFlushStatements(isRollBack);
   }
 
   @Override
   public <E> List<E> query(MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler resultHandler) throws SQLException {
+    Pagination.count(this, ms, parameter, rowBounds);
     BoundSql boundSql = ms.getBoundSql(parameter);
     CacheKey key = createCacheKey(ms, parameter, rowBounds, boundSql);
-    return query(ms, parameter, rowBounds, resultHandler, key, boundSql);
+    List<E> list = query(ms, parameter, rowBounds, resultHandler, key, boundSql);
+    KeysetPagination.complete(ms, rowBounds, list);
+    return list;
  }
 
   @SuppressWarnings("unchecked")
@@ -199,8 +229,14 @@ public abstract class BaseExecutor implements Executor {
 
   @Override
   public <E> Cursor<E> queryCursor(MappedStatement ms, Object parameter, RowBounds rowBounds) throws SQLException {
+    Pagination.count(this, ms, parameter, rowBounds);
     BoundSql boundSql = ms.getBoundSql(parameter);
-    return doQueryCursor(ms, parameter, rowBounds, boundSql);
+    Cursor<E> cursor = doQueryCursor(ms, parameter, rowBounds, boundSql);
+    if (cursor instanceof PrefetchingCursor) {
+      prefetchingCursors.removeIf(c -> c.isConsumed() || c.isClosed());
+      prefetchingCursors.add((PrefetchingCursor<?>) cursor);
+    }
+    return cursor;
   }
 
   @Override
@@ -225,6 +261,13 @@ public abstract class BaseExecutor implements Executor {
     cacheKey.update(ms.getId());
     cacheKey.update(rowBounds.getOffset());
     cacheKey.update(rowBounds.getLimit());
+    if (rowBounds instanceof Seek) {
+      // 按键值分页时，页的内容取决于起始的键值
+      Seek seek = (Seek) rowBounds;
+      cacheKey.update(seek.isDescending());
+      cacheKey.update(seek.getColumns() == null ? null : Arrays.asList(seek.getColumns()));
+      cacheKey.update(seek.getAfter() == null ? null : Arrays.asList(seek.getAfter()));
+    }
     cacheKey.update(boundSql.getSql());
     List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
     TypeHandlerRegistry typeHandlerRegistry = ms.getConfiguration().getTypeHandlerRegistry();
@@ -265,6 +308,7 @@ public abstract class BaseExecutor implements Executor {
     if (closed) {
       throw new ExecutorException("Cannot commit, transaction is already closed");
     }
+    checkNoPrefetchingCursorReading();
     //清除掉一级缓存信息
     clearLocalCache();
 
@@ -283,6 +327,7 @@ public abstract class BaseExecutor implements Executor {
   @Override
   public void rollback(boolean required) throws SQLException {
     if (!closed) {
+      checkNoPrefetchingCursorReading();
       try {
         //清除掉一级缓存信息
         clearLocalCache();
@@ -339,6 +384,7 @@ public abstract class BaseExecutor implements Executor {
    */
   protected void closeStatement(Statement statement) {
     if (statement != null) {
+      StatementUtil.releaseDeadline(statement, QueryDeadline.current());
       try {
         if (!statement.isClosed()) {
           statement.close();
@@ -356,9 +402,12 @@ public abstract class BaseExecutor implements Executor {
    * @throws SQLException if a database access error occurs, this method is called on a closed <code>Statement</code>
    * @since 3.4.0
    * @see StatementUtil#applyTransactionTimeout(Statement, Integer, Integer)
+   * @see StatementUtil#applyDeadline(Statement, QueryDeadline)
    */
   protected void applyTransactionTimeout(Statement statement) throws SQLException {
     StatementUtil.applyTransactionTimeout(statement, statement.getQueryTimeout(), transaction.getTimeout());
+    // 复用的Statement以及批量flush同样受请求级别deadline的约束
+    StatementUtil.applyDeadline(statement, QueryDeadline.current());
   }
 
   private void handleLocallyCachedOutputParameters(MappedStatement ms, CacheKey key, Object parameter, BoundSql boundSql) {
@@ -406,6 +455,7 @@ public abstract class BaseExecutor implements Executor {
   }
 
   protected Connection getConnection(Log statementLog) throws SQLException {
+    checkNoPrefetchingCursorReading();
     Connection connection = transaction.getConnection();
     if (statementLog.isDebugEnabled()) {
       return ConnectionLogger.newInstance(connection, statementLog, queryStack);
@@ -414,6 +464,87 @@ public abstract class BaseExecutor implements Executor {
     }
   }
 
+  /**
+   * Most drivers do not support concurrent use of a connection, so nothing else may run on the session
+   * while the thread of a prefetching cursor reads its ResultSet.
+   */
+  private void checkNoPrefetchingCursorReading() {
+    for (PrefetchingCursor<?> cursor : prefetchingCursors) {
+      if (cursor.isReading()) {
+        throw new ExecutorException("Cannot use the session while a prefetching cursor is reading from its connection. "
+            + "Consume or close the cursor first.");
+      }
+    }
+  }
+
+  private void closePrefetchingCursors() {
+    for (PrefetchingCursor<?> cursor : prefetchingCursors) {
+      cursor.close();
+    }
+    prefetchingCursors.clear();
+  }
+
+  /**
+   * Returns the connection a statement runs on: a replica connection for the selects allowed to read from
+   * a replica, the connection of the transaction otherwise.
+   */
+  protected Connection getConnection(MappedStatement ms) throws SQLException {
+    if (!isReadFromReplica(ms)) {
+      return getConnection(ms.getStatementLog());
+    }
+    checkNoPrefetchingCursorReading();
+    if (replicaConnection == null) {
+      Environment environment = configuration.getEnvironment();
+      DataSource dataSource = environment.getReplicaSelector().select(environment.getReplicaDataSources());
+      try {
+        replicaConnection = dataSource.getConnection();
+      } catch (SQLException e) {
+        environment.getReplicaSelector().release(dataSource);
+        throw e;
+      }
+      replicaDataSource = dataSource;
+    }
+    if (ms.getStatementLog().isDebugEnabled()) {
+      return ConnectionLogger.newInstance(replicaConnection, ms.getStatementLog(), queryStack);
+    } else {
+      return replicaConnection;
+    }
+  }
+
+  /**
+   * Selects read from a replica when the environment has some and they ask for it. By default only an
+   * autocommit session reads from a replica, and only until it writes to the primary, so that it reads its
+   * own writes: inside an explicit transaction, reads must see the transaction's state and take its locks.
+   */
+  protected boolean isReadFromReplica(MappedStatement ms) {
+    Environment environment = configuration.getEnvironment();
+    if (environment == null || !environment.hasReplicas() || ms.getSqlCommandType() != SqlCommandType.SELECT) {
+      return false;
+    }
+    switch (ms.getReadFrom()) {
+      case PRIMARY:
+        return false;
+      case REPLICA:
+        return true;
+      default:
+        return !wroteToPrimary && transaction.isAutoCommit();
+    }
+  }
+
+  private void closeReplicaConnection() {
+    if (replicaConnection != null) {
+      try {
+        replicaConnection.close();
+      } catch (SQLException e) {
+        log.warn("Unexpected exception on closing replica connection.  Cause: " + e);
+      } finally {
+        configuration.getEnvironment().getReplicaSelector().release(replicaDataSource);
+        replicaConnection = null;
+        replicaDataSource = null;
+      }
+    }
+  }
+
   @Override
   public void setExecutorWrapper(Executor wrapper) {
     this.wrapper = wrapper;
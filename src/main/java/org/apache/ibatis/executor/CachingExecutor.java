@@ -19,6 +19,8 @@ import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.cache.CacheKey;
 import org.apache.ibatis.cache.TransactionalCacheManager;
 import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.executor.pagination.KeysetPagination;
+import org.apache.ibatis.executor.pagination.Pagination;
 import org.apache.ibatis.mapping.*;
 import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.session.ResultHandler;
@@ -81,9 +83,12 @@ public class CachingExecutor implements Executor {
 
   @Override
   public <E> List<E> query(MappedStatement ms, Object parameterObject, RowBounds rowBounds, ResultHandler resultHandler) throws SQLException {
+    Pagination.count(this, ms, parameterObject, rowBounds);
     BoundSql boundSql = ms.getBoundSql(parameterObject);
     CacheKey key = createCacheKey(ms, parameterObject, rowBounds, boundSql);
-    return query(ms, parameterObject, rowBounds, resultHandler, key, boundSql);
+    List<E> list = query(ms, parameterObject, rowBounds, resultHandler, key, boundSql);
+    KeysetPagination.complete(ms, rowBounds, list);
+    return list;
   }
 
   @Override
@@ -0,0 +1,263 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A request-wide time budget shared by every statement executed on the current thread.
+ * <p>
+ * Unlike a static statement timeout, the remaining budget shrinks as nested selects, lazy loads and batch
+ * flushes consume time. Every statement prepared inside the scope gets the remaining time as its query timeout,
+ * is cancelled by a watchdog when the deadline passes, and is not even started once the budget is exhausted.
+ * </p>
+ * <pre>
+ * try (QueryDeadline deadline = QueryDeadline.start(2, TimeUnit.SECONDS)) {
+ *   mapper.selectOrders(customerId);
+ * }
+ * </pre>
+ * Nested scopes never extend the enclosing deadline; closing a scope restores the enclosing one.
+ * A statement stops being watched once it is {@link #release(Statement) released}, which the executors do when
+ * they close it, or once it is found closed.
+ *
+ * @since 3.5.0
+ */
+public final class QueryDeadline implements AutoCloseable {
+
+  private static final ThreadLocal<QueryDeadline> LOCAL = new ThreadLocal<>();
+
+  private static volatile ScheduledThreadPoolExecutor watchdog;
+
+  /**
+   * The enclosing scope, restored on close.
+   */
+  private final QueryDeadline enclosing;
+
+  private final long deadlineNanos;
+
+  /**
+   * Watchdog tasks cancelling the statements prepared in this scope and still open.
+   */
+  private final Map<Statement, Future<?>> cancellations = new IdentityHashMap<>();
+
+  private boolean closed;
+
+  private QueryDeadline(QueryDeadline enclosing, long deadlineNanos) {
+    this.enclosing = enclosing;
+    this.deadlineNanos = deadlineNanos;
+  }
+
+  /**
+   * Opens a deadline scope on the current thread.
+   *
+   * @param timeout the time budget
+   * @param unit the unit of {@code timeout}
+   * @return the new scope, to be closed by the caller
+   */
+  public static QueryDeadline start(long timeout, TimeUnit unit) {
+    QueryDeadline enclosing = LOCAL.get();
+    long deadlineNanos = System.nanoTime() + unit.toNanos(timeout);
+    if (enclosing != null && enclosing.deadlineNanos - deadlineNanos < 0) {
+      deadlineNanos = enclosing.deadlineNanos;
+    }
+    QueryDeadline deadline = new QueryDeadline(enclosing, deadlineNanos);
+    LOCAL.set(deadline);
+    return deadline;
+  }
+
+  /**
+   * @return the deadline bound to the current thread, or {@code null} if none
+   */
+  public static QueryDeadline current() {
+    return LOCAL.get();
+  }
+
+  /**
+   * Binds the deadline of the current thread to a task handed to another thread, so that the statements
+   * the task executes share the caller's budget.
+   *
+   * @param task a task to run on a worker thread
+   * @return a task that runs {@code task} within the caller's deadline, or {@code task} itself if there is none
+   */
+  public static <T> Callable<T> propagate(Callable<T> task) {
+    final QueryDeadline deadline = LOCAL.get();
+    if (deadline == null) {
+      return task;
+    }
+    return () -> {
+      final QueryDeadline previous = LOCAL.get();
+      LOCAL.set(deadline);
+      try {
+        return task.call();
+      } finally {
+        if (previous == null) {
+          LOCAL.remove();
+        } else {
+          LOCAL.set(previous);
+        }
+      }
+    };
+  }
+
+  public long remaining(TimeUnit unit) {
+    return unit.convert(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+  }
+
+  public boolean isExpired() {
+    return deadlineNanos - System.nanoTime() <= 0;
+  }
+
+  /**
+   * Fails fast when the budget is already exhausted.
+   */
+  public void check() {
+    if (isExpired()) {
+      throw new DeadlineExceededException("Query deadline exceeded "
+          + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - deadlineNanos) + " ms ago.");
+    }
+  }
+
+  /**
+   * Shrinks the statement's query timeout to the remaining budget and registers the statement
+   * with the watchdog so it is cancelled as soon as the deadline passes.
+   *
+   * @param statement a prepared statement
+   * @throws SQLException if the query timeout cannot be read or updated
+   */
+  public void apply(Statement statement) throws SQLException {
+    check();
+    long remainingNanos = deadlineNanos - System.nanoTime();
+    // setQueryTimeout is in whole seconds, round up so the watchdog stays the one that fires first
+    int remainingSeconds = (int) Math.min(Integer.MAX_VALUE, (remainingNanos + 999999999L) / 1000000000L);
+    int queryTimeout = statement.getQueryTimeout();
+    if (queryTimeout == 0 || remainingSeconds < queryTimeout) {
+      statement.setQueryTimeout(remainingSeconds);
+    }
+    Future<?> cancellation = watchdog().schedule(() -> {
+      try {
+        statement.cancel();
+      } catch (SQLException e) {
+        // ignore, the statement may already be closed
+      }
+    }, remainingNanos, TimeUnit.NANOSECONDS);
+    synchronized (cancellations) {
+      if (closed) {
+        cancellation.cancel(false);
+        return;
+      }
+      removeClosedStatements();
+      // 复用的Statement再次执行时替换之前的任务
+      Future<?> previous = cancellations.put(statement, cancellation);
+      if (previous != null) {
+        previous.cancel(false);
+      }
+    }
+  }
+
+  /**
+   * Stops watching a statement that completed or is about to be closed, in this scope and the enclosing ones.
+   *
+   * @param statement a statement passed to {@link #apply(Statement)}
+   */
+  public void release(Statement statement) {
+    for (QueryDeadline deadline = this; deadline != null; deadline = deadline.enclosing) {
+      synchronized (deadline.cancellations) {
+        Future<?> cancellation = deadline.cancellations.remove(statement);
+        if (cancellation != null) {
+          cancellation.cancel(false);
+          return;
+        }
+      }
+    }
+  }
+
+  int pendingCancellations() {
+    synchronized (cancellations) {
+      return cancellations.size();
+    }
+  }
+
+  /**
+   * 游标等不经过执行器关闭的Statement,在下一次登记时清理
+   */
+  private void removeClosedStatements() {
+    Iterator<Map.Entry<Statement, Future<?>>> iterator = cancellations.entrySet().iterator();
+    while (iterator.hasNext()) {
+      Map.Entry<Statement, Future<?>> entry = iterator.next();
+      if (entry.getValue().isDone() || isClosed(entry.getKey())) {
+        entry.getValue().cancel(false);
+        iterator.remove();
+      }
+    }
+  }
+
+  private static boolean isClosed(Statement statement) {
+    try {
+      return statement.isClosed();
+    } catch (SQLException e) {
+      return true;
+    }
+  }
+
+  /**
+   * Ends the scope: pending cancellations are dropped and the enclosing deadline, if any, is restored.
+   */
+  @Override
+  public void close() {
+    synchronized (cancellations) {
+      closed = true;
+      for (Future<?> cancellation : cancellations.values()) {
+        cancellation.cancel(false);
+      }
+      cancellations.clear();
+    }
+    if (LOCAL.get() == this) {
+      if (enclosing == null) {
+        LOCAL.remove();
+      } else {
+        LOCAL.set(enclosing);
+      }
+    }
+  }
+
+  private static ScheduledThreadPoolExecutor watchdog() {
+    ScheduledThreadPoolExecutor executor = watchdog;
+    if (executor == null) {
+      synchronized (QueryDeadline.class) {
+        executor = watchdog;
+        if (executor == null) {
+          executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "mybatis-query-deadline-watchdog");
+            thread.setDaemon(true);
+            return thread;
+          });
+          executor.setRemoveOnCancelPolicy(true);
+          watchdog = executor;
+        }
+      }
+    }
+    return executor;
+  }
+
+}
@@ -17,7 +17,6 @@ package org.apache.ibatis.executor;
 
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.executor.statement.StatementHandler;
-import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.session.Configuration;
@@ -47,6 +46,11 @@ public class ReuseExecutor extends BaseExecutor {
    */
   private final Map<String, Statement> statementMap = new HashMap<>();
 
+  /**
+   * 从副本读取的查询语句使用副本的连接，单独缓存
+   */
+  private final Map<String, Statement> replicaStatementMap = new HashMap<>();
+
   public ReuseExecutor(Configuration configuration, Transaction transaction) {
     super(configuration, transaction);
   }
@@ -59,7 +63,7 @@ public class ReuseExecutor extends BaseExecutor {
     StatementHandler handler = configuration.newStatementHandler(this, ms, parameter, RowBounds.DEFAULT, null, null);
 
     //从缓存中获取或者从新创建一个新的StateMent
-    Statement stmt = prepareStatement(handler, ms.getStatementLog());
+    Statement stmt = prepareStatement(handler, ms);
     return handler.update(stmt);
   }
 
@@ -69,7 +73,7 @@ public class ReuseExecutor extends BaseExecutor {
     StatementHandler handler = configuration.newStatementHandler(wrapper, ms, parameter, rowBounds, resultHandler, boundSql);
 
     //从缓存中获取或者从新创建一个新的StateMent
-    Statement stmt = prepareStatement(handler, ms.getStatementLog());
+    Statement stmt = prepareStatement(handler, ms);
     return handler.<E>query(stmt, resultHandler);
   }
 
@@ -79,7 +83,7 @@ public class ReuseExecutor extends BaseExecutor {
     StatementHandler handler = configuration.newStatementHandler(wrapper, ms, parameter, rowBounds, null, boundSql);
 
     //从缓存中获取或者从新创建一个新的StateMent
-    Statement stmt = prepareStatement(handler, ms.getStatementLog());
+    Statement stmt = prepareStatement(handler, ms);
     return handler.<E>queryCursor(stmt);
   }
 
@@ -98,6 +102,10 @@ public class ReuseExecutor extends BaseExecutor {
       closeStatement(stmt);
     }
     statementMap.clear();
+    for (Statement stmt : replicaStatementMap.values()) {
+      closeStatement(stmt);
+    }
+    replicaStatementMap.clear();
     return Collections.emptyList();
   }
 
@@ -106,29 +114,30 @@ public class ReuseExecutor extends BaseExecutor {
    * ，不关闭Statement对象，而是放置于Map<String, Statement>内，供下一次使用。（可以是Statement或PrepareStatement对象）
    * 获取StateMent，如果存在就不在重新
    * @param handler
-   * @param statementLog
+   * @param ms
    * @return
    * @throws SQLException
    */
-  private Statement prepareStatement(StatementHandler handler, Log statementLog) throws SQLException {
+  private Statement prepareStatement(StatementHandler handler, MappedStatement ms) throws SQLException {
     Statement stmt;
     BoundSql boundSql = handler.getBoundSql();
+    Map<String, Statement> statements = isReadFromReplica(ms) ? replicaStatementMap : statementMap;
 
     //sql是key，不同的sql，将产生不同的Statement
     String sql = boundSql.getSql();
-    if (hasStatementFor(sql)) {
+    if (hasStatementFor(statements, sql)) {
 
       //当前存在哦~
-      stmt = getStatement(sql);
+      stmt = getStatement(statements, sql);
 
       //从获取中处理一个事务超时
       applyTransactionTimeout(stmt);
     } else {
-      Connection connection = getConnection(statementLog);
+      Connection connection = getConnection(ms);
 
       //如果不存在，根据StatementHandler，创建一个新的StateMent
       stmt = handler.prepare(connection, transaction.getTimeout());
-      putStatement(sql, stmt);
+      putStatement(statements, sql, stmt);
     }
     handler.parameterize(stmt);
     return stmt;
@@ -136,12 +145,13 @@ public class ReuseExecutor extends BaseExecutor {
 
   /**
    * 查看当前缓存中是否存在 StateMent
+   * @param statements
    * @param sql
    * @return
    */
-  private boolean hasStatementFor(String sql) {
+  private boolean hasStatementFor(Map<String, Statement> statements, String sql) {
     try {
-      return statementMap.keySet().contains(sql) && !statementMap.get(sql).getConnection().isClosed();
+      return statements.keySet().contains(sql) && !statements.get(sql).getConnection().isClosed();
     } catch (SQLException e) {
       return false;
     }
@@ -149,20 +159,22 @@ public class ReuseExecutor extends BaseExecutor {
 
   /**
    * 获取StateMent对象信息
+   * @param statements
    * @param s
    * @return
    */
-  private Statement getStatement(String s) {
-    return statementMap.get(s);
+  private Statement getStatement(Map<String, Statement> statements, String s) {
+    return statements.get(s);
   }
 
   /**
    * 缓存StateMent对象信息
+   * @param statements
    * @param sql
    * @param stmt
    */
-  private void putStatement(String sql, Statement stmt) {
-    statementMap.put(sql, stmt);
+  private void putStatement(Map<String, Statement> statements, String sql, Statement stmt) {
+    statements.put(sql, stmt);
   }
 
 }
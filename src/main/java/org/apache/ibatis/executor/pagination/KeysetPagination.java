@@ -0,0 +1,238 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.pagination;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.ResultFlag;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.mapping.StatementType;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.Seek;
+
+/**
+ * Applies {@link Seek} row bounds: the query is wrapped to keep the rows after the last values of the sort
+ * columns, in their order, and limited with the {@link PaginationDialect} when one is configured.
+ * A trailing ORDER BY of the query is removed, the wrapper sorting the rows by the seek columns.
+ *
+ * @since 3.5.0
+ */
+public final class KeysetPagination {
+
+  private static final String SEEK_PARAMETER_PREFIX = "__seek_";
+  private static final Pattern COLUMN_PATTERN = Pattern.compile("[A-Za-z_][A-Za-z0-9_$]*");
+
+  private KeysetPagination() {
+    // Prevent Instantiation of Static Class
+  }
+
+  /**
+   * Tells whether the limit of a seek is applied by the database. Otherwise the rows are limited on the client,
+   * which is what nested result maps need since their limit counts objects.
+   */
+  public static boolean isLimitedInSql(MappedStatement ms) {
+    return ms.getConfiguration().getPaginationDialect() != null
+        && !ms.hasNestedResultMaps()
+        && ms.getResultSets() == null;
+  }
+
+  public static BoundSql getSeekBoundSql(MappedStatement ms, BoundSql boundSql, Seek seek) {
+    if (ms.getSqlCommandType() != SqlCommandType.SELECT || ms.getStatementType() != StatementType.PREPARED) {
+      throw new ExecutorException("Keyset pagination requires a prepared select, but statement '" + ms.getId() + "' is not.");
+    }
+    final Configuration configuration = ms.getConfiguration();
+    final String[] columns = getSeekColumns(ms, seek);
+    final Object[] after = seek.getAfter();
+    final List<Object> seekParameters = new ArrayList<>();
+    final StringBuilder sql = new StringBuilder(boundSql.getSql().length() + 64 * columns.length);
+    sql.append("select * from (").append(removeOrderBy(ms, boundSql.getSql())).append(") seek_");
+    if (after != null) {
+      if (after.length != columns.length) {
+        throw new ExecutorException("Keyset pagination of statement '" + ms.getId() + "' got " + after.length
+            + " values for " + columns.length + " sort columns.");
+      }
+      // (c1 > ?) or (c1 = ? and c2 > ?) ... rather than a row value comparison, which not every database supports
+      final String operator = seek.isDescending() ? " < ?" : " > ?";
+      sql.append(" where ");
+      for (int i = 0; i < columns.length; i++) {
+        if (i > 0) {
+          sql.append(" or ");
+        }
+        sql.append('(');
+        for (int j = 0; j < i; j++) {
+          sql.append(columns[j]).append(" = ? and ");
+          seekParameters.add(after[j]);
+        }
+        sql.append(columns[i]).append(operator).append(')');
+        seekParameters.add(after[i]);
+      }
+    }
+    sql.append(" order by ");
+    for (int i = 0; i < columns.length; i++) {
+      if (i > 0) {
+        sql.append(", ");
+      }
+      sql.append(columns[i]);
+      if (seek.isDescending()) {
+        sql.append(" desc");
+      }
+    }
+    String seekSql = sql.toString();
+    if (isLimitedInSql(ms) && seek.getLimit() != RowBounds.NO_ROW_LIMIT) {
+      seekSql = configuration.getPaginationDialect().getPageSql(seekSql, RowBounds.NO_ROW_OFFSET, seek.getLimit(), seekParameters);
+    }
+
+    final List<ParameterMapping> parameterMappings = new ArrayList<>(boundSql.getParameterMappings());
+    final BoundSql seekBoundSql = new BoundSql(configuration, seekSql, parameterMappings, boundSql.getParameterObject());
+    seekBoundSql.getAdditionalParameters().putAll(boundSql.getAdditionalParameters());
+    for (int i = 0; i < seekParameters.size(); i++) {
+      final Object value = seekParameters.get(i);
+      if (value == null) {
+        throw new ExecutorException("Keyset pagination of statement '" + ms.getId() + "' cannot seek after a null value.");
+      }
+      final Class<?> javaType = configuration.getTypeHandlerRegistry().hasTypeHandler(value.getClass()) ? value.getClass() : Object.class;
+      final String name = SEEK_PARAMETER_PREFIX + i;
+      parameterMappings.add(new ParameterMapping.Builder(configuration, name, javaType).build());
+      seekBoundSql.setAdditionalParameter(name, value);
+    }
+    return seekBoundSql;
+  }
+
+  /**
+   * Stores the bounds of the next page in the seek, from the last object of a full page.
+   */
+  public static void complete(MappedStatement ms, RowBounds rowBounds, List<?> results) {
+    complete(ms, rowBounds, results.size(), results.isEmpty() ? null : results.get(results.size() - 1));
+  }
+
+  /**
+   * Stores the bounds of the next page in the seek, from the number of objects of the page and the last one,
+   * as a cursor over the page reports them once it is consumed.
+   */
+  public static void complete(MappedStatement ms, RowBounds rowBounds, int resultCount, Object last) {
+    if (!(rowBounds instanceof Seek)) {
+      return;
+    }
+    final Seek seek = (Seek) rowBounds;
+    if (resultCount == 0 || resultCount < seek.getLimit()) {
+      seek.setNext(null);
+      return;
+    }
+    final String[] columns = getSeekColumns(ms, seek);
+    final Object[] values = new Object[columns.length];
+    for (int i = 0; i < columns.length; i++) {
+      values[i] = getColumnValue(ms, last, columns[i]);
+    }
+    seek.setNext(new Seek(columns, values, seek.getLimit(), seek.isDescending()));
+  }
+
+  /**
+   * Removes the ORDER BY clause ending the query, found outside of parentheses and quotes. The query is rejected
+   * when a LIMIT, OFFSET, FETCH or FOR clause follows it, as the order would then select the rows.
+   */
+  static String removeOrderBy(MappedStatement ms, String sql) {
+    final int orderBy = Pagination.indexOfTrailingOrderBy(sql);
+    if (orderBy == Pagination.LIMITED_ORDER_BY) {
+      throw new ExecutorException("Keyset pagination of statement '" + ms.getId() + "' cannot wrap a query limited after its "
+          + "ORDER BY clause. Remove the ORDER BY and the limit, the seek columns give the order of the pages.");
+    }
+    return orderBy == -1 ? sql : sql.substring(0, orderBy).trim();
+  }
+
+  private static String[] getSeekColumns(MappedStatement ms, Seek seek) {
+    if (seek.getColumns() != null) {
+      for (String column : seek.getColumns()) {
+        validateColumn(ms, column);
+      }
+      return seek.getColumns();
+    }
+    final List<String> columns = new ArrayList<>();
+    if (!ms.getResultMaps().isEmpty()) {
+      for (ResultMapping resultMapping : ms.getResultMaps().get(0).getResultMappings()) {
+        if (resultMapping.getFlags().contains(ResultFlag.ID) && resultMapping.getColumn() != null
+            && resultMapping.getNestedResultMapId() == null && resultMapping.getNestedQueryId() == null) {
+          columns.add(resultMapping.getColumn());
+        }
+      }
+    }
+    if (columns.isEmpty()) {
+      throw new ExecutorException("Keyset pagination of statement '" + ms.getId()
+          + "' needs sort columns, or id mappings in its result map.");
+    }
+    return columns.toArray(new String[columns.size()]);
+  }
+
+  /**
+   * The sort columns are written into the query, they must be columns of the result map or plain identifiers.
+   */
+  private static void validateColumn(MappedStatement ms, String column) {
+    if (column != null && COLUMN_PATTERN.matcher(column).matches()) {
+      return;
+    }
+    for (ResultMap resultMap : ms.getResultMaps()) {
+      for (ResultMapping resultMapping : resultMap.getResultMappings()) {
+        if (column != null && column.equalsIgnoreCase(resultMapping.getColumn())) {
+          return;
+        }
+      }
+    }
+    throw new ExecutorException("Keyset pagination of statement '" + ms.getId() + "' got the sort column '" + column
+        + "', which is neither a column of its result map nor an identifier.");
+  }
+
+  private static Object getColumnValue(MappedStatement ms, Object row, String column) {
+    if (row instanceof Map) {
+      for (Map.Entry<?, ?> entry : ((Map<?, ?>) row).entrySet()) {
+        if (column.equalsIgnoreCase(String.valueOf(entry.getKey()))) {
+          return entry.getValue();
+        }
+      }
+    } else {
+      final Configuration configuration = ms.getConfiguration();
+      final MetaObject metaObject = configuration.newMetaObject(row);
+      String property = null;
+      if (!ms.getResultMaps().isEmpty()) {
+        final ResultMap resultMap = ms.getResultMaps().get(0);
+        for (ResultMapping resultMapping : resultMap.getResultMappings()) {
+          if (column.equalsIgnoreCase(resultMapping.getColumn()) && resultMapping.getProperty() != null) {
+            property = resultMapping.getProperty();
+            break;
+          }
+        }
+      }
+      if (property == null) {
+        property = metaObject.findProperty(column, configuration.isMapUnderscoreToCamelCase());
+      }
+      if (property != null && metaObject.hasGetter(property)) {
+        return metaObject.getValue(property);
+      }
+    }
+    throw new ExecutorException("Keyset pagination of statement '" + ms.getId() + "' cannot find the value of the sort column '"
+        + column + "' in the last object of the page.");
+  }
+
+}
@@ -0,0 +1,42 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.pagination;
+
+import java.util.List;
+
+import org.apache.ibatis.session.RowBounds;
+
+/**
+ * SQL:2008 {@code OFFSET ? ROWS FETCH NEXT ? ROWS ONLY} pagination, for Derby, HSQLDB, DB2, Oracle 12c
+ * and SQL Server 2012 (which requires the query to have an ORDER BY clause).
+ *
+ * @since 3.5.0
+ */
+public class OffsetFetchDialect implements PaginationDialect {
+
+  @Override
+  public String getPageSql(String sql, int offset, int limit, List<Object> pageParameters) {
+    StringBuilder pageSql = new StringBuilder(sql.length() + 40).append(sql);
+    pageSql.append(" OFFSET ? ROWS");
+    pageParameters.add(offset);
+    if (limit != RowBounds.NO_ROW_LIMIT) {
+      pageSql.append(" FETCH NEXT ? ROWS ONLY");
+      pageParameters.add(limit);
+    }
+    return pageSql.toString();
+  }
+
+}
@@ -0,0 +1,208 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.pagination;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.mapping.StatementType;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.PageRowBounds;
+import org.apache.ibatis.session.RowBounds;
+
+/**
+ * Applies the configured {@link PaginationDialect} to statements and builds their count statements.
+ *
+ * @since 3.5.0
+ */
+public final class Pagination {
+
+  public static final String COUNT_SUFFIX = "!count";
+
+  /**
+   * Returned by {@link #indexOfTrailingOrderBy(String)} when the ORDER BY clause is followed by a limit.
+   */
+  static final int LIMITED_ORDER_BY = -2;
+
+  private static final String PAGE_PARAMETER_PREFIX = "__page_";
+  private static final PaginationDialect DEFAULT_DIALECT = new LimitOffsetDialect();
+
+  private Pagination() {
+    // Prevent Instantiation of Static Class
+  }
+
+  /**
+   * Tells whether the rows bounds of a statement can be applied by the database. Only prepared selects
+   * mapping each row to one object are paginated, nested result maps having their bounds counted in objects.
+   */
+  public static boolean isPaginated(MappedStatement ms, RowBounds rowBounds) {
+    return ms.getConfiguration().getPaginationDialect() != null
+        && rowBounds != null
+        && (rowBounds.getOffset() != RowBounds.NO_ROW_OFFSET || rowBounds.getLimit() != RowBounds.NO_ROW_LIMIT)
+        && ms.getSqlCommandType() == SqlCommandType.SELECT
+        && ms.getStatementType() == StatementType.PREPARED
+        && !ms.hasNestedResultMaps()
+        && ms.getResultSets() == null;
+  }
+
+  public static BoundSql getPageBoundSql(MappedStatement ms, BoundSql boundSql, RowBounds rowBounds) {
+    final Configuration configuration = ms.getConfiguration();
+    final List<Object> pageParameters = new ArrayList<>(2);
+    final String sql = configuration.getPaginationDialect()
+        .getPageSql(boundSql.getSql(), rowBounds.getOffset(), rowBounds.getLimit(), pageParameters);
+    final List<ParameterMapping> parameterMappings = new ArrayList<>(boundSql.getParameterMappings());
+    final BoundSql pageBoundSql = copyOf(configuration, boundSql, sql, parameterMappings);
+    for (int i = 0; i < pageParameters.size(); i++) {
+      final Object value = pageParameters.get(i);
+      final String name = PAGE_PARAMETER_PREFIX + i;
+      parameterMappings.add(new ParameterMapping.Builder(configuration, name, value.getClass()).build());
+      pageBoundSql.setAdditionalParameter(name, value);
+    }
+    return pageBoundSql;
+  }
+
+  /**
+   * Counts the rows of the statement when asked by the row bounds, storing the total in them.
+   * The counts are added up when the statement runs on several shards.
+   */
+  public static void count(Executor executor, MappedStatement ms, Object parameter, RowBounds rowBounds) throws SQLException {
+    if (!(rowBounds instanceof PageRowBounds) || !((PageRowBounds) rowBounds).isCount()) {
+      return;
+    }
+    final List<Number> counts = executor.query(getCountStatement(ms), parameter, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER);
+    long total = 0L;
+    for (Number count : counts) {
+      if (count != null) {
+        total += count.longValue();
+      }
+    }
+    ((PageRowBounds) rowBounds).setTotal(total);
+  }
+
+  /**
+   * Returns the statement counting the rows of a select, created on first use
+   * with the id of the select followed by {@link #COUNT_SUFFIX}.
+   * It is kept by the select itself: adding it to the configuration at query time would race with
+   * the threads reading the mapped statements.
+   */
+  public static MappedStatement getCountStatement(MappedStatement ms) {
+    return ms.getCountStatement(Pagination::newCountStatement);
+  }
+
+  private static MappedStatement newCountStatement(MappedStatement ms) {
+    final Configuration configuration = ms.getConfiguration();
+    final String id = ms.getId() + COUNT_SUFFIX;
+    final SqlSource sqlSource = parameterObject -> {
+      final BoundSql boundSql = ms.getBoundSql(parameterObject);
+      final PaginationDialect dialect = configuration.getPaginationDialect();
+      final String sql = (dialect != null ? dialect : DEFAULT_DIALECT).getCountSql(removeOrderBy(boundSql.getSql()));
+      return copyOf(configuration, boundSql, sql, boundSql.getParameterMappings());
+    };
+    final ResultMap resultMap = new ResultMap.Builder(configuration, id + "-Inline", Long.class,
+        new ArrayList<>()).build();
+    return new MappedStatement.Builder(configuration, id, sqlSource, SqlCommandType.SELECT)
+        .resource(ms.getResource())
+        .databaseId(ms.getDatabaseId())
+        .lang(ms.getLang())
+        .parameterMap(ms.getParameterMap())
+        .resultMaps(Collections.singletonList(resultMap))
+        .statementType(ms.getStatementType())
+        .timeout(ms.getTimeout())
+        .cache(ms.getCache())
+        .useCache(ms.isUseCache())
+        .shardKey(ms.getShardKey())
+        .flushCacheRequired(false)
+        .build();
+  }
+
+  /**
+   * Removes the ORDER BY clause ending a query to count its rows, the order not changing the count.
+   * It is kept when a limit follows it, the order then selecting the rows.
+   */
+  static String removeOrderBy(String sql) {
+    final int orderBy = indexOfTrailingOrderBy(sql);
+    return orderBy < 0 ? sql : sql.substring(0, orderBy).trim();
+  }
+
+  /**
+   * Finds the ORDER BY clause ending a query, outside of parentheses, quotes and comments.
+   *
+   * @return the index of the clause, -1 when the query has none, or {@link #LIMITED_ORDER_BY} when a LIMIT,
+   *     OFFSET, FETCH or FOR clause follows it
+   */
+  static int indexOfTrailingOrderBy(String sql) {
+    final String lower = sql.toLowerCase(Locale.ENGLISH);
+    int orderBy = -1;
+    int depth = 0;
+    for (int i = 0; i < lower.length(); i++) {
+      final char c = lower.charAt(i);
+      if (c == '\'' || c == '"' || c == '`') {
+        final int end = lower.indexOf(c, i + 1);
+        i = end == -1 ? lower.length() : end;
+      } else if (c == '-' && lower.startsWith("--", i)) {
+        final int end = lower.indexOf('\n', i);
+        i = end == -1 ? lower.length() : end;
+      } else if (c == '/' && lower.startsWith("/*", i)) {
+        final int end = lower.indexOf("*/", i + 2);
+        i = end == -1 ? lower.length() : end + 1;
+      } else if (c == '(') {
+        depth++;
+      } else if (c == ')') {
+        depth--;
+      } else if (depth == 0 && isKeyword(lower, i, "order")) {
+        int by = i + 5;
+        while (by < lower.length() && Character.isWhitespace(lower.charAt(by))) {
+          by++;
+        }
+        if (isKeyword(lower, by, "by")) {
+          orderBy = i;
+        }
+      } else if (depth == 0 && orderBy != -1 && (isKeyword(lower, i, "limit") || isKeyword(lower, i, "offset")
+          || isKeyword(lower, i, "fetch") || isKeyword(lower, i, "for"))) {
+        return LIMITED_ORDER_BY;
+      }
+    }
+    return orderBy;
+  }
+
+  private static boolean isKeyword(String sql, int index, String keyword) {
+    final int end = index + keyword.length();
+    return sql.startsWith(keyword, index)
+        && (index == 0 || !isIdentifierPart(sql.charAt(index - 1)))
+        && (end >= sql.length() || !isIdentifierPart(sql.charAt(end)));
+  }
+
+  private static boolean isIdentifierPart(char c) {
+    return Character.isLetterOrDigit(c) || c == '_' || c == '$' || c == '.';
+  }
+
+  private static BoundSql copyOf(Configuration configuration, BoundSql boundSql, String sql, List<ParameterMapping> parameterMappings) {
+    final BoundSql copy = new BoundSql(configuration, sql, parameterMappings, boundSql.getParameterObject());
+    copy.getAdditionalParameters().putAll(boundSql.getAdditionalParameters());
+    return copy;
+  }
+
+}
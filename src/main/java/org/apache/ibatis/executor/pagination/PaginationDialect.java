@@ -0,0 +1,49 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.pagination;
+
+import java.util.List;
+
+/**
+ * Rewrites a query so that the database returns only the rows of a page, instead of the driver
+ * transferring the skipped rows for the client to discard them.
+ *
+ * @since 3.5.0
+ */
+public interface PaginationDialect {
+
+  /**
+   * Returns the SQL of a page of the given query.
+   * Each placeholder added by the dialect must be after the ones of the original query,
+   * and its value appended to {@code pageParameters} in order.
+   *
+   * @param sql the original query
+   * @param offset number of rows to skip, 0 when the page has no offset
+   * @param limit maximum number of rows, {@link org.apache.ibatis.session.RowBounds#NO_ROW_LIMIT} when the page has no limit
+   * @param pageParameters receives the values of the placeholders added
+   */
+  String getPageSql(String sql, int offset, int limit, List<Object> pageParameters);
+
+  /**
+   * Returns the SQL counting the rows of the given query.
+   *
+   * @param sql the original query, without the ORDER BY clause ending it unless a limit follows that clause
+   */
+  default String getCountSql(String sql) {
+    return "select count(*) from (" + sql + ") count_";
+  }
+
+}
@@ -0,0 +1,53 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.pagination;
+
+import java.util.List;
+
+import org.apache.ibatis.session.RowBounds;
+
+/**
+ * {@code ROWNUM} pagination, for Oracle versions prior to 12c.
+ *
+ * @since 3.5.0
+ */
+public class RowNumDialect implements PaginationDialect {
+
+  @Override
+  public String getPageSql(String sql, int offset, int limit, List<Object> pageParameters) {
+    StringBuilder pageSql = new StringBuilder(sql.length() + 120);
+    if (offset > 0) {
+      pageSql.append("select * from ( select row_.*, rownum rownum_ from ( ");
+    } else {
+      pageSql.append("select * from ( ");
+    }
+    pageSql.append(sql);
+    if (offset > 0) {
+      pageSql.append(" ) row_");
+      if (limit != RowBounds.NO_ROW_LIMIT) {
+        pageSql.append(" where rownum <= ?");
+        pageParameters.add((long) offset + limit);
+      }
+      pageSql.append(" ) where rownum_ > ?");
+      pageParameters.add(offset);
+    } else {
+      pageSql.append(" ) where rownum <= ?");
+      pageParameters.add(limit);
+    }
+    return pageSql.toString();
+  }
+
+}
@@ -0,0 +1,125 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.session.AutoMappingUnknownColumnBehavior;
+
+/**
+ * Cache of the automatic mappings of the result maps, shared by all the executions of a configuration. A plan is keyed by result map, column prefix and the labels, JDBC types and classes of
+ * the columns of the result set, and holds the columns, properties and type handlers to map, as well as the
+ * columns that could not be mapped, which are reported again each time the plan is reused.
+ * <p>
+ * Lookups do not lock. Once the cache is full, new plans are no longer kept and are built again for each
+ * result set, as the plans of a configuration are usually all created by its first executions.
+ * </p>
+ *
+ * @since 3.5.0
+ */
+public class AutoMappingPlanCache {
+
+  private final ConcurrentMap<CacheKey, Plan> plans = new ConcurrentHashMap<>();
+
+  // 最多缓存的计划数
+  private volatile int size;
+
+  public AutoMappingPlanCache(int size) {
+    setSize(size);
+  }
+
+  /**
+   * Sets the maximum number of plans kept, 0 disables the cache.
+   */
+  public void setSize(int size) {
+    this.size = size;
+    plans.clear();
+  }
+
+  public int getPlanCount() {
+    return plans.size();
+  }
+
+  public void clear() {
+    plans.clear();
+  }
+
+  /**
+   * The automatic mappings of a result map for the columns of a result set.
+   */
+  static class Plan {
+
+    final List<DefaultResultSetHandler.UnMappedColumnAutoMapping> autoMappings = new ArrayList<>();
+
+    // 无法自动映射的列
+    private final List<UnknownColumn> unknownColumns = new ArrayList<>();
+
+    void addUnknownColumn(AutoMappingUnknownColumnBehavior behavior, MappedStatement mappedStatement,
+                          String columnName, String property, Class<?> propertyType) {
+      behavior.doAction(mappedStatement, columnName, property, propertyType);
+      unknownColumns.add(new UnknownColumn(columnName, property, propertyType));
+    }
+
+    void reportUnknownColumns(AutoMappingUnknownColumnBehavior behavior, MappedStatement mappedStatement) {
+      for (UnknownColumn column : unknownColumns) {
+        behavior.doAction(mappedStatement, column.columnName, column.property, column.propertyType);
+      }
+    }
+
+  }
+
+  private static class UnknownColumn {
+
+    private final String columnName;
+    private final String property;
+    private final Class<?> propertyType;
+
+    private UnknownColumn(String columnName, String property, Class<?> propertyType) {
+      this.columnName = columnName;
+      this.property = property;
+      this.propertyType = propertyType;
+    }
+
+  }
+
+  static CacheKey createKey(ResultSetWrapper rsw, ResultMap resultMap, String columnPrefix) {
+    final CacheKey key = new CacheKey();
+    key.update(resultMap.getId());
+    key.update(columnPrefix);
+    key.update(rsw.getColumnNames());
+    key.update(rsw.getJdbcTypes());
+    key.update(rsw.getClassNames());
+    return key;
+  }
+
+  Plan get(CacheKey key) {
+    return plans.get(key);
+  }
+
+  void put(CacheKey key, Plan plan) {
+    // 并发插入时可能略微超出上限,无妨
+    if (plans.size() < size) {
+      plans.putIfAbsent(key, plan);
+    }
+  }
+
+}
@@ -0,0 +1,45 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.apache.ibatis.type.TypeHandler;
+
+/**
+ * Base class of the row mappers generated for a result map and a column layout.
+ * The generated subclasses read each column by index with its type handler and call
+ * the constructor and setters of the result type directly.
+ *
+ * @since 3.5.0
+ */
+public abstract class CompiledRowMapper {
+
+  protected final TypeHandler<?>[] handlers;
+
+  protected CompiledRowMapper(TypeHandler<?>[] handlers) {
+    this.handlers = handlers;
+  }
+
+  /**
+   * Maps the current row of the result set.
+   *
+   * @return the result object, or null if all its columns are null and {@code returnInstanceForEmptyRow} is false
+   */
+  public abstract Object mapRow(ResultSet rs, boolean returnInstanceForEmptyRow) throws SQLException;
+
+}
@@ -18,13 +18,16 @@ package org.apache.ibatis.executor.resultset;
 import org.apache.ibatis.annotations.AutomapConstructor;
 import org.apache.ibatis.binding.MapperMethod.ParamMap;
 import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.columnar.ColumnarResult;
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.cursor.defaults.DefaultCursor;
+import org.apache.ibatis.cursor.defaults.PrefetchingCursor;
 import org.apache.ibatis.executor.ErrorContext;
 import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.executor.ExecutorException;
 import org.apache.ibatis.executor.loader.ResultLoader;
 import org.apache.ibatis.executor.loader.ResultLoaderMap;
+import org.apache.ibatis.executor.pagination.KeysetPagination;
 import org.apache.ibatis.executor.parameter.ParameterHandler;
 import org.apache.ibatis.executor.result.DefaultResultContext;
 import org.apache.ibatis.executor.result.DefaultResultHandler;
@@ -45,6 +48,7 @@ import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultContext;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.Seek;
 import org.apache.ibatis.type.JdbcType;
 import org.apache.ibatis.type.TypeHandler;
 import org.apache.ibatis.type.TypeHandlerRegistry;
@@ -126,33 +130,53 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   private final ReflectorFactory reflectorFactory;
 
   // nested resultmaps 嵌套resultmaps
-  private final Map<CacheKey, Object> nestedResultObjects = new HashMap<>();
+  private final NestedRowKeyMap nestedResultObjects = new NestedRowKeyMap();
   private final Map<String, Object> ancestorObjects = new HashMap<>();
   private Object previousRowValue;
+  // row key of the parent being streamed, it is emitted when the key changes
+  private NestedRowKey previousRowKey;
 
   // multiple resultsets 多个结果集
   private final Map<String, ResultMapping> nextResultMaps = new HashMap<>();
   private final Map<CacheKey, List<PendingRelation>> pendingRelations = new HashMap<>();
+  private final Map<String, String[]> splitColumnNames = new HashMap<>();
 
   // Cached Automappings 缓存Automappings
   private final Map<String, List<UnMappedColumnAutoMapping>> autoMappingsCache = new HashMap<>();
 
+  // the columns that identify the rows of the nested result maps, by result map then column prefix
+  private final Map<ResultMap, Map<String, NestedRowKey.Plan>> rowKeyPlans = new HashMap<>();
+
   // temporary marking flag that indicate using constructor mapping (use field to reduce memory usage)
   private boolean useConstructorMappings;
 
+  // rows read from the result sets, recorded for the adaptive fetch size
+  private int fetchedRowCount;
+
+  // compiled row mappers of the current result set, null when a result map cannot be compiled
+  private final Map<String, CompiledRowMapper> compiledRowMappers = new HashMap<>();
+
+  // result set the automatic mappings and the compiled row mappers were resolved for
+  private ResultSetWrapper columnCachesResultSet;
+
+  // the getters the mapping of a row calls, by discriminated result map, for the rows copied out of the result set
+  private final Map<String, DetachedRows.ColumnReads> detachedColumnReads = new HashMap<>();
+
   private static class PendingRelation {
     public MetaObject metaObject;
     public ResultMapping propertyMapping;
   }
 
-  private static class UnMappedColumnAutoMapping {
-    private final String column;
-    private final String property;
-    private final TypeHandler<?> typeHandler;
-    private final boolean primitive;
+  static class UnMappedColumnAutoMapping {
+    final String column;
+    final int columnIndex;
+    final String property;
+    final TypeHandler<?> typeHandler;
+    final boolean primitive;
 
-    public UnMappedColumnAutoMapping(String column, String property, TypeHandler<?> typeHandler, boolean primitive) {
+    public UnMappedColumnAutoMapping(String column, int columnIndex, String property, TypeHandler<?> typeHandler, boolean primitive) {
       this.column = column;
+      this.columnIndex = columnIndex;
       this.property = property;
       this.typeHandler = typeHandler;
       this.primitive = primitive;
@@ -258,9 +282,34 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       }
     }
 
+    recordFetchedRows();
     return collapseSingleResultList(multipleResults);
   }
 
+  /**
+   * Records the number of rows read from the result sets for the adaptive fetch size.
+   * Cursors call it once they are closed.
+   *
+   * @since 3.5.0
+   */
+  public void recordFetchedRows() {
+    if (configuration.isAdaptiveFetchSizeEnabled()) {
+      mappedStatement.getFetchSizeStatistics().record(fetchedRowCount);
+    }
+  }
+
+  /**
+   * Stores the bounds of the next page when the row bounds are a {@link Seek}.
+   * Cursors call it once they are consumed.
+   *
+   * @param resultCount the number of objects of the page
+   * @param last the last object of the page
+   * @since 3.5.0
+   */
+  public void completeSeek(int resultCount, Object last) {
+    KeysetPagination.complete(mappedStatement, rowBounds, resultCount, last);
+  }
+
   @Override
   public <E> Cursor<E> handleCursorResultSets(Statement stmt) throws SQLException {
     ErrorContext.instance().activity("handling cursor results").object(mappedStatement.getId());
@@ -276,7 +325,96 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     }
 
     ResultMap resultMap = resultMaps.get(0);
-    return new DefaultCursor<>(this, resultMap, rsw, rowBounds);
+    if (resultMap.getType() == ColumnarResult.class) {
+      throw new ExecutorException("Columnar results hold all the rows of a result set and cannot be read through a cursor");
+    }
+    Cursor<E> cursor = new DefaultCursor<>(this, resultMap, rsw, rowBounds);
+    Integer prefetchSize = configuration.getCursorPrefetchSize();
+    // nested selects would use the session from the prefetching thread
+    if (prefetchSize != null && prefetchSize > 0 && !resultMap.hasNestedQueries()) {
+      cursor = new PrefetchingCursor<>(cursor, prefetchSize);
+    }
+    return cursor;
+  }
+
+  //
+  // HANDLE DETACHED ROWS (parallel cursor streams)
+  //
+
+  /**
+   * Tells whether rows of the result map can be copied out of the result set and mapped later,
+   * possibly concurrently: every row must map to one object on its own, without nested result maps
+   * nor nested selects (including the result maps a discriminator may switch to).
+   *
+   * @since 3.5.0
+   */
+  public boolean supportsDetachedMapping(ResultMap resultMap) {
+    return supportsDetachedMapping(resultMap, new HashSet<>());
+  }
+
+  private boolean supportsDetachedMapping(ResultMap resultMap, Set<String> visited) {
+    if (!visited.add(resultMap.getId())) {
+      return true;
+    }
+    if (resultMap.hasNestedResultMaps() || resultMap.hasNestedQueries()) {
+      return false;
+    }
+    Discriminator discriminator = resultMap.getDiscriminator();
+    if (discriminator != null) {
+      for (String mapId : discriminator.getDiscriminatorMap().values()) {
+        if (!configuration.hasResultMap(mapId) || !supportsDetachedMapping(configuration.getResultMap(mapId), visited)) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Copies up to {@code maxRows} rows from the current position of the result set. Only the values the type handlers
+   * of the result map read are copied, with the getters they read them with.
+   *
+   * @since 3.5.0
+   */
+  public DetachedRows copyRows(ResultSetWrapper rsw, ResultMap resultMap, int maxRows) throws SQLException {
+    final ResultSet rs = rsw.getResultSet();
+    final DetachedRows rows = new DetachedRows();
+    while (rows.size() < maxRows && rs.next()) {
+      fetchedRowCount++;
+      final DetachedRows.Recorder recorder = new DetachedRows.Recorder(rs);
+      final ResultMap discriminatedResultMap = resolveDiscriminatedResultMap(recorder.getResultSet(), resultMap, null);
+      DetachedRows.ColumnReads reads = detachedColumnReads.get(discriminatedResultMap.getId());
+      if (reads == null) {
+        // 第一行在真实的结果集上映射一次,记录类型处理器调用的getter;编译的行映射器从第二行开始使用,再映射一次
+        final ResultSetWrapper recordingRsw = new ResultSetWrapper(recorder.getResultSet(), rsw);
+        getRowValue(recordingRsw, discriminatedResultMap);
+        if (configuration.isRowMapperCompilationEnabled()) {
+          getRowValue(recordingRsw, discriminatedResultMap);
+        }
+        reads = recorder.getReads();
+        detachedColumnReads.put(discriminatedResultMap.getId(), reads);
+      } else {
+        recorder.readAll(reads);
+      }
+      rows.add(recorder, reads);
+    }
+    return rows;
+  }
+
+  /**
+   * Maps rows previously copied with {@link #copyRows(ResultSetWrapper, ResultMap, int)}.
+   * Each call uses its own handler state, so distinct batches can be mapped on different threads.
+   *
+   * @since 3.5.0
+   */
+  public <E> List<E> handleDetachedRows(ResultSetWrapper rsw, ResultMap resultMap, DetachedRows rows) throws SQLException {
+    ResultSetWrapper detachedRsw = new ResultSetWrapper(rows.newResultSet(), rsw);
+    DefaultResultSetHandler handler = new DefaultResultSetHandler(executor, mappedStatement, parameterHandler, null, boundSql, RowBounds.DEFAULT);
+    DefaultResultHandler defaultResultHandler = new DefaultResultHandler(objectFactory);
+    handler.handleRowValues(detachedRsw, resultMap, defaultResultHandler, RowBounds.DEFAULT, null);
+    @SuppressWarnings("unchecked")
+    List<E> results = (List<E>) (List<?>) defaultResultHandler.getResultList();
+    return results;
   }
 
   private ResultSetWrapper getFirstResultSet(Statement stmt) throws SQLException {
@@ -293,7 +431,15 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         }
       }
     }
-    return rs != null ? new ResultSetWrapper(rs, configuration) : null;
+    if (rs == null) {
+      return null;
+    }
+    if (configuration.isResultSetMetadataCacheEnabled() && boundSql != null) {
+      final ResultSetColumns columns = mappedStatement.getResultSetColumnsCache()
+          .getColumns(rs, boundSql.getSql(), configuration.isUseColumnLabel());
+      return new ResultSetWrapper(rs, configuration, columns);
+    }
+    return new ResultSetWrapper(rs, configuration);
   }
 
   private ResultSetWrapper getNextResultSet(Statement stmt) {
@@ -371,7 +517,10 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   //
 
   public void handleRowValues(ResultSetWrapper rsw, ResultMap resultMap, ResultHandler<?> resultHandler, RowBounds rowBounds, ResultMapping parentMapping) throws SQLException {
-    if (resultMap.hasNestedResultMaps()) {
+    if (resultMap.getType() == ColumnarResult.class) {
+      // 按列读取整个结果集,作为一个结果对象
+      handleRowValuesForColumnarResult(rsw, resultHandler, rowBounds, parentMapping);
+    } else if (resultMap.hasNestedResultMaps()) {
       // 含有嵌套的结果集
       ensureNoRowBounds();
       checkResultHandler();
@@ -395,7 +544,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
    * what ？？？ TODO  resultHandler
    */
   protected void checkResultHandler() {
-    if (resultHandler != null && configuration.isSafeResultHandlerEnabled() && !mappedStatement.isResultOrdered()) {
+    if (resultHandler != null && configuration.isSafeResultHandlerEnabled() && !isNestedResultStreaming(resultHandler, null)) {
       throw new ExecutorException("Mapped Statements with nested result mappings cannot be safely used with a custom ResultHandler. "
           + "Use safeResultHandlerEnabled=false setting to bypass this check "
           + "or ensure your statement returns ordered data and set resultOrdered=true on it.");
@@ -407,12 +556,25 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     DefaultResultContext<Object> resultContext = new DefaultResultContext<>();
     skipRows(rsw.getResultSet(), rowBounds);
     while (shouldProcessMoreRows(resultContext, rowBounds) && rsw.getResultSet().next()) {
+      fetchedRowCount++;
       ResultMap discriminatedResultMap = resolveDiscriminatedResultMap(rsw.getResultSet(), resultMap, null);
       Object rowValue = getRowValue(rsw, discriminatedResultMap);
       storeObject(resultHandler, resultContext, rowValue, parentMapping, rsw.getResultSet());
     }
   }
 
+  private void handleRowValuesForColumnarResult(ResultSetWrapper rsw, ResultHandler<?> resultHandler, RowBounds rowBounds, ResultMapping parentMapping)
+      throws SQLException {
+    DefaultResultContext<Object> resultContext = new DefaultResultContext<>();
+    ColumnarResult.Builder builder = new ColumnarResult.Builder(rsw);
+    skipRows(rsw.getResultSet(), rowBounds);
+    while (builder.getRowCount() < rowBounds.getLimit() && rsw.getResultSet().next()) {
+      fetchedRowCount++;
+      builder.addRow();
+    }
+    storeObject(resultHandler, resultContext, builder.build(), parentMapping, rsw.getResultSet());
+  }
+
   private void storeObject(ResultHandler<?> resultHandler, DefaultResultContext<Object> resultContext, Object rowValue, ResultMapping parentMapping, ResultSet rs) throws SQLException {
     if (parentMapping != null) {
       linkToParents(rs, parentMapping, rowValue);
@@ -437,8 +599,9 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         rs.absolute(rowBounds.getOffset());
       }
     } else {
-      for (int i = 0; i < rowBounds.getOffset(); i++) {
-        rs.next();
+      // absolute() 不读取跳过的行,只统计向前读取的行
+      for (int i = 0; i < rowBounds.getOffset() && rs.next(); i++) {
+        fetchedRowCount++;
       }
     }
   }
@@ -448,6 +611,12 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   //
 
   private Object getRowValue(ResultSetWrapper rsw, ResultMap resultMap) throws SQLException {
+    if (configuration.isRowMapperCompilationEnabled()) {
+      final CompiledRowMapper rowMapper = getCompiledRowMapper(rsw, resultMap);
+      if (rowMapper != null) {
+        return rowMapper.mapRow(rsw.getResultSet(), configuration.isReturnInstanceForEmptyRow());
+      }
+    }
     final ResultLoaderMap lazyLoader = new ResultLoaderMap();
     Object rowValue = createResultObject(rsw, resultMap, lazyLoader, null);
     if (rowValue != null && !hasTypeHandlerForResultObject(rsw, resultMap.getType())) {
@@ -463,6 +632,41 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     return rowValue;
   }
 
+  private CompiledRowMapper getCompiledRowMapper(ResultSetWrapper rsw, ResultMap resultMap) throws SQLException {
+    resetColumnCaches(rsw);
+    final String resultMapId = resultMap.getId();
+    if (compiledRowMappers.containsKey(resultMapId)) {
+      return compiledRowMappers.get(resultMapId);
+    }
+    List<UnMappedColumnAutoMapping> autoMappings = null;
+    if (shouldApplyAutomaticMappings(resultMap, false)) {
+      // the automatic mappings are resolved by the reflective mapping of the first row
+      autoMappings = autoMappingsCache.get(resultMapId + ":null");
+      if (autoMappings == null) {
+        return null;
+      }
+    }
+    CompiledRowMapper rowMapper = null;
+    if (!hasTypeHandlerForResultObject(rsw, resultMap.getType())) {
+      rowMapper = RowMapperCompiler.compile(configuration, rsw, resultMap, autoMappings);
+    }
+    compiledRowMappers.put(resultMapId, rowMapper);
+    return rowMapper;
+  }
+
+  /**
+   * Clears the automatic mappings and the compiled row mappers when the rows come from another result set,
+   * whose columns may be at other indexes.
+   */
+  private void resetColumnCaches(ResultSetWrapper rsw) {
+    if (rsw != columnCachesResultSet) {
+      autoMappingsCache.clear();
+      compiledRowMappers.clear();
+      rowKeyPlans.clear();
+      columnCachesResultSet = rsw;
+    }
+  }
+
   private boolean shouldApplyAutomaticMappings(ResultMap resultMap, boolean isNested) {
     if (resultMap.getAutoMapping() != null) {
       return resultMap.getAutoMapping();
@@ -481,19 +685,17 @@ public class DefaultResultSetHandler implements ResultSetHandler {
 
   private boolean applyPropertyMappings(ResultSetWrapper rsw, ResultMap resultMap, MetaObject metaObject, ResultLoaderMap lazyLoader, String columnPrefix)
       throws SQLException {
-    final List<String> mappedColumnNames = rsw.getMappedColumnNames(resultMap, columnPrefix);
+    final int[] columnIndexes = rsw.getPropertyMappingColumnIndexes(resultMap, columnPrefix);
+    final boolean readColumnsByIndex = configuration.isReadColumnsByIndex();
     boolean foundValues = false;
     final List<ResultMapping> propertyMappings = resultMap.getPropertyResultMappings();
-    for (ResultMapping propertyMapping : propertyMappings) {
-      String column = prependPrefix(propertyMapping.getColumn(), columnPrefix);
-      if (propertyMapping.getNestedResultMapId() != null) {
-        // the user added a column attribute to a nested result map, ignore it
-        column = null;
-      }
+    for (int i = 0; i < columnIndexes.length; i++) {
+      final ResultMapping propertyMapping = propertyMappings.get(i);
       if (propertyMapping.isCompositeResult()
-          || (column != null && mappedColumnNames.contains(column.toUpperCase(Locale.ENGLISH)))
+          || columnIndexes[i] != -1
           || propertyMapping.getResultSet() != null) {
-        Object value = getPropertyMappingValue(rsw.getResultSet(), metaObject, propertyMapping, lazyLoader, columnPrefix);
+        Object value = getPropertyMappingValue(rsw.getResultSet(), metaObject, propertyMapping, lazyLoader, columnPrefix,
+            readColumnsByIndex ? columnIndexes[i] : -1);
         // issue #541 make property optional
         final String property = propertyMapping.getProperty();
         if (property == null) {
@@ -514,8 +716,11 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     return foundValues;
   }
 
-  private Object getPropertyMappingValue(ResultSet rs, MetaObject metaResultObject, ResultMapping propertyMapping, ResultLoaderMap lazyLoader, String columnPrefix)
-      throws SQLException {
+  /**
+   * @param columnIndex the index of the column to read, or -1 to read the column by label
+   */
+  private Object getPropertyMappingValue(ResultSet rs, MetaObject metaResultObject, ResultMapping propertyMapping, ResultLoaderMap lazyLoader, String columnPrefix,
+                                         int columnIndex) throws SQLException {
     if (propertyMapping.getNestedQueryId() != null) {
       return getNestedQueryMappingValue(rs, metaResultObject, propertyMapping, lazyLoader, columnPrefix);
     } else if (propertyMapping.getResultSet() != null) {
@@ -523,57 +728,79 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       return DEFERED;
     } else {
       final TypeHandler<?> typeHandler = propertyMapping.getTypeHandler();
+      if (columnIndex != -1) {
+        return typeHandler.getResult(rs, columnIndex);
+      }
       final String column = prependPrefix(propertyMapping.getColumn(), columnPrefix);
       return typeHandler.getResult(rs, column);
     }
   }
 
   private List<UnMappedColumnAutoMapping> createAutomaticMappings(ResultSetWrapper rsw, ResultMap resultMap, MetaObject metaObject, String columnPrefix) throws SQLException {
+    resetColumnCaches(rsw);
     final String mapKey = resultMap.getId() + ":" + columnPrefix;
     List<UnMappedColumnAutoMapping> autoMapping = autoMappingsCache.get(mapKey);
     if (autoMapping == null) {
-      autoMapping = new ArrayList<>();
-      final List<String> unmappedColumnNames = rsw.getUnmappedColumnNames(resultMap, columnPrefix);
-      for (String columnName : unmappedColumnNames) {
-        String propertyName = columnName;
-        if (columnPrefix != null && !columnPrefix.isEmpty()) {
-          // When columnPrefix is specified,
-          // ignore columns without the prefix.
-          if (columnName.toUpperCase(Locale.ENGLISH).startsWith(columnPrefix)) {
-            propertyName = columnName.substring(columnPrefix.length());
-          } else {
-            continue;
-          }
+      final CacheKey planKey = AutoMappingPlanCache.createKey(rsw, resultMap, columnPrefix);
+      AutoMappingPlanCache.Plan plan = configuration.getAutoMappingPlanCache().get(planKey);
+      if (plan == null) {
+        plan = planAutomaticMappings(rsw, resultMap, metaObject, columnPrefix);
+        configuration.getAutoMappingPlanCache().put(planKey, plan);
+      } else {
+        // a shared plan reports its unknown columns to every execution, as planning them does
+        plan.reportUnknownColumns(configuration.getAutoMappingUnknownColumnBehavior(), mappedStatement);
+      }
+      autoMapping = plan.autoMappings;
+      autoMappingsCache.put(mapKey, autoMapping);
+    }
+    return autoMapping;
+  }
+
+  private AutoMappingPlanCache.Plan planAutomaticMappings(ResultSetWrapper rsw, ResultMap resultMap, MetaObject metaObject, String columnPrefix)
+      throws SQLException {
+    final AutoMappingPlanCache.Plan plan = new AutoMappingPlanCache.Plan();
+    final List<String> unmappedColumnNames = rsw.getUnmappedColumnNames(resultMap, columnPrefix);
+    for (String columnName : unmappedColumnNames) {
+      String propertyName = columnName;
+      if (columnPrefix != null && !columnPrefix.isEmpty()) {
+        // When columnPrefix is specified,
+        // ignore columns without the prefix.
+        if (columnName.toUpperCase(Locale.ENGLISH).startsWith(columnPrefix)) {
+          propertyName = columnName.substring(columnPrefix.length());
+        } else {
+          continue;
         }
-        final String property = metaObject.findProperty(propertyName, configuration.isMapUnderscoreToCamelCase());
-        if (property != null && metaObject.hasSetter(property)) {
-          if (resultMap.getMappedProperties().contains(property)) {
-            continue;
-          }
-          final Class<?> propertyType = metaObject.getSetterType(property);
-          if (typeHandlerRegistry.hasTypeHandler(propertyType, rsw.getJdbcType(columnName))) {
-            final TypeHandler<?> typeHandler = rsw.getTypeHandler(propertyType, columnName);
-            autoMapping.add(new UnMappedColumnAutoMapping(columnName, property, typeHandler, propertyType.isPrimitive()));
-          } else {
-            configuration.getAutoMappingUnknownColumnBehavior()
-                .doAction(mappedStatement, columnName, property, propertyType);
-          }
+      }
+      final String property = metaObject.findProperty(propertyName, configuration.isMapUnderscoreToCamelCase());
+      if (property != null && metaObject.hasSetter(property)) {
+        if (resultMap.getMappedProperties().contains(property)) {
+          continue;
+        }
+        final Class<?> propertyType = metaObject.getSetterType(property);
+        if (typeHandlerRegistry.hasTypeHandler(propertyType, rsw.getJdbcType(columnName))) {
+          final TypeHandler<?> typeHandler = rsw.getTypeHandler(propertyType, columnName);
+          plan.autoMappings.add(new UnMappedColumnAutoMapping(columnName, rsw.getColumnIndex(columnName), property, typeHandler, propertyType.isPrimitive()));
         } else {
-          configuration.getAutoMappingUnknownColumnBehavior()
-              .doAction(mappedStatement, columnName, (property != null) ? property : propertyName, null);
+          plan.addUnknownColumn(configuration.getAutoMappingUnknownColumnBehavior(),
+              mappedStatement, columnName, property, propertyType);
         }
+      } else {
+        plan.addUnknownColumn(configuration.getAutoMappingUnknownColumnBehavior(),
+            mappedStatement, columnName, (property != null) ? property : propertyName, null);
       }
-      autoMappingsCache.put(mapKey, autoMapping);
     }
-    return autoMapping;
+    return plan;
   }
 
   private boolean applyAutomaticMappings(ResultSetWrapper rsw, ResultMap resultMap, MetaObject metaObject, String columnPrefix) throws SQLException {
     List<UnMappedColumnAutoMapping> autoMapping = createAutomaticMappings(rsw, resultMap, metaObject, columnPrefix);
     boolean foundValues = false;
     if (!autoMapping.isEmpty()) {
+      final boolean readColumnsByIndex = configuration.isReadColumnsByIndex();
       for (UnMappedColumnAutoMapping mapping : autoMapping) {
-        final Object value = mapping.typeHandler.getResult(rsw.getResultSet(), mapping.column);
+        final Object value = readColumnsByIndex
+            ? mapping.typeHandler.getResult(rsw.getResultSet(), mapping.columnIndex)
+            : mapping.typeHandler.getResult(rsw.getResultSet(), mapping.column);
         if (value != null) {
           foundValues = true;
         }
@@ -622,8 +849,8 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     CacheKey cacheKey = new CacheKey();
     cacheKey.update(resultMapping);
     if (columns != null && names != null) {
-      String[] columnsArray = columns.split(",");
-      String[] namesArray = names.split(",");
+      String[] columnsArray = splitColumnNames(columns);
+      String[] namesArray = splitColumnNames(names);
       for (int i = 0; i < columnsArray.length; i++) {
         Object value = rs.getString(columnsArray[i]);
         if (value != null) {
@@ -635,6 +862,10 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     return cacheKey;
   }
 
+  private String[] splitColumnNames(String columnNames) {
+    return splitColumnNames.computeIfAbsent(columnNames, names -> names.split(","));
+  }
+
   //
   // INSTANTIATION & CONSTRUCTOR MAPPING
   //
@@ -666,7 +897,8 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     if (hasTypeHandlerForResultObject(rsw, resultType)) {
       return createPrimitiveResultObject(rsw, resultMap, columnPrefix);
     } else if (!constructorMappings.isEmpty()) {
-      return createParameterizedResultObject(rsw, resultType, constructorMappings, constructorArgTypes, constructorArgs, columnPrefix);
+      return createParameterizedResultObject(rsw, resultType, constructorMappings, constructorArgTypes, constructorArgs, columnPrefix,
+          configuration.isReadColumnsByIndex() ? rsw.getConstructorMappingColumnIndexes(resultMap, columnPrefix) : null);
     } else if (resultType.isInterface() || metaType.hasDefaultConstructor()) {
       return objectFactory.create(resultType);
     } else if (shouldApplyAutomaticMappings(resultMap, false)) {
@@ -677,8 +909,18 @@ public class DefaultResultSetHandler implements ResultSetHandler {
 
   Object createParameterizedResultObject(ResultSetWrapper rsw, Class<?> resultType, List<ResultMapping> constructorMappings,
                                          List<Class<?>> constructorArgTypes, List<Object> constructorArgs, String columnPrefix) {
+    return createParameterizedResultObject(rsw, resultType, constructorMappings, constructorArgTypes, constructorArgs, columnPrefix, null);
+  }
+
+  /**
+   * @param columnIndexes the column indexes of the constructor mappings, or null to read the columns by label
+   */
+  private Object createParameterizedResultObject(ResultSetWrapper rsw, Class<?> resultType, List<ResultMapping> constructorMappings,
+                                                 List<Class<?>> constructorArgTypes, List<Object> constructorArgs, String columnPrefix,
+                                                 int[] columnIndexes) {
     boolean foundValues = false;
-    for (ResultMapping constructorMapping : constructorMappings) {
+    for (int i = 0; i < constructorMappings.size(); i++) {
+      final ResultMapping constructorMapping = constructorMappings.get(i);
       final Class<?> parameterType = constructorMapping.getJavaType();
       final String column = constructorMapping.getColumn();
       final Object value;
@@ -690,7 +932,11 @@ public class DefaultResultSetHandler implements ResultSetHandler {
           value = getRowValue(rsw, resultMap);
         } else {
           final TypeHandler<?> typeHandler = constructorMapping.getTypeHandler();
-          value = typeHandler.getResult(rsw.getResultSet(), prependPrefix(column, columnPrefix));
+          if (columnIndexes != null && columnIndexes[i] != -1) {
+            value = typeHandler.getResult(rsw.getResultSet(), columnIndexes[i]);
+          } else {
+            value = typeHandler.getResult(rsw.getResultSet(), prependPrefix(column, columnPrefix));
+          }
         }
       } catch (ResultMapException | SQLException e) {
         throw new ExecutorException("Could not process result for mapping: " + constructorMapping, e);
@@ -906,16 +1152,20 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     final DefaultResultContext<Object> resultContext = new DefaultResultContext<>();
     skipRows(rsw.getResultSet(), rowBounds);
     Object rowValue = previousRowValue;
+    final boolean streaming = isNestedResultStreaming(resultHandler, parentMapping);
     while (shouldProcessMoreRows(resultContext, rowBounds) && rsw.getResultSet().next()) {
+      fetchedRowCount++;
       final ResultMap discriminatedResultMap = resolveDiscriminatedResultMap(rsw.getResultSet(), resultMap, null);
-      final CacheKey rowKey = createRowKey(discriminatedResultMap, rsw, null);
+      final NestedRowKey rowKey = createRowKey(discriminatedResultMap, rsw, null);
       Object partialObject = nestedResultObjects.get(rowKey);
       // issue #577 && #542
-      if (mappedStatement.isResultOrdered()) {
-        if (partialObject == null && rowValue != null) {
+      if (streaming) {
+        if (rowValue != null && (rowKey == NestedRowKey.NULL || !rowKey.equals(previousRowKey))) {
           nestedResultObjects.clear();
           storeObject(resultHandler, resultContext, rowValue, parentMapping, rsw.getResultSet());
+          partialObject = null;
         }
+        previousRowKey = rowKey;
         rowValue = getRowValue(rsw, discriminatedResultMap, rowKey, null, partialObject);
       } else {
         rowValue = getRowValue(rsw, discriminatedResultMap, rowKey, null, partialObject);
@@ -924,19 +1174,34 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         }
       }
     }
-    if (rowValue != null && mappedStatement.isResultOrdered() && shouldProcessMoreRows(resultContext, rowBounds)) {
+    if (rowValue != null && streaming && shouldProcessMoreRows(resultContext, rowBounds)) {
+      nestedResultObjects.clear();
       storeObject(resultHandler, resultContext, rowValue, parentMapping, rsw.getResultSet());
       previousRowValue = null;
+      previousRowKey = null;
     } else if (rowValue != null) {
       previousRowValue = rowValue;
     }
   }
 
+  /**
+   * Parents are emitted as soon as their key changes when the statement is ordered,
+   * or when nested result streaming is enabled and results are not collected into a list.
+   */
+  private boolean isNestedResultStreaming(ResultHandler<?> resultHandler, ResultMapping parentMapping) {
+    if (mappedStatement.isResultOrdered()) {
+      return true;
+    }
+    return configuration.isNestedResultStreamingEnabled()
+        && resultHandler != null && !(resultHandler instanceof DefaultResultHandler)
+        && parentMapping == null && mappedStatement.getResultSets() == null;
+  }
+
   //
   // GET VALUE FROM ROW FOR NESTED RESULT MAP
   //
 
-  private Object getRowValue(ResultSetWrapper rsw, ResultMap resultMap, CacheKey combinedKey, String columnPrefix, Object partialObject) throws SQLException {
+  private Object getRowValue(ResultSetWrapper rsw, ResultMap resultMap, NestedRowKey combinedKey, String columnPrefix, Object partialObject) throws SQLException {
     final String resultMapId = resultMap.getId();
     Object rowValue = partialObject;
     if (rowValue != null) {
@@ -960,9 +1225,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         foundValues = lazyLoader.size() > 0 || foundValues;
         rowValue = foundValues || configuration.isReturnInstanceForEmptyRow() ? rowValue : null;
       }
-      if (combinedKey != CacheKey.NULL_CACHE_KEY) {
-        nestedResultObjects.put(combinedKey, rowValue);
-      }
+      nestedResultObjects.put(combinedKey, rowValue);
     }
     return rowValue;
   }
@@ -975,7 +1238,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   // NESTED RESULT MAP (JOIN MAPPING)
   //
 
-  private boolean applyNestedResultMappings(ResultSetWrapper rsw, ResultMap resultMap, MetaObject metaObject, String parentPrefix, CacheKey parentRowKey, boolean newObject) {
+  private boolean applyNestedResultMappings(ResultSetWrapper rsw, ResultMap resultMap, MetaObject metaObject, String parentPrefix, NestedRowKey parentRowKey, boolean newObject) {
     boolean foundValues = false;
     for (ResultMapping resultMapping : resultMap.getPropertyResultMappings()) {
       final String nestedResultMapId = resultMapping.getNestedResultMapId();
@@ -994,8 +1257,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
               continue;
             }
           }
-          final CacheKey rowKey = createRowKey(nestedResultMap, rsw, columnPrefix);
-          final CacheKey combinedKey = combineKeys(rowKey, parentRowKey);
+          final NestedRowKey combinedKey = createRowKey(nestedResultMap, rsw, columnPrefix).combine(parentRowKey);
           Object rowValue = nestedResultObjects.get(combinedKey);
           boolean knownValue = rowValue != null;
           instantiateCollectionPropertyIfAppropriate(resultMapping, metaObject); // mandatory
@@ -1056,37 +1318,45 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   // UNIQUE RESULT KEY
   //
 
-  private CacheKey createRowKey(ResultMap resultMap, ResultSetWrapper rsw, String columnPrefix) throws SQLException {
-    final CacheKey cacheKey = new CacheKey();
-    cacheKey.update(resultMap.getId());
+  private NestedRowKey createRowKey(ResultMap resultMap, ResultSetWrapper rsw, String columnPrefix) throws SQLException {
+    resetColumnCaches(rsw);
+    final Map<String, NestedRowKey.Plan> prefixPlans = rowKeyPlans.computeIfAbsent(resultMap, k -> new HashMap<>());
+    NestedRowKey.Plan plan = prefixPlans.get(columnPrefix);
+    if (plan == null) {
+      plan = createRowKeyPlan(resultMap, rsw, columnPrefix);
+      prefixPlans.put(columnPrefix, plan);
+    }
+    return plan.read(rsw.getResultSet());
+  }
+
+  /**
+   * Finds the columns that identify the rows of a result map, once per result set.
+   */
+  private NestedRowKey.Plan createRowKeyPlan(ResultMap resultMap, ResultSetWrapper rsw, String columnPrefix) throws SQLException {
+    final List<Integer> columnIndexes = new ArrayList<>();
+    final List<TypeHandler<?>> typeHandlers = new ArrayList<>();
+    boolean includeNulls = false;
     List<ResultMapping> resultMappings = getResultMappingsForRowKey(resultMap);
     if (resultMappings.isEmpty()) {
       if (Map.class.isAssignableFrom(resultMap.getType())) {
-        createRowKeyForMap(rsw, cacheKey);
+        addRowKeyColumnsForMap(rsw, columnIndexes, typeHandlers);
       } else {
-        createRowKeyForUnmappedProperties(resultMap, rsw, cacheKey, columnPrefix);
+        addRowKeyColumnsForUnmappedProperties(resultMap, rsw, columnIndexes, typeHandlers, columnPrefix);
       }
     } else {
-      createRowKeyForMappedProperties(resultMap, rsw, cacheKey, resultMappings, columnPrefix);
-    }
-    if (cacheKey.getUpdateCount() < 2) {
-      return CacheKey.NULL_CACHE_KEY;
+      addRowKeyColumnsForMappedProperties(resultMap, rsw, columnIndexes, typeHandlers, resultMappings, columnPrefix);
+      includeNulls = configuration.isReturnInstanceForEmptyRow();
     }
-    return cacheKey;
-  }
-
-  private CacheKey combineKeys(CacheKey rowKey, CacheKey parentRowKey) {
-    if (rowKey.getUpdateCount() > 1 && parentRowKey.getUpdateCount() > 1) {
-      CacheKey combinedKey;
-      try {
-        combinedKey = rowKey.clone();
-      } catch (CloneNotSupportedException e) {
-        throw new ExecutorException("Error cloning cache key.  Cause: " + e, e);
+    final int[] indexes = new int[columnIndexes.size()];
+    final String[] labels = configuration.isReadColumnsByIndex() ? null : new String[indexes.length];
+    for (int i = 0; i < indexes.length; i++) {
+      indexes[i] = columnIndexes.get(i);
+      if (labels != null) {
+        labels[i] = rsw.getColumnNames().get(indexes[i] - 1);
       }
-      combinedKey.update(parentRowKey);
-      return combinedKey;
     }
-    return CacheKey.NULL_CACHE_KEY;
+    return new NestedRowKey.Plan(resultMap.getId(), columnPrefix, indexes, labels,
+        typeHandlers.toArray(new TypeHandler<?>[0]), includeNulls);
   }
 
   private List<ResultMapping> getResultMappingsForRowKey(ResultMap resultMap) {
@@ -1097,30 +1367,29 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     return resultMappings;
   }
 
-  private void createRowKeyForMappedProperties(ResultMap resultMap, ResultSetWrapper rsw, CacheKey cacheKey, List<ResultMapping> resultMappings, String columnPrefix) throws SQLException {
+  private void addRowKeyColumnsForMappedProperties(ResultMap resultMap, ResultSetWrapper rsw, List<Integer> columnIndexes,
+                                                   List<TypeHandler<?>> typeHandlers, List<ResultMapping> resultMappings,
+                                                   String columnPrefix) throws SQLException {
     for (ResultMapping resultMapping : resultMappings) {
       if (resultMapping.getNestedResultMapId() != null && resultMapping.getResultSet() == null) {
         // Issue #392
         final ResultMap nestedResultMap = configuration.getResultMap(resultMapping.getNestedResultMapId());
-        createRowKeyForMappedProperties(nestedResultMap, rsw, cacheKey, nestedResultMap.getConstructorResultMappings(),
-            prependPrefix(resultMapping.getColumnPrefix(), columnPrefix));
+        addRowKeyColumnsForMappedProperties(nestedResultMap, rsw, columnIndexes, typeHandlers,
+            nestedResultMap.getConstructorResultMappings(), prependPrefix(resultMapping.getColumnPrefix(), columnPrefix));
       } else if (resultMapping.getNestedQueryId() == null) {
         final String column = prependPrefix(resultMapping.getColumn(), columnPrefix);
-        final TypeHandler<?> th = resultMapping.getTypeHandler();
         List<String> mappedColumnNames = rsw.getMappedColumnNames(resultMap, columnPrefix);
         // Issue #114
         if (column != null && mappedColumnNames.contains(column.toUpperCase(Locale.ENGLISH))) {
-          final Object value = th.getResult(rsw.getResultSet(), column);
-          if (value != null || configuration.isReturnInstanceForEmptyRow()) {
-            cacheKey.update(column);
-            cacheKey.update(value);
-          }
+          columnIndexes.add(rsw.getColumnIndex(column));
+          typeHandlers.add(resultMapping.getTypeHandler());
         }
       }
     }
   }
 
-  private void createRowKeyForUnmappedProperties(ResultMap resultMap, ResultSetWrapper rsw, CacheKey cacheKey, String columnPrefix) throws SQLException {
+  private void addRowKeyColumnsForUnmappedProperties(ResultMap resultMap, ResultSetWrapper rsw, List<Integer> columnIndexes,
+                                                     List<TypeHandler<?>> typeHandlers, String columnPrefix) throws SQLException {
     final MetaClass metaType = MetaClass.forClass(resultMap.getType(), reflectorFactory);
     List<String> unmappedColumnNames = rsw.getUnmappedColumnNames(resultMap, columnPrefix);
     for (String column : unmappedColumnNames) {
@@ -1134,23 +1403,18 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         }
       }
       if (metaType.findProperty(property, configuration.isMapUnderscoreToCamelCase()) != null) {
-        String value = rsw.getResultSet().getString(column);
-        if (value != null) {
-          cacheKey.update(column);
-          cacheKey.update(value);
-        }
+        // read as a string
+        columnIndexes.add(rsw.getColumnIndex(column));
+        typeHandlers.add(null);
       }
     }
   }
 
-  private void createRowKeyForMap(ResultSetWrapper rsw, CacheKey cacheKey) throws SQLException {
-    List<String> columnNames = rsw.getColumnNames();
-    for (String columnName : columnNames) {
-      final String value = rsw.getResultSet().getString(columnName);
-      if (value != null) {
-        cacheKey.update(columnName);
-        cacheKey.update(value);
-      }
+  private void addRowKeyColumnsForMap(ResultSetWrapper rsw, List<Integer> columnIndexes, List<TypeHandler<?>> typeHandlers) {
+    for (String columnName : rsw.getColumnNames()) {
+      // read as a string
+      columnIndexes.add(rsw.getColumnIndex(columnName));
+      typeHandlers.add(null);
     }
   }
 
@@ -0,0 +1,379 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.NClob;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+
+import javax.sql.rowset.serial.SerialArray;
+import javax.sql.rowset.serial.SerialBlob;
+import javax.sql.rowset.serial.SerialClob;
+
+import org.apache.ibatis.reflection.ExceptionUtil;
+
+/**
+ * A batch of rows copied out of a result set, to be mapped after the result set has moved on, and on another thread.
+ * <p>
+ * A row holds the values the type handlers of its result map read, as returned by the getters they read them with.
+ * These getters are recorded while the first row of each result map is mapped on the real result set; the next
+ * rows only call them. Large objects and streams are read when the row is copied.
+ * </p>
+ *
+ * @since 3.5.0
+ */
+public final class DetachedRows {
+
+  private final List<Row> rows = new ArrayList<>();
+
+  public int size() {
+    return rows.size();
+  }
+
+  void add(Recorder recorder, ColumnReads reads) {
+    rows.add(recorder.toRow(reads));
+  }
+
+  /**
+   * @return a forward-only result set over the copied rows, answering the getters recorded for them
+   */
+  ResultSet newResultSet() {
+    return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class[] {ResultSet.class},
+        new Replayer(rows));
+  }
+
+  /**
+   * A getter call: the getter and its arguments, the column first.
+   */
+  private static final class Read {
+    private final Method method;
+    private final Object[] args;
+
+    Read(Method method, Object[] args) {
+      this.method = method;
+      this.args = args.clone();
+      for (int i = 1; i < this.args.length; i++) {
+        // 同一个类型处理器每次传入新的Calendar,按时区区分即可
+        if (this.args[i] instanceof Calendar) {
+          this.args[i] = ((Calendar) this.args[i]).getTimeZone();
+        }
+      }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Read)) {
+        return false;
+      }
+      Read other = (Read) o;
+      return method.equals(other.method) && Arrays.equals(args, other.args);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * method.hashCode() + Arrays.hashCode(args);
+    }
+
+    @Override
+    public String toString() {
+      return method.getName() + "(" + args[0] + ")";
+    }
+  }
+
+  /**
+   * The getters called to map a row of a result map, in the order of the values of the copied rows.
+   */
+  static final class ColumnReads {
+    private final Map<Read, Integer> indexes;
+    private final Read[] reads;
+
+    private ColumnReads(Map<Read, Integer> indexes) {
+      this.indexes = indexes;
+      this.reads = new Read[indexes.size()];
+      for (Map.Entry<Read, Integer> entry : indexes.entrySet()) {
+        reads[entry.getValue()] = entry.getKey();
+      }
+    }
+  }
+
+  private static final class Row {
+    private final ColumnReads reads;
+    private final Object[] values;
+    private final boolean[] nulls;
+
+    Row(ColumnReads reads, Object[] values, boolean[] nulls) {
+      this.reads = reads;
+      this.values = values;
+      this.nulls = nulls;
+    }
+  }
+
+  private static boolean isColumnGetter(Method method, Object[] args) {
+    return method.getName().startsWith("get") && args != null && args.length > 0
+        && (args[0] instanceof Integer || args[0] instanceof String);
+  }
+
+  /**
+   * Reads the current row of the real result set, calling each getter once.
+   */
+  static final class Recorder implements InvocationHandler {
+
+    private final ResultSet rs;
+    private final Map<Read, Integer> indexes = new HashMap<>();
+    private final List<Object> values = new ArrayList<>();
+    private final List<Boolean> nulls = new ArrayList<>();
+    private boolean wasNull;
+
+    Recorder(ResultSet rs) {
+      this.rs = rs;
+    }
+
+    /**
+     * @return the current row of the real result set, recording the getters called on it
+     */
+    ResultSet getResultSet() {
+      return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class[] {ResultSet.class}, this);
+    }
+
+    /**
+     * @return the getters called so far
+     */
+    ColumnReads getReads() {
+      return new ColumnReads(new HashMap<>(indexes));
+    }
+
+    /**
+     * Calls the getters of a result map that have not been called yet.
+     */
+    void readAll(ColumnReads reads) throws SQLException {
+      // 按第一行读取的顺序,驱动对只进结果集的列一般要求从左到右读取
+      for (Read read : reads.reads) {
+        read(read, null);
+      }
+    }
+
+    Row toRow(ColumnReads reads) {
+      Object[] rowValues = new Object[reads.indexes.size()];
+      boolean[] rowNulls = new boolean[rowValues.length];
+      for (Map.Entry<Read, Integer> entry : reads.indexes.entrySet()) {
+        int index = indexes.get(entry.getKey());
+        rowValues[entry.getValue()] = values.get(index);
+        rowNulls[entry.getValue()] = nulls.get(index);
+      }
+      return new Row(reads, rowValues, rowNulls);
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      try {
+        if (Object.class.equals(method.getDeclaringClass())) {
+          return method.invoke(this, args);
+        }
+        if ("wasNull".equals(method.getName())) {
+          return wasNull;
+        }
+        if (isColumnGetter(method, args)) {
+          return read(new Read(method, args), args);
+        }
+        return method.invoke(rs, args);
+      } catch (Throwable t) {
+        throw ExceptionUtil.unwrapThrowable(t);
+      }
+    }
+
+    /**
+     * @param args the arguments of the getter, null to rebuild them from the recorded ones
+     */
+    private Object read(Read read, Object[] args) throws SQLException {
+      Integer index = indexes.get(read);
+      if (index == null) {
+        final Object value;
+        try {
+          value = read.method.invoke(rs, args != null ? args : readArgs(read));
+        } catch (Exception e) {
+          Throwable cause = ExceptionUtil.unwrapThrowable(e);
+          if (cause instanceof SQLException) {
+            throw (SQLException) cause;
+          }
+          throw new SQLException("Error reading " + read + ". Cause: " + cause, cause);
+        }
+        index = values.size();
+        nulls.add(rs.wasNull());
+        values.add(detach(value));
+        indexes.put(read, index);
+      }
+      wasNull = nulls.get(index);
+      return materialize(read.method, values.get(index));
+    }
+
+    private static Object[] readArgs(Read read) {
+      Object[] args = read.args.clone();
+      for (int i = 1; i < args.length; i++) {
+        if (args[i] instanceof TimeZone) {
+          args[i] = Calendar.getInstance((TimeZone) args[i]);
+        }
+      }
+      return args;
+    }
+  }
+
+  /**
+   * Answers the recorded getters from the copied rows.
+   */
+  private static final class Replayer implements InvocationHandler {
+
+    private final List<Row> rows;
+    private int rowIndex = -1;
+    private boolean wasNull;
+
+    Replayer(List<Row> rows) {
+      this.rows = rows;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      try {
+        if (Object.class.equals(method.getDeclaringClass())) {
+          return method.invoke(this, args);
+        }
+        String name = method.getName();
+        switch (name) {
+          case "next":
+            return ++rowIndex < rows.size();
+          case "wasNull":
+            return wasNull;
+          case "getRow":
+            return rowIndex < rows.size() ? rowIndex + 1 : 0;
+          case "getType":
+            return ResultSet.TYPE_FORWARD_ONLY;
+          case "getConcurrency":
+            return ResultSet.CONCUR_READ_ONLY;
+          case "isClosed":
+            return false;
+          case "close":
+          case "clearWarnings":
+          case "getWarnings":
+          case "getStatement":
+            return null;
+          default:
+            break;
+        }
+        if (isColumnGetter(method, args)) {
+          Row row = rows.get(rowIndex);
+          Read read = new Read(method, args);
+          Integer index = row.reads.indexes.get(read);
+          if (index == null) {
+            throw new SQLException("The column read with " + read + " was not copied out of the result set: "
+                + "the type handlers read other columns than for the first row of the result map.");
+          }
+          wasNull = row.nulls[index];
+          return materialize(method, row.values[index]);
+        }
+        throw new SQLFeatureNotSupportedException("Detached rows do not support " + name);
+      } catch (Throwable t) {
+        throw ExceptionUtil.unwrapThrowable(t);
+      }
+    }
+  }
+
+  /**
+   * 大对象和流在复制行时读出,驱动在结果集移动之后不一定还能读取它们
+   */
+  private static Object detach(Object value) throws SQLException {
+    if (value instanceof NClob) {
+      return value;
+    } else if (value instanceof Clob) {
+      return new SerialClob((Clob) value);
+    } else if (value instanceof Blob) {
+      return new SerialBlob((Blob) value);
+    } else if (value instanceof Array) {
+      return new SerialArray((Array) value);
+    } else if (value instanceof InputStream) {
+      return readBytes((InputStream) value);
+    } else if (value instanceof Reader) {
+      return readString((Reader) value);
+    }
+    return value;
+  }
+
+  /**
+   * Copies a detached value again, as the caller may consume or free it.
+   */
+  private static Object materialize(Method getter, Object value) throws SQLException {
+    Class<?> type = getter.getReturnType();
+    if (value instanceof byte[] && InputStream.class.equals(type)) {
+      return new ByteArrayInputStream((byte[]) value);
+    } else if (value instanceof String && Reader.class.equals(type)) {
+      return new StringReader((String) value);
+    } else if (value instanceof SerialClob) {
+      return new SerialClob((Clob) value);
+    } else if (value instanceof SerialBlob) {
+      return new SerialBlob((Blob) value);
+    } else if (value instanceof SerialArray) {
+      return new SerialArray((Array) value);
+    }
+    return value;
+  }
+
+  private static byte[] readBytes(InputStream in) throws SQLException {
+    try {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      byte[] buffer = new byte[8192];
+      int n;
+      while ((n = in.read(buffer)) != -1) {
+        out.write(buffer, 0, n);
+      }
+      return out.toByteArray();
+    } catch (IOException e) {
+      throw new SQLException("Error reading a stream of the result set. Cause: " + e, e);
+    }
+  }
+
+  private static String readString(Reader in) throws SQLException {
+    try {
+      StringBuilder out = new StringBuilder();
+      char[] buffer = new char[8192];
+      int n;
+      while ((n = in.read(buffer)) != -1) {
+        out.append(buffer, 0, n);
+      }
+      return out.toString();
+    } catch (IOException e) {
+      throw new SQLException("Error reading a stream of the result set. Cause: " + e, e);
+    }
+  }
+
+}
@@ -0,0 +1,241 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+import org.apache.ibatis.reflection.ArrayUtil;
+import org.apache.ibatis.type.IntegerTypeHandler;
+import org.apache.ibatis.type.LongTypeHandler;
+import org.apache.ibatis.type.TypeHandler;
+
+/**
+ * The identity of a row of a nested result map (join mapping): the values of its id columns, or of all its columns
+ * when it has no id, combined with the key of its parent row.
+ * <p>
+ * The values are hashed into 64 bits as they are read, so that looking up a key rarely needs to compare them.
+ * Int and long columns read by the built-in type handlers are kept unboxed.
+ *
+ * @since 3.5.0
+ */
+final class NestedRowKey {
+
+  /**
+   * The key of the rows that cannot be identified, which are never merged.
+   */
+  static final NestedRowKey NULL = new NestedRowKey(null, null, null, 0L, null, 0L);
+
+  private static final long NULL_VALUE_HASH = 0x5DEECE66DL;
+
+  private final Plan plan;
+  private final long[] longValues;
+  private final Object[] values;
+  private final long nullColumns;
+  private final NestedRowKey parent;
+  private final long hash;
+
+  private NestedRowKey(Plan plan, long[] longValues, Object[] values, long nullColumns, NestedRowKey parent, long hash) {
+    this.plan = plan;
+    this.longValues = longValues;
+    this.values = values;
+    this.nullColumns = nullColumns;
+    this.parent = parent;
+    this.hash = hash;
+  }
+
+  /**
+   * Combines this key with the key of the parent row, as the same nested row is a different object under each parent.
+   */
+  NestedRowKey combine(NestedRowKey parentKey) {
+    if (this == NULL || parentKey == NULL) {
+      return NULL;
+    }
+    return new NestedRowKey(plan, longValues, values, nullColumns, parentKey, finish(mix(hash, parentKey.hash)));
+  }
+
+  long getHash() {
+    return hash;
+  }
+
+  @Override
+  public int hashCode() {
+    return (int) (hash ^ (hash >>> 32));
+  }
+
+  @Override
+  public boolean equals(Object object) {
+    if (this == object) {
+      return true;
+    }
+    if (!(object instanceof NestedRowKey)) {
+      return false;
+    }
+    final NestedRowKey other = (NestedRowKey) object;
+    if (hash != other.hash || plan == null || other.plan == null || nullColumns != other.nullColumns
+        || !plan.isSameRows(other.plan) || !Arrays.equals(longValues, other.longValues)) {
+      return false;
+    }
+    if (values != null) {
+      for (int i = 0; i < values.length; i++) {
+        if (!ArrayUtil.equals(values[i], other.values[i])) {
+          return false;
+        }
+      }
+    }
+    return parent == null ? other.parent == null : parent.equals(other.parent);
+  }
+
+  @Override
+  public String toString() {
+    if (this == NULL) {
+      return "NULL";
+    }
+    final StringBuilder builder = new StringBuilder(plan.resultMapId);
+    for (int i = 0; i < plan.columnIndexes.length; i++) {
+      builder.append(':');
+      if (plan.primitiveColumns[i]) {
+        builder.append((nullColumns & 1L << i) == 0 ? String.valueOf(longValues[i]) : "null");
+      } else {
+        builder.append(ArrayUtil.toString(values[i]));
+      }
+    }
+    return parent == null ? builder.toString() : builder.append(" < ").append(parent).toString();
+  }
+
+  private static long mix(long hash, long value) {
+    return Long.rotateLeft(hash ^ value * 0xC2B2AE3D27D4EB4FL, 31) * 0x9E3779B97F4A7C15L;
+  }
+
+  private static long finish(long hash) {
+    // the finalizer of MurmurHash3, so that the low bits used by the open addressing map are well distributed
+    hash ^= hash >>> 33;
+    hash *= 0xFF51AFD7ED558CCDL;
+    hash ^= hash >>> 33;
+    hash *= 0xC4CEB9FE1A85EC53L;
+    return hash ^ hash >>> 33;
+  }
+
+  /**
+   * The columns that identify the rows of a result map, with a column prefix, in a result set.
+   */
+  static final class Plan {
+
+    private final String resultMapId;
+    private final String columnPrefix;
+    private final int[] columnIndexes;
+    /**
+     * The labels to read the columns with, or null to read them by index.
+     */
+    private final String[] columnLabels;
+    private final TypeHandler<?>[] typeHandlers;
+    private final boolean[] primitiveColumns;
+    private final boolean hasObjectColumns;
+    private final boolean includeNulls;
+    private final long seed;
+
+    /**
+     * @param columnLabels the label of each column, or null to read the columns by index
+     * @param typeHandlers the type handler of each column, or null to read the column as a string
+     * @param includeNulls whether a NULL column identifies a row, otherwise a row whose columns are all NULL has no key
+     */
+    Plan(String resultMapId, String columnPrefix, int[] columnIndexes, String[] columnLabels, TypeHandler<?>[] typeHandlers,
+         boolean includeNulls) {
+      this.resultMapId = resultMapId;
+      this.columnPrefix = columnPrefix;
+      this.columnIndexes = columnIndexes;
+      this.columnLabels = columnLabels;
+      this.typeHandlers = typeHandlers;
+      this.includeNulls = includeNulls;
+      this.primitiveColumns = new boolean[columnIndexes.length];
+      boolean objectColumns = false;
+      for (int i = 0; i < columnIndexes.length; i++) {
+        // the NULL columns of primitive values are recorded in a 64 bit mask.
+        // 子类可能改变了转换方式,只有内置的处理器按基本类型读取
+        primitiveColumns[i] = i < Long.SIZE && typeHandlers[i] != null
+            && (typeHandlers[i].getClass() == IntegerTypeHandler.class || typeHandlers[i].getClass() == LongTypeHandler.class);
+        objectColumns = objectColumns || !primitiveColumns[i];
+      }
+      this.hasObjectColumns = objectColumns;
+      this.seed = mix(resultMapId.hashCode(), columnPrefix == null ? 0 : columnPrefix.hashCode());
+    }
+
+    /**
+     * Reads the key of the current row of a result set.
+     *
+     * @return the key, or {@link NestedRowKey#NULL} if the row has no identifying value
+     */
+    NestedRowKey read(ResultSet rs) throws SQLException {
+      final int columnCount = columnIndexes.length;
+      final long[] longValues = new long[columnCount];
+      final Object[] values = hasObjectColumns ? new Object[columnCount] : null;
+      long nullColumns = 0;
+      long hash = seed;
+      boolean found = false;
+      for (int i = 0; i < columnCount; i++) {
+        final TypeHandler<?> typeHandler = typeHandlers[i];
+        final boolean isNull;
+        final long valueHash;
+        if (primitiveColumns[i]) {
+          final long value = readPrimitive(rs, i, typeHandler);
+          isNull = value == 0 && rs.wasNull();
+          longValues[i] = value;
+          valueHash = value;
+          if (isNull) {
+            nullColumns |= 1L << i;
+          }
+        } else {
+          final Object value = readObject(rs, i, typeHandler);
+          isNull = value == null;
+          values[i] = value;
+          valueHash = isNull ? 0 : ArrayUtil.hashCode(value);
+        }
+        hash = mix(hash, isNull ? NULL_VALUE_HASH : valueHash);
+        found = found || !isNull || includeNulls;
+      }
+      return found ? new NestedRowKey(this, longValues, values, nullColumns, null, finish(hash)) : NULL;
+    }
+
+    /**
+     * Reads an int or long column as the built-in handler of the column does.
+     */
+    private long readPrimitive(ResultSet rs, int column, TypeHandler<?> typeHandler) throws SQLException {
+      if (columnLabels != null) {
+        return typeHandler.getClass() == IntegerTypeHandler.class
+            ? rs.getInt(columnLabels[column]) : rs.getLong(columnLabels[column]);
+      }
+      return typeHandler.getClass() == IntegerTypeHandler.class
+          ? ((IntegerTypeHandler) typeHandler).getIntResult(rs, columnIndexes[column])
+          : ((LongTypeHandler) typeHandler).getLongResult(rs, columnIndexes[column]);
+    }
+
+    private Object readObject(ResultSet rs, int column, TypeHandler<?> typeHandler) throws SQLException {
+      if (columnLabels != null) {
+        return typeHandler == null ? rs.getString(columnLabels[column]) : typeHandler.getResult(rs, columnLabels[column]);
+      }
+      return typeHandler == null ? rs.getString(columnIndexes[column]) : typeHandler.getResult(rs, columnIndexes[column]);
+    }
+
+    private boolean isSameRows(Plan other) {
+      return this == other || resultMapId.equals(other.resultMapId)
+          && (columnPrefix == null ? other.columnPrefix == null : columnPrefix.equals(other.columnPrefix))
+          && Arrays.equals(columnIndexes, other.columnIndexes);
+    }
+
+  }
+
+}
@@ -0,0 +1,114 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.util.Arrays;
+
+/**
+ * The objects of the nested result maps of a result set, by row key.
+ * An open addressing map with linear probing, which compares the 64 bit hashes of the keys before the keys.
+ *
+ * @since 3.5.0
+ */
+final class NestedRowKeyMap {
+
+  private static final int INITIAL_CAPACITY = 64;
+
+  private long[] hashes = new long[INITIAL_CAPACITY];
+  private NestedRowKey[] keys = new NestedRowKey[INITIAL_CAPACITY];
+  private Object[] values = new Object[INITIAL_CAPACITY];
+  private int size;
+
+  /**
+   * @return the object of the key, or null if there is none or the key is {@link NestedRowKey#NULL}
+   */
+  Object get(NestedRowKey key) {
+    if (size == 0 || key == NestedRowKey.NULL) {
+      return null;
+    }
+    final long hash = key.getHash();
+    final int mask = keys.length - 1;
+    for (int i = indexFor(hash, mask); keys[i] != null; i = (i + 1) & mask) {
+      if (hashes[i] == hash && keys[i].equals(key)) {
+        return values[i];
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Stores the object of a key. The objects of {@link NestedRowKey#NULL} are not stored.
+   */
+  void put(NestedRowKey key, Object value) {
+    if (key == NestedRowKey.NULL) {
+      return;
+    }
+    if ((size + 1) * 2 > keys.length) {
+      resize(keys.length * 2);
+    }
+    final long hash = key.getHash();
+    final int mask = keys.length - 1;
+    int i = indexFor(hash, mask);
+    for (; keys[i] != null; i = (i + 1) & mask) {
+      if (hashes[i] == hash && keys[i].equals(key)) {
+        values[i] = value;
+        return;
+      }
+    }
+    hashes[i] = hash;
+    keys[i] = key;
+    values[i] = value;
+    size++;
+  }
+
+  int size() {
+    return size;
+  }
+
+  void clear() {
+    if (size > 0) {
+      Arrays.fill(keys, null);
+      Arrays.fill(values, null);
+      size = 0;
+    }
+  }
+
+  private void resize(int capacity) {
+    final long[] oldHashes = hashes;
+    final NestedRowKey[] oldKeys = keys;
+    final Object[] oldValues = values;
+    hashes = new long[capacity];
+    keys = new NestedRowKey[capacity];
+    values = new Object[capacity];
+    final int mask = capacity - 1;
+    for (int j = 0; j < oldKeys.length; j++) {
+      if (oldKeys[j] != null) {
+        int i = indexFor(oldHashes[j], mask);
+        while (keys[i] != null) {
+          i = (i + 1) & mask;
+        }
+        hashes[i] = oldHashes[j];
+        keys[i] = oldKeys[j];
+        values[i] = oldValues[j];
+      }
+    }
+  }
+
+  private static int indexFor(long hash, int mask) {
+    return (int) (hash ^ (hash >>> 32)) & mask;
+  }
+
+}
@@ -0,0 +1,78 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.apache.ibatis.type.JdbcType;
+
+/**
+ * The column metadata of a result set, read once and shared by the {@link ResultSetWrapper}s
+ * of the executions returning the same columns.
+ *
+ * @since 3.5.0
+ */
+final class ResultSetColumns {
+
+  final List<String> columnNames;
+  final List<String> classNames;
+  final List<JdbcType> jdbcTypes;
+
+  /**
+   * 1-based index of the first column with each upper-cased name.
+   */
+  final Map<String, Integer> columnIndexes;
+
+  private ResultSetColumns(List<String> columnNames, List<String> classNames, List<JdbcType> jdbcTypes) {
+    this.columnNames = Collections.unmodifiableList(columnNames);
+    this.classNames = Collections.unmodifiableList(classNames);
+    this.jdbcTypes = Collections.unmodifiableList(jdbcTypes);
+    final Map<String, Integer> indexes = new HashMap<>();
+    for (int i = columnNames.size() - 1; i >= 0; i--) {
+      indexes.put(columnNames.get(i).toUpperCase(Locale.ENGLISH), i + 1);
+    }
+    this.columnIndexes = Collections.unmodifiableMap(indexes);
+  }
+
+  static ResultSetColumns read(ResultSetMetaData metaData, boolean useColumnLabel) throws SQLException {
+    final int columnCount = metaData.getColumnCount();
+    final List<String> columnNames = new ArrayList<>(columnCount);
+    final List<String> classNames = new ArrayList<>(columnCount);
+    final List<JdbcType> jdbcTypes = new ArrayList<>(columnCount);
+    for (int i = 1; i <= columnCount; i++) {
+      columnNames.add(useColumnLabel ? metaData.getColumnLabel(i) : metaData.getColumnName(i));
+      jdbcTypes.add(JdbcType.forCode(metaData.getColumnType(i)));
+      classNames.add(metaData.getColumnClassName(i));
+    }
+    return new ResultSetColumns(columnNames, classNames, jdbcTypes);
+  }
+
+  int getColumnIndex(String columnName) {
+    if (columnName == null) {
+      return -1;
+    }
+    final Integer index = columnIndexes.get(columnName.toUpperCase(Locale.ENGLISH));
+    return index == null ? -1 : index;
+  }
+
+}
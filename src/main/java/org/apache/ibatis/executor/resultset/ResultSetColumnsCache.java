@@ -0,0 +1,59 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Column metadata of the result sets of a mapped statement, by SQL. A cached entry is reused when
+ * the result set has the same number of columns, without reading the label, type and class of each column.
+ *
+ * @since 3.5.0
+ */
+public class ResultSetColumnsCache {
+
+  /**
+   * Maximum number of SQL shapes cached per statement, dynamic SQL beyond it reads the metadata on every execution.
+   */
+  private static final int MAX_SQL_SHAPES = 64;
+
+  private final ConcurrentMap<String, ResultSetColumns> columnsBySql = new ConcurrentHashMap<>();
+
+  ResultSetColumns getColumns(ResultSet rs, String sql, boolean useColumnLabel) throws SQLException {
+    final ResultSetMetaData metaData = rs.getMetaData();
+    ResultSetColumns columns = columnsBySql.get(sql);
+    if (columns == null || columns.columnNames.size() != metaData.getColumnCount()) {
+      columns = ResultSetColumns.read(metaData, useColumnLabel);
+      if (columnsBySql.size() < MAX_SQL_SHAPES || columnsBySql.containsKey(sql)) {
+        columnsBySql.put(sql, columns);
+      }
+    }
+    return columns;
+  }
+
+  public int size() {
+    return columnsBySql.size();
+  }
+
+  public void clear() {
+    columnsBySql.clear();
+  }
+
+}
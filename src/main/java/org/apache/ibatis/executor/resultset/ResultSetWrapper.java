@@ -17,11 +17,11 @@ package org.apache.ibatis.executor.resultset;
 
 import org.apache.ibatis.io.Resources;
 import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.type.*;
 
 import java.sql.ResultSet;
-import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.util.*;
 
@@ -36,39 +36,61 @@ public class ResultSetWrapper {
   private final ResultSet resultSet;
   private final TypeHandlerRegistry typeHandlerRegistry;
 
+  /**
+   * 结果集的列信息,可以在多次执行之间共享
+   */
+  private final ResultSetColumns columns;
+
   /**
    * 获取数据库中的列名称
    */
-  private final List<String> columnNames = new ArrayList<>();
+  private final List<String> columnNames;
 
   /**
    * 获取数据库中列名称对应的java class类型
    */
-  private final List<String> classNames = new ArrayList<>();
+  private final List<String> classNames;
 
   /**
    * 获取jdbc的类型
    */
-  private final List<JdbcType> jdbcTypes = new ArrayList<>();
+  private final List<JdbcType> jdbcTypes;
   private final Map<String, Map<Class<?>, TypeHandler<?>>> typeHandlerMap = new HashMap<>();
   private final Map<String, List<String>> mappedColumnNamesMap = new HashMap<>();
   private final Map<String, List<String>> unMappedColumnNamesMap = new HashMap<>();
 
+  /**
+   * 属性映射和构造函数映射的列的下标,避免每行都按列名查找
+   */
+  private final Map<String, int[]> propertyMappingColumnIndexesMap = new HashMap<>();
+  private final Map<String, int[]> constructorMappingColumnIndexesMap = new HashMap<>();
+
   public ResultSetWrapper(ResultSet rs, Configuration configuration) throws SQLException {
-    super();
-    this.typeHandlerRegistry = configuration.getTypeHandlerRegistry();
-    this.resultSet = rs;
+    //对于数据库返回结果的表述,读取每一列的列名、jdbc类型和java class类型
+    this(rs, configuration, ResultSetColumns.read(rs.getMetaData(), configuration.isUseColumnLabel()));
+  }
+
+  /**
+   * 使用已经读取的列信息,例如从语句的列信息缓存中取得的
+   */
+  ResultSetWrapper(ResultSet rs, Configuration configuration, ResultSetColumns columns) {
+    this(rs, configuration.getTypeHandlerRegistry(), columns);
+  }
 
-    //对于数据库返回结果的表述
-    final ResultSetMetaData metaData = rs.getMetaData();
+  /**
+   * 复用另一个包装对象的列信息,用于包装从原结果集复制出来的行
+   */
+  ResultSetWrapper(ResultSet rs, ResultSetWrapper columns) {
+    this(rs, columns.typeHandlerRegistry, columns.columns);
+  }
 
-    //返回结果cloumu的数量
-    final int columnCount = metaData.getColumnCount();
-    for (int i = 1; i <= columnCount; i++) {
-      columnNames.add(configuration.isUseColumnLabel() ? metaData.getColumnLabel(i) : metaData.getColumnName(i));
-      jdbcTypes.add(JdbcType.forCode(metaData.getColumnType(i)));
-      classNames.add(metaData.getColumnClassName(i));
-    }
+  private ResultSetWrapper(ResultSet rs, TypeHandlerRegistry typeHandlerRegistry, ResultSetColumns columns) {
+    this.typeHandlerRegistry = typeHandlerRegistry;
+    this.resultSet = rs;
+    this.columns = columns;
+    this.columnNames = columns.columnNames;
+    this.classNames = columns.classNames;
+    this.jdbcTypes = columns.jdbcTypes;
   }
 
   public ResultSet getResultSet() {
@@ -80,7 +102,7 @@ public class ResultSetWrapper {
   }
 
   public List<String> getClassNames() {
-    return Collections.unmodifiableList(classNames);
+    return classNames;
   }
 
   public List<JdbcType> getJdbcTypes() {
@@ -88,12 +110,18 @@ public class ResultSetWrapper {
   }
 
   public JdbcType getJdbcType(String columnName) {
-    for (int i = 0 ; i < columnNames.size(); i++) {
-      if (columnNames.get(i).equalsIgnoreCase(columnName)) {
-        return jdbcTypes.get(i);
-      }
-    }
-    return null;
+    final int columnIndex = getColumnIndex(columnName);
+    return columnIndex == -1 ? null : jdbcTypes.get(columnIndex - 1);
+  }
+
+  /**
+   * Gets the index of a column, as the result set resolves a column label.
+   *
+   * @return the 1-based index of the first column with the given name ignoring case, or -1 if there is none
+   * @since 3.5.0
+   */
+  public int getColumnIndex(String columnName) {
+    return columns.getColumnIndex(columnName);
   }
 
   /**
@@ -185,6 +213,65 @@ public class ResultSetWrapper {
     return unMappedColumnNames;
   }
 
+  /**
+   * Gets the column indexes of the property mappings of a result map, in the order of
+   * {@link ResultMap#getPropertyResultMappings()}.
+   *
+   * @return the 1-based index of the column of each mapping, or -1 if the mapping does not read a column of this result set
+   * @since 3.5.0
+   */
+  public int[] getPropertyMappingColumnIndexes(ResultMap resultMap, String columnPrefix) throws SQLException {
+    final String mapKey = getMapKey(resultMap, columnPrefix);
+    int[] columnIndexes = propertyMappingColumnIndexesMap.get(mapKey);
+    if (columnIndexes == null) {
+      final List<String> mappedColumnNames = getMappedColumnNames(resultMap, columnPrefix);
+      final List<ResultMapping> propertyMappings = resultMap.getPropertyResultMappings();
+      columnIndexes = new int[propertyMappings.size()];
+      for (int i = 0; i < columnIndexes.length; i++) {
+        final ResultMapping propertyMapping = propertyMappings.get(i);
+        final String column = prependPrefix(propertyMapping.getColumn(), columnPrefix);
+        // the user added a column attribute to a nested result map, ignore it
+        if (column != null && propertyMapping.getNestedResultMapId() == null
+            && mappedColumnNames.contains(column.toUpperCase(Locale.ENGLISH))) {
+          columnIndexes[i] = getColumnIndex(column);
+        } else {
+          columnIndexes[i] = -1;
+        }
+      }
+      propertyMappingColumnIndexesMap.put(mapKey, columnIndexes);
+    }
+    return columnIndexes;
+  }
+
+  /**
+   * Gets the column indexes of the constructor mappings of a result map, in the order of
+   * {@link ResultMap#getConstructorResultMappings()}.
+   *
+   * @return the 1-based index of the column of each mapping, or -1 if the column is not in this result set
+   * @since 3.5.0
+   */
+  public int[] getConstructorMappingColumnIndexes(ResultMap resultMap, String columnPrefix) {
+    final String mapKey = getMapKey(resultMap, columnPrefix);
+    int[] columnIndexes = constructorMappingColumnIndexesMap.get(mapKey);
+    if (columnIndexes == null) {
+      final List<ResultMapping> constructorMappings = resultMap.getConstructorResultMappings();
+      columnIndexes = new int[constructorMappings.size()];
+      for (int i = 0; i < columnIndexes.length; i++) {
+        final String column = prependPrefix(constructorMappings.get(i).getColumn(), columnPrefix);
+        columnIndexes[i] = column == null ? -1 : getColumnIndex(column);
+      }
+      constructorMappingColumnIndexesMap.put(mapKey, columnIndexes);
+    }
+    return columnIndexes;
+  }
+
+  private String prependPrefix(String columnName, String prefix) {
+    if (columnName == null || columnName.length() == 0 || prefix == null || prefix.length() == 0) {
+      return columnName;
+    }
+    return prefix + columnName;
+  }
+
   private String getMapKey(ResultMap resultMap, String columnPrefix) {
     return resultMap.getId() + ":" + columnPrefix;
   }
@@ -0,0 +1,390 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.CtNewConstructor;
+import javassist.CtNewMethod;
+import javassist.LoaderClassPath;
+
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.reflection.MetaClass;
+import org.apache.ibatis.reflection.ReflectionException;
+import org.apache.ibatis.reflection.factory.DefaultObjectFactory;
+import org.apache.ibatis.reflection.property.PropertyNamer;
+import org.apache.ibatis.reflection.wrapper.DefaultObjectWrapperFactory;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.type.BooleanTypeHandler;
+import org.apache.ibatis.type.DoubleTypeHandler;
+import org.apache.ibatis.type.IntegerTypeHandler;
+import org.apache.ibatis.type.LongTypeHandler;
+import org.apache.ibatis.type.PrimitiveBooleanTypeHandler;
+import org.apache.ibatis.type.PrimitiveDoubleTypeHandler;
+import org.apache.ibatis.type.PrimitiveIntTypeHandler;
+import org.apache.ibatis.type.PrimitiveLongTypeHandler;
+import org.apache.ibatis.type.TypeHandler;
+
+/**
+ * Generates the {@link CompiledRowMapper} of a simple result map for the columns of a result set.
+ * <p>
+ * The mapping follows the one of {@link DefaultResultSetHandler}: constructor mappings, then automatic
+ * mappings, then property mappings. Only result maps whose type is a public class with public setters,
+ * created by the default object factory, are compiled; nested selects, nested results, multiple result sets
+ * and nested properties are left to the reflective mapping.
+ * <p>
+ * Columns mapped to int, long, double and boolean properties or constructor arguments are read without boxing
+ * when their type handler is a primitive one.
+ * <p>
+ * Generated classes are shared by all the result maps with the same mapping code. They are defined by a class
+ * loader of their own, child of the class loader of the result type.
+ */
+final class RowMapperCompiler {
+
+  private static final Log log = LogFactory.getLog(RowMapperCompiler.class);
+
+  private static final AtomicInteger CLASS_COUNTER = new AtomicInteger();
+
+  /**
+   * The constructors of the generated classes, by result type then by source of their mapRow method.
+   */
+  private static final ClassValue<Map<String, Optional<Constructor<?>>>> GENERATED_CLASSES =
+      new ClassValue<Map<String, Optional<Constructor<?>>>>() {
+        @Override
+        protected Map<String, Optional<Constructor<?>>> computeValue(Class<?> type) {
+          return new ConcurrentHashMap<>();
+        }
+      };
+
+  private RowMapperCompiler() {
+    // Prevent Instantiation of Static Class
+  }
+
+  /**
+   * @param autoMappings the automatic mappings of the result map, or null if they do not apply
+   * @return the row mapper, or null if the result map cannot be compiled
+   */
+  static CompiledRowMapper compile(Configuration configuration, ResultSetWrapper rsw, ResultMap resultMap,
+                                   List<DefaultResultSetHandler.UnMappedColumnAutoMapping> autoMappings) throws SQLException {
+    final Class<?> type = resultMap.getType();
+    if (!isCompilable(configuration, type)) {
+      return null;
+    }
+    final List<TypeHandler<?>> handlers = new ArrayList<>();
+    final StringBuilder source = new StringBuilder();
+    source.append("public Object mapRow(java.sql.ResultSet rs, boolean returnInstanceForEmptyRow) throws java.sql.SQLException {\n");
+    source.append("Object value;\n");
+    if (!appendInstantiation(source, handlers, rsw, resultMap)) {
+      return null;
+    }
+    final MetaClass metaClass = MetaClass.forClass(type, configuration.getReflectorFactory());
+    if (autoMappings != null) {
+      for (DefaultResultSetHandler.UnMappedColumnAutoMapping mapping : autoMappings) {
+        if (!appendSetter(source, handlers, configuration, metaClass, type, mapping.property,
+            mapping.columnIndex, mapping.typeHandler)) {
+          return null;
+        }
+      }
+    }
+    final List<ResultMapping> propertyMappings = resultMap.getPropertyResultMappings();
+    final int[] columnIndexes = rsw.getPropertyMappingColumnIndexes(resultMap, null);
+    for (int i = 0; i < columnIndexes.length; i++) {
+      final ResultMapping mapping = propertyMappings.get(i);
+      if (mapping.getNestedQueryId() != null || mapping.getNestedResultMapId() != null
+          || mapping.getResultSet() != null || mapping.isCompositeResult()) {
+        return null;
+      }
+      if (columnIndexes[i] == -1 || mapping.getProperty() == null) {
+        continue;
+      }
+      if (!appendSetter(source, handlers, configuration, metaClass, type, mapping.getProperty(),
+          columnIndexes[i], mapping.getTypeHandler())) {
+        return null;
+      }
+    }
+    source.append("if (found || returnInstanceForEmptyRow) {\nreturn row;\n}\nreturn null;\n}");
+
+    final Optional<Constructor<?>> constructor = GENERATED_CLASSES.get(type)
+        .computeIfAbsent(source.toString(), mapRowSource -> Optional.ofNullable(generate(type, mapRowSource)));
+    if (!constructor.isPresent()) {
+      return null;
+    }
+    try {
+      return (CompiledRowMapper) constructor.get().newInstance((Object) handlers.toArray(new TypeHandler<?>[0]));
+    } catch (ReflectiveOperationException e) {
+      log.warn("Could not instantiate the row mapper of result map " + resultMap.getId() + ": " + e);
+      return null;
+    }
+  }
+
+  private static boolean isCompilable(Configuration configuration, Class<?> type) {
+    if (configuration.getObjectFactory().getClass() != DefaultObjectFactory.class
+        || configuration.getObjectWrapperFactory().getClass() != DefaultObjectWrapperFactory.class
+        || type.getClassLoader() == null
+        || type.isInterface() || type.isArray() || Modifier.isAbstract(type.getModifiers())
+        || Map.class.isAssignableFrom(type)) {
+      return false;
+    }
+    return isAccessible(type);
+  }
+
+  private static boolean isAccessible(Class<?> type) {
+    if (type.isPrimitive()) {
+      return true;
+    }
+    if (type.isArray()) {
+      return isAccessible(type.getComponentType());
+    }
+    for (Class<?> c = type; c != null; c = c.getEnclosingClass()) {
+      if (!Modifier.isPublic(c.getModifiers()) || c.getEnclosingClass() != null && !Modifier.isStatic(c.getModifiers())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean appendInstantiation(StringBuilder source, List<TypeHandler<?>> handlers,
+                                             ResultSetWrapper rsw, ResultMap resultMap) {
+    final Class<?> type = resultMap.getType();
+    final List<ResultMapping> constructorMappings = resultMap.getConstructorResultMappings();
+    final String typeName = getSourceName(type);
+    if (constructorMappings.isEmpty()) {
+      try {
+        type.getConstructor();
+      } catch (NoSuchMethodException e) {
+        return false;
+      }
+      source.append(typeName).append(" row = new ").append(typeName).append("();\n");
+      source.append("boolean found = false;\n");
+      return true;
+    }
+    final int[] columnIndexes = rsw.getConstructorMappingColumnIndexes(resultMap, null);
+    final Class<?>[] parameterTypes = new Class<?>[constructorMappings.size()];
+    final StringBuilder arguments = new StringBuilder();
+    final StringBuilder allNull = new StringBuilder();
+    final StringBuilder primitiveNullChecks = new StringBuilder();
+    for (int i = 0; i < constructorMappings.size(); i++) {
+      final ResultMapping mapping = constructorMappings.get(i);
+      final int columnIndex = columnIndexes[i];
+      parameterTypes[i] = mapping.getJavaType();
+      if (mapping.getNestedQueryId() != null || mapping.getNestedResultMapId() != null || columnIndex == -1
+          || parameterTypes[i] == null || !isAccessible(parameterTypes[i])) {
+        return false;
+      }
+      if (parameterTypes[i].isPrimitive()) {
+        final String call = getPrimitiveResultCall(handlers, mapping.getTypeHandler(), parameterTypes[i], columnIndex);
+        if (call == null) {
+          return false;
+        }
+        final String argument = "arg" + i;
+        source.append(parameterTypes[i].getName()).append(' ').append(argument).append(" = ").append(call).append(";\n");
+        source.append("boolean ").append(argument).append("Null = !(").append(getNotZeroTest(parameterTypes[i], argument))
+            .append(") && rs.wasNull();\n");
+        arguments.append(i == 0 ? "" : ", ").append(argument);
+        allNull.append(i == 0 ? "" : " && ").append(argument).append("Null");
+        // the object factory cannot pass a null to a primitive argument either
+        primitiveNullChecks.append("if (").append(argument).append("Null) {\nthrow new ")
+            .append(ReflectionException.class.getName()).append("(\"Error instantiating ").append(type.getName())
+            .append(": its constructor argument ").append(i).append(" is primitive and its column is NULL\");\n}\n");
+        continue;
+      }
+      source.append("Object arg").append(i).append(" = ");
+      appendGetResult(source, handlers, mapping.getTypeHandler(), columnIndex);
+      arguments.append(i == 0 ? "" : ", ").append('(').append(getSourceName(parameterTypes[i])).append(") arg").append(i);
+      allNull.append(i == 0 ? "" : " && ").append("arg").append(i).append(" == null");
+    }
+    try {
+      type.getConstructor(parameterTypes);
+    } catch (NoSuchMethodException e) {
+      return false;
+    }
+    source.append("if (").append(allNull).append(") {\nreturn null;\n}\n");
+    source.append(primitiveNullChecks);
+    source.append(typeName).append(" row = new ").append(typeName).append('(').append(arguments).append(");\n");
+    source.append("boolean found = true;\n");
+    return true;
+  }
+
+  private static boolean appendSetter(StringBuilder source, List<TypeHandler<?>> handlers, Configuration configuration,
+                                      MetaClass metaClass, Class<?> type, String property, int columnIndex,
+                                      TypeHandler<?> typeHandler) {
+    if (columnIndex == -1 || typeHandler == null || property.indexOf('.') != -1 || property.indexOf('[') != -1
+        || !metaClass.hasSetter(property)) {
+      return false;
+    }
+    final Method setter = findSetter(type, property, metaClass.getSetterType(property));
+    if (setter == null) {
+      return false;
+    }
+    final Class<?> parameterType = setter.getParameterTypes()[0];
+    if (parameterType.isPrimitive()) {
+      final String local = "primitive" + handlers.size();
+      final String call = getPrimitiveResultCall(handlers, typeHandler, parameterType, columnIndex);
+      if (call != null) {
+        // a zero read from a NULL column is not set, as the null read by the boxed handler is not
+        source.append(parameterType.getName()).append(' ').append(local).append(" = ").append(call).append(";\n");
+        source.append("if (").append(getNotZeroTest(parameterType, local)).append(" || !rs.wasNull()) {\nfound = true;\nrow.")
+            .append(setter.getName()).append('(').append(local).append(");\n}\n");
+        return true;
+      }
+    }
+    source.append("value = ");
+    appendGetResult(source, handlers, typeHandler, columnIndex);
+    final String call = "row." + setter.getName() + "(" + getCastedValue(parameterType) + ");\n";
+    if (configuration.isCallSettersOnNulls() && !parameterType.isPrimitive()) {
+      // gcode issue #377, call setter on nulls (value is not 'found')
+      source.append("if (value != null) {\nfound = true;\n}\n").append(call);
+    } else {
+      source.append("if (value != null) {\nfound = true;\n").append(call).append("}\n");
+    }
+    return true;
+  }
+
+  private static void appendGetResult(StringBuilder source, List<TypeHandler<?>> handlers, TypeHandler<?> typeHandler, int columnIndex) {
+    source.append("handlers[").append(handlers.size()).append("].getResult(rs, ").append(columnIndex).append(");\n");
+    handlers.add(typeHandler);
+  }
+
+  /**
+   * @return the expression reading the column without boxing it, or null if the type handler is not a built-in one.
+   *     Subclasses of the built-in handlers may change the conversion of the boxed getter, so they are read with it
+   */
+  private static String getPrimitiveResultCall(List<TypeHandler<?>> handlers, TypeHandler<?> typeHandler,
+                                               Class<?> type, int columnIndex) {
+    final Class<?> primitiveHandlerType;
+    final Class<?> builtInHandlerType;
+    if (type == int.class) {
+      primitiveHandlerType = PrimitiveIntTypeHandler.class;
+      builtInHandlerType = IntegerTypeHandler.class;
+    } else if (type == long.class) {
+      primitiveHandlerType = PrimitiveLongTypeHandler.class;
+      builtInHandlerType = LongTypeHandler.class;
+    } else if (type == double.class) {
+      primitiveHandlerType = PrimitiveDoubleTypeHandler.class;
+      builtInHandlerType = DoubleTypeHandler.class;
+    } else if (type == boolean.class) {
+      primitiveHandlerType = PrimitiveBooleanTypeHandler.class;
+      builtInHandlerType = BooleanTypeHandler.class;
+    } else {
+      return null;
+    }
+    if (typeHandler.getClass() != builtInHandlerType) {
+      return null;
+    }
+    final String name = type.getName();
+    final String call = "((" + primitiveHandlerType.getName() + ") handlers[" + handlers.size() + "]).get"
+        + Character.toUpperCase(name.charAt(0)) + name.substring(1) + "Result(rs, " + columnIndex + ")";
+    handlers.add(typeHandler);
+    return call;
+  }
+
+  private static String getNotZeroTest(Class<?> type, String variable) {
+    return type == boolean.class ? variable : variable + " != 0";
+  }
+
+  private static Method findSetter(Class<?> type, String property, Class<?> setterType) {
+    for (Method method : type.getMethods()) {
+      if (method.getParameterTypes().length == 1 && method.getName().startsWith("set")
+          && method.getParameterTypes()[0] == setterType
+          && PropertyNamer.methodToProperty(method.getName()).equals(property)
+          && !Modifier.isStatic(method.getModifiers()) && isAccessible(setterType)) {
+        return method;
+      }
+    }
+    return null;
+  }
+
+  private static String getCastedValue(Class<?> parameterType) {
+    if (!parameterType.isPrimitive()) {
+      return "(" + getSourceName(parameterType) + ") value";
+    }
+    final String wrapper;
+    if (parameterType == int.class) {
+      wrapper = "Integer";
+    } else if (parameterType == char.class) {
+      wrapper = "Character";
+    } else {
+      final String name = parameterType.getName();
+      wrapper = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+    return "((java.lang." + wrapper + ") value)." + parameterType.getName() + "Value()";
+  }
+
+  private static String getSourceName(Class<?> type) {
+    return type.isArray() ? getSourceName(type.getComponentType()) + "[]" : type.getName();
+  }
+
+  private static Constructor<?> generate(Class<?> type, String mapRowSource) {
+    final String className = type.getName() + "$$RowMapper" + CLASS_COUNTER.incrementAndGet();
+    try {
+      final ClassPool classPool = new ClassPool(true);
+      classPool.appendClassPath(new LoaderClassPath(type.getClassLoader()));
+      classPool.appendClassPath(new LoaderClassPath(CompiledRowMapper.class.getClassLoader()));
+      final CtClass ctClass = classPool.makeClass(className);
+      ctClass.setSuperclass(classPool.get(CompiledRowMapper.class.getName()));
+      ctClass.addConstructor(CtNewConstructor.make("public " + className.substring(className.lastIndexOf('.') + 1)
+          + "(org.apache.ibatis.type.TypeHandler[] handlers) {\nsuper(handlers);\n}", ctClass));
+      ctClass.addMethod(CtNewMethod.make(mapRowSource, ctClass));
+      final byte[] bytecode = ctClass.toBytecode();
+      ctClass.detach();
+      final Class<?> generatedClass = new RowMapperClassLoader(type.getClassLoader()).define(className, bytecode);
+      return generatedClass.getConstructor(TypeHandler[].class);
+    } catch (Exception | LinkageError e) {
+      log.warn("Could not generate the row mapper of " + type.getName() + ", mapping it by reflection: " + e);
+      return null;
+    }
+  }
+
+  /**
+   * Defines a generated row mapper, which resolves the result type through the parent class loader
+   * and the MyBatis classes through the class loader of MyBatis.
+   */
+  private static final class RowMapperClassLoader extends ClassLoader {
+
+    private RowMapperClassLoader(ClassLoader parent) {
+      super(parent);
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+      try {
+        return super.loadClass(name, resolve);
+      } catch (ClassNotFoundException e) {
+        return CompiledRowMapper.class.getClassLoader().loadClass(name);
+      }
+    }
+
+    private Class<?> define(String name, byte[] bytecode) {
+      return defineClass(name, bytecode, 0, bytecode.length);
+    }
+
+  }
+
+}
@@ -0,0 +1,227 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.sharding;
+
+import java.lang.reflect.Array;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+
+import javax.sql.DataSource;
+
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.executor.ErrorContext;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.executor.QueryDeadline;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.PageRowBounds;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.Seek;
+import org.apache.ibatis.transaction.Transaction;
+
+/**
+ * Runs a select chunked by one of its parameters, as declared by {@link MappedStatement#getChunkBy()}: the collection
+ * is split in chunks of at most {@link MappedStatement#getChunkSize()} elements and the select runs once per chunk.
+ * The results are concatenated, or merged in the order of the ORDER BY clause of the statement, before the row bounds
+ * are applied, as if one query had run.
+ * <p>
+ * When the statement allows several chunks at a time, they run in parallel on connections of their own, opened
+ * read-only from the data source of the environment. Those queries do not see the uncommitted changes of the session,
+ * so a session with pending writes runs the chunks one after the other on its own connection. The number of workers
+ * is also kept below the maximum active connections of a {@link PooledDataSource}, which the session uses as well.
+ *
+ * @since 3.5.0
+ */
+public final class ChunkedQuery {
+
+  private ChunkedQuery() {
+    // Prevent Instantiation of Static Class
+  }
+
+  /**
+   * Splits the parameter of a chunked statement.
+   *
+   * @param parameter the parameter map holding the collection or array named by the chunkBy of the statement
+   * @return the parameter of each chunk, or null if the collection fits in one chunk
+   */
+  public static List<Object> split(MappedStatement ms, Object parameter) {
+    final String chunkBy = ms.getChunkBy();
+    if (!(parameter instanceof Map) || !((Map<?, ?>) parameter).containsKey(chunkBy)) {
+      throw new ExecutorException("The statement '" + ms.getId() + "' is chunked by '" + chunkBy
+          + "' but its parameter has no such entry. Chunked statements take a map or @Param annotated parameters.");
+    }
+    final Object collection = ((Map<?, ?>) parameter).get(chunkBy);
+    final int size;
+    if (collection == null) {
+      return null;
+    } else if (collection instanceof Collection) {
+      size = ((Collection<?>) collection).size();
+    } else if (collection.getClass().isArray()) {
+      size = Array.getLength(collection);
+    } else {
+      throw new ExecutorException("The statement '" + ms.getId() + "' is chunked by '" + chunkBy
+          + "' but its value is neither a collection nor an array: " + collection.getClass().getName());
+    }
+    final int chunkSize = ms.getChunkSize();
+    if (size <= chunkSize) {
+      return null;
+    }
+    final List<?> list = collection instanceof List ? (List<?>) collection
+        : collection instanceof Collection ? new ArrayList<>((Collection<?>) collection) : null;
+    final List<Object> chunks = new ArrayList<>((size + chunkSize - 1) / chunkSize);
+    for (int from = 0; from < size; from += chunkSize) {
+      final int to = Math.min(size, from + chunkSize);
+      final Object chunk = list != null ? new ArrayList<>(list.subList(from, to)) : copyOfRange(collection, from, to);
+      chunks.add(replaceValue(ms.getConfiguration(), (Map<?, ?>) parameter, collection, chunk));
+    }
+    return chunks;
+  }
+
+  /**
+   * Runs the select once per chunk and merges the results.
+   *
+   * @param executor the executor of the session, running the chunks one after the other
+   * @param chunks the chunk parameters returned by {@link #split(MappedStatement, Object)}
+   * @param pendingWrites whether the session has uncommitted changes, which only its own connection sees
+   */
+  public static <E> List<E> query(Executor executor, MappedStatement ms, List<Object> chunks, RowBounds rowBounds,
+                                  ResultHandler resultHandler, boolean pendingWrites) throws SQLException {
+    if (rowBounds instanceof PageRowBounds || rowBounds instanceof Seek) {
+      throw new ExecutorException("The statement '" + ms.getId() + "' is chunked, it only supports plain row bounds.");
+    }
+    final RowBounds chunkBounds = ShardingExecutor.getShardBounds(rowBounds);
+    // 每块的SQL只生成一次,第一块的SQL同时用来找ORDER BY
+    final List<BoundSql> boundSqls = new ArrayList<>(chunks.size());
+    for (Object chunk : chunks) {
+      boundSqls.add(ms.getBoundSql(chunk));
+    }
+    final int workers = pendingWrites ? 1 : getWorkers(ms, chunks.size());
+    final List<List<E>> results;
+    if (workers > 1) {
+      results = queryInParallel(ms, chunks, boundSqls, chunkBounds, workers);
+    } else {
+      results = new ArrayList<>(chunks.size());
+      for (int i = 0; i < chunks.size(); i++) {
+        results.add(ChunkedQuery.<E>queryChunk(executor, ms, chunks.get(i), boundSqls.get(i), chunkBounds));
+      }
+    }
+    final OrderByComparator comparator = OrderByComparator.forStatement(ms, boundSqls.get(0).getSql());
+    return ShardingExecutor.handleMergedResults(results, comparator, rowBounds, resultHandler);
+  }
+
+  /**
+   * The chunks of a sharded environment stay on the sharding executor of the session. Each worker holds a
+   * connection while the session holds one too, so the workers of a pooled data source leave one connection
+   * of the pool to the session, otherwise they would wait for each other.
+   *
+   * @return the number of workers, 1 to run the chunks on the executor of the session
+   */
+  private static int getWorkers(MappedStatement ms, int chunkCount) {
+    final Environment environment = ms.getConfiguration().getEnvironment();
+    if (environment == null || environment.isSharded()) {
+      return 1;
+    }
+    int workers = Math.min(ms.getChunkParallelism(), chunkCount);
+    final DataSource dataSource = environment.getDataSource();
+    if (dataSource instanceof PooledDataSource) {
+      workers = Math.min(workers, ((PooledDataSource) dataSource).getPoolMaximumActiveConnections() - 1);
+    }
+    return workers;
+  }
+
+  private static <E> List<E> queryChunk(Executor executor, MappedStatement ms, Object chunk, BoundSql boundSql,
+                                        RowBounds chunkBounds) throws SQLException {
+    final CacheKey key = executor.createCacheKey(ms, chunk, chunkBounds, boundSql);
+    return executor.query(ms, chunk, chunkBounds, Executor.NO_RESULT_HANDLER, key, boundSql);
+  }
+
+  /**
+   * Each worker opens a connection and runs every n-th chunk on it, n being the number of workers.
+   */
+  private static <E> List<List<E>> queryInParallel(MappedStatement ms, List<Object> chunks, List<BoundSql> boundSqls,
+                                                   RowBounds chunkBounds, int workers) throws SQLException {
+    final Configuration configuration = ms.getConfiguration();
+    final Environment environment = configuration.getEnvironment();
+    final List<List<E>> results = new ArrayList<>(Collections.<List<E>>nCopies(chunks.size(), null));
+    final List<Future<Void>> futures = new ArrayList<>(workers);
+    for (int worker = 0; worker < workers; worker++) {
+      final int first = worker;
+      futures.add(ShardingExecutor.PARALLEL_QUERIES.submit(QueryDeadline.propagate(() -> {
+        final Transaction transaction = environment.getTransactionFactory()
+            .newTransaction(environment.getDataSource(), null, true);
+        final Executor executor = configuration.newExecutor(transaction, ExecutorType.SIMPLE);
+        try {
+          final Connection connection = transaction.getConnection();
+          final boolean readOnly = connection.isReadOnly();
+          connection.setReadOnly(true);
+          try {
+            for (int i = first; i < chunks.size(); i += workers) {
+              results.set(i, ChunkedQuery.<E>queryChunk(executor, ms, chunks.get(i), boundSqls.get(i), chunkBounds));
+            }
+          } finally {
+            connection.setReadOnly(readOnly);
+          }
+          return null;
+        } finally {
+          executor.close(false);
+          ErrorContext.instance().reset();
+        }
+      })));
+    }
+    ShardingExecutor.await(futures);
+    return results;
+  }
+
+  private static Object copyOfRange(Object array, int from, int to) {
+    final Object copy = Array.newInstance(array.getClass().getComponentType(), to - from);
+    System.arraycopy(array, from, copy, 0, to - from);
+    return copy;
+  }
+
+  /**
+   * Copies the parameter map, replacing every entry holding the collection, as a single collection parameter
+   * is also available as "collection" and "list". The parameter maps of MyBatis keep their class, so that
+   * they still report missing keys.
+   */
+  private static Object replaceValue(Configuration configuration, Map<?, ?> parameter, Object collection, Object chunk) {
+    final Map<Object, Object> copy;
+    if (parameter instanceof HashMap) {
+      @SuppressWarnings("unchecked")
+      Class<Map<Object, Object>> type = (Class<Map<Object, Object>>) parameter.getClass();
+      copy = configuration.getObjectFactory().create(type);
+    } else {
+      copy = new HashMap<>();
+    }
+    for (Map.Entry<?, ?> entry : parameter.entrySet()) {
+      copy.put(entry.getKey(), entry.getValue() == collection ? chunk : entry.getValue());
+    }
+    return copy;
+  }
+
+}
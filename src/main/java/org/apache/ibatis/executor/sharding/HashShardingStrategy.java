@@ -0,0 +1,39 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.sharding;
+
+import java.math.BigInteger;
+
+/**
+ * Takes integral keys modulo the number of shards, other keys by their hash code.
+ *
+ * @since 3.5.0
+ */
+public class HashShardingStrategy implements ShardingStrategy {
+
+  @Override
+  public int getShard(Object shardKey, int shardCount) {
+    if (shardKey instanceof Long || shardKey instanceof Integer
+        || shardKey instanceof Short || shardKey instanceof Byte) {
+      return (int) Math.floorMod(((Number) shardKey).longValue(), (long) shardCount);
+    }
+    if (shardKey instanceof BigInteger) {
+      return ((BigInteger) shardKey).mod(BigInteger.valueOf(shardCount)).intValue();
+    }
+    return Math.floorMod(shardKey.hashCode(), shardCount);
+  }
+
+}
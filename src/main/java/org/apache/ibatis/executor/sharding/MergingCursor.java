@@ -0,0 +1,136 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.sharding;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.RowBounds;
+
+/**
+ * Streams the cursors opened on several shards as one cursor, merging them as they are read
+ * and applying the row bounds to the merged results.
+ */
+final class MergingCursor<T> implements Cursor<T> {
+
+  private final List<Cursor<T>> cursors;
+  private final Comparator<Object> comparator;
+  private final RowBounds rowBounds;
+  private boolean iteratorRetrieved;
+  private boolean opened;
+  private boolean consumed;
+  private boolean closed;
+  private int iteratorIndex = -1;
+
+  MergingCursor(List<Cursor<T>> cursors, Comparator<Object> comparator, RowBounds rowBounds) {
+    this.cursors = cursors;
+    this.comparator = comparator;
+    this.rowBounds = rowBounds;
+  }
+
+  @Override
+  public boolean isOpen() {
+    return opened && !consumed && !closed;
+  }
+
+  @Override
+  public boolean isConsumed() {
+    return consumed;
+  }
+
+  @Override
+  public int getCurrentIndex() {
+    return rowBounds.getOffset() + iteratorIndex;
+  }
+
+  @Override
+  public Iterator<T> iterator() {
+    if (iteratorRetrieved) {
+      throw new IllegalStateException("Cannot open more than one iterator on a Cursor");
+    }
+    iteratorRetrieved = true;
+    return new MergedIterator();
+  }
+
+  @Override
+  public void close() throws IOException {
+    closed = true;
+    IOException failure = null;
+    for (Cursor<T> cursor : cursors) {
+      try {
+        cursor.close();
+      } catch (IOException e) {
+        if (failure == null) {
+          failure = e;
+        }
+      }
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  private class MergedIterator implements Iterator<T> {
+
+    private MergingIterator<T> merged;
+    private int skipped;
+
+    @Override
+    public boolean hasNext() {
+      if (closed || consumed) {
+        return false;
+      }
+      if (merged == null) {
+        final List<Iterator<T>> iterators = new ArrayList<>(cursors.size());
+        for (Cursor<T> cursor : cursors) {
+          iterators.add(cursor.iterator());
+        }
+        merged = new MergingIterator<>(iterators, comparator);
+        opened = true;
+      }
+      while (skipped < rowBounds.getOffset() && merged.hasNext()) {
+        merged.next();
+        skipped++;
+      }
+      if (iteratorIndex + 1 < rowBounds.getLimit() && merged.hasNext()) {
+        return true;
+      }
+      consumed = true;
+      return false;
+    }
+
+    @Override
+    public T next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      iteratorIndex++;
+      return merged.next();
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException("Cannot remove element from Cursor");
+    }
+
+  }
+
+}
@@ -0,0 +1,93 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.sharding;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * Merges the results of several shards, each sorted by the comparator, keeping them sorted
+ * (shards are taken in turn on ties), or concatenates them when there is no comparator.
+ * The iterators are read lazily, at most one result ahead of the merge for each shard.
+ */
+final class MergingIterator<E> implements Iterator<E> {
+
+  private final List<? extends Iterator<E>> iterators;
+  private final Comparator<Object> comparator;
+  private PriorityQueue<Head<E>> heads;
+  private int current;
+
+  MergingIterator(List<? extends Iterator<E>> iterators, Comparator<Object> comparator) {
+    this.iterators = iterators;
+    this.comparator = comparator;
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (comparator == null) {
+      while (current < iterators.size() && !iterators.get(current).hasNext()) {
+        current++;
+      }
+      return current < iterators.size();
+    }
+    return !getHeads().isEmpty();
+  }
+
+  @Override
+  public E next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    if (comparator == null) {
+      return iterators.get(current).next();
+    }
+    final Head<E> head = heads.poll();
+    final Iterator<E> iterator = iterators.get(head.shard);
+    if (iterator.hasNext()) {
+      heads.add(new Head<>(head.shard, iterator.next()));
+    }
+    return head.value;
+  }
+
+  private PriorityQueue<Head<E>> getHeads() {
+    if (heads == null) {
+      heads = new PriorityQueue<>(Math.max(1, iterators.size()), (h1, h2) -> {
+        final int result = comparator.compare(h1.value, h2.value);
+        return result != 0 ? result : Integer.compare(h1.shard, h2.shard);
+      });
+      for (int i = 0; i < iterators.size(); i++) {
+        if (iterators.get(i).hasNext()) {
+          heads.add(new Head<>(i, iterators.get(i).next()));
+        }
+      }
+    }
+    return heads;
+  }
+
+  private static final class Head<E> {
+    private final int shard;
+    private final E value;
+
+    private Head(int shard, E value) {
+      this.shard = shard;
+      this.value = value;
+    }
+  }
+
+}
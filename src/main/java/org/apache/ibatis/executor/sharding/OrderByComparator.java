@@ -0,0 +1,263 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.sharding;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.reflection.MetaClass;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * Compares the result objects of a statement the way its top level ORDER BY clause sorts their rows,
+ * so that the sorted results of several shards can be merged. Each sorted column is read back from the
+ * property it is mapped to, or from the map entry or the single column value for maps and simple types.
+ * Values are compared with their natural ordering, which may differ from the collation of the database
+ * for strings, and nulls sort as the lowest values unless NULLS FIRST or NULLS LAST is given.
+ */
+final class OrderByComparator implements Comparator<Object> {
+
+  private final Configuration configuration;
+  private final List<SortKey> sortKeys;
+
+  private OrderByComparator(Configuration configuration, List<SortKey> sortKeys) {
+    this.configuration = configuration;
+    this.sortKeys = sortKeys;
+  }
+
+  /**
+   * @return the comparator sorting the results of the statement, or null if its SQL is not ordered
+   */
+  static OrderByComparator forStatement(MappedStatement ms, String sql) {
+    final String orderBy = findOrderBy(sql);
+    if (orderBy == null) {
+      return null;
+    }
+    final Configuration configuration = ms.getConfiguration();
+    final ResultMap resultMap = ms.getResultMaps().get(0);
+    final List<SortKey> sortKeys = new ArrayList<>();
+    for (String item : splitTopLevel(orderBy)) {
+      sortKeys.add(parseSortKey(ms, configuration, resultMap, item));
+    }
+    return new OrderByComparator(configuration, sortKeys);
+  }
+
+  @Override
+  public int compare(Object o1, Object o2) {
+    for (SortKey sortKey : sortKeys) {
+      final Object v1 = getValue(sortKey, o1);
+      final Object v2 = getValue(sortKey, o2);
+      if (v1 == null || v2 == null) {
+        if (v1 == v2) {
+          continue;
+        }
+        return (v1 == null) == sortKey.nullsFirst ? -1 : 1;
+      }
+      @SuppressWarnings("unchecked")
+      final int result = ((Comparable<Object>) v1).compareTo(v2);
+      if (result != 0) {
+        return sortKey.descending ? -result : result;
+      }
+    }
+    return 0;
+  }
+
+  private Object getValue(SortKey sortKey, Object row) {
+    if (row == null) {
+      return null;
+    }
+    switch (sortKey.source) {
+      case ROW:
+        return row;
+      case MAP:
+        return getMapValue((Map<?, ?>) row, sortKey.column);
+      default:
+        return configuration.newMetaObject(row).getValue(sortKey.property);
+    }
+  }
+
+  private static Object getMapValue(Map<?, ?> map, String column) {
+    if (map.containsKey(column)) {
+      return map.get(column);
+    }
+    for (Map.Entry<?, ?> entry : map.entrySet()) {
+      if (column.equalsIgnoreCase(String.valueOf(entry.getKey()))) {
+        return entry.getValue();
+      }
+    }
+    return null;
+  }
+
+  private static SortKey parseSortKey(MappedStatement ms, Configuration configuration, ResultMap resultMap, String item) {
+    final String[] tokens = item.trim().split("\\s+");
+    int length = tokens.length;
+    Boolean nullsFirst = null;
+    boolean descending = false;
+    if (length > 2 && "nulls".equalsIgnoreCase(tokens[length - 2])) {
+      nullsFirst = "first".equalsIgnoreCase(tokens[length - 1]);
+      length -= 2;
+    }
+    if (length > 1 && ("asc".equalsIgnoreCase(tokens[length - 1]) || "desc".equalsIgnoreCase(tokens[length - 1]))) {
+      descending = "desc".equalsIgnoreCase(tokens[length - 1]);
+      length--;
+    }
+    if (length != 1 || !tokens[0].matches("[\\w$.\"`\\[\\]]+") || tokens[0].matches("\\d+")) {
+      throw new ExecutorException("Cannot merge the results of statement '" + ms.getId()
+          + "' across shards: only columns are supported in its ORDER BY clause, not '" + item.trim() + "'.");
+    }
+    final String expression = tokens[0];
+    final String column = expression.substring(expression.lastIndexOf('.') + 1).replaceAll("[\"`\\[\\]]", "");
+    final SortKey sortKey = new SortKey(column, descending, nullsFirst == null ? !descending : nullsFirst);
+    final Class<?> type = resultMap.getType();
+    if (configuration.getTypeHandlerRegistry().hasTypeHandler(type)) {
+      sortKey.source = Source.ROW;
+    } else if (Map.class.isAssignableFrom(type)) {
+      sortKey.source = Source.MAP;
+    } else {
+      sortKey.source = Source.PROPERTY;
+      sortKey.property = findProperty(configuration, resultMap, column);
+      if (sortKey.property == null) {
+        throw new ExecutorException("Cannot merge the results of statement '" + ms.getId()
+            + "' across shards: no property of " + type.getName() + " is mapped to the ordering column '" + column + "'.");
+      }
+    }
+    return sortKey;
+  }
+
+  private static String findProperty(Configuration configuration, ResultMap resultMap, String column) {
+    final MetaClass metaClass = MetaClass.forClass(resultMap.getType(), configuration.getReflectorFactory());
+    for (ResultMapping resultMapping : resultMap.getResultMappings()) {
+      final String property = resultMapping.getProperty();
+      if (property != null && column.equalsIgnoreCase(resultMapping.getColumn())
+          && resultMapping.getNestedQueryId() == null && resultMapping.getNestedResultMapId() == null
+          && metaClass.hasGetter(property)) {
+        return property;
+      }
+    }
+    final String property = metaClass.findProperty(column, configuration.isMapUnderscoreToCamelCase());
+    return property != null && metaClass.hasGetter(property) ? property : null;
+  }
+
+  /**
+   * Returns the items of the last ORDER BY clause found outside of parentheses and quotes,
+   * up to a following LIMIT, OFFSET, FETCH or FOR clause.
+   */
+  static String findOrderBy(String sql) {
+    final String lower = sql.toLowerCase(Locale.ENGLISH);
+    int start = -1;
+    int end = sql.length();
+    int depth = 0;
+    char quote = 0;
+    for (int i = 0; i < lower.length(); i++) {
+      final char c = lower.charAt(i);
+      if (quote != 0) {
+        if (c == quote) {
+          quote = 0;
+        }
+      } else if (c == '\'' || c == '"' || c == '`') {
+        quote = c;
+      } else if (c == '(') {
+        depth++;
+      } else if (c == ')') {
+        depth--;
+      } else if (depth == 0 && isWordStart(lower, i)) {
+        if (lower.startsWith("order", i) && isWordEnd(lower, i + 5)) {
+          int by = skipWhitespace(lower, i + 5);
+          if (lower.startsWith("by", by) && isWordEnd(lower, by + 2)) {
+            start = by + 2;
+            end = sql.length();
+          }
+        } else if (start != -1 && end == sql.length() && isClauseAfterOrderBy(lower, i)) {
+          end = i;
+        }
+      }
+    }
+    return start == -1 ? null : sql.substring(start, end);
+  }
+
+  private static boolean isClauseAfterOrderBy(String sql, int index) {
+    for (String keyword : new String[] {"limit", "offset", "fetch", "for"}) {
+      if (sql.startsWith(keyword, index) && isWordEnd(sql, index + keyword.length())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static List<String> splitTopLevel(String items) {
+    final List<String> result = new ArrayList<>();
+    int depth = 0;
+    int start = 0;
+    for (int i = 0; i < items.length(); i++) {
+      final char c = items.charAt(i);
+      if (c == '(') {
+        depth++;
+      } else if (c == ')') {
+        depth--;
+      } else if (c == ',' && depth == 0) {
+        result.add(items.substring(start, i));
+        start = i + 1;
+      }
+    }
+    result.add(items.substring(start));
+    return result;
+  }
+
+  private static boolean isWordStart(String sql, int index) {
+    return index == 0 || !isIdentifierPart(sql.charAt(index - 1));
+  }
+
+  private static boolean isWordEnd(String sql, int index) {
+    return index >= sql.length() || !isIdentifierPart(sql.charAt(index));
+  }
+
+  private static boolean isIdentifierPart(char c) {
+    return Character.isLetterOrDigit(c) || c == '_' || c == '$' || c == '.';
+  }
+
+  private static int skipWhitespace(String sql, int index) {
+    while (index < sql.length() && Character.isWhitespace(sql.charAt(index))) {
+      index++;
+    }
+    return index;
+  }
+
+  private enum Source {
+    ROW, MAP, PROPERTY
+  }
+
+  private static final class SortKey {
+    private final String column;
+    private final boolean descending;
+    private final boolean nullsFirst;
+    private Source source;
+    private String property;
+
+    private SortKey(String column, boolean descending, boolean nullsFirst) {
+      this.column = column;
+      this.descending = descending;
+      this.nullsFirst = nullsFirst;
+    }
+  }
+
+}
@@ -0,0 +1,500 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.sharding;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.executor.BatchExecutor;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.executor.ErrorContext;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.executor.QueryDeadline;
+import org.apache.ibatis.executor.pagination.Pagination;
+import org.apache.ibatis.executor.result.DefaultResultContext;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.Seek;
+import org.apache.ibatis.transaction.Transaction;
+
+/**
+ * Executes statements on the shards of a sharded environment, one executor per shard.
+ * <p>
+ * A statement whose shard key resolves to a value runs on the shard chosen by the {@link ShardingStrategy}.
+ * When the parameter holds a collection whose elements carry the shard key, as multi-row inserts do,
+ * the collection is partitioned and each shard runs the statement with its own elements.
+ * Other queries run on all the shards in parallel, their results being merged in the order of the ORDER BY
+ * clause of the statement, if any, before the row bounds are applied. Other writes are rejected.
+ * With a result handler, the results are streamed to it: ordered ones through cursors on the shards,
+ * the others as each shard maps them, one call at a time.
+ * <p>
+ * Nested selects and select keys run on the shard of the statement that triggers them. Each shard
+ * commits its own transaction, there is no atomic commit across shards.
+ *
+ * @since 3.5.0
+ */
+public class ShardingExecutor implements Executor {
+
+  private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+  static final ExecutorService PARALLEL_QUERIES = Executors.newCachedThreadPool(runnable -> {
+    Thread thread = new Thread(runnable, "mybatis-parallel-query-" + THREAD_COUNTER.incrementAndGet());
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  private final Configuration configuration;
+  private final List<Executor> shards;
+  private final ShardingStrategy shardingStrategy;
+
+  public ShardingExecutor(Configuration configuration, List<Executor> shards, ShardingStrategy shardingStrategy) {
+    this.configuration = configuration;
+    this.shards = shards;
+    this.shardingStrategy = shardingStrategy;
+  }
+
+  @Override
+  public int update(MappedStatement ms, Object parameter) throws SQLException {
+    int updates = 0;
+    boolean batched = false;
+    for (Map.Entry<Integer, Object> route : route(ms, parameter).entrySet()) {
+      int result = shards.get(route.getKey()).update(ms, route.getValue());
+      if (result == BatchExecutor.BATCH_UPDATE_RETURN_VALUE) {
+        batched = true;
+      } else {
+        updates += result;
+      }
+    }
+    return batched ? BatchExecutor.BATCH_UPDATE_RETURN_VALUE : updates;
+  }
+
+  @Override
+  public <E> List<E> query(MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler resultHandler) throws SQLException {
+    Map<Integer, Object> routes = route(ms, parameter);
+    if (routes.size() == 1) {
+      return shards.get(routes.keySet().iterator().next()).query(ms, parameter, rowBounds, resultHandler);
+    }
+    Pagination.count(this, ms, parameter, rowBounds);
+    return queryShards(ms, parameter, rowBounds, resultHandler, routes);
+  }
+
+  @Override
+  public <E> List<E> query(MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler resultHandler, CacheKey key, BoundSql boundSql) throws SQLException {
+    Map<Integer, Object> routes = route(ms, parameter);
+    if (routes.size() == 1) {
+      return shards.get(routes.keySet().iterator().next()).query(ms, parameter, rowBounds, resultHandler, key, boundSql);
+    }
+    return queryShards(ms, parameter, rowBounds, resultHandler, routes);
+  }
+
+  @Override
+  public <E> Cursor<E> queryCursor(MappedStatement ms, Object parameter, RowBounds rowBounds) throws SQLException {
+    Map<Integer, Object> routes = route(ms, parameter);
+    if (routes.size() == 1) {
+      return shards.get(routes.keySet().iterator().next()).queryCursor(ms, parameter, rowBounds);
+    }
+    checkNotSeeking(ms, rowBounds);
+    Pagination.count(this, ms, parameter, rowBounds);
+    OrderByComparator comparator = OrderByComparator.forStatement(ms, ms.getBoundSql(parameter).getSql());
+    return new MergingCursor<>(this.<E>openCursors(ms, routes, getShardBounds(rowBounds)), comparator, rowBounds);
+  }
+
+  private <E> List<Cursor<E>> openCursors(MappedStatement ms, Map<Integer, Object> routes, RowBounds shardBounds) throws SQLException {
+    List<Cursor<E>> cursors = new ArrayList<>(routes.size());
+    try {
+      for (Map.Entry<Integer, Object> route : routes.entrySet()) {
+        cursors.add(shards.get(route.getKey()).<E>queryCursor(ms, route.getValue(), shardBounds));
+      }
+    } catch (SQLException | RuntimeException e) {
+      for (Cursor<E> cursor : cursors) {
+        try {
+          cursor.close();
+        } catch (IOException ignore) {
+          // Prefer the original exception
+        }
+      }
+      throw e;
+    }
+    return cursors;
+  }
+
+  private <E> List<E> queryShards(MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler resultHandler,
+                                  Map<Integer, Object> routes) throws SQLException {
+    checkNotSeeking(ms, rowBounds);
+    OrderByComparator comparator = OrderByComparator.forStatement(ms, ms.getBoundSql(parameter).getSql());
+    RowBounds shardBounds = getShardBounds(rowBounds);
+    if (resultHandler != null && comparator != null) {
+      // 按ORDER BY合并时，逐行读取各分片的游标，不必保存整个结果
+      try (Cursor<E> merged = new MergingCursor<>(this.<E>openCursors(ms, routes, shardBounds), comparator, rowBounds)) {
+        handleMergedResults(merged.iterator(), RowBounds.DEFAULT, resultHandler);
+      } catch (IOException e) {
+        throw new ExecutorException("Error closing the cursors of the shards.  Cause: " + e, e);
+      }
+      return new ArrayList<>();
+    }
+    // 没有排序时各分片的结果直接交给同一个结果处理器，调用按顺序进行
+    final ResultHandler shardHandler = resultHandler == null ? Executor.NO_RESULT_HANDLER
+        : new SynchronizedResultHandler<E>(resultHandler, rowBounds);
+    List<Future<List<E>>> futures = new ArrayList<>(routes.size());
+    for (Map.Entry<Integer, Object> route : routes.entrySet()) {
+      Executor shard = shards.get(route.getKey());
+      Object shardParameter = route.getValue();
+      futures.add(PARALLEL_QUERIES.submit(QueryDeadline.propagate(() -> {
+        try {
+          return shard.<E>query(ms, shardParameter, shardBounds, shardHandler);
+        } finally {
+          ErrorContext.instance().reset();
+        }
+      })));
+    }
+    List<List<E>> results = await(futures);
+    if (resultHandler != null) {
+      return new ArrayList<>();
+    }
+    return handleMergedResults(results, comparator, rowBounds, null);
+  }
+
+  /**
+   * Merges the results of several queries, applies the row bounds and passes them to the result handler if any.
+   */
+  static <E> List<E> handleMergedResults(List<List<E>> results, OrderByComparator comparator, RowBounds rowBounds,
+                                         ResultHandler resultHandler) {
+    List<Iterator<E>> iterators = new ArrayList<>(results.size());
+    for (List<E> result : results) {
+      iterators.add(result.iterator());
+    }
+    return handleMergedResults(new MergingIterator<>(iterators, comparator), rowBounds, resultHandler);
+  }
+
+  private static <E> List<E> handleMergedResults(Iterator<E> merged, RowBounds rowBounds, ResultHandler resultHandler) {
+    for (int i = 0; i < rowBounds.getOffset() && merged.hasNext(); i++) {
+      merged.next();
+    }
+    List<E> list = new ArrayList<>();
+    DefaultResultContext<E> resultContext = new DefaultResultContext<>();
+    for (int i = 0; i < rowBounds.getLimit() && merged.hasNext(); i++) {
+      E result = merged.next();
+      if (resultHandler == null) {
+        list.add(result);
+      } else {
+        resultContext.nextResultObject(result);
+        resultHandler.handleResult(resultContext);
+        if (resultContext.isStopped()) {
+          break;
+        }
+      }
+    }
+    return list;
+  }
+
+  /**
+   * Passes the results of the shards, as they come, to the result handler of the statement, one at a time,
+   * applying the row bounds. The shards stop once the limit is reached or the handler stops.
+   */
+  private static final class SynchronizedResultHandler<E> implements ResultHandler<E> {
+
+    private final ResultHandler<E> delegate;
+    private final RowBounds rowBounds;
+    private final DefaultResultContext<E> resultContext = new DefaultResultContext<>();
+    private int skipped;
+
+    SynchronizedResultHandler(ResultHandler<E> delegate, RowBounds rowBounds) {
+      this.delegate = delegate;
+      this.rowBounds = rowBounds;
+    }
+
+    @Override
+    public synchronized void handleResult(ResultContext<? extends E> context) {
+      if (isDone()) {
+        context.stop();
+        return;
+      }
+      if (skipped < rowBounds.getOffset()) {
+        skipped++;
+        return;
+      }
+      resultContext.nextResultObject(context.getResultObject());
+      delegate.handleResult(resultContext);
+      if (isDone()) {
+        context.stop();
+      }
+    }
+
+    private boolean isDone() {
+      return resultContext.isStopped() || resultContext.getResultCount() >= rowBounds.getLimit();
+    }
+  }
+
+  static <T> List<T> await(List<Future<T>> futures) throws SQLException {
+    List<T> results = new ArrayList<>(futures.size());
+    Throwable failure = null;
+    for (Future<T> future : futures) {
+      try {
+        results.add(future.get());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new ExecutorException("Interrupted while waiting for parallel queries.", e);
+      } catch (ExecutionException e) {
+        if (failure == null) {
+          failure = e.getCause();
+        }
+      }
+    }
+    if (failure instanceof SQLException) {
+      throw (SQLException) failure;
+    } else if (failure instanceof RuntimeException) {
+      throw (RuntimeException) failure;
+    } else if (failure instanceof Error) {
+      throw (Error) failure;
+    } else if (failure != null) {
+      throw new ExecutorException("Error running parallel queries.  Cause: " + failure, failure);
+    }
+    return results;
+  }
+
+  private void checkNotSeeking(MappedStatement ms, RowBounds rowBounds) {
+    if (rowBounds instanceof Seek) {
+      throw new ExecutorException("Keyset pagination is not supported by statement '" + ms.getId()
+          + "' because it runs on several shards. Give it a shard key.");
+    }
+  }
+
+  /**
+   * Each shard returns the rows up to the end of the requested ones, the offset being applied after the merge.
+   */
+  static RowBounds getShardBounds(RowBounds rowBounds) {
+    if (rowBounds.getLimit() == RowBounds.NO_ROW_LIMIT) {
+      return RowBounds.DEFAULT;
+    }
+    return new RowBounds(RowBounds.NO_ROW_OFFSET,
+        (int) Math.min((long) rowBounds.getOffset() + rowBounds.getLimit(), RowBounds.NO_ROW_LIMIT));
+  }
+
+  /**
+   * @return the parameter to execute the statement with on each shard it is routed to, by shard index
+   */
+  private Map<Integer, Object> route(MappedStatement ms, Object parameter) {
+    Map<Integer, Object> routes = new TreeMap<>();
+    String shardKey = ms.getShardKey();
+    if (shardKey != null && parameter != null) {
+      Object value = getShardKeyValue(parameter, shardKey);
+      if (value != null) {
+        routes.put(getShard(value), parameter);
+        return routes;
+      }
+      Collection<?> collection = getCollection(parameter);
+      if (collection != null && !collection.isEmpty()) {
+        Map<Integer, List<Object>> partitions = partition(collection, shardKey);
+        if (partitions != null && partitions.size() == 1) {
+          routes.put(partitions.keySet().iterator().next(), parameter);
+          return routes;
+        } else if (partitions != null) {
+          for (Map.Entry<Integer, List<Object>> partition : partitions.entrySet()) {
+            routes.put(partition.getKey(), replaceCollection(parameter, collection, partition.getValue()));
+          }
+          return routes;
+        }
+      }
+    }
+    // 只有查询可以在所有分片上执行，写语句无法路由时报错
+    if (ms.getSqlCommandType() != SqlCommandType.SELECT) {
+      throw new ExecutorException("Cannot route the " + ms.getSqlCommandType() + " statement '" + ms.getId()
+          + "' to a shard: " + (shardKey == null ? "it has no shard key."
+          : "its shard key '" + shardKey + "' did not resolve to a value."));
+    }
+    for (int i = 0; i < shards.size(); i++) {
+      routes.put(i, parameter);
+    }
+    return routes;
+  }
+
+  private Object getShardKeyValue(Object parameter, String shardKey) {
+    if (configuration.getTypeHandlerRegistry().hasTypeHandler(parameter.getClass())) {
+      return parameter;
+    }
+    MetaObject metaObject = configuration.newMetaObject(parameter);
+    return metaObject.hasGetter(shardKey) ? metaObject.getValue(shardKey) : null;
+  }
+
+  private int getShard(Object shardKey) {
+    int shard = shardingStrategy.getShard(shardKey, shards.size());
+    if (shard < 0 || shard >= shards.size()) {
+      throw new ExecutorException("The sharding strategy returned shard " + shard + " for the shard key '" + shardKey
+          + "' but there are " + shards.size() + " shards.");
+    }
+    return shard;
+  }
+
+  /**
+   * @return the collection held by the parameter, if it is one or the only one its map holds
+   */
+  private Collection<?> getCollection(Object parameter) {
+    if (parameter instanceof Collection) {
+      return (Collection<?>) parameter;
+    }
+    if (!(parameter instanceof Map)) {
+      return null;
+    }
+    Collection<?> collection = null;
+    for (Object value : ((Map<?, ?>) parameter).values()) {
+      if (value instanceof Collection && value != collection) {
+        if (collection != null) {
+          return null;
+        }
+        collection = (Collection<?>) value;
+      }
+    }
+    return collection;
+  }
+
+  /**
+   * @return the elements by shard, or null if one of them has no shard key
+   */
+  private Map<Integer, List<Object>> partition(Collection<?> collection, String shardKey) {
+    Map<Integer, List<Object>> partitions = new TreeMap<>();
+    for (Object element : collection) {
+      Object value = element == null ? null : getShardKeyValue(element, shardKey);
+      if (value == null) {
+        return null;
+      }
+      partitions.computeIfAbsent(getShard(value), k -> new ArrayList<>()).add(element);
+    }
+    return partitions;
+  }
+
+  private Object replaceCollection(Object parameter, Collection<?> collection, List<Object> partition) {
+    if (parameter == collection) {
+      return partition;
+    }
+    @SuppressWarnings("unchecked")
+    Map<Object, Object> copy = configuration.getObjectFactory().create((Class<Map<Object, Object>>) parameter.getClass());
+    for (Map.Entry<?, ?> entry : ((Map<?, ?>) parameter).entrySet()) {
+      copy.put(entry.getKey(), entry.getValue() == collection ? partition : entry.getValue());
+    }
+    return copy;
+  }
+
+  @Override
+  public List<BatchResult> flushStatements() throws SQLException {
+    List<BatchResult> results = new ArrayList<>();
+    for (Executor shard : shards) {
+      results.addAll(shard.flushStatements());
+    }
+    return results;
+  }
+
+  @Override
+  public void commit(boolean required) throws SQLException {
+    for (Executor shard : shards) {
+      shard.commit(required);
+    }
+  }
+
+  @Override
+  public void rollback(boolean required) throws SQLException {
+    SQLException failure = null;
+    for (Executor shard : shards) {
+      try {
+        shard.rollback(required);
+      } catch (SQLException e) {
+        if (failure == null) {
+          failure = e;
+        }
+      }
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  @Override
+  public CacheKey createCacheKey(MappedStatement ms, Object parameterObject, RowBounds rowBounds, BoundSql boundSql) {
+    return shards.get(0).createCacheKey(ms, parameterObject, rowBounds, boundSql);
+  }
+
+  @Override
+  public boolean isCached(MappedStatement ms, CacheKey key) {
+    for (Executor shard : shards) {
+      if (shard.isCached(ms, key)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public void clearLocalCache() {
+    for (Executor shard : shards) {
+      shard.clearLocalCache();
+    }
+  }
+
+  @Override
+  public void deferLoad(MappedStatement ms, MetaObject resultObject, String property, CacheKey key, Class<?> targetType) {
+    for (Executor shard : shards) {
+      if (shard.isCached(ms, key)) {
+        shard.deferLoad(ms, resultObject, property, key, targetType);
+        return;
+      }
+    }
+    shards.get(0).deferLoad(ms, resultObject, property, key, targetType);
+  }
+
+  /**
+   * @return the transaction of the first shard, on the data source of the environment
+   */
+  @Override
+  public Transaction getTransaction() {
+    return shards.get(0).getTransaction();
+  }
+
+  @Override
+  public void close(boolean forceRollback) {
+    for (Executor shard : shards) {
+      shard.close(forceRollback);
+    }
+  }
+
+  @Override
+  public boolean isClosed() {
+    return shards.get(0).isClosed();
+  }
+
+  @Override
+  public void setExecutorWrapper(Executor executor) {
+    // The shards keep wrapping themselves so that nested statements stay on the shard of their parent
+  }
+
+}
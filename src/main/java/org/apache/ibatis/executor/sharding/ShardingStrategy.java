@@ -0,0 +1,32 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.sharding;
+
+/**
+ * Maps the value of the shard key of a statement to the shard it is executed on.
+ *
+ * @since 3.5.0
+ */
+public interface ShardingStrategy {
+
+  /**
+   * @param shardKey the non null value of the shard key
+   * @param shardCount the number of shards of the environment
+   * @return the index of the shard, from 0 to {@code shardCount - 1}
+   */
+  int getShard(Object shardKey, int shardCount);
+
+}
@@ -18,7 +18,10 @@ package org.apache.ibatis.executor.statement;
 import org.apache.ibatis.executor.ErrorContext;
 import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.executor.QueryDeadline;
 import org.apache.ibatis.executor.keygen.KeyGenerator;
+import org.apache.ibatis.executor.pagination.KeysetPagination;
+import org.apache.ibatis.executor.pagination.Pagination;
 import org.apache.ibatis.executor.parameter.ParameterHandler;
 import org.apache.ibatis.executor.resultset.ResultSetHandler;
 import org.apache.ibatis.mapping.BoundSql;
@@ -27,6 +30,7 @@ import org.apache.ibatis.reflection.factory.ObjectFactory;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.Seek;
 import org.apache.ibatis.type.TypeHandlerRegistry;
 
 import java.sql.Connection;
@@ -89,7 +93,6 @@ public abstract class BaseStatementHandler implements StatementHandler {
     this.configuration = mappedStatement.getConfiguration();
     this.executor = executor;
     this.mappedStatement = mappedStatement;
-    this.rowBounds = rowBounds;
 
     this.typeHandlerRegistry = configuration.getTypeHandlerRegistry();
 
@@ -103,12 +106,29 @@ public abstract class BaseStatementHandler implements StatementHandler {
       boundSql = mappedStatement.getBoundSql(parameterObject);
     }
 
+    // 结果集处理器使用的分页参数
+    RowBounds resultSetRowBounds = rowBounds;
+    if (rowBounds instanceof Seek) {
+      boundSql = KeysetPagination.getSeekBoundSql(mappedStatement, boundSql, (Seek) rowBounds);
+      if (KeysetPagination.isLimitedInSql(mappedStatement)) {
+        // 由数据库完成限制，但结果集处理器仍需要Seek来记录下一页的位置，Seek没有偏移量，按limit截断也不影响结果
+        rowBounds = RowBounds.DEFAULT;
+      }
+    } else if (Pagination.isPaginated(mappedStatement, rowBounds)) {
+      // 由数据库完成分页，结果集处理时不再跳过记录
+      boundSql = Pagination.getPageBoundSql(mappedStatement, boundSql, rowBounds);
+      rowBounds = RowBounds.DEFAULT;
+      resultSetRowBounds = RowBounds.DEFAULT;
+    }
+
+    this.rowBounds = rowBounds;
+
     this.boundSql = boundSql;
     /**
      * TODO 理解ParameterHandler ResultSetHandler
      */
     this.parameterHandler = configuration.newParameterHandler(mappedStatement, parameterObject, boundSql);
-    this.resultSetHandler = configuration.newResultSetHandler(executor, mappedStatement, rowBounds, parameterHandler, resultHandler, boundSql);
+    this.resultSetHandler = configuration.newResultSetHandler(executor, mappedStatement, resultSetRowBounds, parameterHandler, resultHandler, boundSql);
   }
 
   @Override
@@ -131,6 +151,11 @@ public abstract class BaseStatementHandler implements StatementHandler {
   @Override
   public Statement prepare(Connection connection, Integer transactionTimeout) throws SQLException {
     ErrorContext.instance().sql(boundSql.getSql());
+    QueryDeadline deadline = QueryDeadline.current();
+    if (deadline != null) {
+      // 请求级别的时间预算已经耗尽，直接失败
+      deadline.check();
+    }
     Statement statement = null;
     try {
       //获取实例
@@ -163,6 +188,7 @@ public abstract class BaseStatementHandler implements StatementHandler {
    * 设置 执行超时设置
    * 1、查看当前执行语句是否设置超时时间
    * 2、查看当前是否设置默认的超时
+   * 3、当前线程存在 {@link QueryDeadline} 时，使用剩余的时间预算
    *
    * @param stmt
    * @param transactionTimeout
@@ -179,10 +205,14 @@ public abstract class BaseStatementHandler implements StatementHandler {
       stmt.setQueryTimeout(queryTimeout);
     }
     StatementUtil.applyTransactionTimeout(stmt, queryTimeout, transactionTimeout);
+    StatementUtil.applyDeadline(stmt, QueryDeadline.current());
   }
 
   /**
    * 设置  提示给JDBC驱动程序的行数时,应该从数据库中获取所需的行
+   * 1、当前执行语句显式设置的fetchSize
+   * 2、开启adaptiveFetchSizeEnabled时，根据历次执行获取的行数推算
+   * 3、默认的fetchSize
    * @param stmt
    * @throws SQLException
    */
@@ -192,6 +222,14 @@ public abstract class BaseStatementHandler implements StatementHandler {
       stmt.setFetchSize(fetchSize);
       return;
     }
+    if (configuration.isAdaptiveFetchSizeEnabled()) {
+      Integer adaptiveFetchSize = mappedStatement.getFetchSizeStatistics()
+          .suggest(configuration.getAdaptiveFetchSizeMin(), configuration.getAdaptiveFetchSizeMax());
+      if (adaptiveFetchSize != null) {
+        stmt.setFetchSize(adaptiveFetchSize);
+        return;
+      }
+    }
     Integer defaultFetchSize = configuration.getDefaultFetchSize();
     if (defaultFetchSize != null) {
       stmt.setFetchSize(defaultFetchSize);
@@ -205,6 +243,7 @@ public abstract class BaseStatementHandler implements StatementHandler {
   protected void closeStatement(Statement statement) {
     try {
       if (statement != null) {
+        StatementUtil.releaseDeadline(statement, QueryDeadline.current());
         statement.close();
       }
     } catch (SQLException e) {
@@ -0,0 +1,77 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.statement;
+
+/**
+ * Row count statistics of a mapped statement, used to pick the fetch size of its next execution.
+ * <p>
+ * Keeps an exponentially decayed mean and mean absolute deviation of the number of rows fetched per execution,
+ * so that recent executions weigh more than old ones. The suggested fetch size is an estimate of a high percentile
+ * of the row count (mean plus two deviations) plus one row, so that a typical execution completes in a single
+ * round trip including the end-of-data marker, clamped to the configured bounds.
+ * </p>
+ *
+ * @since 3.5.0
+ * @see org.apache.ibatis.session.Configuration#isAdaptiveFetchSizeEnabled()
+ */
+public class FetchSizeStatistics {
+
+  /**
+   * Weight of the latest observation.
+   */
+  private static final double DECAY = 0.2;
+
+  private double mean;
+  private double deviation;
+  private long samples;
+
+  /**
+   * Records the number of rows fetched by one execution.
+   *
+   * @param rowCount fetched rows
+   */
+  public synchronized void record(int rowCount) {
+    if (samples == 0) {
+      mean = rowCount;
+      deviation = 0;
+    } else {
+      double difference = rowCount - mean;
+      mean += DECAY * difference;
+      deviation += DECAY * (Math.abs(difference) - deviation);
+    }
+    samples++;
+  }
+
+  /**
+   * Suggests a fetch size for the next execution.
+   *
+   * @param minFetchSize lower bound
+   * @param maxFetchSize upper bound
+   * @return a fetch size between the bounds, or <code>null</code> when nothing has been recorded yet
+   */
+  public synchronized Integer suggest(int minFetchSize, int maxFetchSize) {
+    if (samples == 0) {
+      return null;
+    }
+    long estimate = (long) Math.ceil(mean + 2 * deviation) + 1;
+    return (int) Math.max(minFetchSize, Math.min(maxFetchSize, estimate));
+  }
+
+  public synchronized long getSamples() {
+    return samples;
+  }
+
+}
@@ -15,6 +15,8 @@
  */
 package org.apache.ibatis.executor.statement;
 
+import org.apache.ibatis.executor.QueryDeadline;
+
 import java.sql.SQLException;
 import java.sql.Statement;
 
@@ -56,4 +58,37 @@ public class StatementUtil {
     }
   }
 
+  /**
+   * Apply a request-wide deadline.
+   * <p>
+   * Shrink a query timeout to the remaining time of the deadline and let the deadline's watchdog cancel the statement.
+   * </p>
+   * @param statement a target statement
+   * @param deadline a deadline bound to the current thread, may be <code>null</code>
+   * @throws SQLException if a database access error occurs, this method is called on a closed <code>Statement</code>
+   * @since 3.5.0
+   */
+  public static void applyDeadline(Statement statement, QueryDeadline deadline) throws SQLException {
+    if (deadline == null) {
+      return;
+    }
+    deadline.apply(statement);
+  }
+
+  /**
+   * Release a statement from a request-wide deadline.
+   * <p>
+   * The deadline's watchdog no longer cancels the statement, and no longer keeps a reference to it.
+   * </p>
+   * @param statement a statement that completed or is about to be closed
+   * @param deadline a deadline bound to the current thread, may be <code>null</code>
+   * @since 3.5.0
+   */
+  public static void releaseDeadline(Statement statement, QueryDeadline deadline) {
+    if (deadline == null) {
+      return;
+    }
+    deadline.release(statement);
+  }
+
 }
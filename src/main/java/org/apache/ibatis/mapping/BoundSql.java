@@ -70,7 +70,9 @@ public class BoundSql {
    * what？[Mybatis——MetaObject学习](https://blog.csdn.net/u013769320/article/details/50492965)
    * 简介：MetaObject是Mybatis提供的一个用于方便、优雅访问对象属性的对象，通过它可以简化代码、不需要try/catch各种reflect异常，同时它支持对JavaBean、Collection、Map三种类型对象的操作。
    */
-  private final MetaObject metaParameters;
+  private MetaObject metaParameters;
+
+  private final Configuration configuration;
 
   /**
    *
@@ -84,7 +86,7 @@ public class BoundSql {
     this.parameterMappings = parameterMappings;
     this.parameterObject = parameterObject;
     this.additionalParameters = new HashMap<>();
-    this.metaParameters = configuration.newMetaObject(additionalParameters);
+    this.configuration = configuration;
   }
 
   public String getSql() {
@@ -110,10 +112,27 @@ public class BoundSql {
    * @param value
    */
   public void setAdditionalParameter(String name, Object value) {
-    metaParameters.setValue(name, value);
+    getMetaParameters().setValue(name, value);
   }
 
   public Object getAdditionalParameter(String name) {
-    return metaParameters.getValue(name);
+    return getMetaParameters().getValue(name);
+  }
+
+  /**
+   * 只有用到额外参数时才创建,大多数语句没有额外参数
+   */
+  private MetaObject getMetaParameters() {
+    if (metaParameters == null) {
+      metaParameters = configuration.newMetaObject(additionalParameters);
+    }
+    return metaParameters;
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public Map<String, Object> getAdditionalParameters() {
+    return additionalParameters;
   }
 }
@@ -15,9 +15,16 @@
  */
 package org.apache.ibatis.mapping;
 
+import org.apache.ibatis.datasource.ReplicaSelector;
+import org.apache.ibatis.datasource.RoundRobinReplicaSelector;
+import org.apache.ibatis.executor.sharding.HashShardingStrategy;
+import org.apache.ibatis.executor.sharding.ShardingStrategy;
 import org.apache.ibatis.transaction.TransactionFactory;
 
 import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * 环境配置属性
@@ -55,7 +62,29 @@ public final class Environment {
    */
   private final DataSource dataSource;
 
+  /**
+   * 只读副本，没有写入的会话中的查询语句会从这些数据源中读取
+   */
+  private final List<DataSource> replicaDataSources;
+  private final ReplicaSelector replicaSelector;
+
+  /**
+   * 分片，第一个是环境本身的数据源，只有一个的时候不分片
+   */
+  private final List<DataSource> shardDataSources;
+  private final ShardingStrategy shardingStrategy;
+
   public Environment(String id, TransactionFactory transactionFactory, DataSource dataSource) {
+    this(id, transactionFactory, dataSource, null, null, null, null);
+  }
+
+  /**
+   * @param shardDataSources the shards following the first one, which is {@code dataSource}
+   * @since 3.5.0
+   */
+  public Environment(String id, TransactionFactory transactionFactory, DataSource dataSource,
+                     List<DataSource> replicaDataSources, ReplicaSelector replicaSelector,
+                     List<DataSource> shardDataSources, ShardingStrategy shardingStrategy) {
     if (id == null) {
       throw new IllegalArgumentException("Parameter 'id' must not be null");
     }
@@ -68,6 +97,19 @@ public final class Environment {
     }
     this.transactionFactory = transactionFactory;
     this.dataSource = dataSource;
+    this.replicaDataSources = replicaDataSources == null ? Collections.<DataSource>emptyList()
+        : Collections.unmodifiableList(new ArrayList<>(replicaDataSources));
+    this.replicaSelector = replicaSelector == null ? new RoundRobinReplicaSelector() : replicaSelector;
+    List<DataSource> shards = new ArrayList<>();
+    shards.add(dataSource);
+    if (shardDataSources != null) {
+      shards.addAll(shardDataSources);
+    }
+    if (shards.size() > 1 && !this.replicaDataSources.isEmpty()) {
+      throw new IllegalArgumentException("Replicas cannot be declared in a sharded environment");
+    }
+    this.shardDataSources = Collections.unmodifiableList(shards);
+    this.shardingStrategy = shardingStrategy == null ? new HashShardingStrategy() : shardingStrategy;
   }
 
   /**
@@ -77,6 +119,10 @@ public final class Environment {
       private String id;
       private TransactionFactory transactionFactory;
       private DataSource dataSource;
+      private List<DataSource> replicaDataSources;
+      private ReplicaSelector replicaSelector;
+      private List<DataSource> shardDataSources;
+      private ShardingStrategy shardingStrategy;
 
     public Builder(String id) {
       this.id = id;
@@ -92,12 +138,46 @@ public final class Environment {
       return this;
     }
 
+    /**
+     * @since 3.5.0
+     */
+    public Builder replicaDataSources(List<DataSource> replicaDataSources) {
+      this.replicaDataSources = replicaDataSources;
+      return this;
+    }
+
+    /**
+     * @since 3.5.0
+     */
+    public Builder replicaSelector(ReplicaSelector replicaSelector) {
+      this.replicaSelector = replicaSelector;
+      return this;
+    }
+
+    /**
+     * @param shardDataSources the shards following the first one, which is the data source of the environment
+     * @since 3.5.0
+     */
+    public Builder shardDataSources(List<DataSource> shardDataSources) {
+      this.shardDataSources = shardDataSources;
+      return this;
+    }
+
+    /**
+     * @since 3.5.0
+     */
+    public Builder shardingStrategy(ShardingStrategy shardingStrategy) {
+      this.shardingStrategy = shardingStrategy;
+      return this;
+    }
+
     public String id() {
       return this.id;
     }
 
     public Environment build() {
-      return new Environment(this.id, this.transactionFactory, this.dataSource);
+      return new Environment(this.id, this.transactionFactory, this.dataSource, this.replicaDataSources, this.replicaSelector,
+          this.shardDataSources, this.shardingStrategy);
     }
 
   }
@@ -114,4 +194,47 @@ public final class Environment {
     return this.dataSource;
   }
 
+  /**
+   * @since 3.5.0
+   */
+  public List<DataSource> getReplicaDataSources() {
+    return this.replicaDataSources;
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public ReplicaSelector getReplicaSelector() {
+    return this.replicaSelector;
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public boolean hasReplicas() {
+    return !this.replicaDataSources.isEmpty();
+  }
+
+  /**
+   * @return all the shards, starting with the data source of the environment
+   * @since 3.5.0
+   */
+  public List<DataSource> getShardDataSources() {
+    return this.shardDataSources;
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public ShardingStrategy getShardingStrategy() {
+    return this.shardingStrategy;
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public boolean isSharded() {
+    return this.shardDataSources.size() > 1;
+  }
+
 }
@@ -19,14 +19,18 @@ import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
 import org.apache.ibatis.executor.keygen.KeyGenerator;
 import org.apache.ibatis.executor.keygen.NoKeyGenerator;
+import org.apache.ibatis.executor.resultset.ResultSetColumnsCache;
+import org.apache.ibatis.executor.statement.FetchSizeStatistics;
 import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.scripting.defaults.ParameterBinderCache;
 import org.apache.ibatis.scripting.LanguageDriver;
 import org.apache.ibatis.session.Configuration;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Function;
 
 /**
  * MappedStatement对象对应Mapper配置文件中的一个select/update/insert/delete节点，主要描述的是一条SQL语句
@@ -122,6 +126,47 @@ public final class MappedStatement {
   private LanguageDriver lang;
   private String[] resultSets;
 
+  /**
+   * 读写分离时查询语句读取的数据源
+   */
+  private ReadFrom readFrom = ReadFrom.DEFAULT;
+
+  /**
+   * 分库时用于路由的参数属性，没有的话语句会在所有的分片上执行
+   */
+  private String shardKey;
+
+  /**
+   * 按这个参数集合分块执行查询，每块最多chunkSize个元素，结果合并后返回
+   */
+  private String chunkBy;
+  private int chunkSize;
+
+  /**
+   * 同时执行的分块数，大于1时分块在各自的连接上并行查询
+   */
+  private int chunkParallelism = 1;
+
+  /**
+   * 历次执行获取的行数统计，用于自适应的fetchSize
+   */
+  private final FetchSizeStatistics fetchSizeStatistics = new FetchSizeStatistics();
+
+  /**
+   * 按SQL缓存的结果集列信息，开启resultSetMetadataCacheEnabled时使用
+   */
+  private final ResultSetColumnsCache resultSetColumnsCache = new ResultSetColumnsCache();
+
+  /**
+   * 按参数映射和参数类型缓存的参数绑定器，开启parameterBinderCompilationEnabled时使用
+   */
+  private final ParameterBinderCache parameterBinderCache = new ParameterBinderCache();
+
+  /**
+   * 分页时统计总行数的语句，第一次需要总数时创建，不注册到Configuration中
+   */
+  private volatile MappedStatement countStatement;
+
   MappedStatement() {
     // constructor disabled
   }
@@ -238,6 +283,46 @@ public final class MappedStatement {
       return this;
     }
 
+    /**
+     * @since 3.5.0
+     */
+    public Builder readFrom(ReadFrom readFrom) {
+      mappedStatement.readFrom = readFrom == null ? ReadFrom.DEFAULT : readFrom;
+      return this;
+    }
+
+    /**
+     * @since 3.5.0
+     */
+    public Builder shardKey(String shardKey) {
+      mappedStatement.shardKey = shardKey;
+      return this;
+    }
+
+    /**
+     * @since 3.5.0
+     */
+    public Builder chunkBy(String chunkBy) {
+      mappedStatement.chunkBy = chunkBy;
+      return this;
+    }
+
+    /**
+     * @since 3.5.0
+     */
+    public Builder chunkSize(Integer chunkSize) {
+      mappedStatement.chunkSize = chunkSize == null ? 0 : chunkSize;
+      return this;
+    }
+
+    /**
+     * @since 3.5.0
+     */
+    public Builder chunkParallelism(Integer chunkParallelism) {
+      mappedStatement.chunkParallelism = chunkParallelism == null ? 1 : chunkParallelism;
+      return this;
+    }
+
     /** @deprecated Use {@link #resultSets} */
     @Deprecated
     public Builder resulSets(String resultSet) {
@@ -323,6 +408,41 @@ public final class MappedStatement {
     return resultOrdered;
   }
 
+  /**
+   * @since 3.5.0
+   */
+  public ReadFrom getReadFrom() {
+    return readFrom;
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public String getShardKey() {
+    return shardKey;
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public String getChunkBy() {
+    return chunkBy;
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public int getChunkSize() {
+    return chunkSize;
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public int getChunkParallelism() {
+    return chunkParallelism;
+  }
+
   public String getDatabaseId() {
     return databaseId;
   }
@@ -352,6 +472,46 @@ public final class MappedStatement {
   public String[] getResulSets() {
     return resultSets;
   }
+
+  /**
+   * @since 3.5.0
+   */
+  public FetchSizeStatistics getFetchSizeStatistics() {
+    return fetchSizeStatistics;
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public ResultSetColumnsCache getResultSetColumnsCache() {
+    return resultSetColumnsCache;
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public ParameterBinderCache getParameterBinderCache() {
+    return parameterBinderCache;
+  }
+
+  /**
+   * Gets the statement counting the rows of this select, created by the factory on first use.
+   *
+   * @since 3.5.0
+   */
+  public MappedStatement getCountStatement(Function<MappedStatement, MappedStatement> factory) {
+    MappedStatement statement = countStatement;
+    if (statement == null) {
+      synchronized (this) {
+        statement = countStatement;
+        if (statement == null) {
+          statement = factory.apply(this);
+          countStatement = statement;
+        }
+      }
+    }
+    return statement;
+  }
   
   public BoundSql getBoundSql(Object parameterObject) {
     BoundSql boundSql = sqlSource.getBoundSql(parameterObject);
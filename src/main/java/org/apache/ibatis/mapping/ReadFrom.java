@@ -0,0 +1,38 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.mapping;
+
+/**
+ * Where a select reads from when the environment has replicas.
+ *
+ * @since 3.5.0
+ */
+public enum ReadFrom {
+  /**
+   * A replica for autocommit sessions until they write to the primary, the primary inside explicit transactions.
+   * The autocommit mode comes from {@link org.apache.ibatis.transaction.Transaction#isAutoCommit()}, so sessions
+   * of managed or external transactions read from the primary.
+   */
+  DEFAULT,
+  /**
+   * Always the primary, e.g. for locking reads.
+   */
+  PRIMARY,
+  /**
+   * Always a replica, even after the session has written to the primary.
+   */
+  REPLICA
+}
@@ -15,6 +15,9 @@
  */
 package org.apache.ibatis.parsing;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * 通用标记解析器
  * @author Clinton Begin
@@ -50,14 +53,50 @@ public class GenericTokenParser {
     if (text == null || text.isEmpty()) {
       return "";
     }
+    // search open token
+    if (text.indexOf(openToken) == -1) {
+      return text;
+    }
+    final StringBuilder builder = new StringBuilder();
+    //这句话就是解析参数哦
+    scan(text, builder, (literal, expression) -> literal.append(handler.handleToken(expression)));
+    return builder.toString();
+  }
+
+  /**
+   * Splits a text into literal segments and tokens once, for the callers rendering it many times,
+   * like a node built once per statement. Texts rendered once are better off with {@link #parse(String)}.
+   *
+   * @since 3.5.0
+   */
+  public TokenizedText tokenize(String text) {
+    final List<String> literals = new ArrayList<>();
+    final List<String> tokens = new ArrayList<>();
+    final StringBuilder builder = new StringBuilder();
+    if (text != null) {
+      // 记号前的字面量结束
+      scan(text, builder, (literal, expression) -> {
+        literals.add(literal.toString());
+        literal.setLength(0);
+        tokens.add(expression);
+      });
+    }
+    literals.add(builder.toString());
+    return new TokenizedText(literals, tokens);
+  }
+
+  /**
+   * 扫描文本,把记号之外的字面量(去掉转义的反斜杠)追加到builder,每遇到一个记号回调一次
+   */
+  private void scan(String text, StringBuilder builder, TokenVisitor visitor) {
     // search open token
     int start = text.indexOf(openToken, 0);
     if (start == -1) {
-      return text;
+      builder.append(text);
+      return;
     }
     char[] src = text.toCharArray();
     int offset = 0;
-    final StringBuilder builder = new StringBuilder();
     StringBuilder expression = null;
     while (start > -1) {
       if (start > 0 && src[start - 1] == '\\') {
@@ -91,8 +130,7 @@ public class GenericTokenParser {
           builder.append(src, start, src.length - start);
           offset = src.length;
         } else {
-          //这句话就是解析参数哦
-          builder.append(handler.handleToken(expression.toString()));
+          visitor.visitToken(builder, expression.toString());
           offset = end + closeToken.length();
         }
       }
@@ -101,6 +139,15 @@ public class GenericTokenParser {
     if (offset < src.length) {
       builder.append(src, offset, src.length - offset);
     }
-    return builder.toString();
+  }
+
+  private interface TokenVisitor {
+
+    /**
+     * @param literal the literal text before the token, not yet consumed
+     * @param expression the content of the token
+     */
+    void visitToken(StringBuilder literal, String expression);
+
   }
 }
@@ -0,0 +1,75 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.parsing;
+
+import java.util.List;
+
+/**
+ * A text split by a {@link GenericTokenParser} into literal segments and the contents of its tokens, so that it can
+ * be rendered many times with a {@link TokenHandler} without scanning the text again.
+ *
+ * @since 3.5.0
+ */
+public final class TokenizedText {
+
+  /**
+   * 字面量片段,比记号多一个,转义的开始和结束标记已经还原
+   */
+  private final String[] literals;
+
+  /**
+   * 记号中的内容
+   */
+  private final String[] tokens;
+  private final int literalLength;
+
+  /**
+   * 上一次生成的文本长度,用来预估 StringBuilder 的容量
+   */
+  private int renderedLength;
+
+  TokenizedText(List<String> literals, List<String> tokens) {
+    this.literals = literals.toArray(new String[0]);
+    this.tokens = tokens.toArray(new String[0]);
+    int length = 0;
+    for (String literal : this.literals) {
+      length += literal.length();
+    }
+    this.literalLength = length;
+  }
+
+  public boolean hasTokens() {
+    return tokens.length > 0;
+  }
+
+  /**
+   * Renders the text, replacing each token with what the handler returns for its content.
+   */
+  public String apply(TokenHandler handler) {
+    if (tokens.length == 0) {
+      return literals[0];
+    }
+    final StringBuilder builder = new StringBuilder(Math.max(renderedLength, literalLength + 16 * tokens.length));
+    builder.append(literals[0]);
+    for (int i = 0; i < tokens.length; i++) {
+      builder.append(handler.handleToken(tokens[i]));
+      builder.append(literals[i + 1]);
+    }
+    renderedLength = builder.length();
+    return builder.toString();
+  }
+
+}
@@ -15,9 +15,12 @@
  */
 package org.apache.ibatis.reflection;
 
+import org.apache.ibatis.reflection.invoker.GetFieldHandleInvoker;
 import org.apache.ibatis.reflection.invoker.GetFieldInvoker;
 import org.apache.ibatis.reflection.invoker.Invoker;
+import org.apache.ibatis.reflection.invoker.MethodHandleInvoker;
 import org.apache.ibatis.reflection.invoker.MethodInvoker;
+import org.apache.ibatis.reflection.invoker.SetFieldHandleInvoker;
 import org.apache.ibatis.reflection.invoker.SetFieldInvoker;
 import org.apache.ibatis.reflection.property.PropertyNamer;
 
@@ -42,6 +45,11 @@ public class Reflector {
      * 需要反射处理的类的信息
      */
     private final Class<?> type;
+
+    /**
+     * 是否使用MethodHandle调用属性的get set 方法和字段,无法访问时退回到反射
+     */
+    private final boolean methodHandleInvokers;
     private final String[] readablePropertyNames;
     private final String[] writeablePropertyNames;
 
@@ -68,7 +76,16 @@ public class Reflector {
     private Map<String, String> caseInsensitivePropertyMap = new HashMap<>();
 
     public Reflector(Class<?> clazz) {
+        this(clazz, false);
+    }
+
+    /**
+     * @param methodHandleInvokers whether properties are read and written through method handles
+     * @since 3.5.0
+     */
+    public Reflector(Class<?> clazz, boolean methodHandleInvokers) {
         type = clazz;
+        this.methodHandleInvokers = methodHandleInvokers;
         addDefaultConstructor(clazz);
         addGetMethods(clazz);
         addSetMethods(clazz);
@@ -170,7 +187,7 @@ public class Reflector {
 
     private void addGetMethod(String name, Method method) {
         if (isValidPropertyName(name)) {
-            getMethods.put(name, new MethodInvoker(method));
+            getMethods.put(name, newMethodInvoker(method));
             Type returnType = TypeParameterResolver.resolveReturnType(method, type);
             getTypes.put(name, typeToClass(returnType));
         }
@@ -256,7 +273,7 @@ public class Reflector {
      */
     private void addSetMethod(String name, Method method) {
         if (isValidPropertyName(name)) {
-            setMethods.put(name, new MethodInvoker(method));
+            setMethods.put(name, newMethodInvoker(method));
             Type[] paramTypes = TypeParameterResolver.resolveParamTypes(method, type);
             setTypes.put(name, typeToClass(paramTypes[0]));
         }
@@ -323,7 +340,7 @@ public class Reflector {
      */
     private void addSetField(Field field) {
         if (isValidPropertyName(field.getName())) {
-            setMethods.put(field.getName(), new SetFieldInvoker(field));
+            setMethods.put(field.getName(), newSetFieldInvoker(field));
             Type fieldType = TypeParameterResolver.resolveFieldType(field, type);
             setTypes.put(field.getName(), typeToClass(fieldType));
         }
@@ -331,12 +348,45 @@ public class Reflector {
 
     private void addGetField(Field field) {
         if (isValidPropertyName(field.getName())) {
-            getMethods.put(field.getName(), new GetFieldInvoker(field));
+            getMethods.put(field.getName(), newGetFieldInvoker(field));
             Type fieldType = TypeParameterResolver.resolveFieldType(field, type);
             getTypes.put(field.getName(), typeToClass(fieldType));
         }
     }
 
+    private Invoker newMethodInvoker(Method method) {
+        if (methodHandleInvokers) {
+            try {
+                return new MethodHandleInvoker(method);
+            } catch (IllegalAccessException e) {
+                // Ignored. Falls back to reflection.
+            }
+        }
+        return new MethodInvoker(method);
+    }
+
+    private Invoker newSetFieldInvoker(Field field) {
+        if (methodHandleInvokers) {
+            try {
+                return new SetFieldHandleInvoker(field);
+            } catch (IllegalAccessException e) {
+                // Ignored. Falls back to reflection, e.g. for final fields.
+            }
+        }
+        return new SetFieldInvoker(field);
+    }
+
+    private Invoker newGetFieldInvoker(Field field) {
+        if (methodHandleInvokers) {
+            try {
+                return new GetFieldHandleInvoker(field);
+            } catch (IllegalAccessException e) {
+                // Ignored. Falls back to reflection.
+            }
+        }
+        return new GetFieldInvoker(field);
+    }
+
     private boolean isValidPropertyName(String name) {
         return !(name.startsWith("$") || "serialVersionUID".equals(name) || "class".equals(name));
     }
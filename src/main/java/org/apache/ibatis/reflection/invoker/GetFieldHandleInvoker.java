@@ -0,0 +1,63 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reflection.invoker;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+
+/**
+ * Reads a field through a getter {@link MethodHandle}. A wrong target is reported with the exceptions of
+ * {@link Field#get(Object)}.
+ *
+ * @since 3.5.0
+ */
+public class GetFieldHandleInvoker extends GetFieldInvoker {
+
+  private final Class<?> declaringClass;
+  private final boolean isStatic;
+  private final MethodHandle handle;
+
+  /**
+   * @throws IllegalAccessException if the field is neither public nor made accessible
+   */
+  public GetFieldHandleInvoker(Field field) throws IllegalAccessException {
+    super(field);
+    declaringClass = field.getDeclaringClass();
+    isStatic = Modifier.isStatic(field.getModifiers());
+    MethodHandle getter = MethodHandles.lookup().unreflectGetter(field);
+    if (isStatic) {
+      getter = MethodHandles.dropArguments(getter, 0, Object.class);
+    }
+    handle = getter.asType(MethodType.methodType(Object.class, Object.class));
+  }
+
+  @Override
+  public Object invoke(Object target, Object[] args) throws IllegalAccessException, InvocationTargetException {
+    HandleArguments.checkTarget(declaringClass, isStatic, target);
+    try {
+      return handle.invokeExact(target);
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable t) {
+      throw new InvocationTargetException(t);
+    }
+  }
+
+}
@@ -0,0 +1,125 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reflection.invoker;
+
+/**
+ * Checks the target and the arguments of a method handle call the way reflection does, so that
+ * {@link MethodHandleInvoker} and the field handle invokers throw the exceptions of their reflective counterparts:
+ * a wrong target or argument is reported as such, instead of a {@link ClassCastException} of the handle.
+ *
+ * @since 3.5.0
+ */
+final class HandleArguments {
+
+  private HandleArguments() {
+    // Prevent Instantiation of Static Class
+  }
+
+  /**
+   * @throws NullPointerException if the member is not static and the target is null
+   * @throws IllegalArgumentException if the target is not an instance of the declaring class
+   */
+  static void checkTarget(Class<?> declaringClass, boolean isStatic, Object target) {
+    if (isStatic) {
+      return;
+    }
+    if (target == null) {
+      throw new NullPointerException();
+    }
+    if (!declaringClass.isInstance(target)) {
+      throw new IllegalArgumentException("object is not an instance of declaring class");
+    }
+  }
+
+  /**
+   * @return the argument, widened when a primitive parameter takes a wrapper of a smaller primitive type
+   * @throws IllegalArgumentException if the argument cannot be passed as the parameter, as with reflection
+   */
+  static Object convert(Class<?> type, Object value) {
+    if (!type.isPrimitive()) {
+      if (value == null || type.isInstance(value)) {
+        return value;
+      }
+      throw new IllegalArgumentException("argument type mismatch");
+    }
+    if (value instanceof Boolean && type == boolean.class
+        || value instanceof Character && type == char.class) {
+      return value;
+    }
+    final int from = rank(value);
+    final int to = rank(type);
+    // char只能扩展为int及更宽的类型，其他类型也不能扩展为char
+    if (from == 0 || to == 0 || from > to || value instanceof Character && to < 3 || type == char.class) {
+      throw new IllegalArgumentException("argument type mismatch");
+    }
+    if (from == to && !(value instanceof Character)) {
+      return value;
+    }
+    final Number number = value instanceof Character ? Integer.valueOf((Character) value) : (Number) value;
+    switch (to) {
+      case 1:
+        return number.byteValue();
+      case 2:
+        return number.shortValue();
+      case 3:
+        return number.intValue();
+      case 4:
+        return number.longValue();
+      case 5:
+        return number.floatValue();
+      default:
+        return number.doubleValue();
+    }
+  }
+
+  /**
+   * @return the order of the numeric primitive types in widening conversions, 0 for the others
+   */
+  private static int rank(Object value) {
+    if (value instanceof Byte) {
+      return 1;
+    } else if (value instanceof Short) {
+      return 2;
+    } else if (value instanceof Character || value instanceof Integer) {
+      return 3;
+    } else if (value instanceof Long) {
+      return 4;
+    } else if (value instanceof Float) {
+      return 5;
+    } else if (value instanceof Double) {
+      return 6;
+    }
+    return 0;
+  }
+
+  private static int rank(Class<?> type) {
+    if (type == byte.class) {
+      return 1;
+    } else if (type == short.class) {
+      return 2;
+    } else if (type == char.class || type == int.class) {
+      return 3;
+    } else if (type == long.class) {
+      return 4;
+    } else if (type == float.class) {
+      return 5;
+    } else if (type == double.class) {
+      return 6;
+    }
+    return 0;
+  }
+
+}
@@ -0,0 +1,172 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reflection.invoker;
+
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Invokes a method through a {@link MethodHandle}, without the access checks and the argument copy of
+ * {@link Method#invoke(Object, Object...)}.
+ * <p>
+ * The handle is held in a field, so the JIT cannot inline the method through it. Public getters and setters of
+ * public classes are therefore called through a {@link Function} or a {@link BiConsumer} spun by the
+ * {@link LambdaMetafactory}, whose call of the method is a plain one. Wrong targets and arguments are reported
+ * with the exceptions of reflection, only the exceptions thrown by the method are wrapped in an
+ * {@link InvocationTargetException}.
+ * </p>
+ *
+ * @since 3.5.0
+ */
+public class MethodHandleInvoker extends MethodInvoker {
+
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+  private final Class<?> declaringClass;
+  private final boolean isStatic;
+  private final Class<?>[] parameterTypes;
+  private final MethodHandle handle;
+  private final Function<Object, Object> getter;
+  private final BiConsumer<Object, Object> setter;
+
+  /**
+   * @throws IllegalAccessException if the method is neither public nor made accessible
+   */
+  public MethodHandleInvoker(Method method) throws IllegalAccessException {
+    super(method);
+    declaringClass = method.getDeclaringClass();
+    isStatic = Modifier.isStatic(method.getModifiers());
+    parameterTypes = method.getParameterTypes();
+    final MethodHandle methodHandle = LOOKUP.unreflect(method);
+    MethodHandle adapted = isStatic ? MethodHandles.dropArguments(methodHandle, 0, Object.class) : methodHandle;
+    if (parameterTypes.length > 1) {
+      adapted = adapted.asSpreader(Object[].class, parameterTypes.length);
+      handle = adapted.asType(MethodType.methodType(Object.class, Object.class, Object[].class));
+    } else {
+      handle = adapted.asType(MethodType.genericMethodType(parameterTypes.length + 1));
+    }
+    final boolean spinnable = isSpinnable(method);
+    getter = spinnable && parameterTypes.length == 0 && method.getReturnType() != void.class ? newGetter(method, methodHandle) : null;
+    setter = spinnable && parameterTypes.length == 1 && method.getReturnType() == void.class ? newSetter(method, methodHandle) : null;
+  }
+
+  @Override
+  public Object invoke(Object target, Object[] args) throws IllegalAccessException, InvocationTargetException {
+    HandleArguments.checkTarget(declaringClass, isStatic, target);
+    final int argumentCount = args == null ? 0 : args.length;
+    if (argumentCount != parameterTypes.length) {
+      throw new IllegalArgumentException("wrong number of arguments");
+    }
+    Object[] arguments = args;
+    for (int i = 0; i < argumentCount; i++) {
+      final Object argument = HandleArguments.convert(parameterTypes[i], args[i]);
+      if (argument != args[i]) {
+        if (arguments == args) {
+          arguments = args.clone();
+        }
+        arguments[i] = argument;
+      }
+    }
+    try {
+      if (getter != null) {
+        return getter.apply(target);
+      } else if (setter != null) {
+        setter.accept(target, arguments[0]);
+        return null;
+      }
+      switch (parameterTypes.length) {
+        case 0:
+          return handle.invokeExact(target);
+        case 1:
+          return handle.invokeExact(target, arguments[0]);
+        default:
+          return handle.invokeExact(target, arguments);
+      }
+    } catch (Throwable t) {
+      throw new InvocationTargetException(t);
+    }
+  }
+
+  /**
+   * The spun class calls the method directly, so the method, its class and the types of its signature must be
+   * public and visible from the class loader of MyBatis.
+   */
+  private static boolean isSpinnable(Method method) {
+    if (Modifier.isStatic(method.getModifiers()) || !Modifier.isPublic(method.getModifiers())
+        || !isVisible(method.getDeclaringClass())) {
+      return false;
+    }
+    for (Class<?> parameterType : method.getParameterTypes()) {
+      if (!isVisible(parameterType)) {
+        return false;
+      }
+    }
+    return isVisible(method.getReturnType());
+  }
+
+  private static boolean isVisible(Class<?> type) {
+    while (type.isArray()) {
+      type = type.getComponentType();
+    }
+    if (type.isPrimitive()) {
+      return true;
+    }
+    for (Class<?> enclosing = type; enclosing != null; enclosing = enclosing.getEnclosingClass()) {
+      if (!Modifier.isPublic(enclosing.getModifiers())) {
+        return false;
+      }
+    }
+    try {
+      return Class.forName(type.getName(), false, MethodHandleInvoker.class.getClassLoader()) == type;
+    } catch (ClassNotFoundException | LinkageError e) {
+      return false;
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Function<Object, Object> newGetter(Method method, MethodHandle methodHandle) {
+    try {
+      return (Function<Object, Object>) LambdaMetafactory.metafactory(LOOKUP, "apply",
+          MethodType.methodType(Function.class), MethodType.methodType(Object.class, Object.class), methodHandle,
+          MethodType.methodType(method.getReturnType(), method.getDeclaringClass()).wrap()
+              .changeParameterType(0, method.getDeclaringClass())).getTarget().invokeExact();
+    } catch (Throwable t) {
+      // Ignored. Falls back to the method handle.
+      return null;
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static BiConsumer<Object, Object> newSetter(Method method, MethodHandle methodHandle) {
+    try {
+      return (BiConsumer<Object, Object>) LambdaMetafactory.metafactory(LOOKUP, "accept",
+          MethodType.methodType(BiConsumer.class), MethodType.methodType(void.class, Object.class, Object.class),
+          methodHandle, MethodType.methodType(void.class, method.getDeclaringClass(), method.getParameterTypes()[0]).wrap()
+              .changeParameterType(0, method.getDeclaringClass()).changeReturnType(void.class)).getTarget().invokeExact();
+    } catch (Throwable t) {
+      // Ignored. Falls back to the method handle.
+      return null;
+    }
+  }
+
+}
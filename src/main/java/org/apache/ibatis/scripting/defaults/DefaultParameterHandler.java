@@ -86,6 +86,9 @@ public class DefaultParameterHandler implements ParameterHandler {
     //获取参数哦，参数Mapping 是从SQL语句中获取的
     List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
     if (parameterMappings != null) {
+      final boolean hasAdditionalParameters = !boundSql.getAdditionalParameters().isEmpty();
+      final ParameterBinder binder = getParameterBinder(parameterMappings);
+      MetaObject metaObject = null;
       for (int i = 0; i < parameterMappings.size(); i++) {
         ParameterMapping parameterMapping = parameterMappings.get(i);
 
@@ -95,16 +98,21 @@ public class DefaultParameterHandler implements ParameterHandler {
 
           //第一个参数的属性值 TODO 下面参数的处理理解不好懂
           String propertyName = parameterMapping.getProperty();
-          if (boundSql.hasAdditionalParameter(propertyName)) { // issue #448 ask first for additional params 问第一个额外的参数
+          if (hasAdditionalParameters && boundSql.hasAdditionalParameter(propertyName)) { // issue #448 ask first for additional params 问第一个额外的参数
             value = boundSql.getAdditionalParameter(propertyName);
           } else if (parameterObject == null) {
             value = null;
+          } else if (binder != null) {
+            //预先解析的getter
+            value = binder.getValue(i, parameterObject);
           } else if (typeHandlerRegistry.hasTypeHandler(parameterObject.getClass())) {
             //是否为基本数据类型 能够通过 typeHandler处理
             value = parameterObject;
           } else {
             //这里是对象中的属性，获取对象中的属性的值的信息 user.name等等
-            MetaObject metaObject = configuration.newMetaObject(parameterObject);
+            if (metaObject == null) {
+              metaObject = configuration.newMetaObject(parameterObject);
+            }
             value = metaObject.getValue(propertyName);
           }
           TypeHandler typeHandler = parameterMapping.getTypeHandler();
@@ -125,4 +133,11 @@ public class DefaultParameterHandler implements ParameterHandler {
     }
   }
 
+  private ParameterBinder getParameterBinder(List<ParameterMapping> parameterMappings) {
+    if (!configuration.isParameterBinderCompilationEnabled() || parameterObject == null) {
+      return null;
+    }
+    return mappedStatement.getParameterBinderCache().getBinder(configuration, parameterMappings, parameterObject.getClass());
+  }
+
 }
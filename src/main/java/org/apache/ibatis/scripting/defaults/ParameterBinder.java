@@ -0,0 +1,169 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.scripting.defaults;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.ParameterMode;
+import org.apache.ibatis.reflection.ExceptionUtil;
+import org.apache.ibatis.reflection.ReflectionException;
+import org.apache.ibatis.reflection.invoker.Invoker;
+import org.apache.ibatis.reflection.wrapper.DefaultObjectWrapperFactory;
+import org.apache.ibatis.reflection.wrapper.ObjectWrapper;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * Reads the values of the parameter mappings of a statement from parameter objects of one type.
+ * <p>
+ * The property paths are split once and the getter of each step is resolved once per class, so reading a value
+ * does not create a {@link org.apache.ibatis.reflection.MetaObject}. The values are the ones a MetaObject would read:
+ * a null step reads null, maps are read with {@link Map#get(Object)} and beans with the getter invoker of their
+ * reflector. Indexed properties, collections and object wrappers are read with a MetaObject.
+ *
+ * @since 3.5.0
+ */
+final class ParameterBinder {
+
+  private static final Object[] NO_ARGUMENTS = new Object[0];
+
+  private final boolean simpleParameter;
+  private final PropertyGetter[] getters;
+
+  private ParameterBinder(boolean simpleParameter, PropertyGetter[] getters) {
+    this.simpleParameter = simpleParameter;
+    this.getters = getters;
+  }
+
+  /**
+   * @return the binder, or null if the parameter objects cannot be read without a MetaObject
+   */
+  static ParameterBinder create(Configuration configuration, List<ParameterMapping> parameterMappings, Class<?> parameterType) {
+    if (configuration.getObjectWrapperFactory().getClass() != DefaultObjectWrapperFactory.class) {
+      return null;
+    }
+    final boolean simpleParameter = configuration.getTypeHandlerRegistry().hasTypeHandler(parameterType);
+    final PropertyGetter[] getters = new PropertyGetter[parameterMappings.size()];
+    if (!simpleParameter) {
+      for (int i = 0; i < getters.length; i++) {
+        final ParameterMapping parameterMapping = parameterMappings.get(i);
+        if (parameterMapping.getMode() != ParameterMode.OUT) {
+          getters[i] = new PropertyGetter(configuration, parameterMapping.getProperty());
+        }
+      }
+    }
+    return new ParameterBinder(simpleParameter, getters);
+  }
+
+  /**
+   * Reads the value of a parameter mapping from a non null parameter object.
+   */
+  Object getValue(int index, Object parameterObject) {
+    return simpleParameter ? parameterObject : getters[index].getValue(parameterObject);
+  }
+
+  private static final class PropertyGetter {
+
+    private final Configuration configuration;
+    private final String property;
+    /**
+     * The names of the steps of the property path, or null if the path has indexes.
+     */
+    private final String[] names;
+    /**
+     * The remaining path from each step, to read a collection or an object wrapper with a MetaObject.
+     */
+    private final String[] paths;
+    private final ResolvedGetter[] resolvedGetters;
+
+    PropertyGetter(Configuration configuration, String property) {
+      this.configuration = configuration;
+      this.property = property;
+      if (property.indexOf('[') == -1) {
+        this.names = property.split("\\.", -1);
+        this.paths = new String[names.length];
+        for (int i = names.length - 1; i >= 0; i--) {
+          paths[i] = i == names.length - 1 ? names[i] : names[i] + "." + paths[i + 1];
+        }
+        this.resolvedGetters = new ResolvedGetter[names.length];
+      } else {
+        this.names = null;
+        this.paths = null;
+        this.resolvedGetters = null;
+      }
+    }
+
+    Object getValue(Object parameterObject) {
+      if (names == null) {
+        return configuration.newMetaObject(parameterObject).getValue(property);
+      }
+      Object value = parameterObject;
+      for (int i = 0; i < names.length; i++) {
+        if (value == null) {
+          return null;
+        }
+        if (value instanceof Map && !(value instanceof ObjectWrapper)) {
+          value = ((Map<?, ?>) value).get(names[i]);
+        } else if (value instanceof Collection || value instanceof ObjectWrapper) {
+          return configuration.newMetaObject(value).getValue(paths[i]);
+        } else {
+          value = getBeanProperty(i, value);
+        }
+      }
+      return value;
+    }
+
+    private Object getBeanProperty(int step, Object object) {
+      ResolvedGetter getter = resolvedGetters[step];
+      if (getter == null || getter.type != object.getClass()) {
+        // resolved again when the step reads an object of another class
+        getter = new ResolvedGetter(object.getClass(),
+            configuration.getReflectorFactory().findForClass(object.getClass()).getGetInvoker(names[step]));
+        resolvedGetters[step] = getter;
+      }
+      try {
+        try {
+          return getter.invoker.invoke(object, NO_ARGUMENTS);
+        } catch (Throwable t) {
+          throw ExceptionUtil.unwrapThrowable(t);
+        }
+      } catch (RuntimeException e) {
+        throw e;
+      } catch (Throwable t) {
+        throw new ReflectionException("Could not get property '" + names[step] + "' from " + object.getClass() + ".  Cause: " + t.toString(), t);
+      }
+    }
+
+  }
+
+  /**
+   * The getter of a property of a class, replaced as a whole so that concurrent binds see a consistent pair.
+   */
+  private static final class ResolvedGetter {
+
+    private final Class<?> type;
+    private final Invoker invoker;
+
+    ResolvedGetter(Class<?> type, Invoker invoker) {
+      this.type = type;
+      this.invoker = invoker;
+    }
+
+  }
+
+}
@@ -0,0 +1,104 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.scripting.defaults;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * Parameter binders of a mapped statement, by parameter type and by the properties, java types and type handlers of
+ * the parameter mappings. A binder is reused by each execution of dynamic SQL that yields the same parameters,
+ * even though each one builds its own parameter mapping list.
+ *
+ * @since 3.5.0
+ */
+public class ParameterBinderCache {
+
+  /**
+   * Maximum number of binders cached per statement, the other parameter lists of dynamic SQL bind with MetaObject.
+   */
+  private static final int MAX_BINDERS = 64;
+
+  private final ConcurrentMap<Key, ParameterBinder> binders = new ConcurrentHashMap<>();
+
+  /**
+   * @return the binder, or null if there is none and the cache is full or the parameters cannot be bound by a binder
+   */
+  ParameterBinder getBinder(Configuration configuration, List<ParameterMapping> parameterMappings, Class<?> parameterType) {
+    final Key key = new Key(parameterMappings, parameterType);
+    ParameterBinder binder = binders.get(key);
+    if (binder == null && binders.size() < MAX_BINDERS) {
+      binder = ParameterBinder.create(configuration, parameterMappings, parameterType);
+      if (binder != null) {
+        binders.putIfAbsent(key, binder);
+      }
+    }
+    return binder;
+  }
+
+  public int size() {
+    return binders.size();
+  }
+
+  public void clear() {
+    binders.clear();
+  }
+
+  /**
+   * The parameter type and the property, mode, java type and type handler class of each parameter mapping,
+   * which is all a binder depends on.
+   */
+  private static final class Key {
+
+    // 每个参数映射占4个元素
+    private final Object[] parts;
+    private final int hashCode;
+
+    Key(List<ParameterMapping> parameterMappings, Class<?> parameterType) {
+      this.parts = new Object[1 + parameterMappings.size() * 4];
+      parts[0] = parameterType;
+      int i = 1;
+      for (ParameterMapping parameterMapping : parameterMappings) {
+        parts[i++] = parameterMapping.getProperty();
+        parts[i++] = parameterMapping.getMode();
+        parts[i++] = parameterMapping.getJavaType();
+        parts[i++] = parameterMapping.getTypeHandler() == null ? null : parameterMapping.getTypeHandler().getClass();
+      }
+      this.hashCode = Arrays.hashCode(parts);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object object) {
+      if (!(object instanceof Key)) {
+        return false;
+      }
+      final Key other = (Key) object;
+      return hashCode == other.hashCode && Arrays.equals(parts, other.parts);
+    }
+
+  }
+
+}
@@ -43,23 +43,39 @@ public class DynamicContext {
   /**
    * 保存解析后的SQL的信息
    */
-  private final StringBuilder sqlBuilder = new StringBuilder();
+  private final StringBuilder sqlBuilder;
   private int uniqueNumber = 0;
 
   public DynamicContext(Configuration configuration, Object parameterObject) {
+    this(configuration, parameterObject, 16);
+  }
+
+  /**
+   * @param sqlCapacity SQL的预估长度,例如上一次生成的SQL的长度
+   */
+  DynamicContext(Configuration configuration, Object parameterObject, int sqlCapacity) {
+    sqlBuilder = new StringBuilder(sqlCapacity);
     if (parameterObject != null && !(parameterObject instanceof Map)) {
       /**
        * [Mybatis——MetaObject学习](https://blog.csdn.net/u013769320/article/details/50492965)
        */
-      MetaObject metaObject = configuration.newMetaObject(parameterObject);
-      bindings = new ContextMap(metaObject);
+      bindings = new ContextMap(configuration, parameterObject);
     } else {
-      bindings = new ContextMap(null);
+      bindings = new ContextMap(null, null);
     }
     bindings.put(PARAMETER_OBJECT_KEY, parameterObject);
     bindings.put(DATABASE_ID_KEY, configuration.getDatabaseId());
   }
 
+  /**
+   * 包装另一个上下文的子类使用,共享它的参数绑定
+   */
+  DynamicContext(DynamicContext delegate) {
+    bindings = delegate.bindings;
+    // 子类覆盖了appendSql和getSql,把SQL追加到被包装的上下文中,不需要自己的SQL
+    sqlBuilder = null;
+  }
+
   public Map<String, Object> getBindings() {
     return bindings;
   }
@@ -74,7 +90,16 @@ public class DynamicContext {
   }
 
   public String getSql() {
-    return sqlBuilder.toString().trim();
+    // 和 String.trim() 一样去掉首尾的空白,只复制一次
+    int start = 0;
+    int end = sqlBuilder.length();
+    while (start < end && sqlBuilder.charAt(start) <= ' ') {
+      start++;
+    }
+    while (end > start && sqlBuilder.charAt(end - 1) <= ' ') {
+      end--;
+    }
+    return sqlBuilder.substring(start, end);
   }
 
   public int getUniqueNumber() {
@@ -89,18 +114,27 @@ public class DynamicContext {
      * [Mybatis——MetaObject学习](https://blog.csdn.net/u013769320/article/details/50492965)
      */
     private MetaObject parameterMetaObject;
-    public ContextMap(MetaObject parameterMetaObject) {
-      this.parameterMetaObject = parameterMetaObject;
+    private final Configuration configuration;
+    private final Object parameterObject;
+
+    public ContextMap(Configuration configuration, Object parameterObject) {
+      this.configuration = configuration;
+      this.parameterObject = parameterObject;
     }
 
     @Override
     public Object get(Object key) {
       String strKey = (String) key;
-      if (super.containsKey(strKey)) {
-        return super.get(strKey);
+      Object value = super.get(strKey);
+      if (value != null || super.containsKey(strKey)) {
+        return value;
       }
 
-      if (parameterMetaObject != null) {
+      if (parameterObject != null) {
+        // 第一次读取参数的属性时才创建MetaObject
+        if (parameterMetaObject == null) {
+          parameterMetaObject = configuration.newMetaObject(parameterObject);
+        }
         // issue #61 do not modify the context when reading
         return parameterMetaObject.getValue(strKey);
       }
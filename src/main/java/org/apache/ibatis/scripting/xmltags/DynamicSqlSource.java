@@ -36,23 +36,45 @@ public class DynamicSqlSource implements SqlSource {
    */
   private final SqlNode rootSqlNode;
 
+  /**
+   * 按生成的SQL文本缓存的解析结果,为null时不缓存
+   */
+  private final ParsedSqlCache parsedSqlCache;
+
+  /**
+   * 上一次生成的SQL的长度,用来预估下一次的容量,不需要精确
+   */
+  private int sqlCapacity = 16;
+
   public DynamicSqlSource(Configuration configuration, SqlNode rootSqlNode) {
     this.configuration = configuration;
-    this.rootSqlNode = rootSqlNode;
+    // 开启编译时在加载时把节点树编译一次,执行时不再逐个节点解释
+    this.rootSqlNode = configuration.isDynamicSqlCompilationEnabled() ? SqlNodeCompiler.compile(rootSqlNode) : rootSqlNode;
+    this.parsedSqlCache = configuration.getDynamicSqlCacheSize() > 0 ? new ParsedSqlCache(configuration, configuration.getDynamicSqlCacheSize()) : null;
   }
 
   @Override
   public BoundSql getBoundSql(Object parameterObject) {
 
     // 这个是构建当前参数替换的Context 和El中的Context雷士
-    DynamicContext context = new DynamicContext(configuration, parameterObject);
+    DynamicContext context = new DynamicContext(configuration, parameterObject, sqlCapacity);
     rootSqlNode.apply(context);
-    SqlSourceBuilder sqlSourceParser = new SqlSourceBuilder(configuration);
     Class<?> parameterType = parameterObject == null ? Object.class : parameterObject.getClass();
+    String sql = context.getSql();
+    sqlCapacity = sql.length() + 16;
 
-    //解析替换#{}等等参数
-    SqlSource sqlSource = sqlSourceParser.parse(context.getSql(), parameterType, context.getBindings());
+    // 相同的分支组合生成相同的SQL,直接使用缓存的解析结果
+    SqlSource sqlSource = parsedSqlCache == null ? null : parsedSqlCache.get(sql, parameterType, context.getBindings());
+    boolean parsed = sqlSource == null;
+    if (parsed) {
+      //解析替换#{}等等参数
+      SqlSourceBuilder sqlSourceParser = new SqlSourceBuilder(configuration);
+      sqlSource = sqlSourceParser.parse(sql, parameterType, context.getBindings());
+    }
     BoundSql boundSql = sqlSource.getBoundSql(parameterObject);
+    if (parsed && parsedSqlCache != null) {
+      parsedSqlCache.put(sql, parameterType, context.getBindings(), sqlSource, boundSql.getParameterMappings());
+    }
 
     //将Context中参数设置到BoundSQL中，方便真正的数据处理的时候获取数据
     for (Map.Entry<String, Object> entry : context.getBindings().entrySet()) {
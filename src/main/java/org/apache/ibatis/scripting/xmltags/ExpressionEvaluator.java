@@ -29,7 +29,13 @@ import org.apache.ibatis.builder.BuilderException;
 public class ExpressionEvaluator {
 
   public boolean evaluateBoolean(String expression, Object parameterObject) {
-    Object value = OgnlCache.getValue(expression, parameterObject);
+    return toBoolean(getValue(expression, parameterObject));
+  }
+
+  /**
+   * Converts the value of a test expression: numbers are true unless zero, other objects unless null.
+   */
+  static boolean toBoolean(Object value) {
     if (value instanceof Boolean) {
       return (Boolean) value;
     }
@@ -40,7 +46,7 @@ public class ExpressionEvaluator {
   }
 
   public Iterable<?> evaluateIterable(String expression, Object parameterObject) {
-    Object value = OgnlCache.getValue(expression, parameterObject);
+    Object value = getValue(expression, parameterObject);
     if (value == null) {
       throw new BuilderException("The expression '" + expression + "' evaluated to a null value.");
     }
@@ -65,4 +71,13 @@ public class ExpressionEvaluator {
     throw new BuilderException("Error evaluating expression '" + expression + "'.  Return value (" + value + ") was not iterable.");
   }
 
+  /**
+   * Evaluates an expression with OGNL.
+   *
+   * @since 3.5.0
+   */
+  protected Object getValue(String expression, Object parameterObject) {
+    return OgnlCache.getValue(expression, parameterObject);
+  }
+
 }
@@ -0,0 +1,39 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.scripting.xmltags;
+
+/**
+ * How a {@link ForEachSqlNode} binds the elements of its collection.
+ *
+ * @since 3.5.0
+ */
+public enum ForEachMode {
+  /**
+   * Applies the body once per element, binding a parameter for every element.
+   */
+  ITEMS,
+  /**
+   * Binds the whole collection as a single JDBC array parameter, the body is not used.
+   * The database must support array parameters, e.g. {@code id = ANY(?)} or {@code id IN (UNNEST(?))}.
+   */
+  ARRAY,
+  /**
+   * Like {@link #ITEMS}, but repeats the last element until the number of iterations is a power of two,
+   * so that collections of different sizes share a few SQL texts.
+   * Only suitable where repeated values do not change the result, e.g. an IN list.
+   */
+  PADDED
+}
@@ -17,8 +17,12 @@ package org.apache.ibatis.scripting.xmltags;
 
 import org.apache.ibatis.parsing.GenericTokenParser;
 import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.type.ArrayTypeHandler;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.regex.Pattern;
 
 /**
  * @author Clinton Begin
@@ -34,10 +38,28 @@ public class ForEachSqlNode implements SqlNode {
   private final String separator;
   private final String item;
   private final String index;
+  private final ForEachMode mode;
+  // ARRAY模式下数组元素的SQL类型名称
+  private final String elementType;
   private final Configuration configuration;
 
+  /**
+   * 把 #{item} 改写为 #{__frch_item_N} 的正则,创建节点时编译一次
+   */
+  private final Pattern itemPattern;
+  private final Pattern indexPattern;
+
   public ForEachSqlNode(Configuration configuration, SqlNode contents, String collectionExpression, String index, String item, String open, String close, String separator) {
-    this.evaluator = new ExpressionEvaluator();
+    this(configuration, contents, collectionExpression, index, item, open, close, separator, ForEachMode.ITEMS, null);
+  }
+
+  /**
+   * @param elementType the SQL type name of the elements, required in {@link ForEachMode#ARRAY} mode
+   * @since 3.5.0
+   */
+  public ForEachSqlNode(Configuration configuration, SqlNode contents, String collectionExpression, String index, String item, String open, String close, String separator,
+                        ForEachMode mode, String elementType) {
+    this.evaluator = NativeExpressionEvaluator.of(configuration);
     this.collectionExpression = collectionExpression;
     this.contents = contents;
     this.open = open;
@@ -45,7 +67,11 @@ public class ForEachSqlNode implements SqlNode {
     this.separator = separator;
     this.index = index;
     this.item = item;
+    this.mode = mode == null ? ForEachMode.ITEMS : mode;
+    this.elementType = elementType;
     this.configuration = configuration;
+    this.itemPattern = itemPattern(item);
+    this.indexPattern = itemPattern(index);
   }
 
   @Override
@@ -54,43 +80,95 @@ public class ForEachSqlNode implements SqlNode {
 
     // 获取到Context中集合的元素的信息
     final Iterable<?> iterable = evaluator.evaluateIterable(collectionExpression, bindings);
+    if (mode == ForEachMode.ARRAY) {
+      applyArray(context, iterable);
+      return true;
+    }
     if (!iterable.iterator().hasNext()) {
       return true;
     }
     boolean first = true;
     applyOpen(context);
     int i = 0;
+    Object last = null;
     for (Object o : iterable) {
-      DynamicContext oldContext = context;
-      if (first || separator == null) {
-        context = new PrefixedContext(context, "");
-      } else {
-        context = new PrefixedContext(context, separator);
-      }
-      int uniqueNumber = context.getUniqueNumber();
-      // Issue #709 
-      if (o instanceof Map.Entry) {
-        @SuppressWarnings("unchecked") 
-        Map.Entry<Object, Object> mapEntry = (Map.Entry<Object, Object>) o;
-        applyIndex(context, mapEntry.getKey(), uniqueNumber);
-        applyItem(context, mapEntry.getValue(), uniqueNumber);
-      } else {
-        applyIndex(context, i, uniqueNumber);
-        applyItem(context, o, uniqueNumber);
-      }
-      contents.apply(new FilteredDynamicContext(configuration, context, index, item, uniqueNumber));
-      if (first) {
-        first = !((PrefixedContext) context).isPrefixApplied();
-      }
-      context = oldContext;
+      first = applyIteration(context, o, i, first);
+      last = o;
       i++;
     }
+    if (mode == ForEachMode.PADDED) {
+      // 重复最后一个元素,补齐到2的幂次个,不同大小的集合只产生少数几种SQL
+      final int lastIndex = i - 1;
+      for (int size = paddedSize(i); i < size; i++) {
+        first = applyIteration(context, last, lastIndex, first);
+      }
+    }
     applyClose(context);
     context.getBindings().remove(item);
     context.getBindings().remove(index);
     return true;
   }
 
+  private boolean applyIteration(DynamicContext parent, Object o, int i, boolean first) {
+    PrefixedContext context;
+    if (first || separator == null) {
+      context = new PrefixedContext(parent, "");
+    } else {
+      context = new PrefixedContext(parent, separator);
+    }
+    int uniqueNumber = context.getUniqueNumber();
+    // Issue #709 
+    if (o instanceof Map.Entry) {
+      @SuppressWarnings("unchecked") 
+      Map.Entry<Object, Object> mapEntry = (Map.Entry<Object, Object>) o;
+      applyIndex(context, mapEntry.getKey(), uniqueNumber);
+      applyItem(context, mapEntry.getValue(), uniqueNumber);
+    } else {
+      applyIndex(context, i, uniqueNumber);
+      applyItem(context, o, uniqueNumber);
+    }
+    contents.apply(new FilteredDynamicContext(context, index, item, itemPattern, indexPattern, uniqueNumber));
+    if (first) {
+      first = !context.isPrefixApplied();
+    }
+    return first;
+  }
+
+  SqlNode getContents() {
+    return contents;
+  }
+
+  /**
+   * @return a node iterating the same collection over the given contents
+   */
+  ForEachSqlNode withContents(SqlNode contents) {
+    return new ForEachSqlNode(configuration, contents, collectionExpression, index, item, open, close, separator, mode, elementType);
+  }
+
+  /**
+   * 把整个集合作为一个数组参数绑定,只产生一个占位符
+   */
+  private void applyArray(DynamicContext context, Iterable<?> iterable) {
+    List<Object> values = new ArrayList<>();
+    for (Object o : iterable) {
+      values.add(o instanceof Map.Entry ? ((Map.Entry<?, ?>) o).getValue() : o);
+    }
+    // 元素的SQL类型由elementType给出,空集合也能绑定
+    String name = itemizeItem(item == null ? "array" : item, context.getUniqueNumber());
+    context.bind(name, new ArrayTypeHandler.TypedArray(elementType, values.toArray()));
+    applyOpen(context);
+    context.appendSql("#{" + name + ",jdbcType=ARRAY,typeHandler=" + ArrayTypeHandler.class.getName() + "}");
+    applyClose(context);
+  }
+
+  /**
+   * 补齐后的迭代次数,即不小于size的2的幂
+   */
+  static int paddedSize(int size) {
+    int highest = Integer.highestOneBit(size);
+    return highest == size ? size : highest << 1;
+  }
+
   private void applyIndex(DynamicContext context, Object o, int i) {
     if (index != null) {
       context.bind(index, o);
@@ -130,19 +208,27 @@ public class ForEachSqlNode implements SqlNode {
   private static String itemizeItem(String item, int i) {
     return ITEM_PREFIX + item + "_" + i;
   }
+
+  private static Pattern itemPattern(String name) {
+    return Pattern.compile("^\\s*" + name + "(?![^.,:\\s])");
+  }
   //过滤后的动态上下文
   private static class FilteredDynamicContext extends DynamicContext {
     private final DynamicContext delegate;
     private final int index;
     private final String itemIndex;
     private final String item;
+    private final Pattern itemPattern;
+    private final Pattern indexPattern;
 
-    public FilteredDynamicContext(Configuration configuration,DynamicContext delegate, String itemIndex, String item, int i) {
-      super(configuration, null);
+    public FilteredDynamicContext(DynamicContext delegate, String itemIndex, String item, Pattern itemPattern, Pattern indexPattern, int i) {
+      super(delegate);
       this.delegate = delegate;
       this.index = i;
       this.itemIndex = itemIndex;
       this.item = item;
+      this.itemPattern = itemPattern;
+      this.indexPattern = indexPattern;
     }
 
     @Override
@@ -163,9 +249,9 @@ public class ForEachSqlNode implements SqlNode {
     @Override
     public void appendSql(String sql) {
       GenericTokenParser parser = new GenericTokenParser("#{", "}", content -> {
-        String newContent = content.replaceFirst("^\\s*" + item + "(?![^.,:\\s])", itemizeItem(item, index));
+        String newContent = itemPattern.matcher(content).replaceFirst(itemizeItem(item, index));
         if (itemIndex != null && newContent.equals(content)) {
-          newContent = content.replaceFirst("^\\s*" + itemIndex + "(?![^.,:\\s])", itemizeItem(itemIndex, index));
+          newContent = indexPattern.matcher(content).replaceFirst(itemizeItem(itemIndex, index));
         }
         return "#{" + newContent + "}";
       });
@@ -187,7 +273,7 @@ public class ForEachSqlNode implements SqlNode {
     private boolean prefixApplied;
 
     public PrefixedContext(DynamicContext delegate, String prefix) {
-      super(configuration, null);
+      super(delegate);
       this.delegate = delegate;
       this.prefix = prefix;
       this.prefixApplied = false;
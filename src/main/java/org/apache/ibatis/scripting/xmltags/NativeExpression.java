@@ -0,0 +1,617 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.scripting.xmltags;
+
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.reflection.Reflector;
+import org.apache.ibatis.reflection.ReflectorFactory;
+import org.apache.ibatis.reflection.invoker.Invoker;
+
+/**
+ * An expression of the subset of OGNL that most test expressions use, evaluated without the OGNL interpreter.
+ * <p>
+ * The subset has property paths, the {@code size()}, {@code isEmpty()} and {@code length()} methods, string,
+ * integer, decimal, boolean and null literals, the comparison operators, {@code and}, {@code or}, {@code not} and
+ * their symbolic forms. The getters of each property are resolved once per type of the object they are read from,
+ * with the reflector factory of the configuration.
+ * <p>
+ * An expression outside of the subset is not parsed, and an evaluation this class cannot do the way OGNL would,
+ * for example comparing a number with a string, is done again by OGNL. So an expression has the same value with
+ * or without this class.
+ *
+ * @since 3.5.0
+ */
+final class NativeExpression {
+
+  /**
+   * OGNL 中这些名称是Map的属性,不是键
+   */
+  private static final List<String> MAP_PROPERTIES = Arrays.asList("size", "isEmpty", "keys", "keySet", "values");
+
+  private final String expression;
+  private final Node root;
+
+  private NativeExpression(String expression, Node root) {
+    this.expression = expression;
+    this.root = root;
+  }
+
+  /**
+   * @param reflectorFactory the reflector factory resolving the getters of the properties
+   * @return the parsed expression, or null if it is not in the supported subset
+   */
+  static NativeExpression parse(String expression, ReflectorFactory reflectorFactory) {
+    try {
+      return new NativeExpression(expression, new Parser(expression, reflectorFactory).parse());
+    } catch (UnsupportedException e) {
+      return null;
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  Object getValue(Object root) {
+    if (root instanceof Map) {
+      try {
+        return this.root.getValue((Map<String, Object>) root);
+      } catch (UnsupportedException e) {
+        // OGNL 的处理方式不同,例如比较数字和字符串,交给OGNL计算
+      }
+    }
+    return OgnlCache.getValue(expression, root);
+  }
+
+  /**
+   * Thrown where the expression or one of its values is outside of the supported subset.
+   */
+  private static final class UnsupportedException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+    private static final UnsupportedException INSTANCE = new UnsupportedException();
+
+    private UnsupportedException() {
+      super(null, null, false, false);
+    }
+  }
+
+  private static UnsupportedException unsupported() {
+    return UnsupportedException.INSTANCE;
+  }
+
+  private interface Node {
+    Object getValue(Map<String, Object> bindings);
+  }
+
+  private static final class Literal implements Node {
+    private final Object value;
+
+    Literal(Object value) {
+      this.value = value;
+    }
+
+    @Override
+    public Object getValue(Map<String, Object> bindings) {
+      return value;
+    }
+  }
+
+  /**
+   * 根上的变量,和 DynamicContext.ContextAccessor 一样先找绑定的值,再找 Map 参数的值
+   */
+  private static final class Variable implements Node {
+    private final String name;
+
+    Variable(String name) {
+      this.name = name;
+    }
+
+    @Override
+    public Object getValue(Map<String, Object> bindings) {
+      Object result = bindings.get(name);
+      if (result != null || bindings.containsKey(name)) {
+        return result;
+      }
+      Object parameterObject = bindings.get(DynamicContext.PARAMETER_OBJECT_KEY);
+      if (parameterObject instanceof Map) {
+        return ((Map<?, ?>) parameterObject).get(name);
+      }
+      return null;
+    }
+  }
+
+  private static final class Property implements Node {
+    private final Node target;
+    private final String name;
+    private final ReflectorFactory reflectorFactory;
+    /**
+     * 上一次读取的对象类型和它的getter
+     */
+    private volatile Getter getter;
+
+    Property(Node target, String name, ReflectorFactory reflectorFactory) {
+      this.target = target;
+      this.name = name;
+      this.reflectorFactory = reflectorFactory;
+    }
+
+    @Override
+    public Object getValue(Map<String, Object> bindings) {
+      Object value = target.getValue(bindings);
+      if (value == null) {
+        throw unsupported();
+      }
+      if (value instanceof Map) {
+        if (MAP_PROPERTIES.contains(name)) {
+          throw unsupported();
+        }
+        return ((Map<?, ?>) value).get(name);
+      }
+      if (value.getClass().isArray()) {
+        if ("length".equals(name)) {
+          return Array.getLength(value);
+        }
+        throw unsupported();
+      }
+      if (value instanceof Collection) {
+        throw unsupported();
+      }
+      Getter current = getter;
+      if (current == null || current.type != value.getClass()) {
+        current = Getter.of(reflectorFactory, value.getClass(), name);
+        getter = current;
+      }
+      try {
+        return current.invoker.invoke(value, null);
+      } catch (Exception e) {
+        // OGNL 报告同样的错误
+        throw unsupported();
+      }
+    }
+  }
+
+  private static final class Getter {
+    private final Class<?> type;
+    private final Invoker invoker;
+
+    private Getter(Class<?> type, Invoker invoker) {
+      this.type = type;
+      this.invoker = invoker;
+    }
+
+    static Getter of(ReflectorFactory reflectorFactory, Class<?> type, String name) {
+      Reflector reflector = reflectorFactory.findForClass(type);
+      if (!reflector.hasGetter(name)) {
+        throw unsupported();
+      }
+      return new Getter(type, reflector.getGetInvoker(name));
+    }
+  }
+
+  private static final class MethodCall implements Node {
+    private final Node target;
+    private final String name;
+
+    MethodCall(Node target, String name) {
+      this.target = target;
+      this.name = name;
+    }
+
+    @Override
+    public Object getValue(Map<String, Object> bindings) {
+      Object value = target.getValue(bindings);
+      if ("size".equals(name)) {
+        if (value instanceof Collection) {
+          return ((Collection<?>) value).size();
+        } else if (value instanceof Map) {
+          return ((Map<?, ?>) value).size();
+        }
+      } else if ("isEmpty".equals(name)) {
+        if (value instanceof Collection) {
+          return ((Collection<?>) value).isEmpty();
+        } else if (value instanceof Map) {
+          return ((Map<?, ?>) value).isEmpty();
+        } else if (value instanceof String) {
+          return ((String) value).isEmpty();
+        }
+      } else if ("length".equals(name) && value instanceof String) {
+        return ((String) value).length();
+      }
+      throw unsupported();
+    }
+  }
+
+  private static final class Not implements Node {
+    private final Node operand;
+
+    Not(Node operand) {
+      this.operand = operand;
+    }
+
+    @Override
+    public Object getValue(Map<String, Object> bindings) {
+      return booleanValue(operand.getValue(bindings)) ? Boolean.FALSE : Boolean.TRUE;
+    }
+  }
+
+  /**
+   * 和OGNL一样返回决定结果的操作数的值,而不是布尔值
+   */
+  private static final class Logical implements Node {
+    private final Node left;
+    private final Node right;
+    private final boolean and;
+
+    Logical(Node left, Node right, boolean and) {
+      this.left = left;
+      this.right = right;
+      this.and = and;
+    }
+
+    @Override
+    public Object getValue(Map<String, Object> bindings) {
+      Object value = left.getValue(bindings);
+      if (booleanValue(value) != and) {
+        return value;
+      }
+      return right.getValue(bindings);
+    }
+  }
+
+  private static final class Comparison implements Node {
+    private final Node left;
+    private final Node right;
+    private final String operator;
+
+    Comparison(Node left, Node right, String operator) {
+      this.left = left;
+      this.right = right;
+      this.operator = operator;
+    }
+
+    @Override
+    public Object getValue(Map<String, Object> bindings) {
+      Object leftValue = left.getValue(bindings);
+      Object rightValue = right.getValue(bindings);
+      switch (operator) {
+        case "==":
+          return isEqual(leftValue, rightValue);
+        case "!=":
+          return !isEqual(leftValue, rightValue);
+        case "<":
+          return compare(leftValue, rightValue) < 0;
+        case "<=":
+          return compare(leftValue, rightValue) <= 0;
+        case ">":
+          return compare(leftValue, rightValue) > 0;
+        default:
+          return compare(leftValue, rightValue) >= 0;
+      }
+    }
+  }
+
+  private static boolean booleanValue(Object value) {
+    if (value == null) {
+      return false;
+    }
+    if (value instanceof Boolean) {
+      return (Boolean) value;
+    }
+    if (value instanceof Character) {
+      return (Character) value != 0;
+    }
+    if (value instanceof Number) {
+      return ((Number) value).doubleValue() != 0;
+    }
+    return true;
+  }
+
+  private static boolean isEqual(Object left, Object right) {
+    if (left == right) {
+      return true;
+    }
+    if (left == null || right == null) {
+      return false;
+    }
+    if ((left instanceof String && right instanceof String) || (left instanceof Boolean && right instanceof Boolean)) {
+      return left.equals(right);
+    }
+    return compare(left, right) == 0;
+  }
+
+  /**
+   * Compares two strings, or two numbers by their values like OGNL does. Other values are left to OGNL.
+   */
+  private static int compare(Object left, Object right) {
+    if (left instanceof String && right instanceof String) {
+      return ((String) left).compareTo((String) right);
+    }
+    if (!isSupportedNumber(left) || !isSupportedNumber(right)) {
+      throw unsupported();
+    }
+    if (isIntegral(left) && isIntegral(right)) {
+      return Long.compare(((Number) left).longValue(), ((Number) right).longValue());
+    }
+    if (left instanceof BigDecimal || left instanceof BigInteger || right instanceof BigDecimal || right instanceof BigInteger) {
+      return toBigDecimal((Number) left).compareTo(toBigDecimal((Number) right));
+    }
+    double leftValue = ((Number) left).doubleValue();
+    double rightValue = ((Number) right).doubleValue();
+    return leftValue == rightValue ? 0 : (leftValue < rightValue ? -1 : 1);
+  }
+
+  private static boolean isSupportedNumber(Object value) {
+    return isIntegral(value) || value instanceof Double || value instanceof Float
+        || value instanceof BigDecimal || value instanceof BigInteger;
+  }
+
+  private static boolean isIntegral(Object value) {
+    return value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte;
+  }
+
+  private static BigDecimal toBigDecimal(Number value) {
+    if (value instanceof BigDecimal) {
+      return (BigDecimal) value;
+    }
+    if (value instanceof BigInteger) {
+      return new BigDecimal((BigInteger) value);
+    }
+    if (isIntegral(value)) {
+      return BigDecimal.valueOf(value.longValue());
+    }
+    double doubleValue = value.doubleValue();
+    if (Double.isNaN(doubleValue) || Double.isInfinite(doubleValue)) {
+      throw unsupported();
+    }
+    return new BigDecimal(doubleValue);
+  }
+
+  /**
+   * A recursive descent parser with the precedence of OGNL: or, and, equality, relational and unary operators.
+   */
+  private static final class Parser {
+    private final List<Object> tokens = new ArrayList<>();
+    private final ReflectorFactory reflectorFactory;
+    private int position;
+
+    Parser(String expression, ReflectorFactory reflectorFactory) {
+      this.reflectorFactory = reflectorFactory;
+      tokenize(expression);
+    }
+
+    Node parse() {
+      Node node = parseOr();
+      if (position != tokens.size()) {
+        throw unsupported();
+      }
+      return node;
+    }
+
+    private Node parseOr() {
+      Node node = parseAnd();
+      while (accept("or") || accept("||")) {
+        node = new Logical(node, parseAnd(), false);
+      }
+      return node;
+    }
+
+    private Node parseAnd() {
+      Node node = parseEquality();
+      while (accept("and") || accept("&&")) {
+        node = new Logical(node, parseEquality(), true);
+      }
+      return node;
+    }
+
+    private Node parseEquality() {
+      Node node = parseRelational();
+      while (true) {
+        if (accept("==") || accept("eq")) {
+          node = new Comparison(node, parseRelational(), "==");
+        } else if (accept("!=") || accept("neq")) {
+          node = new Comparison(node, parseRelational(), "!=");
+        } else {
+          return node;
+        }
+      }
+    }
+
+    private Node parseRelational() {
+      Node node = parseUnary();
+      while (true) {
+        if (accept("<") || accept("lt")) {
+          node = new Comparison(node, parseUnary(), "<");
+        } else if (accept("<=") || accept("lte")) {
+          node = new Comparison(node, parseUnary(), "<=");
+        } else if (accept(">") || accept("gt")) {
+          node = new Comparison(node, parseUnary(), ">");
+        } else if (accept(">=") || accept("gte")) {
+          node = new Comparison(node, parseUnary(), ">=");
+        } else {
+          return node;
+        }
+      }
+    }
+
+    private Node parseUnary() {
+      if (accept("!") || accept("not")) {
+        return new Not(parseUnary());
+      }
+      return parsePrimary();
+    }
+
+    private Node parsePrimary() {
+      Object token = next();
+      if (token instanceof Literal) {
+        return (Literal) token;
+      }
+      if ("(".equals(token)) {
+        Node node = parseOr();
+        expect(")");
+        return node;
+      }
+      if (!(token instanceof Identifier) || isKeyword(((Identifier) token).name)) {
+        throw unsupported();
+      }
+      Node node = new Variable(((Identifier) token).name);
+      while (accept(".")) {
+        Object member = next();
+        if (!(member instanceof Identifier)) {
+          throw unsupported();
+        }
+        String name = ((Identifier) member).name;
+        if (accept("(")) {
+          expect(")");
+          if (!"size".equals(name) && !"isEmpty".equals(name) && !"length".equals(name)) {
+            throw unsupported();
+          }
+          node = new MethodCall(node, name);
+        } else {
+          node = new Property(node, name, reflectorFactory);
+        }
+      }
+      return node;
+    }
+
+    private boolean isKeyword(String name) {
+      switch (name) {
+        case "and": case "or": case "not": case "eq": case "neq": case "lt": case "lte": case "gt": case "gte":
+        case "in": case "instanceof": case "new": case "this": case "shl": case "shr": case "ushr":
+        case "band": case "bor": case "xor":
+          return true;
+        default:
+          return false;
+      }
+    }
+
+    private Object next() {
+      if (position == tokens.size()) {
+        throw unsupported();
+      }
+      return tokens.get(position++);
+    }
+
+    private boolean accept(String token) {
+      if (position < tokens.size() && isToken(tokens.get(position), token)) {
+        position++;
+        return true;
+      }
+      return false;
+    }
+
+    private void expect(String token) {
+      if (!accept(token)) {
+        throw unsupported();
+      }
+    }
+
+    private boolean isToken(Object token, String expected) {
+      return token instanceof Identifier ? ((Identifier) token).name.equals(expected) : expected.equals(token);
+    }
+
+    private void tokenize(String expression) {
+      int i = 0;
+      int length = expression.length();
+      while (i < length) {
+        char c = expression.charAt(i);
+        if (Character.isWhitespace(c)) {
+          i++;
+        } else if (Character.isJavaIdentifierStart(c)) {
+          int start = i;
+          while (i < length && Character.isJavaIdentifierPart(expression.charAt(i))) {
+            i++;
+          }
+          String name = expression.substring(start, i);
+          if ("null".equals(name)) {
+            tokens.add(new Literal(null));
+          } else if ("true".equals(name) || "false".equals(name)) {
+            tokens.add(new Literal(Boolean.valueOf(name)));
+          } else {
+            tokens.add(new Identifier(name));
+          }
+        } else if (isDigit(c)) {
+          i = readNumber(expression, i);
+        } else if (c == '\'' || c == '"') {
+          int end = expression.indexOf(c, i + 1);
+          if (end == -1) {
+            throw unsupported();
+          }
+          String value = expression.substring(i + 1, end);
+          // OGNL 把单引号中的单个字符当做 Character, 转义字符也交给OGNL处理
+          if (value.indexOf('\\') != -1 || (c == '\'' && value.length() == 1)) {
+            throw unsupported();
+          }
+          tokens.add(new Literal(value));
+          i = end + 1;
+        } else {
+          String operator = expression.startsWith("==", i) || expression.startsWith("!=", i) || expression.startsWith("<=", i)
+              || expression.startsWith(">=", i) || expression.startsWith("&&", i) || expression.startsWith("||", i)
+              ? expression.substring(i, i + 2) : String.valueOf(c);
+          if ("!<>().".indexOf(c) == -1 && operator.length() == 1) {
+            throw unsupported();
+          }
+          tokens.add(operator);
+          i += operator.length();
+        }
+      }
+    }
+
+    private int readNumber(String expression, int start) {
+      int i = start;
+      int length = expression.length();
+      while (i < length && isDigit(expression.charAt(i))) {
+        i++;
+      }
+      boolean decimal = i + 1 < length && expression.charAt(i) == '.' && isDigit(expression.charAt(i + 1));
+      if (decimal) {
+        i++;
+        while (i < length && isDigit(expression.charAt(i))) {
+          i++;
+        }
+      }
+      // 带后缀、指数或者其他进制的数字交给OGNL处理
+      boolean octal = expression.charAt(start) == '0' && i - start > 1 && expression.charAt(start + 1) != '.';
+      if (octal || i < length && (Character.isJavaIdentifierPart(expression.charAt(i)) || expression.charAt(i) == '.')) {
+        throw unsupported();
+      }
+      String number = expression.substring(start, i);
+      try {
+        tokens.add(new Literal(decimal ? (Object) Double.valueOf(number) : (Object) Integer.valueOf(number)));
+      } catch (NumberFormatException e) {
+        throw unsupported();
+      }
+      return i;
+    }
+
+    private boolean isDigit(char c) {
+      return c >= '0' && c <= '9';
+    }
+  }
+
+  private static final class Identifier {
+    private final String name;
+
+    Identifier(String name) {
+      this.name = name;
+    }
+  }
+
+}
@@ -0,0 +1,72 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.scripting.xmltags;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * Evaluates the common subset of OGNL natively with a {@link NativeExpression}, and other expressions with OGNL.
+ * The properties are read with the reflector factory of the configuration.
+ *
+ * @since 3.5.0
+ * @see Configuration#isNativeExpressionEvaluationEnabled()
+ */
+public class NativeExpressionEvaluator extends ExpressionEvaluator {
+
+  private static final Object NOT_SUPPORTED = new Object();
+
+  private final Configuration configuration;
+  // 解析过的表达式,不在支持范围内的表达式对应NOT_SUPPORTED
+  private final Map<String, Object> expressionCache = new ConcurrentHashMap<>();
+
+  public NativeExpressionEvaluator(Configuration configuration) {
+    this.configuration = configuration;
+  }
+
+  /**
+   * @return the evaluator the configuration selects for test and collection expressions
+   */
+  static ExpressionEvaluator of(Configuration configuration) {
+    return configuration != null && configuration.isNativeExpressionEvaluationEnabled()
+        ? new NativeExpressionEvaluator(configuration) : new ExpressionEvaluator();
+  }
+
+  @Override
+  protected Object getValue(String expression, Object parameterObject) {
+    NativeExpression nativeExpression = parse(expression);
+    if (nativeExpression == null) {
+      return OgnlCache.getValue(expression, parameterObject);
+    }
+    return nativeExpression.getValue(parameterObject);
+  }
+
+  /**
+   * @return the parsed expression, or null if it is not in the supported subset
+   */
+  NativeExpression parse(String expression) {
+    Object cached = expressionCache.get(expression);
+    if (cached == null) {
+      NativeExpression nativeExpression = NativeExpression.parse(expression, configuration.getReflectorFactory());
+      cached = nativeExpression == null ? NOT_SUPPORTED : nativeExpression;
+      expressionCache.put(expression, cached);
+    }
+    return cached == NOT_SUPPORTED ? null : (NativeExpression) cached;
+  }
+
+}
@@ -49,6 +49,30 @@ public final class OgnlCache {
     }
   }
 
+  /**
+   * Parses an expression, for the callers evaluating it many times with {@link #getValue(Object, String, Object)}.
+   *
+   * @throws OgnlException if the expression is not valid
+   * @since 3.5.0
+   */
+  static Object parse(String expression) throws OgnlException {
+    return parseExpression(expression);
+  }
+
+  /**
+   * Evaluates an expression parsed with {@link #parse(String)}.
+   *
+   * @since 3.5.0
+   */
+  static Object getValue(Object tree, String expression, Object root) {
+    try {
+      Map context = Ognl.createDefaultContext(root, MEMBER_ACCESS, CLASS_RESOLVER, null);
+      return Ognl.getValue(tree, context, root);
+    } catch (OgnlException e) {
+      throw new BuilderException("Error evaluating expression '" + expression + "'. Cause: " + e, e);
+    }
+  }
+
   private static Object parseExpression(String expression) throws OgnlException {
     Object node = expressionCache.get(expression);
     if (node == null) {
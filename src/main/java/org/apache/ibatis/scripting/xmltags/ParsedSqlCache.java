@@ -0,0 +1,134 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.scripting.xmltags;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.reflection.wrapper.ObjectWrapper;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * Least recently used cache of the parsed SQLs of a dynamic statement, keyed by the SQL its nodes generate.
+ * <p>
+ * The SQL does not fully determine its parameter mappings: the type of a property read from the bindings is the
+ * type of the bound value. So an entry also records the type of the bound value each property starts from, and is
+ * only used while those types are the same. SQLs with properties whose type depends on more than that, such as
+ * a nested property of a bound map, are not cached.
+ *
+ * @since 3.5.0
+ */
+final class ParsedSqlCache {
+
+  /**
+   * 属性不在绑定的变量中
+   */
+  private static final Object ABSENT = new Object();
+
+  private final Configuration configuration;
+  private final Map<String, ParsedSql> entries;
+
+  ParsedSqlCache(Configuration configuration, final int size) {
+    this.configuration = configuration;
+    this.entries = new LinkedHashMap<String, ParsedSql>(16, .75F, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, ParsedSql> eldest) {
+        return size() > size;
+      }
+    };
+  }
+
+  /**
+   * @return the parsed SQL, or null if it was not cached for these parameter type and bound value types
+   */
+  SqlSource get(String sql, Class<?> parameterType, Map<String, Object> bindings) {
+    ParsedSql parsedSql;
+    synchronized (this) {
+      parsedSql = entries.get(sql);
+    }
+    if (parsedSql == null || parsedSql.parameterType != parameterType) {
+      return null;
+    }
+    for (int i = 0; i < parsedSql.names.length; i++) {
+      if (parsedSql.types[i] != typeOf(bindings, parsedSql.names[i])) {
+        return null;
+      }
+    }
+    return parsedSql.sqlSource;
+  }
+
+  void put(String sql, Class<?> parameterType, Map<String, Object> bindings, SqlSource sqlSource, List<ParameterMapping> parameterMappings) {
+    Map<String, Object> types = new LinkedHashMap<>();
+    for (ParameterMapping parameterMapping : parameterMappings) {
+      String property = parameterMapping.getProperty();
+      if (property == null) {
+        continue;
+      }
+      if (property.indexOf('[') != -1) {
+        return;
+      }
+      int dot = property.indexOf('.');
+      String name = dot == -1 ? property : property.substring(0, dot);
+      Object type = typeOf(bindings, name);
+      if (dot != -1 && type != ABSENT && type != null) {
+        // 嵌套属性的类型只在绑定的值是普通JavaBean时由它的类型决定
+        if (property.indexOf('.', dot + 1) != -1 || !isBean(bindings.get(name))) {
+          return;
+        }
+      }
+      types.put(name, type);
+    }
+    ParsedSql parsedSql = new ParsedSql(parameterType, types, sqlSource);
+    synchronized (this) {
+      entries.put(sql, parsedSql);
+    }
+  }
+
+  private static Object typeOf(Map<String, Object> bindings, String name) {
+    // 不能直接get,ContextMap 会从参数对象中读取不在绑定中的属性
+    if (!bindings.containsKey(name)) {
+      return ABSENT;
+    }
+    Object value = bindings.get(name);
+    return value == null ? null : value.getClass();
+  }
+
+  private boolean isBean(Object value) {
+    return !(value instanceof Map) && !(value instanceof Collection) && !(value instanceof ObjectWrapper)
+        && !value.getClass().isArray() && !configuration.getObjectWrapperFactory().hasWrapperFor(value);
+  }
+
+  private static final class ParsedSql {
+    private final Class<?> parameterType;
+    private final String[] names;
+    private final Object[] types;
+    private final SqlSource sqlSource;
+
+    ParsedSql(Class<?> parameterType, Map<String, Object> types, SqlSource sqlSource) {
+      this.parameterType = parameterType;
+      this.names = types.keySet().toArray(new String[0]);
+      this.types = types.values().toArray();
+      this.sqlSource = sqlSource;
+    }
+  }
+
+}
@@ -0,0 +1,162 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.scripting.xmltags;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import ognl.OgnlException;
+
+/**
+ * Compiles a tree of {@link SqlNode}s once, so that each execution of a dynamic statement does less work than
+ * interpreting the tree: mixed nodes are flattened into arrays, single child wrappers are removed and the
+ * expressions of if, when and bind nodes are parsed up front instead of being looked up in the {@link OgnlCache}.
+ * <p>
+ * The compiled nodes produce the same SQL and bindings as the original tree. Nodes this class does not know,
+ * as well as expressions that cannot be parsed, are kept as they are so that they fail at execution as before.
+ *
+ * @since 3.5.0
+ */
+final class SqlNodeCompiler {
+
+  private SqlNodeCompiler() {
+    // Prevent Instantiation of Static Class
+  }
+
+  static SqlNode compile(SqlNode node) {
+    if (node instanceof MixedSqlNode) {
+      return compileMixed((MixedSqlNode) node);
+    } else if (node instanceof IfSqlNode) {
+      return compileIf((IfSqlNode) node);
+    } else if (node instanceof ChooseSqlNode) {
+      return compileChoose((ChooseSqlNode) node);
+    } else if (node instanceof TrimSqlNode) {
+      TrimSqlNode trimSqlNode = (TrimSqlNode) node;
+      return trimSqlNode.withContents(compile(trimSqlNode.getContents()));
+    } else if (node instanceof ForEachSqlNode) {
+      ForEachSqlNode forEachSqlNode = (ForEachSqlNode) node;
+      return forEachSqlNode.withContents(compile(forEachSqlNode.getContents()));
+    } else if (node instanceof VarDeclSqlNode) {
+      return compileVarDecl((VarDeclSqlNode) node);
+    }
+    return node;
+  }
+
+  private static SqlNode compileMixed(MixedSqlNode node) {
+    List<SqlNode> contents = new ArrayList<>();
+    flatten(node, contents);
+    if (contents.size() == 1) {
+      SqlNode single = contents.get(0);
+      // A mixed node is always applied, whatever its contents return
+      return context -> {
+        single.apply(context);
+        return true;
+      };
+    }
+    final SqlNode[] nodes = contents.toArray(new SqlNode[0]);
+    return context -> {
+      for (SqlNode sqlNode : nodes) {
+        sqlNode.apply(context);
+      }
+      return true;
+    };
+  }
+
+  private static void flatten(MixedSqlNode node, List<SqlNode> contents) {
+    for (SqlNode child : node.getContents()) {
+      if (child instanceof MixedSqlNode) {
+        flatten((MixedSqlNode) child, contents);
+      } else {
+        contents.add(compile(child));
+      }
+    }
+  }
+
+  private static SqlNode compileIf(IfSqlNode node) {
+    final String test = node.getTest();
+    if (node.getEvaluator() instanceof NativeExpressionEvaluator) {
+      final NativeExpression expression = ((NativeExpressionEvaluator) node.getEvaluator()).parse(test);
+      if (expression != null) {
+        final SqlNode contents = compile(node.getContents());
+        return context -> {
+          if (ExpressionEvaluator.toBoolean(expression.getValue(context.getBindings()))) {
+            contents.apply(context);
+            return true;
+          }
+          return false;
+        };
+      }
+    }
+    final Object tree = parse(test);
+    if (tree == null) {
+      return node;
+    }
+    final SqlNode contents = compile(node.getContents());
+    return context -> {
+      if (ExpressionEvaluator.toBoolean(OgnlCache.getValue(tree, test, context.getBindings()))) {
+        contents.apply(context);
+        return true;
+      }
+      return false;
+    };
+  }
+
+  private static SqlNode compileChoose(ChooseSqlNode node) {
+    final List<SqlNode> ifSqlNodes = node.getIfSqlNodes();
+    final SqlNode[] whens = new SqlNode[ifSqlNodes.size()];
+    for (int i = 0; i < whens.length; i++) {
+      whens[i] = compile(ifSqlNodes.get(i));
+    }
+    final SqlNode otherwise = node.getDefaultSqlNode() == null ? null : compile(node.getDefaultSqlNode());
+    return context -> {
+      for (SqlNode when : whens) {
+        if (when.apply(context)) {
+          return true;
+        }
+      }
+      if (otherwise != null) {
+        otherwise.apply(context);
+        return true;
+      }
+      return false;
+    };
+  }
+
+  private static SqlNode compileVarDecl(VarDeclSqlNode node) {
+    final String name = node.getName();
+    final String expression = node.getExpression();
+    final Object tree = parse(expression);
+    if (tree == null) {
+      return node;
+    }
+    return context -> {
+      context.bind(name, OgnlCache.getValue(tree, expression, context.getBindings()));
+      return true;
+    };
+  }
+
+  /**
+   * @return the parsed expression, or null if it is not valid
+   */
+  private static Object parse(String expression) {
+    try {
+      return OgnlCache.parse(expression);
+    } catch (OgnlException e) {
+      return null;
+    }
+  }
+
+}
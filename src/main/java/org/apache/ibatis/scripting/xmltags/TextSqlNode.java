@@ -17,6 +17,7 @@ package org.apache.ibatis.scripting.xmltags;
 
 import org.apache.ibatis.parsing.GenericTokenParser;
 import org.apache.ibatis.parsing.TokenHandler;
+import org.apache.ibatis.parsing.TokenizedText;
 import org.apache.ibatis.scripting.ScriptingException;
 import org.apache.ibatis.type.SimpleTypeRegistry;
 
@@ -27,9 +28,9 @@ import java.util.regex.Pattern;
  */
 public class TextSqlNode implements SqlNode {
   /**
-   * text 内容信息
+   * 创建节点时把文本拆分成字面量和${}记号,执行时只拼接
    */
-  private final String text;
+  private final TokenizedText tokenizedText;
 
   /**
    *注入过滤器
@@ -41,27 +42,19 @@ public class TextSqlNode implements SqlNode {
   }
   
   public TextSqlNode(String text, Pattern injectionFilter) {
-    this.text = text;
     this.injectionFilter = injectionFilter;
+    this.tokenizedText = new GenericTokenParser("${", "}", null).tokenize(text);
   }
   
   public boolean isDynamic() {
-    DynamicCheckerTokenParser checker = new DynamicCheckerTokenParser();
-    GenericTokenParser parser = createParser(checker);
-    parser.parse(text);
-    return checker.isDynamic();
+    return tokenizedText.hasTokens();
   }
 
   @Override
   public boolean apply(DynamicContext context) {
-    GenericTokenParser parser = createParser(new BindingTokenParser(context, injectionFilter));
-    context.appendSql(parser.parse(text));
+    context.appendSql(tokenizedText.apply(new BindingTokenParser(context, injectionFilter)));
     return true;
   }
-  
-  private GenericTokenParser createParser(TokenHandler handler) {
-    return new GenericTokenParser("${", "}", handler);
-  }
 
   private static class BindingTokenParser implements TokenHandler {
 
@@ -94,23 +87,4 @@ public class TextSqlNode implements SqlNode {
     }
   }
   
-  private static class DynamicCheckerTokenParser implements TokenHandler {
-
-    private boolean isDynamic;
-
-    public DynamicCheckerTokenParser() {
-      // Prevent Synthetic Access
-    }
-
-    public boolean isDynamic() {
-      return isDynamic;
-    }
-
-    @Override
-    public String handleToken(String content) {
-      this.isDynamic = true;
-      return null;
-    }
-  }
-  
 }
\ No newline at end of file
@@ -57,6 +57,17 @@ public class TrimSqlNode implements SqlNode {
     return result;
   }
 
+  SqlNode getContents() {
+    return contents;
+  }
+
+  /**
+   * @return a node trimming the given contents the way this one does
+   */
+  TrimSqlNode withContents(SqlNode contents) {
+    return new TrimSqlNode(configuration, contents, prefix, prefixesToOverride, suffix, suffixesToOverride);
+  }
+
   private static List<String> parseOverrides(String overrides) {
     if (overrides != null) {
       final StringTokenizer parser = new StringTokenizer(overrides, "|", false);
@@ -76,7 +87,7 @@ public class TrimSqlNode implements SqlNode {
     private StringBuilder sqlBuffer;
 
     public FilteredDynamicContext(DynamicContext delegate) {
-      super(configuration, null);
+      super(delegate);
       this.delegate = delegate;
       this.prefixApplied = false;
       this.suffixApplied = false;
@@ -84,11 +95,12 @@ public class TrimSqlNode implements SqlNode {
     }
 
     public void applyAll() {
-      sqlBuffer = new StringBuilder(sqlBuffer.toString().trim());
-      String trimmedUppercaseSql = sqlBuffer.toString().toUpperCase(Locale.ENGLISH);
-      if (trimmedUppercaseSql.length() > 0) {
-        applyPrefix(sqlBuffer, trimmedUppercaseSql);
-        applySuffix(sqlBuffer, trimmedUppercaseSql);
+      // 覆盖的前后缀已经是大写的,忽略大小写比较即可,不必把整个SQL转成大写
+      String trimmedSql = sqlBuffer.toString().trim();
+      sqlBuffer = new StringBuilder(trimmedSql);
+      if (trimmedSql.length() > 0) {
+        applyPrefix(sqlBuffer, trimmedSql);
+        applySuffix(sqlBuffer, trimmedSql);
       }
       delegate.appendSql(sqlBuffer.toString());
     }
@@ -118,12 +130,12 @@ public class TrimSqlNode implements SqlNode {
       return delegate.getSql();
     }
 
-    private void applyPrefix(StringBuilder sql, String trimmedUppercaseSql) {
+    private void applyPrefix(StringBuilder sql, String trimmedSql) {
       if (!prefixApplied) {
         prefixApplied = true;
         if (prefixesToOverride != null) {
           for (String toRemove : prefixesToOverride) {
-            if (trimmedUppercaseSql.startsWith(toRemove)) {
+            if (trimmedSql.regionMatches(true, 0, toRemove, 0, toRemove.length())) {
               sql.delete(0, toRemove.trim().length());
               break;
             }
@@ -136,12 +148,12 @@ public class TrimSqlNode implements SqlNode {
       }
     }
 
-    private void applySuffix(StringBuilder sql, String trimmedUppercaseSql) {
+    private void applySuffix(StringBuilder sql, String trimmedSql) {
       if (!suffixApplied) {
         suffixApplied = true;
         if (suffixesToOverride != null) {
           for (String toRemove : suffixesToOverride) {
-            if (trimmedUppercaseSql.endsWith(toRemove) || trimmedUppercaseSql.endsWith(toRemove.trim())) {
+            if (endsWithIgnoreCase(trimmedSql, toRemove) || endsWithIgnoreCase(trimmedSql, toRemove.trim())) {
               int start = sql.length() - toRemove.trim().length();
               int end = sql.length();
               sql.delete(start, end);
@@ -156,6 +168,10 @@ public class TrimSqlNode implements SqlNode {
       }
     }
 
+    private boolean endsWithIgnoreCase(String sql, String suffix) {
+      return sql.regionMatches(true, sql.length() - suffix.length(), suffix, 0, suffix.length());
+    }
+
   }
 
 }
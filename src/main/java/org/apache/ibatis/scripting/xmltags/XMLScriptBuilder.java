@@ -183,9 +183,24 @@ public class XMLScriptBuilder extends BaseBuilder {
       String open = nodeToHandle.getStringAttribute("open");
       String close = nodeToHandle.getStringAttribute("close");
       String separator = nodeToHandle.getStringAttribute("separator");
-      ForEachSqlNode forEachSqlNode = new ForEachSqlNode(configuration, mixedSqlNode, collection, index, item, open, close, separator);
+      String elementType = nodeToHandle.getStringAttribute("elementType");
+      ForEachMode mode = resolveForEachMode(nodeToHandle.getStringAttribute("mode", ForEachMode.ITEMS.toString()));
+      if (mode == ForEachMode.ARRAY && elementType == null) {
+        // 空集合和不同类型的元素都推断不出数组的SQL类型,加载时就要求指定
+        throw new BuilderException("The foreach of collection '" + collection + "' binds it as an array and requires "
+            + "the elementType attribute, the SQL type name of the elements (e.g. INTEGER).");
+      }
+      ForEachSqlNode forEachSqlNode = new ForEachSqlNode(configuration, mixedSqlNode, collection, index, item, open, close, separator, mode, elementType);
       targetContents.add(forEachSqlNode);
     }
+
+    private ForEachMode resolveForEachMode(String alias) {
+      try {
+        return ForEachMode.valueOf(alias);
+      } catch (IllegalArgumentException e) {
+        throw new BuilderException("Error resolving ForEachMode. Cause: " + e, e);
+      }
+    }
   }
 
   private class IfHandler implements NodeHandler {
@@ -197,7 +212,7 @@ public class XMLScriptBuilder extends BaseBuilder {
     public void handleNode(XNode nodeToHandle, List<SqlNode> targetContents) {
       MixedSqlNode mixedSqlNode = parseDynamicTags(nodeToHandle);
       String test = nodeToHandle.getStringAttribute("test");
-      IfSqlNode ifSqlNode = new IfSqlNode(mixedSqlNode, test);
+      IfSqlNode ifSqlNode = new IfSqlNode(mixedSqlNode, test, NativeExpressionEvaluator.of(configuration));
       targetContents.add(ifSqlNode);
     }
   }
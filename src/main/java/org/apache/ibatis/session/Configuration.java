@@ -27,6 +27,8 @@ import org.apache.ibatis.cache.decorators.LruCache;
 import org.apache.ibatis.cache.decorators.SoftCache;
 import org.apache.ibatis.cache.decorators.WeakCache;
 import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.datasource.LeastLoadedReplicaSelector;
+import org.apache.ibatis.datasource.RoundRobinReplicaSelector;
 import org.apache.ibatis.datasource.jndi.JndiDataSourceFactory;
 import org.apache.ibatis.datasource.pooled.PooledDataSourceFactory;
 import org.apache.ibatis.datasource.unpooled.UnpooledDataSourceFactory;
@@ -35,9 +37,16 @@ import org.apache.ibatis.executor.keygen.KeyGenerator;
 import org.apache.ibatis.executor.loader.ProxyFactory;
 import org.apache.ibatis.executor.loader.cglib.CglibProxyFactory;
 import org.apache.ibatis.executor.loader.javassist.JavassistProxyFactory;
+import org.apache.ibatis.executor.pagination.LimitOffsetDialect;
+import org.apache.ibatis.executor.pagination.OffsetFetchDialect;
+import org.apache.ibatis.executor.pagination.PaginationDialect;
+import org.apache.ibatis.executor.pagination.RowNumDialect;
 import org.apache.ibatis.executor.parameter.ParameterHandler;
+import org.apache.ibatis.executor.resultset.AutoMappingPlanCache;
 import org.apache.ibatis.executor.resultset.DefaultResultSetHandler;
 import org.apache.ibatis.executor.resultset.ResultSetHandler;
+import org.apache.ibatis.executor.sharding.HashShardingStrategy;
+import org.apache.ibatis.executor.sharding.ShardingExecutor;
 import org.apache.ibatis.executor.statement.RoutingStatementHandler;
 import org.apache.ibatis.executor.statement.StatementHandler;
 import org.apache.ibatis.io.VFS;
@@ -99,6 +108,54 @@ public class Configuration {
    */
   protected boolean safeResultHandlerEnabled = true;
 
+  /**
+   * 通过游标（Cursor）或ResultHandler获取嵌套结果映射（join）时，父对象的键一改变就返回已完成的父对象，内存中最多只保留一个父对象图。
+   * 要求同一父对象的行是连续的（例如按父对象的id列排序），否则被其他父对象隔开的每一段行都会返回一个父对象。	true | false	False
+   */
+  protected boolean nestedResultStreamingEnabled;
+
+  /**
+   * 为每个结果映射和列的组合用javassist生成专门的行映射类，按列序号读取并直接调用构造方法和setter，不支持的映射仍然走反射。	true | false	False
+   */
+  protected boolean rowMapperCompilationEnabled;
+
+  /**
+   * 映射结果时按列序号而不是列名读取列,每行不再按列名查找列。自定义的类型处理器必须实现按列序号读取的getNullableResult(ResultSet, int)。	true | false	False
+   */
+  protected boolean readColumnsByIndex;
+
+  /**
+   * 所有执行共享的自动映射计划的最大缓存数量，按结果映射、列前缀以及结果集的列名、JDBC类型和类型缓存列与属性、类型处理器的对应关系。设置为0时不缓存。	任意非负整数	1024
+   */
+  protected int autoMappingPlanCacheSize = 1024;
+
+  /**
+   * 按映射语句和SQL缓存结果集的列名、JDBC类型和类型，列数相同时直接复用，不再逐列读取ResultSetMetaData。
+   * 修改表结构后列数不变时需要重新加载配置。	true | false	False
+   */
+  protected boolean resultSetMetadataCacheEnabled;
+
+  /**
+   * 按映射语句的参数映射和参数类型生成参数绑定器，预先解析属性的getter和类型处理器，设置参数时不再创建MetaObject。	true | false	False
+   */
+  protected boolean parameterBinderCompilationEnabled;
+
+  /**
+   * 在加载映射语句时把动态SQL的节点树编译一次，预先解析表达式，执行时不再逐个节点解释。生成的SQL不变。	true | false	False
+   */
+  protected boolean dynamicSqlCompilationEnabled;
+
+  /**
+   * 用内置的求值器计算if test和foreach collection中常用的表达式(属性路径、比较、and/or/not、size()等),预先解析属性的getter,其他表达式仍交给OGNL。	true | false	False
+   */
+  protected boolean nativeExpressionEvaluationEnabled;
+
+  /**
+   * 每个动态SQL按生成的SQL文本缓存的解析结果的数量,相同分支组合的SQL不再重新解析#{}和构建参数映射,同时限制声明了@ProviderCacheKey的SQL提供者方法缓存的SQL数量,0表示不缓存	任意非负整数	0
+   */
+  protected int dynamicSqlCacheSize;
+  protected final AutoMappingPlanCache autoMappingPlanCache = new AutoMappingPlanCache(autoMappingPlanCacheSize);
+
   /**
    * 是否开启自动驼峰命名规则（camel case）映射，
    * 即从经典数据库列名 A_COLUMN 到经典 Java 属性名 aColumn 的类似映射。	true | false	False
@@ -195,6 +252,25 @@ public class Configuration {
    */
   protected Integer defaultFetchSize;
 
+  /**
+   * 根据历次执行获取的行数自动调整没有显式设置fetchSize的查询语句的fetchSize，取值在adaptiveFetchSizeMin和adaptiveFetchSizeMax之间。
+   * true | false	false
+   */
+  protected boolean adaptiveFetchSizeEnabled;
+  protected int adaptiveFetchSizeMin = 10;
+  protected int adaptiveFetchSizeMax = 1000;
+
+  /**
+   * 游标预读的缓冲区大小。设置后由单独的线程读取并映射结果集，不含嵌套查询的游标将提前映射最多这么多个对象。	任意正整数	Not Set (null)
+   */
+  protected Integer cursorPrefetchSize;
+
+  /**
+   * 物理分页方言。设置后带有RowBounds的查询语句会被改写为只返回当前页数据的SQL，不再在客户端跳过记录。
+   * LIMIT_OFFSET | OFFSET_FETCH | ROWNUM | 实现PaginationDialect的类的别名或全限定名	Not set
+   */
+  protected PaginationDialect paginationDialect;
+
   /**
    * 配置默认的执行器。SIMPLE 就是普通的执行器；REUSE 执行器会重用预处理语句（prepared statements）；
    * BATCH 执行器将重用语句并执行批量更新。	SIMPLE REUSE BATCH	SIMPLE
@@ -354,6 +430,15 @@ public class Configuration {
 
     typeAliasRegistry.registerAlias("DB_VENDOR", VendorDatabaseIdProvider.class);
 
+    typeAliasRegistry.registerAlias("ROUND_ROBIN", RoundRobinReplicaSelector.class);
+    typeAliasRegistry.registerAlias("LEAST_LOADED", LeastLoadedReplicaSelector.class);
+
+    typeAliasRegistry.registerAlias("HASH", HashShardingStrategy.class);
+
+    typeAliasRegistry.registerAlias("LIMIT_OFFSET", LimitOffsetDialect.class);
+    typeAliasRegistry.registerAlias("OFFSET_FETCH", OffsetFetchDialect.class);
+    typeAliasRegistry.registerAlias("ROWNUM", RowNumDialect.class);
+
     typeAliasRegistry.registerAlias("XML", XMLLanguageDriver.class);
     typeAliasRegistry.registerAlias("RAW", RawLanguageDriver.class);
 
@@ -450,6 +535,140 @@ public class Configuration {
     this.safeResultHandlerEnabled = safeResultHandlerEnabled;
   }
 
+  /**
+   * @since 3.5.0
+   */
+  public boolean isNestedResultStreamingEnabled() {
+    return nestedResultStreamingEnabled;
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public void setNestedResultStreamingEnabled(boolean nestedResultStreamingEnabled) {
+    this.nestedResultStreamingEnabled = nestedResultStreamingEnabled;
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public boolean isRowMapperCompilationEnabled() {
+    return rowMapperCompilationEnabled;
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public void setRowMapperCompilationEnabled(boolean rowMapperCompilationEnabled) {
+    this.rowMapperCompilationEnabled = rowMapperCompilationEnabled;
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public int getAutoMappingPlanCacheSize() {
+    return autoMappingPlanCacheSize;
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public void setAutoMappingPlanCacheSize(int autoMappingPlanCacheSize) {
+    this.autoMappingPlanCacheSize = autoMappingPlanCacheSize;
+    autoMappingPlanCache.setSize(autoMappingPlanCacheSize);
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public AutoMappingPlanCache getAutoMappingPlanCache() {
+    return autoMappingPlanCache;
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public boolean isResultSetMetadataCacheEnabled() {
+    return resultSetMetadataCacheEnabled;
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public void setResultSetMetadataCacheEnabled(boolean resultSetMetadataCacheEnabled) {
+    this.resultSetMetadataCacheEnabled = resultSetMetadataCacheEnabled;
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public boolean isParameterBinderCompilationEnabled() {
+    return parameterBinderCompilationEnabled;
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public void setParameterBinderCompilationEnabled(boolean parameterBinderCompilationEnabled) {
+    this.parameterBinderCompilationEnabled = parameterBinderCompilationEnabled;
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public boolean isDynamicSqlCompilationEnabled() {
+    return dynamicSqlCompilationEnabled;
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public void setDynamicSqlCompilationEnabled(boolean dynamicSqlCompilationEnabled) {
+    this.dynamicSqlCompilationEnabled = dynamicSqlCompilationEnabled;
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public boolean isNativeExpressionEvaluationEnabled() {
+    return nativeExpressionEvaluationEnabled;
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public void setNativeExpressionEvaluationEnabled(boolean nativeExpressionEvaluationEnabled) {
+    this.nativeExpressionEvaluationEnabled = nativeExpressionEvaluationEnabled;
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public int getDynamicSqlCacheSize() {
+    return dynamicSqlCacheSize;
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public void setDynamicSqlCacheSize(int dynamicSqlCacheSize) {
+    this.dynamicSqlCacheSize = dynamicSqlCacheSize;
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public boolean isReadColumnsByIndex() {
+    return readColumnsByIndex;
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public void setReadColumnsByIndex(boolean readColumnsByIndex) {
+    this.readColumnsByIndex = readColumnsByIndex;
+  }
+
   public boolean isSafeRowBoundsEnabled() {
     return safeRowBoundsEnabled;
   }
@@ -593,6 +812,76 @@ public class Configuration {
     this.defaultFetchSize = defaultFetchSize;
   }
 
+  /**
+   * @since 3.5.0
+   */
+  public boolean isAdaptiveFetchSizeEnabled() {
+    return adaptiveFetchSizeEnabled;
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public void setAdaptiveFetchSizeEnabled(boolean adaptiveFetchSizeEnabled) {
+    this.adaptiveFetchSizeEnabled = adaptiveFetchSizeEnabled;
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public int getAdaptiveFetchSizeMin() {
+    return adaptiveFetchSizeMin;
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public void setAdaptiveFetchSizeMin(int adaptiveFetchSizeMin) {
+    this.adaptiveFetchSizeMin = adaptiveFetchSizeMin;
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public int getAdaptiveFetchSizeMax() {
+    return adaptiveFetchSizeMax;
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public void setAdaptiveFetchSizeMax(int adaptiveFetchSizeMax) {
+    this.adaptiveFetchSizeMax = adaptiveFetchSizeMax;
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public Integer getCursorPrefetchSize() {
+    return cursorPrefetchSize;
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public void setCursorPrefetchSize(Integer cursorPrefetchSize) {
+    this.cursorPrefetchSize = cursorPrefetchSize;
+  }
+  /**
+   * @since 3.5.0
+   */
+  public PaginationDialect getPaginationDialect() {
+    return paginationDialect;
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public void setPaginationDialect(PaginationDialect paginationDialect) {
+    this.paginationDialect = paginationDialect;
+  }
+
+
   public boolean isUseColumnLabel() {
     return useColumnLabel;
   }
@@ -765,21 +1054,44 @@ public class Configuration {
   }
 
   public Executor newExecutor(Transaction transaction, ExecutorType executorType) {
+    Executor executor = newBaseExecutor(transaction, executorType);
+    if (cacheEnabled) {
+      executor = new CachingExecutor(executor);
+    }
+    executor = (Executor) interceptorChain.pluginAll(executor);
+    return executor;
+  }
+
+  /**
+   * 分片的环境中每个分片一个事务和执行器，由ShardingExecutor路由。
+   * 拦截器作用于每个分片的执行器；二级缓存保留在合并结果的一层，因为各分片的缓存键相同
+   * @since 3.5.0
+   */
+  public Executor newExecutor(List<Transaction> shardTransactions, ExecutorType executorType) {
+    if (shardTransactions.size() == 1) {
+      return newExecutor(shardTransactions.get(0), executorType);
+    }
+    List<Executor> shards = new ArrayList<>(shardTransactions.size());
+    for (Transaction transaction : shardTransactions) {
+      shards.add((Executor) interceptorChain.pluginAll(newBaseExecutor(transaction, executorType)));
+    }
+    Executor executor = new ShardingExecutor(this, shards, environment.getShardingStrategy());
+    if (cacheEnabled) {
+      executor = new CachingExecutor(executor);
+    }
+    return executor;
+  }
+
+  private Executor newBaseExecutor(Transaction transaction, ExecutorType executorType) {
     executorType = executorType == null ? defaultExecutorType : executorType;
     executorType = executorType == null ? ExecutorType.SIMPLE : executorType;
-    Executor executor;
     if (ExecutorType.BATCH == executorType) {
-      executor = new BatchExecutor(this, transaction);
+      return new BatchExecutor(this, transaction);
     } else if (ExecutorType.REUSE == executorType) {
-      executor = new ReuseExecutor(this, transaction);
+      return new ReuseExecutor(this, transaction);
     } else {
-      executor = new SimpleExecutor(this, transaction);
+      return new SimpleExecutor(this, transaction);
     }
-    if (cacheEnabled) {
-      executor = new CachingExecutor(executor);
-    }
-    executor = (Executor) interceptorChain.pluginAll(executor);
-    return executor;
   }
 
   public void addKeyGenerator(String id, KeyGenerator keyGenerator) {
@@ -0,0 +1,53 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.session;
+
+/**
+ * Row bounds that also ask for the total number of rows of the query,
+ * which is counted by a companion statement sharing the cache of the paginated one.
+ *
+ * @since 3.5.0
+ */
+public class PageRowBounds extends RowBounds {
+
+  private final boolean count;
+  private Long total;
+
+  public PageRowBounds(int offset, int limit) {
+    this(offset, limit, true);
+  }
+
+  public PageRowBounds(int offset, int limit, boolean count) {
+    super(offset, limit);
+    this.count = count;
+  }
+
+  public boolean isCount() {
+    return count;
+  }
+
+  /**
+   * @return the total number of rows of the query, or null if it has not been counted
+   */
+  public Long getTotal() {
+    return total;
+  }
+
+  public void setTotal(Long total) {
+    this.total = total;
+  }
+
+}
@@ -0,0 +1,85 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.session;
+
+/**
+ * Row bounds of a keyset (seek) page: the rows following the last row of the previous page in the order
+ * of the sort columns, instead of the rows after an offset. The cost of a page does not depend on its depth.
+ * <p>
+ * The sort columns default to the id columns of the result map. After a query, {@link #getNext()} returns the
+ * bounds of the following page, built from the values of the sort columns in the last object returned.
+ * </p>
+ *
+ * @since 3.5.0
+ */
+public class Seek extends RowBounds {
+
+  private final String[] columns;
+  private final Object[] after;
+  private final boolean descending;
+  private Seek next;
+
+  /**
+   * First page in ascending order of the id columns.
+   */
+  public Seek(int limit) {
+    this(null, null, limit, false);
+  }
+
+  /**
+   * First page in the order of the id columns.
+   */
+  public Seek(int limit, boolean descending) {
+    this(null, null, limit, descending);
+  }
+
+  /**
+   * @param columns the sort columns, null for the id columns of the result map
+   * @param after the values of the sort columns in the last row of the previous page, null for the first page
+   * @param limit the maximum number of rows of the page
+   * @param descending true to sort the columns in descending order
+   */
+  public Seek(String[] columns, Object[] after, int limit, boolean descending) {
+    super(NO_ROW_OFFSET, limit);
+    this.columns = columns;
+    this.after = after;
+    this.descending = descending;
+  }
+
+  public String[] getColumns() {
+    return columns;
+  }
+
+  public Object[] getAfter() {
+    return after;
+  }
+
+  public boolean isDescending() {
+    return descending;
+  }
+
+  /**
+   * @return the bounds of the next page, or null when the query returned less rows than the limit
+   */
+  public Seek getNext() {
+    return next;
+  }
+
+  public void setNext(Seek next) {
+    this.next = next;
+  }
+
+}
@@ -22,8 +22,10 @@ import org.apache.ibatis.exceptions.TooManyResultsException;
 import org.apache.ibatis.executor.BatchResult;
 import org.apache.ibatis.executor.ErrorContext;
 import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.ExecutorException;
 import org.apache.ibatis.executor.result.DefaultMapResultHandler;
 import org.apache.ibatis.executor.result.DefaultResultContext;
+import org.apache.ibatis.executor.sharding.ChunkedQuery;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultHandler;
@@ -158,6 +160,9 @@ public class DefaultSqlSession implements SqlSession {
     try {
       //与Select 类似的处理逻辑
       MappedStatement ms = configuration.getMappedStatement(statement);
+      if (ms.getChunkBy() != null) {
+        throw new ExecutorException("The statement '" + statement + "' is chunked, it cannot be queried with a cursor.");
+      }
       Cursor<T> cursor = executor.queryCursor(ms, wrapCollection(parameter), rowBounds);
       registerCursor(cursor);
       return cursor;
@@ -194,7 +199,7 @@ public class DefaultSqlSession implements SqlSession {
        * 1、对于数据进行包装，添加一些 collection、array、list等等，处理数据的时候或多或少的有关使用这种类型的变量信息
        * 2、转交给执行器去处理，获取返回的结果
        */
-      return executor.query(ms, wrapCollection(parameter), rowBounds, Executor.NO_RESULT_HANDLER);
+      return query(ms, wrapCollection(parameter), rowBounds, Executor.NO_RESULT_HANDLER);
     } catch (Exception e) {
       throw ExceptionFactory.wrapException("Error querying database.  Cause: " + e, e);
     } finally {
@@ -216,7 +221,7 @@ public class DefaultSqlSession implements SqlSession {
   public void select(String statement, Object parameter, RowBounds rowBounds, ResultHandler handler) {
     try {
       MappedStatement ms = configuration.getMappedStatement(statement);
-      executor.query(ms, wrapCollection(parameter), rowBounds, handler);
+      query(ms, wrapCollection(parameter), rowBounds, handler);
     } catch (Exception e) {
       throw ExceptionFactory.wrapException("Error querying database.  Cause: " + e, e);
     } finally {
@@ -224,6 +229,19 @@ public class DefaultSqlSession implements SqlSession {
     }
   }
 
+  /**
+   * 声明了chunkBy的查询按参数集合分块执行，再合并结果
+   */
+  private <E> List<E> query(MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler handler) throws SQLException {
+    if (ms.getChunkBy() != null) {
+      List<Object> chunks = ChunkedQuery.split(ms, parameter);
+      if (chunks != null) {
+        return ChunkedQuery.query(executor, ms, chunks, rowBounds, handler, isCommitOrRollbackRequired(false));
+      }
+    }
+    return executor.query(ms, parameter, rowBounds, handler);
+  }
+
   @Override
   public int insert(String statement) {
     return insert(statement, null);
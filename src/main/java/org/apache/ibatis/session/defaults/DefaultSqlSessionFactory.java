@@ -26,6 +26,10 @@ import org.apache.ibatis.transaction.managed.ManagedTransactionFactory;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
 
 /**
  * @author Clinton Begin
@@ -105,6 +109,10 @@ public class DefaultSqlSessionFactory implements SqlSessionFactory {
       // 添加默认的事务信息属性
       final TransactionFactory transactionFactory = getTransactionFactoryFromEnvironment(environment);
 
+      if (environment.isSharded()) {
+        return openShardedSession(environment, transactionFactory, execType, level, autoCommit);
+      }
+
       //根据事务隔离类型、数据源、自动提交属性创建一个事务属性
       tx = transactionFactory.newTransaction(environment.getDataSource(), level, autoCommit);
 
@@ -122,6 +130,26 @@ public class DefaultSqlSessionFactory implements SqlSessionFactory {
     }
   }
 
+  /**
+   * 分片的环境中每个分片一个事务
+   */
+  private SqlSession openShardedSession(Environment environment, TransactionFactory transactionFactory,
+                                        ExecutorType execType, TransactionIsolationLevel level, boolean autoCommit) {
+    final List<Transaction> transactions = new ArrayList<>();
+    try {
+      for (DataSource dataSource : environment.getShardDataSources()) {
+        transactions.add(transactionFactory.newTransaction(dataSource, level, autoCommit));
+      }
+      final Executor executor = configuration.newExecutor(transactions, execType);
+      return new DefaultSqlSession(configuration, executor, autoCommit);
+    } catch (RuntimeException e) {
+      for (Transaction transaction : transactions) {
+        closeTransaction(transaction);
+      }
+      throw e;
+    }
+  }
+
   /**
    *
    * @param execType  执行器的类型
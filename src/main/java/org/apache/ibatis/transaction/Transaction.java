@@ -63,5 +63,16 @@ public interface Transaction {
    * @throws SQLException
    */
   Integer getTimeout() throws SQLException;
-  
+
+  /**
+   * 是否自动提交，即每条语句各自提交，没有显式的事务
+   * Tells whether each statement is committed on its own, i.e. there is no explicit transaction.
+   * Implementations that cannot tell return false, which keeps the selects of their sessions on the primary
+   * data source when the environment has replicas, unless the statements read from {@code REPLICA}.
+   * @since 3.5.0
+   */
+  default boolean isAutoCommit() {
+    return false;
+  }
+
 }
@@ -173,5 +173,10 @@ public class JdbcTransaction implements Transaction {
   public Integer getTimeout() throws SQLException {
     return null;
   }
+
+  @Override
+  public boolean isAutoCommit() {
+    return autoCommit;
+  }
   
 }
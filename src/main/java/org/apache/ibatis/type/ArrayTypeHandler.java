@@ -15,11 +15,18 @@
  */
 package org.apache.ibatis.type;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.sql.Array;
 import java.sql.CallableStatement;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * [mybatis 处理数组类型及使用Json格式保存数据 JsonTypeHandler and ArrayTypeHandler](https://www.cnblogs.com/kylindai/p/3563818.html)
@@ -29,13 +36,111 @@ import java.sql.SQLException;
  */
 public class ArrayTypeHandler extends BaseTypeHandler<Object> {
 
+  /**
+   * java数组元素类型对应的数据库类型名称,用于{@link java.sql.Connection#createArrayOf(String, Object[])}
+   */
+  private static final Map<Class<?>, String> STANDARD_MAPPING = new HashMap<>();
+
+  static {
+    STANDARD_MAPPING.put(BigDecimal.class, JdbcType.NUMERIC.name());
+    STANDARD_MAPPING.put(BigInteger.class, JdbcType.BIGINT.name());
+    STANDARD_MAPPING.put(boolean.class, JdbcType.BOOLEAN.name());
+    STANDARD_MAPPING.put(Boolean.class, JdbcType.BOOLEAN.name());
+    STANDARD_MAPPING.put(byte[].class, JdbcType.VARBINARY.name());
+    STANDARD_MAPPING.put(byte.class, JdbcType.TINYINT.name());
+    STANDARD_MAPPING.put(Byte.class, JdbcType.TINYINT.name());
+    STANDARD_MAPPING.put(Calendar.class, JdbcType.TIMESTAMP.name());
+    STANDARD_MAPPING.put(java.sql.Date.class, JdbcType.DATE.name());
+    STANDARD_MAPPING.put(java.util.Date.class, JdbcType.TIMESTAMP.name());
+    STANDARD_MAPPING.put(double.class, JdbcType.DOUBLE.name());
+    STANDARD_MAPPING.put(Double.class, JdbcType.DOUBLE.name());
+    STANDARD_MAPPING.put(float.class, JdbcType.REAL.name());
+    STANDARD_MAPPING.put(Float.class, JdbcType.REAL.name());
+    STANDARD_MAPPING.put(int.class, JdbcType.INTEGER.name());
+    STANDARD_MAPPING.put(Integer.class, JdbcType.INTEGER.name());
+    STANDARD_MAPPING.put(long.class, JdbcType.BIGINT.name());
+    STANDARD_MAPPING.put(Long.class, JdbcType.BIGINT.name());
+    STANDARD_MAPPING.put(short.class, JdbcType.SMALLINT.name());
+    STANDARD_MAPPING.put(Short.class, JdbcType.SMALLINT.name());
+    STANDARD_MAPPING.put(String.class, JdbcType.VARCHAR.name());
+    STANDARD_MAPPING.put(Time.class, JdbcType.TIME.name());
+    STANDARD_MAPPING.put(Timestamp.class, JdbcType.TIMESTAMP.name());
+  }
+
   public ArrayTypeHandler() {
     super();
   }
 
+  /**
+   * 除了{@link Array}以外,也接受java数组和{@link TypedArray},通过连接创建对应的{@link Array}
+   */
   @Override
   public void setNonNullParameter(PreparedStatement ps, int i, Object parameter, JdbcType jdbcType) throws SQLException {
-    ps.setArray(i, (Array) parameter);
+    if (parameter instanceof Array) {
+      // it's the user's responsibility to properly free() the Array instance
+      ps.setArray(i, (Array) parameter);
+    } else if (parameter instanceof TypedArray) {
+      TypedArray typedArray = (TypedArray) parameter;
+      Array array = ps.getConnection().createArrayOf(typedArray.getTypeName(), typedArray.getElements());
+      ps.setArray(i, array);
+      array.free();
+    } else {
+      if (!parameter.getClass().isArray()) {
+        throw new TypeException("ArrayType Handler requires SQL array or java array parameter and does not support type " + parameter.getClass());
+      }
+      Class<?> componentType = parameter.getClass().getComponentType();
+      String arrayTypeName = resolveTypeName(componentType);
+      Array array = ps.getConnection().createArrayOf(arrayTypeName, toObjectArray(parameter));
+      ps.setArray(i, array);
+      array.free();
+    }
+  }
+
+  protected String resolveTypeName(Class<?> type) {
+    String typeName = STANDARD_MAPPING.get(type);
+    return typeName == null ? JdbcType.JAVA_OBJECT.name() : typeName;
+  }
+
+  private Object[] toObjectArray(Object array) {
+    if (array instanceof Object[]) {
+      return (Object[]) array;
+    }
+    // 基本类型的数组需要装箱
+    final int length = java.lang.reflect.Array.getLength(array);
+    Object[] objects = new Object[length];
+    for (int i = 0; i < length; i++) {
+      objects[i] = java.lang.reflect.Array.get(array, i);
+    }
+    return objects;
+  }
+
+  /**
+   * The elements of an array parameter with the SQL type name of its elements, for the arrays whose
+   * component type does not tell it, as the ones built from an empty or mixed collection.
+   *
+   * @since 3.5.0
+   */
+  public static final class TypedArray {
+
+    private final String typeName;
+    private final Object[] elements;
+
+    /**
+     * @param typeName the SQL type name of the elements, as {@link java.sql.Connection#createArrayOf(String, Object[])} expects it
+     */
+    public TypedArray(String typeName, Object[] elements) {
+      this.typeName = typeName;
+      this.elements = elements;
+    }
+
+    public String getTypeName() {
+      return typeName;
+    }
+
+    public Object[] getElements() {
+      return elements;
+    }
+
   }
 
   @Override
@@ -23,7 +23,7 @@ import java.sql.SQLException;
 /**
  * @author Clinton Begin
  */
-public class BooleanTypeHandler extends BaseTypeHandler<Boolean> {
+public class BooleanTypeHandler extends BaseTypeHandler<Boolean> implements PrimitiveBooleanTypeHandler {
 
   @Override
   public void setNonNullParameter(PreparedStatement ps, int i, Boolean parameter, JdbcType jdbcType)
@@ -51,4 +51,16 @@ public class BooleanTypeHandler extends BaseTypeHandler<Boolean> {
     boolean result = cs.getBoolean(columnIndex);
     return (!result && cs.wasNull()) ? null : result;
   }
+
+  @Override
+  public boolean getBooleanResult(ResultSet rs, int columnIndex)
+      throws SQLException {
+    return rs.getBoolean(columnIndex);
+  }
+
+  @Override
+  public void setBooleanParameter(PreparedStatement ps, int i, boolean parameter)
+      throws SQLException {
+    ps.setBoolean(i, parameter);
+  }
 }
@@ -0,0 +1,42 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.type;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * A type handler that can also read and write int values without boxing them.
+ * The primitive getter is used instead of the boxed one when a column is mapped to a int property or constructor
+ * argument with the built-in handler itself; subclasses and other implementations are read with the boxed getter.
+ * <p>
+ * The primitive methods must read and write values as the boxed ones do.
+ *
+ * @since 3.5.0
+ */
+public interface PrimitiveIntTypeHandler extends TypeHandler<Integer> {
+
+  /**
+   * Gets the value of a column of the current row.
+   *
+   * @return the value, or 0 if the column is SQL NULL, in which case {@link ResultSet#wasNull()} is true
+   */
+  int getIntResult(ResultSet rs, int columnIndex) throws SQLException;
+
+  void setIntParameter(PreparedStatement ps, int i, int parameter) throws SQLException;
+
+}
@@ -38,6 +38,7 @@ import org.apache.ibatis.domain.blog.mappers.NestedBlogMapper;
 import org.apache.ibatis.domain.jpetstore.Cart;
 import org.apache.ibatis.executor.loader.cglib.CglibProxyFactory;
 import org.apache.ibatis.executor.loader.javassist.JavassistProxyFactory;
+import org.apache.ibatis.executor.pagination.OffsetFetchDialect;
 import org.apache.ibatis.io.JBoss6VFS;
 import org.apache.ibatis.io.Resources;
 import org.apache.ibatis.logging.slf4j.Slf4jImpl;
@@ -88,12 +89,25 @@ public class XmlConfigBuilderTest {
       assertThat(config.getDefaultExecutorType()).isEqualTo(ExecutorType.SIMPLE);
       assertNull(config.getDefaultStatementTimeout());
       assertNull(config.getDefaultFetchSize());
+      assertThat(config.isAdaptiveFetchSizeEnabled()).isFalse();
+      assertThat(config.getAdaptiveFetchSizeMin()).isEqualTo(10);
+      assertThat(config.getAdaptiveFetchSizeMax()).isEqualTo(1000);
       assertThat(config.isMapUnderscoreToCamelCase()).isFalse();
       assertThat(config.isSafeRowBoundsEnabled()).isFalse();
       assertThat(config.getLocalCacheScope()).isEqualTo(LocalCacheScope.SESSION);
       assertThat(config.getJdbcTypeForNull()).isEqualTo(JdbcType.OTHER);
       assertThat(config.getLazyLoadTriggerMethods()).isEqualTo((Set<String>) new HashSet<String>(Arrays.asList("equals", "clone", "hashCode", "toString")));
       assertThat(config.isSafeResultHandlerEnabled()).isTrue();
+      assertThat(config.isNestedResultStreamingEnabled()).isFalse();
+      assertThat(config.isRowMapperCompilationEnabled()).isFalse();
+      assertThat(config.getAutoMappingPlanCacheSize()).isEqualTo(1024);
+      assertThat(config.isResultSetMetadataCacheEnabled()).isFalse();
+      assertThat(config.isParameterBinderCompilationEnabled()).isFalse();
+      assertThat(config.isDynamicSqlCompilationEnabled()).isFalse();
+      assertThat(config.isNativeExpressionEvaluationEnabled()).isFalse();
+      assertThat(config.getDynamicSqlCacheSize()).isEqualTo(0);
+      assertThat(config.isReadColumnsByIndex()).isFalse();
+      assertThat(config.getPaginationDialect()).isNull();
       assertThat(config.getDefaultScriptingLanuageInstance()).isInstanceOf(XMLLanguageDriver.class);
       assertThat(config.isCallSettersOnNulls()).isFalse();
       assertNull(config.getLogPrefix());
@@ -181,12 +195,25 @@ public class XmlConfigBuilderTest {
         assertThat(config.getDefaultExecutorType()).isEqualTo(ExecutorType.BATCH);
         assertThat(config.getDefaultStatementTimeout()).isEqualTo(10);
         assertThat(config.getDefaultFetchSize()).isEqualTo(100);
+        assertThat(config.isAdaptiveFetchSizeEnabled()).isTrue();
+        assertThat(config.getAdaptiveFetchSizeMin()).isEqualTo(50);
+        assertThat(config.getAdaptiveFetchSizeMax()).isEqualTo(5000);
         assertThat(config.isMapUnderscoreToCamelCase()).isTrue();
         assertThat(config.isSafeRowBoundsEnabled()).isTrue();
         assertThat(config.getLocalCacheScope()).isEqualTo(LocalCacheScope.STATEMENT);
         assertThat(config.getJdbcTypeForNull()).isEqualTo(JdbcType.NULL);
         assertThat(config.getLazyLoadTriggerMethods()).isEqualTo((Set<String>) new HashSet<String>(Arrays.asList("equals", "clone", "hashCode", "toString", "xxx")));
         assertThat(config.isSafeResultHandlerEnabled()).isFalse();
+        assertThat(config.isNestedResultStreamingEnabled()).isTrue();
+        assertThat(config.isRowMapperCompilationEnabled()).isTrue();
+        assertThat(config.getAutoMappingPlanCacheSize()).isEqualTo(256);
+        assertThat(config.isResultSetMetadataCacheEnabled()).isTrue();
+        assertThat(config.isParameterBinderCompilationEnabled()).isTrue();
+        assertThat(config.isDynamicSqlCompilationEnabled()).isTrue();
+        assertThat(config.isNativeExpressionEvaluationEnabled()).isTrue();
+        assertThat(config.getDynamicSqlCacheSize()).isEqualTo(16);
+        assertThat(config.isReadColumnsByIndex()).isTrue();
+        assertThat(config.getPaginationDialect()).isInstanceOf(OffsetFetchDialect.class);
         assertThat(config.getDefaultScriptingLanuageInstance()).isInstanceOf(RawLanguageDriver.class);
         assertThat(config.isCallSettersOnNulls()).isTrue();
         assertThat(config.getLogPrefix()).isEqualTo("mybatis_");
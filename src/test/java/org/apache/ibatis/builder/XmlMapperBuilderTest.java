@@ -23,6 +23,8 @@ import org.apache.ibatis.io.Resources;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.ResultSetType;
 import org.apache.ibatis.mapping.StatementType;
+import org.apache.ibatis.parsing.XPathParser;
+import org.apache.ibatis.scripting.xmltags.XMLScriptBuilder;
 import org.apache.ibatis.session.Configuration;
 import org.junit.Rule;
 import org.apache.ibatis.type.TypeHandler;
@@ -112,6 +114,27 @@ public class XmlMapperBuilderTest {
       .hasMessageEndingWith("org.apache.ibatis.mapping.ParameterMode.ccc");
   }
 
+  @Test
+  public void parseForEachWithUndefinedMode() {
+    XMLScriptBuilder builder = new XMLScriptBuilder(new Configuration(),
+        new XPathParser("<select>select * from author where id in <foreach collection=\"list\" mode=\"fff\"/></select>").evalNode("/select"));
+    when(builder).parseScriptNode();
+    then(caughtException())
+      .isInstanceOf(BuilderException.class)
+      .hasMessageStartingWith("Error resolving ForEachMode. Cause: java.lang.IllegalArgumentException: No enum")
+      .hasMessageEndingWith("org.apache.ibatis.scripting.xmltags.ForEachMode.fff");
+  }
+
+  @Test
+  public void parseForEachArrayWithoutElementType() {
+    XMLScriptBuilder builder = new XMLScriptBuilder(new Configuration(),
+        new XPathParser("<select>select * from author where id = any(<foreach collection=\"list\" mode=\"ARRAY\"/>)</select>").evalNode("/select"));
+    when(builder).parseScriptNode();
+    then(caughtException())
+      .isInstanceOf(BuilderException.class)
+      .hasMessageContaining("requires the elementType attribute");
+  }
+
   @Test
   public void createInstanceWithAbstractClass() {
     BaseBuilder builder = new BaseBuilder(new Configuration()){{}};
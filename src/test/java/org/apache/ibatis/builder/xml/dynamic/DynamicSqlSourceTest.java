@@ -16,6 +16,7 @@
 package org.apache.ibatis.builder.xml.dynamic;
 
 import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.builder.BuilderException;
 import org.apache.ibatis.io.Resources;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.scripting.xmltags.*;
@@ -31,6 +32,8 @@ import java.sql.SQLException;
 import java.util.*;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 
 /**
  * TODO 这个测试类比较好玩，可以简单的了解动态SQL的处理过程
@@ -355,6 +358,99 @@ public class DynamicSqlSourceTest extends BaseDataTest {
     assertEquals("__frch_u_0", boundSql.getParameterMappings().get(3).getProperty());
   }
 
+  @Test
+  public void shouldGenerateSameSqlWhenCompiled() throws Exception {
+    final Map<String, Object> param = new HashMap<String, Object>();
+    param.put("name", "Steve");
+    param.put("ids", Arrays.asList(1, 2, 3));
+    final Configuration configuration = new Configuration();
+    final MixedSqlNode sqlNode = mixedContents(
+        new TextSqlNode("SELECT * FROM BLOG"),
+        new VarDeclSqlNode("pattern", "name + '%'"),
+        new WhereSqlNode(configuration, mixedContents(
+            new IfSqlNode(mixedContents(new TextSqlNode(" and NAME like #{pattern} ")), "name != null"),
+            new ChooseSqlNode(Arrays.<SqlNode>asList(
+                new IfSqlNode(mixedContents(new TextSqlNode(" and TITLE = #{title} ")), "title != null")),
+                mixedContents(new TextSqlNode(" and TITLE is null "))),
+            new ForEachSqlNode(configuration, mixedContents(new TextSqlNode("#{id}")), "ids", "i", "id", " and ID in (", ")", ","))));
+    final BoundSql interpreted = new DynamicSqlSource(configuration, sqlNode).getBoundSql(param);
+
+    configuration.setDynamicSqlCompilationEnabled(true);
+    final BoundSql compiled = new DynamicSqlSource(configuration, sqlNode).getBoundSql(param);
+
+    assertEquals("SELECT * FROM BLOG WHERE  NAME like ?  and TITLE is null  and ID in (?,?,?)", interpreted.getSql());
+    assertEquals(interpreted.getSql(), compiled.getSql());
+    assertEquals(interpreted.getParameterMappings().size(), compiled.getParameterMappings().size());
+    for (int i = 0; i < interpreted.getParameterMappings().size(); i++) {
+      assertEquals(interpreted.getParameterMappings().get(i).getProperty(), compiled.getParameterMappings().get(i).getProperty());
+    }
+    assertEquals("Steve%", compiled.getAdditionalParameter("pattern"));
+    assertEquals(3, compiled.getAdditionalParameter("__frch_id_2"));
+  }
+
+  @Test
+  public void shouldFailAtExecutionWhenCompiledExpressionIsInvalid() throws Exception {
+    final Configuration configuration = new Configuration();
+    configuration.setDynamicSqlCompilationEnabled(true);
+    final DynamicSqlSource source = new DynamicSqlSource(configuration, mixedContents(
+        new TextSqlNode("SELECT * FROM BLOG"),
+        new IfSqlNode(mixedContents(new TextSqlNode("WHERE ID = ?")), "id ==")));
+    try {
+      source.getBoundSql(new Bean("1"));
+      Assert.fail();
+    } catch (BuilderException e) {
+      Assert.assertTrue(e.getMessage().contains("id =="));
+    }
+  }
+
+  @Test
+  public void shouldReuseParameterMappingsOfSameGeneratedSql() throws Exception {
+    final Configuration configuration = new Configuration();
+    configuration.setDynamicSqlCacheSize(32);
+    final DynamicSqlSource source = new DynamicSqlSource(configuration, mixedContents(
+        new TextSqlNode("SELECT * FROM BLOG"),
+        new IfSqlNode(mixedContents(new TextSqlNode("WHERE NAME = #{name}")), "name != null")));
+    final Map<String, Object> param = new HashMap<String, Object>();
+    param.put("name", "Steve");
+    final BoundSql first = source.getBoundSql(param);
+    param.put("name", "Bob");
+    final BoundSql second = source.getBoundSql(param);
+    param.put("name", null);
+    final BoundSql third = source.getBoundSql(param);
+    assertEquals("SELECT * FROM BLOG WHERE NAME = ?", second.getSql());
+    assertSame(first.getParameterMappings(), second.getParameterMappings());
+    assertEquals("SELECT * FROM BLOG", third.getSql());
+  }
+
+  @Test
+  public void shouldNotReuseParameterMappingsWhenBoundTypesChange() throws Exception {
+    final Configuration configuration = new Configuration();
+    configuration.setDynamicSqlCacheSize(32);
+    final DynamicSqlSource source = new DynamicSqlSource(configuration, mixedContents(
+        new TextSqlNode("SELECT * FROM BLOG WHERE ID in"),
+        new ForEachSqlNode(configuration, mixedContents(new TextSqlNode("#{item}")), "ids", null, "item", "(", ")", ",")));
+    final Map<String, Object> param = new HashMap<String, Object>();
+    param.put("ids", Arrays.asList(1, 2));
+    final BoundSql integers = source.getBoundSql(param);
+    param.put("ids", Arrays.asList("1", "2"));
+    final BoundSql strings = source.getBoundSql(param);
+    assertEquals(integers.getSql(), strings.getSql());
+    assertNotSame(integers.getParameterMappings(), strings.getParameterMappings());
+    assertEquals(Integer.class, integers.getParameterMappings().get(0).getJavaType());
+    assertEquals(String.class, strings.getParameterMappings().get(0).getJavaType());
+  }
+
+  @Test
+  public void shouldParseEveryTimeWhenDynamicSqlCacheIsDisabled() throws Exception {
+    final Configuration configuration = new Configuration();
+    final DynamicSqlSource source = new DynamicSqlSource(configuration, mixedContents(
+        new TextSqlNode("SELECT * FROM BLOG"),
+        new IfSqlNode(mixedContents(new TextSqlNode("WHERE NAME = #{name}")), "name != null")));
+    final Map<String, Object> param = new HashMap<String, Object>();
+    param.put("name", "Steve");
+    assertNotSame(source.getBoundSql(param).getParameterMappings(), source.getBoundSql(param).getParameterMappings());
+  }
+
   private DynamicSqlSource createDynamicSqlSource(SqlNode... contents) throws IOException, SQLException {
     createBlogDataSource();
     final String resource = "org/apache/ibatis/builder/MapperConfig.xml";
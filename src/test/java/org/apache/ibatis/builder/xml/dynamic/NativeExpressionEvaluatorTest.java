@@ -0,0 +1,143 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.builder.xml.dynamic;
+
+import static org.junit.Assert.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.domain.blog.Author;
+import org.apache.ibatis.domain.blog.Section;
+import org.apache.ibatis.reflection.DefaultReflectorFactory;
+import org.apache.ibatis.reflection.Reflector;
+import org.apache.ibatis.scripting.xmltags.DynamicContext;
+import org.apache.ibatis.scripting.xmltags.ExpressionEvaluator;
+import org.apache.ibatis.scripting.xmltags.NativeExpressionEvaluator;
+import org.apache.ibatis.session.Configuration;
+import org.junit.Test;
+
+public class NativeExpressionEvaluatorTest {
+
+  private ExpressionEvaluator evaluator = new NativeExpressionEvaluator(new Configuration());
+  private ExpressionEvaluator ognlEvaluator = new ExpressionEvaluator();
+
+  @Test
+  public void shouldEvaluateNullAndEmptyChecks() {
+    assertTrue(evaluator.evaluateBoolean("name != null and name != ''", bindings("name", "cbegin")));
+    assertFalse(evaluator.evaluateBoolean("name != null and name != ''", bindings("name", "")));
+    assertFalse(evaluator.evaluateBoolean("name != null and name != ''", bindings("name", null)));
+    assertTrue(evaluator.evaluateBoolean("name == null or name == \"\"", bindings("name", null)));
+    assertTrue(evaluator.evaluateBoolean("!(name != null)", bindings("other", "cbegin")));
+  }
+
+  @Test
+  public void shouldEvaluateSizeOfCollections() {
+    assertTrue(evaluator.evaluateBoolean("list != null and list.size() > 0", bindings("list", Arrays.asList(1, 2))));
+    assertFalse(evaluator.evaluateBoolean("list != null and list.size() > 0", bindings("list", Collections.emptyList())));
+    assertTrue(evaluator.evaluateBoolean("list.isEmpty()", bindings("list", Collections.emptyList())));
+    assertTrue(evaluator.evaluateBoolean("array.length == 3", bindings("array", new int[] {1, 2, 3})));
+  }
+
+  @Test
+  public void shouldCompareNumbersByValue() {
+    assertTrue(evaluator.evaluateBoolean("id >= 2 and id lt 10", bindings("id", 2L)));
+    assertTrue(evaluator.evaluateBoolean("id == 2.0", bindings("id", 2)));
+    assertTrue(evaluator.evaluateBoolean("id gt 1.5", bindings("id", new BigDecimal("1.50001"))));
+    assertFalse(evaluator.evaluateBoolean("id != 2", bindings("id", (short) 2)));
+  }
+
+  @Test
+  public void shouldReadPropertiesOfParameter() {
+    Author author = new Author(1, "cbegin", "******", "cbegin@apache.org", "N/A", Section.NEWS);
+    Map<String, Object> bindings = new DynamicContext(new Configuration(), author).getBindings();
+    assertTrue(evaluator.evaluateBoolean("username == 'cbegin' and id == 1", bindings));
+    assertTrue(evaluator.evaluateBoolean("_parameter.email != null", bindings));
+    assertTrue(evaluator.evaluateBoolean("author.username == 'cbegin'", bindings("author", author)));
+  }
+
+  @Test
+  public void shouldReadPropertiesWithReflectorFactoryOfConfiguration() {
+    final List<Class<?>> types = new ArrayList<>();
+    Configuration configuration = new Configuration();
+    configuration.setReflectorFactory(new DefaultReflectorFactory() {
+      @Override
+      public Reflector findForClass(Class<?> type) {
+        types.add(type);
+        return super.findForClass(type);
+      }
+    });
+    Author author = new Author(1, "cbegin", "******", "cbegin@apache.org", "N/A", Section.NEWS);
+    assertTrue(new NativeExpressionEvaluator(configuration).evaluateBoolean("author.username == 'cbegin'", bindings("author", author)));
+    assertEquals(Collections.<Class<?>>singletonList(Author.class), types);
+  }
+
+  @Test
+  public void shouldReadKeysOfMapParameter() {
+    Map<String, Object> parameter = new HashMap<>();
+    parameter.put("name", "cbegin");
+    Map<String, Object> bindings = new DynamicContext(new Configuration(), parameter).getBindings();
+    assertTrue(evaluator.evaluateBoolean("name == 'cbegin'", bindings));
+  }
+
+  @Test
+  public void shouldEvaluateLikeOgnl() {
+    String[] expressions = {
+        "name != null and name != ''",
+        "status != ''",
+        "status == 'A'",
+        "name.trim() != ''",
+        "list != null and list.size() > 0",
+        "map.size > 0",
+        "id + 1 > 2",
+        "status"
+    };
+    Map<String, Object> parameter = new HashMap<>();
+    parameter.put("name", " ");
+    parameter.put("status", 0);
+    parameter.put("list", Arrays.asList("a"));
+    parameter.put("map", Collections.singletonMap("a", 1));
+    parameter.put("id", 2);
+    for (String expression : expressions) {
+      assertEquals(expression, ognlEvaluator.evaluateBoolean(expression, bindings(parameter)),
+          evaluator.evaluateBoolean(expression, bindings(parameter)));
+    }
+  }
+
+  @Test
+  public void shouldIterateOverCollection() {
+    Iterable<?> iterable = evaluator.evaluateIterable("author.posts", bindings("author", new HashMap<String, Object>() {{
+      put("posts", new String[] {"1", "2"});
+    }}));
+    assertEquals(Arrays.asList("1", "2"), iterable);
+  }
+
+  private Map<String, Object> bindings(String name, Object value) {
+    Map<String, Object> parameter = new HashMap<>();
+    parameter.put(name, value);
+    return bindings(parameter);
+  }
+
+  private Map<String, Object> bindings(Map<String, Object> parameter) {
+    return new DynamicContext(new Configuration(), parameter).getBindings();
+  }
+
+}
@@ -0,0 +1,80 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cursor.defaults;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+import org.junit.Test;
+
+public class CursorSpliteratorTest {
+
+  @Test
+  public void shouldSplitInGrowingBatches() {
+    List<Integer> items = IntStream.range(0, 11).boxed().collect(Collectors.toList());
+    Spliterator<Integer> spliterator = new CursorSpliterator<>(items.iterator(), 2, 4);
+    List<Long> batchSizes = new ArrayList<>();
+    List<Integer> result = new ArrayList<>();
+    Spliterator<Integer> batch;
+    while ((batch = spliterator.trySplit()) != null) {
+      batchSizes.add(batch.estimateSize());
+      batch.forEachRemaining(result::add);
+    }
+    assertEquals(items, result);
+    assertEquals(IntStream.of(2, 4, 4, 1).asLongStream().boxed().collect(Collectors.toList()), batchSizes);
+    assertFalse(spliterator.tryAdvance(result::add));
+  }
+
+  @Test
+  public void shouldKeepOrderAcrossBatchesInParallelStreams() {
+    List<Integer> items = IntStream.range(0, 5000).boxed().collect(Collectors.toList());
+    Spliterator<Integer> spliterator = new CursorSpliterator<>(items.iterator(), 3, 50);
+    List<Integer> result = StreamSupport.stream(spliterator, true).map(i -> i * 2).collect(Collectors.toList());
+    assertEquals(items.stream().map(i -> i * 2).collect(Collectors.toList()), result);
+  }
+
+  @Test
+  public void shouldSplitBatchesOfBatchReader() {
+    List<Integer> items = IntStream.range(0, 7).boxed().collect(Collectors.toList());
+    Iterator<Integer> iterator = items.iterator();
+    List<Integer> requestedSizes = new ArrayList<>();
+    Spliterator<Integer> spliterator = new CursorSpliterator<>(iterator, maxSize -> {
+      requestedSizes.add(maxSize);
+      List<Integer> batch = new ArrayList<>();
+      while (batch.size() < maxSize && iterator.hasNext()) {
+        batch.add(iterator.next() * 10);
+      }
+      return batch.isEmpty() ? null : batch.spliterator();
+    }, 2, 3);
+    List<Integer> result = new ArrayList<>();
+    assertTrue(spliterator.tryAdvance(result::add));
+    Spliterator<Integer> batch;
+    while ((batch = spliterator.trySplit()) != null) {
+      batch.forEachRemaining(result::add);
+    }
+    assertEquals(Arrays.asList(0, 10, 20, 30, 40, 50, 60), result);
+    assertEquals(Arrays.asList(2, 3, 3, 3), requestedSizes);
+  }
+
+}
@@ -0,0 +1,219 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cursor.defaults;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.apache.ibatis.cursor.Cursor;
+import org.junit.Test;
+
+public class PrefetchingCursorTest {
+
+  @Test
+  public void shouldReturnAllItemsInOrder() throws Exception {
+    List<Integer> items = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      items.add(i);
+    }
+    ListCursor<Integer> delegate = new ListCursor<>(items, -1);
+    try (PrefetchingCursor<Integer> cursor = new PrefetchingCursor<>(delegate, 16)) {
+      assertFalse(cursor.isOpen());
+      assertEquals(-1, cursor.getCurrentIndex());
+      List<Integer> result = new ArrayList<>();
+      for (Integer item : cursor) {
+        result.add(item);
+        assertEquals(result.size() - 1, cursor.getCurrentIndex());
+      }
+      assertEquals(items, result);
+      assertTrue(cursor.isConsumed());
+      assertFalse(cursor.isOpen());
+    }
+    assertTrue(delegate.closed);
+  }
+
+  @Test
+  public void shouldPropagateFailureAfterFetchedItems() throws Exception {
+    ListCursor<Integer> delegate = new ListCursor<>(Arrays.asList(1, 2), -1);
+    delegate.failure = new IllegalStateException("broken row");
+    try (PrefetchingCursor<Integer> cursor = new PrefetchingCursor<>(delegate, 4)) {
+      Iterator<Integer> iterator = cursor.iterator();
+      assertEquals(Integer.valueOf(1), iterator.next());
+      assertEquals(Integer.valueOf(2), iterator.next());
+      try {
+        iterator.hasNext();
+        fail();
+      } catch (IllegalStateException e) {
+        assertEquals("broken row", e.getMessage());
+      }
+      assertFalse(iterator.hasNext());
+    }
+  }
+
+  @Test
+  public void shouldStopReadingWhenClosedEarly() throws Exception {
+    List<Integer> items = new ArrayList<>();
+    for (int i = 0; i < 10000; i++) {
+      items.add(i);
+    }
+    ListCursor<Integer> delegate = new ListCursor<>(items, 4);
+    PrefetchingCursor<Integer> cursor = new PrefetchingCursor<>(delegate, 2);
+    Iterator<Integer> iterator = cursor.iterator();
+    assertEquals(Integer.valueOf(0), iterator.next());
+    assertTrue(cursor.isOpen());
+    cursor.close();
+    assertTrue(delegate.closed);
+    assertFalse(cursor.isOpen());
+    assertFalse(cursor.isConsumed());
+    assertFalse(iterator.hasNext());
+    assertTrue(delegate.read < items.size());
+    assertEquals(5, cursor.getCurrentIndex());
+  }
+
+  @Test
+  public void shouldWakeUpConsumerWhenClosedByAnotherThread() throws Exception {
+    List<Integer> items = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      items.add(i);
+    }
+    ListCursor<Integer> delegate = new ListCursor<>(items, -1);
+    delegate.blocked = new CountDownLatch(1);
+    PrefetchingCursor<Integer> cursor = new PrefetchingCursor<>(delegate, 4);
+    Iterator<Integer> iterator = cursor.iterator();
+    ExecutorService consumer = Executors.newSingleThreadExecutor();
+    try {
+      Future<Boolean> hasNext = consumer.submit(iterator::hasNext);
+      Thread.sleep(100);
+      // the reader is blocked on the first item, so is the consumer
+      assertFalse(hasNext.isDone());
+      Thread closer = new Thread(cursor::close);
+      closer.start();
+      Thread.sleep(100);
+      delegate.blocked.countDown();
+      closer.join(5000);
+      assertFalse(hasNext.get(5, TimeUnit.SECONDS));
+      assertTrue(cursor.isClosed());
+      assertFalse(cursor.isConsumed());
+    } finally {
+      consumer.shutdownNow();
+    }
+  }
+
+  @Test
+  public void shouldReportReadingUntilReaderIsDone() throws Exception {
+    ListCursor<Integer> delegate = new ListCursor<>(Arrays.asList(1, 2, 3), -1);
+    try (PrefetchingCursor<Integer> cursor = new PrefetchingCursor<>(delegate, 1)) {
+      assertFalse(cursor.isReading());
+      Iterator<Integer> iterator = cursor.iterator();
+      assertEquals(Integer.valueOf(1), iterator.next());
+      // the reader waits for room in the buffer
+      assertTrue(cursor.isReading());
+      while (iterator.hasNext()) {
+        iterator.next();
+      }
+      assertFalse(cursor.isReading());
+    }
+  }
+
+  @Test
+  public void shouldStreamInParallelInOrder() throws Exception {
+    List<Integer> items = new ArrayList<>();
+    for (int i = 0; i < 10000; i++) {
+      items.add(i);
+    }
+    try (PrefetchingCursor<Integer> cursor = new PrefetchingCursor<>(new ListCursor<>(items, -1), 16)) {
+      assertEquals(items, cursor.parallelStream().collect(Collectors.toList()));
+    }
+  }
+
+  @Test(expected = NoSuchElementException.class)
+  public void shouldThrowWhenNoMoreItems() throws Exception {
+    try (PrefetchingCursor<Integer> cursor = new PrefetchingCursor<>(new ListCursor<Integer>(new ArrayList<>(), -1), 4)) {
+      cursor.iterator().next();
+    }
+  }
+
+  private static class ListCursor<T> implements Cursor<T> {
+    private final List<T> items;
+    private final int initialIndex;
+    private RuntimeException failure;
+    private CountDownLatch blocked;
+    private volatile int read;
+    private volatile boolean closed;
+
+    ListCursor(List<T> items, int initialIndex) {
+      this.items = items;
+      this.initialIndex = initialIndex;
+    }
+
+    @Override
+    public boolean isOpen() {
+      return !closed;
+    }
+
+    @Override
+    public boolean isConsumed() {
+      return read == items.size();
+    }
+
+    @Override
+    public int getCurrentIndex() {
+      return initialIndex;
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+      return new Iterator<T>() {
+        @Override
+        public boolean hasNext() {
+          if (read == items.size() && failure != null) {
+            throw failure;
+          }
+          return !closed && read < items.size();
+        }
+
+        @Override
+        public T next() {
+          if (blocked != null) {
+            try {
+              blocked.await();
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+            }
+          }
+          return items.get(read++);
+        }
+      };
+    }
+  }
+
+}
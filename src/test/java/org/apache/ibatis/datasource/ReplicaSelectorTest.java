@@ -0,0 +1,58 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
+import org.junit.Test;
+
+public class ReplicaSelectorTest {
+
+  private final DataSource first = new UnpooledDataSource();
+  private final DataSource second = new UnpooledDataSource();
+  private final List<DataSource> replicas = Arrays.asList(first, second);
+
+  @Test
+  public void shouldSelectReplicasInTurn() {
+    ReplicaSelector selector = new RoundRobinReplicaSelector();
+    assertSame(first, selector.select(replicas));
+    assertSame(second, selector.select(replicas));
+    assertSame(first, selector.select(replicas));
+  }
+
+  @Test
+  public void shouldSelectLeastLoadedReplica() {
+    LeastLoadedReplicaSelector selector = new LeastLoadedReplicaSelector();
+    assertSame(first, selector.select(replicas));
+    assertSame(second, selector.select(replicas));
+    assertSame(first, selector.select(replicas));
+    assertEquals(2, selector.getActiveConnections(first));
+    assertEquals(1, selector.getActiveConnections(second));
+
+    selector.release(first);
+    selector.release(first);
+    assertSame(first, selector.select(replicas));
+    assertEquals(1, selector.getActiveConnections(first));
+  }
+
+}
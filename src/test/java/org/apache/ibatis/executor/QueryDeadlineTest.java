@@ -0,0 +1,127 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+import java.sql.Statement;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class QueryDeadlineTest {
+
+  @Test
+  public void shouldBindAndRestoreEnclosingScope() {
+    assertNull(QueryDeadline.current());
+    try (QueryDeadline outer = QueryDeadline.start(10, TimeUnit.SECONDS)) {
+      assertSame(outer, QueryDeadline.current());
+      try (QueryDeadline inner = QueryDeadline.start(1, TimeUnit.MINUTES)) {
+        assertSame(inner, QueryDeadline.current());
+        // a nested scope never extends the enclosing budget
+        assertTrue(inner.remaining(TimeUnit.SECONDS) <= 10);
+      }
+      assertSame(outer, QueryDeadline.current());
+    }
+    assertNull(QueryDeadline.current());
+  }
+
+  @Test(expected = DeadlineExceededException.class)
+  public void shouldFailFastWhenExpired() {
+    try (QueryDeadline deadline = QueryDeadline.start(0, TimeUnit.SECONDS)) {
+      assertTrue(deadline.isExpired());
+      deadline.check();
+    }
+  }
+
+  @Test
+  public void shouldShrinkQueryTimeoutToRemainingBudget() throws Exception {
+    Statement statement = mock(Statement.class);
+    when(statement.getQueryTimeout()).thenReturn(30);
+    try (QueryDeadline deadline = QueryDeadline.start(5, TimeUnit.SECONDS)) {
+      deadline.apply(statement);
+    }
+    verify(statement).setQueryTimeout(5);
+    verify(statement, never()).cancel();
+  }
+
+  @Test
+  public void shouldKeepShorterQueryTimeout() throws Exception {
+    Statement statement = mock(Statement.class);
+    when(statement.getQueryTimeout()).thenReturn(2);
+    try (QueryDeadline deadline = QueryDeadline.start(5, TimeUnit.SECONDS)) {
+      deadline.apply(statement);
+    }
+    verify(statement, never()).setQueryTimeout(anyInt());
+  }
+
+  @Test
+  public void shouldCancelStatementWhenDeadlinePasses() throws Exception {
+    Statement statement = mock(Statement.class);
+    try (QueryDeadline deadline = QueryDeadline.start(50, TimeUnit.MILLISECONDS)) {
+      deadline.apply(statement);
+      verify(statement, timeout(5000)).cancel();
+    }
+  }
+
+  @Test
+  public void shouldNotCancelReleasedStatement() throws Exception {
+    Statement statement = mock(Statement.class);
+    try (QueryDeadline outer = QueryDeadline.start(50, TimeUnit.MILLISECONDS)) {
+      outer.apply(statement);
+      try (QueryDeadline inner = QueryDeadline.start(1, TimeUnit.SECONDS)) {
+        // released through the scope current when the statement is closed
+        inner.release(statement);
+      }
+      assertEquals(0, outer.pendingCancellations());
+      Thread.sleep(200);
+    }
+    verify(statement, never()).cancel();
+  }
+
+  @Test
+  public void shouldForgetClosedAndReappliedStatements() throws Exception {
+    Statement closed = mock(Statement.class);
+    Statement reused = mock(Statement.class);
+    try (QueryDeadline deadline = QueryDeadline.start(5, TimeUnit.SECONDS)) {
+      deadline.apply(closed);
+      when(closed.isClosed()).thenReturn(true);
+      deadline.apply(reused);
+      deadline.apply(reused);
+      assertEquals(1, deadline.pendingCancellations());
+    }
+  }
+
+  @Test
+  public void shouldPropagateDeadlineToWorkerThread() throws Exception {
+    ExecutorService workers = Executors.newSingleThreadExecutor();
+    try {
+      try (QueryDeadline deadline = QueryDeadline.start(5, TimeUnit.SECONDS)) {
+        assertSame(deadline, workers.submit(QueryDeadline.propagate(QueryDeadline::current)).get());
+      }
+      // the worker does not keep the deadline once the task is done
+      assertNull(workers.submit(QueryDeadline::current).get());
+      assertNull(workers.submit(QueryDeadline.propagate(QueryDeadline::current)).get());
+    } finally {
+      workers.shutdown();
+    }
+  }
+
+}
@@ -0,0 +1,128 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.pagination;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.Seek;
+import org.junit.Test;
+
+public class KeysetPaginationTest {
+
+  private final Configuration configuration = new Configuration();
+
+  private MappedStatement selectStatement() {
+    ResultMap resultMap = new ResultMap.Builder(configuration, "users", Map.class, new ArrayList<>()).build();
+    return new MappedStatement.Builder(configuration, "selectUsers",
+        new StaticSqlSource(configuration, "select * from users"), SqlCommandType.SELECT)
+        .resultMaps(Collections.singletonList(resultMap)).build();
+  }
+
+  @Test
+  public void shouldOrderFirstPage() {
+    MappedStatement ms = selectStatement();
+    Seek seek = new Seek(new String[] {"name", "id"}, null, 10, false);
+    BoundSql boundSql = KeysetPagination.getSeekBoundSql(ms, ms.getBoundSql(null), seek);
+    assertEquals("select * from (select * from users) seek_ order by name, id", boundSql.getSql());
+    assertEquals(0, boundSql.getParameterMappings().size());
+  }
+
+  @Test
+  public void shouldSeekAfterLastValues() {
+    MappedStatement ms = selectStatement();
+    configuration.setPaginationDialect(new LimitOffsetDialect());
+    Seek seek = new Seek(new String[] {"name", "id"}, new Object[] {"Bob", 7}, 10, true);
+    BoundSql boundSql = KeysetPagination.getSeekBoundSql(ms, ms.getBoundSql(null), seek);
+    assertEquals("select * from (select * from users) seek_ where (name < ?) or (name = ? and id < ?)"
+        + " order by name desc, id desc LIMIT ?", boundSql.getSql());
+    assertEquals(4, boundSql.getParameterMappings().size());
+    assertEquals("Bob", boundSql.getAdditionalParameter(boundSql.getParameterMappings().get(0).getProperty()));
+    assertEquals("Bob", boundSql.getAdditionalParameter(boundSql.getParameterMappings().get(1).getProperty()));
+    assertEquals(7, boundSql.getAdditionalParameter(boundSql.getParameterMappings().get(2).getProperty()));
+    assertEquals(10, boundSql.getAdditionalParameter(boundSql.getParameterMappings().get(3).getProperty()));
+  }
+
+  @Test
+  public void shouldBuildNextSeekFromLastRow() {
+    MappedStatement ms = selectStatement();
+    Seek seek = new Seek(new String[] {"ID"}, null, 2, false);
+    Map<String, Object> first = new HashMap<>();
+    first.put("id", 1);
+    Map<String, Object> second = new HashMap<>();
+    second.put("id", 2);
+    List<Map<String, Object>> rows = Arrays.asList(first, second);
+
+    KeysetPagination.complete(ms, seek, rows);
+    assertArrayEquals(new Object[] {2}, seek.getNext().getAfter());
+
+    KeysetPagination.complete(ms, seek.getNext(), Collections.singletonList(first));
+    assertNull(seek.getNext().getNext());
+  }
+
+  @Test
+  public void shouldBuildNextSeekFromCursorCount() {
+    MappedStatement ms = selectStatement();
+    Seek seek = new Seek(new String[] {"id"}, null, 2, false);
+    Map<String, Object> last = new HashMap<>();
+    last.put("id", 2);
+
+    KeysetPagination.complete(ms, seek, 2, last);
+    assertArrayEquals(new Object[] {2}, seek.getNext().getAfter());
+
+    KeysetPagination.complete(ms, seek.getNext(), 1, last);
+    assertNull(seek.getNext().getNext());
+  }
+
+  @Test
+  public void shouldRemoveOrderByOfWrappedQuery() {
+    MappedStatement ms = new MappedStatement.Builder(configuration, "selectUsers",
+        new StaticSqlSource(configuration, "select * from users where id in (select id from admins order by id) ORDER  BY name"),
+        SqlCommandType.SELECT).resultMaps(selectStatement().getResultMaps()).build();
+    Seek seek = new Seek(new String[] {"id"}, null, 10, false);
+    BoundSql boundSql = KeysetPagination.getSeekBoundSql(ms, ms.getBoundSql(null), seek);
+    assertEquals("select * from (select * from users where id in (select id from admins order by id)) seek_ order by id",
+        boundSql.getSql());
+  }
+
+  @Test(expected = ExecutorException.class)
+  public void shouldRejectSortColumnThatIsNotAnIdentifier() {
+    MappedStatement ms = selectStatement();
+    Seek seek = new Seek(new String[] {"id desc; drop table users --"}, null, 10, false);
+    KeysetPagination.getSeekBoundSql(ms, ms.getBoundSql(null), seek);
+  }
+
+  @Test(expected = ExecutorException.class)
+  public void shouldRejectQueryLimitedAfterOrderBy() {
+    KeysetPagination.removeOrderBy(selectStatement(), "select * from users order by name limit 10");
+  }
+
+}
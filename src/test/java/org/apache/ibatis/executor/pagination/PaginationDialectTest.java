@@ -0,0 +1,97 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.pagination;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.ibatis.session.RowBounds;
+import org.junit.Test;
+
+public class PaginationDialectTest {
+
+  @Test
+  public void shouldAppendLimitAndOffset() {
+    List<Object> parameters = new ArrayList<>();
+    String sql = new LimitOffsetDialect().getPageSql("select * from users", 20, 10, parameters);
+    assertEquals("select * from users LIMIT ? OFFSET ?", sql);
+    assertEquals(Arrays.<Object>asList(10, 20), parameters);
+  }
+
+  @Test
+  public void shouldAppendLimitOnly() {
+    List<Object> parameters = new ArrayList<>();
+    String sql = new LimitOffsetDialect().getPageSql("select * from users", 0, 10, parameters);
+    assertEquals("select * from users LIMIT ?", sql);
+    assertEquals(Arrays.<Object>asList(10), parameters);
+  }
+
+  @Test
+  public void shouldAppendOffsetAndFetch() {
+    List<Object> parameters = new ArrayList<>();
+    String sql = new OffsetFetchDialect().getPageSql("select * from users", 20, 10, parameters);
+    assertEquals("select * from users OFFSET ? ROWS FETCH NEXT ? ROWS ONLY", sql);
+    assertEquals(Arrays.<Object>asList(20, 10), parameters);
+  }
+
+  @Test
+  public void shouldAppendOffsetWithoutFetch() {
+    List<Object> parameters = new ArrayList<>();
+    String sql = new OffsetFetchDialect().getPageSql("select * from users", 20, RowBounds.NO_ROW_LIMIT, parameters);
+    assertEquals("select * from users OFFSET ? ROWS", sql);
+    assertEquals(Arrays.<Object>asList(20), parameters);
+  }
+
+  @Test
+  public void shouldWrapWithRowNum() {
+    List<Object> parameters = new ArrayList<>();
+    String sql = new RowNumDialect().getPageSql("select * from users", 20, 10, parameters);
+    assertEquals("select * from ( select row_.*, rownum rownum_ from ( select * from users ) row_ where rownum <= ? ) where rownum_ > ?", sql);
+    assertEquals(Arrays.<Object>asList(30L, 20), parameters);
+  }
+
+  @Test
+  public void shouldWrapWithRowNumWithoutOffset() {
+    List<Object> parameters = new ArrayList<>();
+    String sql = new RowNumDialect().getPageSql("select * from users", 0, 10, parameters);
+    assertEquals("select * from ( select * from users ) where rownum <= ?", sql);
+    assertEquals(Arrays.<Object>asList(10), parameters);
+  }
+
+  @Test
+  public void shouldWrapCountQuery() {
+    assertEquals("select count(*) from (select * from users) count_", new LimitOffsetDialect().getCountSql("select * from users"));
+  }
+
+  @Test
+  public void shouldRemoveTrailingOrderByBeforeCounting() {
+    assertEquals("select * from users where id > ?", Pagination.removeOrderBy("select * from users where id > ? order by id desc"));
+    assertEquals("select * from (select * from users order by id) u",
+        Pagination.removeOrderBy("select * from (select * from users order by id) u"));
+    assertEquals("select 'order by' from users -- order by id\n/* order by */",
+        Pagination.removeOrderBy("select 'order by' from users -- order by id\n/* order by */"));
+  }
+
+  @Test
+  public void shouldKeepOrderByFollowedByLimitBeforeCounting() {
+    String sql = "select * from users order by id fetch first 10 rows only";
+    assertEquals(sql, Pagination.removeOrderBy(sql));
+  }
+
+}
@@ -0,0 +1,43 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.pagination;
+
+import static org.junit.Assert.*;
+
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.session.Configuration;
+import org.junit.Test;
+
+public class PaginationTest {
+
+  @Test
+  public void shouldCreateCountStatementOnceWithoutRegisteringIt() {
+    Configuration configuration = new Configuration();
+    MappedStatement ms = new MappedStatement.Builder(configuration, "selectUsers",
+        new StaticSqlSource(configuration, "select * from users"), SqlCommandType.SELECT).build();
+    configuration.addMappedStatement(ms);
+
+    MappedStatement countStatement = Pagination.getCountStatement(ms);
+
+    assertSame(countStatement, Pagination.getCountStatement(ms));
+    assertEquals("selectUsers" + Pagination.COUNT_SUFFIX, countStatement.getId());
+    assertEquals("select count(*) from (select * from users) count_", countStatement.getBoundSql(null).getSql());
+    assertFalse(configuration.hasStatement(countStatement.getId(), false));
+  }
+
+}
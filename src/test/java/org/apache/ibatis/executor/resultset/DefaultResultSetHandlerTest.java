@@ -17,7 +17,10 @@ package org.apache.ibatis.executor.resultset;
 
 import static org.junit.Assert.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.sql.Connection;
@@ -33,6 +36,9 @@ import java.util.HashMap;
 import java.util.List;
 
 import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.domain.blog.Author;
 import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.executor.ExecutorException;
 import org.apache.ibatis.executor.parameter.ParameterHandler;
@@ -41,9 +47,11 @@ import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.ResultMap;
 import org.apache.ibatis.mapping.ResultMapping;
 import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.session.AutoMappingUnknownColumnBehavior;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSessionException;
 import org.apache.ibatis.type.TypeHandler;
 import org.apache.ibatis.type.TypeHandlerRegistry;
 import org.junit.Assert;
@@ -102,6 +110,136 @@ public class DefaultResultSetHandlerTest {
     assertEquals(Integer.valueOf(100), ((HashMap) results.get(0)).get("cOlUmN1"));
   }
 
+  @Test
+  public void shouldShareAutoMappingPlansAcrossExecutions() throws Exception {
+    final MappedStatement ms = getMappedStatement();
+
+    when(stmt.getResultSet()).thenReturn(rs);
+    when(rs.getMetaData()).thenReturn(rsmd);
+    when(rs.getType()).thenReturn(ResultSet.TYPE_FORWARD_ONLY);
+    when(rs.next()).thenReturn(true, false, true, false);
+    when(rs.getInt("CoLuMn1")).thenReturn(100);
+    when(rs.getObject("CoLuMn2")).thenReturn(200);
+    when(rs.wasNull()).thenReturn(false);
+    when(rsmd.getColumnCount()).thenReturn(2);
+    when(rsmd.getColumnLabel(1)).thenReturn("CoLuMn1");
+    when(rsmd.getColumnLabel(2)).thenReturn("CoLuMn2");
+    when(rsmd.getColumnType(anyInt())).thenReturn(Types.INTEGER);
+    when(rsmd.getColumnClassName(anyInt())).thenReturn(Integer.class.getCanonicalName());
+    when(stmt.getConnection()).thenReturn(conn);
+    when(conn.getMetaData()).thenReturn(dbmd);
+    when(dbmd.supportsMultipleResultSets()).thenReturn(false);
+
+    for (int i = 0; i < 2; i++) {
+      final DefaultResultSetHandler handler = new DefaultResultSetHandler(null, ms, null, null, null, new RowBounds(0, 100));
+      final List<Object> results = handler.handleResultSets(stmt);
+      assertEquals(1, results.size());
+      assertEquals(Integer.valueOf(100), ((HashMap) results.get(0)).get("cOlUmN1"));
+      assertEquals(200, ((HashMap) results.get(0)).get("CoLuMn2"));
+      assertEquals(1, ms.getConfiguration().getAutoMappingPlanCache().getPlanCount());
+    }
+  }
+
+  @Test
+  public void shouldReportUnknownColumnsOfSharedAutoMappingPlans() throws Exception {
+    final Configuration config = new Configuration();
+    final MappedStatement ms = new MappedStatement.Builder(config, "testSelect", new StaticSqlSource(config, "some select statement"),
+        SqlCommandType.SELECT).resultMaps(Collections.singletonList(
+            new ResultMap.Builder(config, "testMap", Author.class, new ArrayList<ResultMapping>()).build())).build();
+
+    when(stmt.getResultSet()).thenReturn(rs);
+    when(rs.getMetaData()).thenReturn(rsmd);
+    when(rs.getType()).thenReturn(ResultSet.TYPE_FORWARD_ONLY);
+    when(rs.next()).thenReturn(true, false, true, false);
+    when(rsmd.getColumnCount()).thenReturn(1);
+    when(rsmd.getColumnLabel(1)).thenReturn("unknown_column");
+    when(rsmd.getColumnType(1)).thenReturn(Types.INTEGER);
+    when(rsmd.getColumnClassName(1)).thenReturn(Integer.class.getCanonicalName());
+    when(stmt.getConnection()).thenReturn(conn);
+    when(conn.getMetaData()).thenReturn(dbmd);
+    when(dbmd.supportsMultipleResultSets()).thenReturn(false);
+
+    new DefaultResultSetHandler(null, ms, null, null, null, new RowBounds(0, 100)).handleResultSets(stmt);
+    assertEquals(1, config.getAutoMappingPlanCache().getPlanCount());
+
+    config.setAutoMappingUnknownColumnBehavior(AutoMappingUnknownColumnBehavior.FAILING);
+    try {
+      new DefaultResultSetHandler(null, ms, null, null, null, new RowBounds(0, 100)).handleResultSets(stmt);
+      Assert.fail("Should have reported the unknown column of the shared plan");
+    } catch (SqlSessionException e) {
+      Assert.assertTrue(e.getMessage().contains("columnName=unknown_column"));
+    }
+  }
+
+  @Test
+  public void shouldStopKeepingAutoMappingPlansOnceFull() {
+    final AutoMappingPlanCache cache = new AutoMappingPlanCache(1);
+    final CacheKey first = new CacheKey(new Object[] {"first"});
+    final CacheKey second = new CacheKey(new Object[] {"second"});
+    cache.put(first, new AutoMappingPlanCache.Plan());
+    cache.put(second, new AutoMappingPlanCache.Plan());
+    assertEquals(1, cache.getPlanCount());
+    Assert.assertNotNull(cache.get(first));
+    Assert.assertNull(cache.get(second));
+  }
+
+  @Test
+  public void shouldReuseCachedColumnMetadata() throws Exception {
+    final MappedStatement ms = getMappedStatement();
+    ms.getConfiguration().setResultSetMetadataCacheEnabled(true);
+    final BoundSql boundSql = new BoundSql(ms.getConfiguration(), "some select statement", Collections.emptyList(), null);
+
+    when(stmt.getResultSet()).thenReturn(rs);
+    when(rs.getMetaData()).thenReturn(rsmd);
+    when(rs.getType()).thenReturn(ResultSet.TYPE_FORWARD_ONLY);
+    when(rs.next()).thenReturn(true, false, true, false);
+    when(rs.getInt("CoLuMn1")).thenReturn(100);
+    when(rs.wasNull()).thenReturn(false);
+    when(rsmd.getColumnCount()).thenReturn(1);
+    when(rsmd.getColumnLabel(1)).thenReturn("CoLuMn1");
+    when(rsmd.getColumnType(1)).thenReturn(Types.INTEGER);
+    when(rsmd.getColumnClassName(1)).thenReturn(Integer.class.getCanonicalName());
+    when(stmt.getConnection()).thenReturn(conn);
+    when(conn.getMetaData()).thenReturn(dbmd);
+    when(dbmd.supportsMultipleResultSets()).thenReturn(false);
+
+    for (int i = 0; i < 2; i++) {
+      final DefaultResultSetHandler handler = new DefaultResultSetHandler(null, ms, null, null, boundSql, new RowBounds(0, 100));
+      final List<Object> results = handler.handleResultSets(stmt);
+      assertEquals(1, results.size());
+      assertEquals(Integer.valueOf(100), ((HashMap) results.get(0)).get("cOlUmN1"));
+    }
+    verify(rsmd, times(1)).getColumnLabel(1);
+    assertEquals(1, ms.getResultSetColumnsCache().size());
+  }
+
+  @Test
+  public void shouldRecordRowsReadThroughCursorOnClose() throws Exception {
+    final MappedStatement ms = getMappedStatement();
+    ms.getConfiguration().setAdaptiveFetchSizeEnabled(true);
+
+    when(stmt.getResultSet()).thenReturn(rs);
+    when(rs.getMetaData()).thenReturn(rsmd);
+    when(rs.getType()).thenReturn(ResultSet.TYPE_FORWARD_ONLY);
+    when(rs.next()).thenReturn(true, true, true, false);
+    when(rsmd.getColumnCount()).thenReturn(1);
+    when(rsmd.getColumnLabel(1)).thenReturn("CoLuMn1");
+    when(rsmd.getColumnType(1)).thenReturn(Types.INTEGER);
+    when(rsmd.getColumnClassName(1)).thenReturn(Integer.class.getCanonicalName());
+
+    final DefaultResultSetHandler handler = new DefaultResultSetHandler(null, ms, null, null, null, new RowBounds(1, 100));
+    try (Cursor<Object> cursor = handler.handleCursorResultSets(stmt)) {
+      int count = 0;
+      for (Object ignored : cursor) {
+        count++;
+      }
+      assertEquals(2, count);
+    }
+    assertEquals(1, ms.getFetchSizeStatistics().getSamples());
+    // the skipped row is counted too: one execution of three rows
+    assertEquals(Integer.valueOf(4), ms.getFetchSizeStatistics().suggest(1, 1000));
+  }
+
   @Test
   public void shouldThrowExceptionWithColumnName() throws Exception {
     final MappedStatement ms = getMappedStatement();
@@ -0,0 +1,130 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.apache.ibatis.type.IntegerTypeHandler;
+import org.apache.ibatis.type.StringTypeHandler;
+import org.apache.ibatis.type.TypeHandler;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class NestedRowKeyTest {
+
+  @Mock
+  private ResultSet rs;
+
+  private final NestedRowKey.Plan plan = new NestedRowKey.Plan("blog", null, new int[] { 1, 2 }, null,
+      new TypeHandler<?>[] { new IntegerTypeHandler(), new StringTypeHandler() }, false);
+
+  @Test
+  public void shouldFindObjectsOfEqualKeys() throws Exception {
+    when(rs.getInt(1)).thenReturn(1);
+    when(rs.getString(2)).thenReturn("a");
+    final NestedRowKey key = plan.read(rs);
+    final NestedRowKeyMap map = new NestedRowKeyMap();
+    map.put(key, "row");
+
+    assertThat(map.get(plan.read(rs))).isEqualTo("row");
+    assertThat(plan.read(rs)).isEqualTo(key).hasSameHashCodeAs(key);
+  }
+
+  @Test
+  public void shouldTellNullColumnsFromZero() throws Exception {
+    when(rs.getInt(1)).thenReturn(0);
+    when(rs.getString(2)).thenReturn("a");
+    final NestedRowKey zero = plan.read(rs);
+    when(rs.wasNull()).thenReturn(true);
+    final NestedRowKey nullId = plan.read(rs);
+
+    assertThat(nullId).isNotEqualTo(zero);
+  }
+
+  @Test
+  public void shouldNotIdentifyRowsWithoutValues() throws Exception {
+    when(rs.getInt(1)).thenReturn(0);
+    when(rs.wasNull()).thenReturn(true);
+    final NestedRowKey key = plan.read(rs);
+    final NestedRowKeyMap map = new NestedRowKeyMap();
+    map.put(key, "row");
+
+    assertThat(key).isSameAs(NestedRowKey.NULL);
+    assertThat(map.get(key)).isNull();
+    assertThat(map.size()).isZero();
+  }
+
+  @Test
+  public void shouldCombineKeysWithParentKeys() throws Exception {
+    when(rs.getInt(1)).thenReturn(1);
+    when(rs.getString(2)).thenReturn("a");
+    final NestedRowKey key = plan.read(rs);
+    when(rs.getString(2)).thenReturn("b");
+    final NestedRowKey otherKey = plan.read(rs);
+
+    assertThat(key.combine(key)).isEqualTo(key.combine(key)).isNotEqualTo(key.combine(otherKey));
+    assertThat(key.combine(NestedRowKey.NULL)).isSameAs(NestedRowKey.NULL);
+  }
+
+  @Test
+  public void shouldReadColumnsByLabel() throws Exception {
+    final NestedRowKey.Plan labelPlan = new NestedRowKey.Plan("blog", null, new int[] { 1, 2 }, new String[] { "ID", "NAME" },
+        new TypeHandler<?>[] { new IntegerTypeHandler(), new StringTypeHandler() }, false);
+    when(rs.getInt("ID")).thenReturn(1);
+    when(rs.getString("NAME")).thenReturn("a");
+
+    assertThat(labelPlan.read(rs).toString()).isEqualTo("blog:1:a");
+  }
+
+  @Test
+  public void shouldReadSubclassedHandlersWithTheirGetters() throws Exception {
+    final NestedRowKey.Plan subclassPlan = new NestedRowKey.Plan("blog", null, new int[] { 1 }, null,
+        new TypeHandler<?>[] { new IntegerTypeHandler() {
+          @Override
+          public Integer getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+            return rs.getInt(columnIndex) * 10;
+          }
+        } }, false);
+    when(rs.getInt(1)).thenReturn(1);
+
+    assertThat(subclassPlan.read(rs).toString()).isEqualTo("blog:10");
+  }
+
+  @Test
+  public void shouldKeepObjectsWhenGrowing() throws Exception {
+    final NestedRowKeyMap map = new NestedRowKeyMap();
+    when(rs.getString(2)).thenReturn("a");
+    for (int i = 1; i <= 1000; i++) {
+      when(rs.getInt(1)).thenReturn(i);
+      map.put(plan.read(rs), i);
+    }
+    assertThat(map.size()).isEqualTo(1000);
+    for (int i = 1; i <= 1000; i++) {
+      when(rs.getInt(1)).thenReturn(i);
+      assertThat(map.get(plan.read(rs))).isEqualTo(i);
+    }
+    map.clear();
+    assertThat(map.size()).isZero();
+  }
+
+}
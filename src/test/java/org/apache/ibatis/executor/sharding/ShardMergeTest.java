@@ -0,0 +1,120 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.sharding;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.domain.blog.Author;
+import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.session.Configuration;
+import org.junit.Test;
+
+public class ShardMergeTest {
+
+  private final Configuration configuration = new Configuration();
+
+  private MappedStatement selectStatement(Class<?> type, String sql) {
+    ResultMap resultMap = new ResultMap.Builder(configuration, "authors", type, new ArrayList<>()).build();
+    return new MappedStatement.Builder(configuration, "selectAuthors",
+        new StaticSqlSource(configuration, sql), SqlCommandType.SELECT)
+        .resultMaps(Collections.singletonList(resultMap)).build();
+  }
+
+  @SafeVarargs
+  private final <E> List<E> merge(OrderByComparator comparator, List<E>... shards) {
+    List<Iterator<E>> iterators = new ArrayList<>();
+    for (List<E> shard : shards) {
+      iterators.add(shard.iterator());
+    }
+    List<E> merged = new ArrayList<>();
+    new MergingIterator<>(iterators, comparator).forEachRemaining(merged::add);
+    return merged;
+  }
+
+  @Test
+  public void shouldFindTopLevelOrderBy() {
+    assertNull(OrderByComparator.findOrderBy("select * from author"));
+    assertNull(OrderByComparator.findOrderBy("select * from (select * from author order by id) a"));
+    assertEquals(" a.id desc, username",
+        OrderByComparator.findOrderBy("select * from author a where bio <> 'order by' order by a.id desc, username"));
+    assertEquals(" id ", OrderByComparator.findOrderBy("select * from author order by id limit 10"));
+  }
+
+  @Test
+  public void shouldConcatenateUnorderedShards() {
+    assertEquals(Arrays.asList(3, 1, 2, 0), merge(null, Arrays.asList(3, 1), Collections.emptyList(), Arrays.asList(2, 0)));
+  }
+
+  @Test
+  public void shouldMergeSimpleValues() {
+    OrderByComparator comparator = OrderByComparator.forStatement(
+        selectStatement(Integer.class, "select id from author"), "select id from author order by id desc");
+    assertEquals(Arrays.asList(9, 7, 4, 3, 1), merge(comparator, Arrays.asList(9, 4, 1), Arrays.asList(7, 3)));
+  }
+
+  @Test
+  public void shouldMergeByMappedProperties() {
+    String sql = "select * from author order by bio, id desc";
+    OrderByComparator comparator = OrderByComparator.forStatement(selectStatement(Author.class, sql), sql);
+    Author a1 = new Author(1, "a1", null, null, "x", null);
+    Author a2 = new Author(2, "a2", null, null, "x", null);
+    Author a3 = new Author(3, "a3", null, null, "y", null);
+    Author a4 = new Author(4, "a4", null, null, null, null);
+    assertEquals(Arrays.asList(a4, a2, a1, a3), merge(comparator, Arrays.asList(a2, a3), Arrays.asList(a4, a1)));
+  }
+
+  @Test
+  public void shouldMergeMapsIgnoringColumnCase() {
+    String sql = "select * from author order by username nulls last";
+    OrderByComparator comparator = OrderByComparator.forStatement(selectStatement(Map.class, sql), sql);
+    Map<String, Object> anne = new HashMap<>();
+    anne.put("USERNAME", "anne");
+    Map<String, Object> bob = new HashMap<>();
+    bob.put("USERNAME", "bob");
+    Map<String, Object> nobody = new HashMap<>();
+    nobody.put("USERNAME", null);
+    assertEquals(Arrays.asList(anne, bob, nobody),
+        merge(comparator, Arrays.asList(bob, nobody), Collections.singletonList(anne)));
+  }
+
+  @Test(expected = ExecutorException.class)
+  public void shouldRejectOrderingByExpression() {
+    String sql = "select * from author order by lower(username)";
+    OrderByComparator.forStatement(selectStatement(Author.class, sql), sql);
+  }
+
+  @Test
+  public void shouldRouteIntegralKeysModuloShardCount() {
+    HashShardingStrategy strategy = new HashShardingStrategy();
+    assertEquals(1, strategy.getShard(7L, 3));
+    assertEquals(2, strategy.getShard(-1, 3));
+    assertEquals(Math.floorMod("key".hashCode(), 3), strategy.getShard("key", 3));
+  }
+
+}
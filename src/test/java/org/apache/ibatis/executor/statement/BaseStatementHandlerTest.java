@@ -16,6 +16,7 @@
 package org.apache.ibatis.executor.statement;
 
 import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.executor.QueryDeadline;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.session.Configuration;
 import org.junit.After;
@@ -28,6 +29,7 @@ import org.mockito.junit.MockitoJUnitRunner;
 
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
 
 import static org.mockito.Mockito.*;
 
@@ -141,4 +143,33 @@ public class BaseStatementHandlerTest {
         verify(statement).setQueryTimeout(10);
     }
 
+    @Test
+    public void specifyQueryTimeoutAndDeadlineMinIsDeadline() throws SQLException {
+        doReturn(60).when(configuration).getDefaultStatementTimeout();
+        doReturn(60).when(statement).getQueryTimeout();
+
+        BaseStatementHandler handler = new SimpleStatementHandler(null, mappedStatementBuilder.build(), null, null, null, null);
+        try (QueryDeadline deadline = QueryDeadline.start(3, TimeUnit.SECONDS)) {
+            handler.setStatementTimeout(statement, null);
+        }
+
+        verify(statement).setQueryTimeout(60);
+        verify(statement).setQueryTimeout(3); // apply the remaining time of a deadline
+    }
+
+    @Test
+    public void specifyAdaptiveFetchSize() throws SQLException {
+        doReturn(true).when(configuration).isAdaptiveFetchSizeEnabled();
+        doReturn(100).when(configuration).getDefaultFetchSize();
+        MappedStatement mappedStatement = mappedStatementBuilder.build();
+
+        BaseStatementHandler handler = new SimpleStatementHandler(null, mappedStatement, null, null, null, null);
+        handler.setFetchSize(statement);
+        verify(statement).setFetchSize(100); // apply a default fetch size until rows are observed
+
+        mappedStatement.getFetchSizeStatistics().record(20);
+        handler.setFetchSize(statement);
+        verify(statement).setFetchSize(21); // apply an adaptive fetch size
+    }
+
 }
@@ -0,0 +1,62 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.statement;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class FetchSizeStatisticsTest {
+
+  @Test
+  public void shouldNotSuggestBeforeFirstExecution() {
+    FetchSizeStatistics statistics = new FetchSizeStatistics();
+    assertNull(statistics.suggest(10, 1000));
+  }
+
+  @Test
+  public void shouldSuggestOneMoreThanStableRowCount() {
+    FetchSizeStatistics statistics = new FetchSizeStatistics();
+    for (int i = 0; i < 5; i++) {
+      statistics.record(40);
+    }
+    assertEquals(Integer.valueOf(41), statistics.suggest(10, 1000));
+    assertEquals(5, statistics.getSamples());
+  }
+
+  @Test
+  public void shouldClampToBounds() {
+    FetchSizeStatistics statistics = new FetchSizeStatistics();
+    statistics.record(1);
+    assertEquals(Integer.valueOf(10), statistics.suggest(10, 1000));
+    statistics = new FetchSizeStatistics();
+    statistics.record(100000);
+    assertEquals(Integer.valueOf(1000), statistics.suggest(10, 1000));
+  }
+
+  @Test
+  public void shouldFollowRecentExecutions() {
+    FetchSizeStatistics statistics = new FetchSizeStatistics();
+    statistics.record(1);
+    for (int i = 0; i < 50; i++) {
+      statistics.record(500);
+    }
+    int suggestion = statistics.suggest(1, 10000);
+    assertTrue(suggestion > 500);
+    assertTrue(suggestion < 520);
+  }
+
+}
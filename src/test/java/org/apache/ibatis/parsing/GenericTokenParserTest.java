@@ -16,6 +16,8 @@
 package org.apache.ibatis.parsing;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 import org.junit.Ignore;
 import org.junit.Test;
@@ -84,6 +86,21 @@ public class GenericTokenParserTest {
     assertEquals("The null is ${skipped} variable", parser.parse("The ${skipped} is \\${skipped} variable"));
   }
 
+  @Test
+  public void shouldRenderTokenizedTextWithDifferentHandlers() {
+    TokenizedText text = new GenericTokenParser("${", "}", null).tokenize("Hello ${first_name} \\${skipped} ${last_name}!");
+    Map<String, String> variables = new HashMap<String, String>();
+    variables.put("first_name", "James");
+    variables.put("last_name", "Kirk");
+    assertTrue(text.hasTokens());
+    assertEquals("Hello James ${skipped} Kirk!", text.apply(new VariableTokenHandler(variables)));
+    variables.put("first_name", "Jean-Luc");
+    variables.put("last_name", "Picard");
+    assertEquals("Hello Jean-Luc ${skipped} Picard!", text.apply(new VariableTokenHandler(variables)));
+    assertFalse(new GenericTokenParser("${", "}", null).tokenize("Hello \\${skipped}").hasTokens());
+    assertEquals("Hello ${ this is a test.", new GenericTokenParser("${", "}", null).tokenize("Hello ${ this is a test.").apply(null));
+  }
+
   @Ignore("Because it randomly fails on Travis CI. It could be useful during development.")
   @Test(timeout = 1000)
   public void shouldParseFastOnJdk7u6() {
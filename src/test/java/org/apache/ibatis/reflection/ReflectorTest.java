@@ -18,8 +18,13 @@ package org.apache.ibatis.reflection;
 import static org.junit.Assert.*;
 
 import java.io.Serializable;
+import java.lang.reflect.InvocationTargetException;
 import java.util.List;
 
+import org.apache.ibatis.reflection.invoker.GetFieldHandleInvoker;
+import org.apache.ibatis.reflection.invoker.MethodHandleInvoker;
+import org.apache.ibatis.reflection.invoker.SetFieldHandleInvoker;
+
 import org.junit.Assert;
 import org.junit.Test;
 import static com.googlecode.catchexception.apis.BDDCatchException.*;
@@ -210,4 +215,99 @@ public class ReflectorTest {
     Reflector reflector = reflectorFactory.findForClass(Bean.class);
     assertTrue((Boolean)reflector.getGetInvoker("bool").invoke(new Bean(), new Byte[0]));
   }
+
+  @Test
+  public void shouldInvokePropertiesThroughMethodHandles() throws Exception {
+    ReflectorFactory reflectorFactory = new MethodHandleReflectorFactory();
+    Reflector reflector = reflectorFactory.findForClass(HandleBean.class);
+    HandleBean bean = new HandleBean();
+    assertTrue(reflector.getSetInvoker("count") instanceof MethodHandleInvoker);
+    assertTrue(reflector.getSetInvoker("name") instanceof SetFieldHandleInvoker);
+    assertTrue(reflector.getGetInvoker("name") instanceof GetFieldHandleInvoker);
+    reflector.getSetInvoker("count").invoke(bean, new Object[] { 3 });
+    reflector.getSetInvoker("name").invoke(bean, new Object[] { "a" });
+    assertEquals(3, reflector.getGetInvoker("count").invoke(bean, new Object[0]));
+    assertEquals("a", reflector.getGetInvoker("name").invoke(bean, new Object[0]));
+  }
+
+  @Test
+  public void shouldSetFinalFieldsWithMethodHandleReflectorFactory() throws Exception {
+    // final fields fall back to reflection where the JDK denies their method handle setters
+    ReflectorFactory reflectorFactory = new MethodHandleReflectorFactory();
+    Reflector reflector = reflectorFactory.findForClass(HandleBean.class);
+    HandleBean bean = new HandleBean();
+    reflector.getSetInvoker("code").invoke(bean, new Object[] { "b" });
+    assertEquals("b", reflector.getGetInvoker("code").invoke(bean, new Object[0]));
+  }
+
+  @Test
+  public void shouldWrapExceptionsOfMethodHandleInvokers() throws Exception {
+    ReflectorFactory reflectorFactory = new MethodHandleReflectorFactory();
+    Reflector reflector = reflectorFactory.findForClass(HandleBean.class);
+    when(reflector.getSetInvoker("count")).invoke(new HandleBean(), new Object[] { -1 });
+    then(caughtException()).isInstanceOf(InvocationTargetException.class);
+    then(caughtException().getCause()).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  public void shouldReportWrongArgumentsOfMethodHandleInvokersLikeReflection() throws Exception {
+    ReflectorFactory reflectorFactory = new MethodHandleReflectorFactory();
+    for (Class<?> type : new Class<?>[] { HandleBean.class, PublicHandleBean.class }) {
+      Reflector reflector = reflectorFactory.findForClass(type);
+      Object bean = type.newInstance();
+      when(reflector.getSetInvoker("count")).invoke(bean, new Object[] { "3" });
+      then(caughtException()).isInstanceOf(IllegalArgumentException.class);
+      when(reflector.getSetInvoker("count")).invoke(bean, new Object[] { null });
+      then(caughtException()).isInstanceOf(IllegalArgumentException.class);
+      when(reflector.getGetInvoker("count")).invoke("not a bean", new Object[0]);
+      then(caughtException()).isInstanceOf(IllegalArgumentException.class);
+      when(reflector.getSetInvoker("name")).invoke(bean, new Object[] { 1 });
+      then(caughtException()).isInstanceOf(IllegalArgumentException.class);
+
+      reflector.getSetInvoker("count").invoke(bean, new Object[] { (short) 7 });
+      assertEquals(7, reflector.getGetInvoker("count").invoke(bean, new Object[0]));
+    }
+  }
+
+  @Test
+  public void shouldWrapExceptionsOfSpunMethodHandleInvokers() throws Exception {
+    ReflectorFactory reflectorFactory = new MethodHandleReflectorFactory();
+    Reflector reflector = reflectorFactory.findForClass(PublicHandleBean.class);
+    when(reflector.getSetInvoker("count")).invoke(new PublicHandleBean(), new Object[] { -1 });
+    then(caughtException()).isInstanceOf(InvocationTargetException.class);
+    then(caughtException().getCause()).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  public static class PublicHandleBean {
+    private int count;
+    private String name;
+
+    public int getCount() {
+      return count;
+    }
+
+    public void setCount(int count) {
+      if (count < 0) {
+        throw new IllegalArgumentException("negative count");
+      }
+      this.count = count;
+    }
+  }
+
+  static class HandleBean {
+    private int count;
+    private String name;
+    private final String code = null;
+
+    public int getCount() {
+      return count;
+    }
+
+    public void setCount(int count) {
+      if (count < 0) {
+        throw new IllegalArgumentException("negative count");
+      }
+      this.count = count;
+    }
+  }
 }
@@ -0,0 +1,86 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reflection.invoker;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+
+/**
+ * A micro benchmark of the reflective and method handle invokers, run with {@code main} rather than as a test.
+ * It reports the average time of a property read and write once the invokers are warmed up. Give the name of one
+ * variant ({@code method}, {@code methodHandle}, {@code field} or {@code fieldHandle}) to run it alone in its JVM,
+ * as running several ones makes the call sites of the loop megamorphic.
+ */
+public class InvokerBenchmark {
+
+  private static final int WARMUP_ROUNDS = 5;
+  private static final int ROUNDS = 5;
+  private static final int CALLS = 10_000_000;
+
+  public static class Bean {
+    private int count;
+    public String name;
+
+    public int getCount() {
+      return count;
+    }
+
+    public void setCount(int count) {
+      this.count = count;
+    }
+  }
+
+  public static void main(String[] args) throws Exception {
+    Method getter = Bean.class.getMethod("getCount");
+    Method setter = Bean.class.getMethod("setCount", int.class);
+    Field field = Bean.class.getField("name");
+    String variant = args.length > 0 ? args[0] : null;
+    if (variant == null || "method".equals(variant)) {
+      run("method", new MethodInvoker(getter), new MethodInvoker(setter), 1);
+    }
+    if (variant == null || "methodHandle".equals(variant)) {
+      run("methodHandle", new MethodHandleInvoker(getter), new MethodHandleInvoker(setter), 1);
+    }
+    if (variant == null || "field".equals(variant)) {
+      run("field", new GetFieldInvoker(field), new SetFieldInvoker(field), "a");
+    }
+    if (variant == null || "fieldHandle".equals(variant)) {
+      run("fieldHandle", new GetFieldHandleInvoker(field), new SetFieldHandleInvoker(field), "a");
+    }
+  }
+
+  private static void run(String name, Invoker getter, Invoker setter, Object value) throws Exception {
+    Bean bean = new Bean();
+    Object[] noArgs = new Object[0];
+    Object[] setArgs = new Object[] { value };
+    long sink = 0;
+    for (int round = 0; round < WARMUP_ROUNDS + ROUNDS; round++) {
+      long start = System.nanoTime();
+      for (int i = 0; i < CALLS; i++) {
+        setter.invoke(bean, setArgs);
+        sink += getter.invoke(bean, noArgs).hashCode();
+      }
+      long elapsed = System.nanoTime() - start;
+      if (round >= WARMUP_ROUNDS) {
+        System.out.printf("%s round %d: %.2f ns per write and read%n", name, round - WARMUP_ROUNDS, (double) elapsed / CALLS);
+      }
+    }
+    if (sink == 42) {
+      System.out.println(sink);
+    }
+  }
+
+}
@@ -21,10 +21,15 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.ibatis.builder.StaticSqlSource;
 import org.apache.ibatis.mapping.*;
+import org.apache.ibatis.scripting.xmltags.DynamicSqlSource;
+import org.apache.ibatis.scripting.xmltags.MixedSqlNode;
+import org.apache.ibatis.scripting.xmltags.StaticTextSqlNode;
 import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.type.IntegerTypeHandler;
 import org.apache.ibatis.type.JdbcType;
 import org.apache.ibatis.type.TypeException;
 import org.apache.ibatis.type.TypeHandler;
@@ -36,6 +41,9 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -70,6 +78,128 @@ public class DefaultParameterHandlerTest {
 
   }
 
+  @Test
+  public void setPrimitivePropertiesWithPrimitiveTypeHandlers() throws SQLException {
+    final MappedStatement mappedStatement = getMappedStatement();
+    final BoundSql boundSql = mock(BoundSql.class);
+
+    IntegerTypeHandler typeHandler = new IntegerTypeHandler();
+    ParameterMapping parameterMapping = new ParameterMapping.Builder(mappedStatement.getConfiguration(), "count", typeHandler)
+        .javaType(int.class).build();
+    when(boundSql.getParameterMappings()).thenReturn(Collections.singletonList(parameterMapping));
+
+    DefaultParameterHandler defaultParameterHandler = new DefaultParameterHandler(mappedStatement, new Counter(), boundSql);
+
+    PreparedStatement ps = mock(PreparedStatement.class);
+    defaultParameterHandler.setParameters(ps);
+    verify(ps).setInt(1, 5);
+  }
+
+  @Test
+  public void setPrimitivePropertiesWithSubclassedTypeHandlers() throws SQLException {
+    final MappedStatement mappedStatement = getMappedStatement();
+    final BoundSql boundSql = mock(BoundSql.class);
+
+    IntegerTypeHandler typeHandler = new IntegerTypeHandler() {
+      @Override
+      public void setNonNullParameter(PreparedStatement ps, int i, Integer parameter, JdbcType jdbcType) throws SQLException {
+        ps.setLong(i, parameter);
+      }
+    };
+    ParameterMapping parameterMapping = new ParameterMapping.Builder(mappedStatement.getConfiguration(), "count", typeHandler)
+        .javaType(int.class).build();
+    when(boundSql.getParameterMappings()).thenReturn(Collections.singletonList(parameterMapping));
+
+    DefaultParameterHandler defaultParameterHandler = new DefaultParameterHandler(mappedStatement, new Counter(), boundSql);
+
+    PreparedStatement ps = mock(PreparedStatement.class);
+    defaultParameterHandler.setParameters(ps);
+    verify(ps).setLong(1, 5);
+    verify(ps, never()).setInt(anyInt(), anyInt());
+  }
+
+  @Test
+  public void setParametersWithCompiledBinder() throws SQLException {
+    final MappedStatement mappedStatement = getMappedStatement();
+    final Configuration config = mappedStatement.getConfiguration();
+    config.setParameterBinderCompilationEnabled(true);
+    final TypeHandlerRegistry registry = config.getTypeHandlerRegistry();
+    final List<ParameterMapping> parameterMappings = new ArrayList<>();
+    parameterMappings.add(new ParameterMapping.Builder(config, "count", registry.getTypeHandler(Integer.class)).build());
+    parameterMappings.add(new ParameterMapping.Builder(config, "owner.name", registry.getTypeHandler(String.class)).build());
+    parameterMappings.add(new ParameterMapping.Builder(config, "owner.owner.name", registry.getTypeHandler(String.class)).build());
+    final BoundSql boundSql = new BoundSql(config, "some select statement", parameterMappings, null);
+
+    final Counter counter = new Counter();
+    counter.owner = new Counter();
+    counter.owner.name = "owner";
+    final PreparedStatement ps = mock(PreparedStatement.class);
+    new DefaultParameterHandler(mappedStatement, counter, boundSql).setParameters(ps);
+    new DefaultParameterHandler(mappedStatement, counter, boundSql).setParameters(ps);
+
+    verify(ps, times(2)).setInt(1, 5);
+    verify(ps, times(2)).setString(2, "owner");
+    verify(ps, times(2)).setNull(3, JdbcType.OTHER.TYPE_CODE);
+    Assert.assertEquals(1, mappedStatement.getParameterBinderCache().size());
+  }
+
+  @Test
+  public void reuseCompiledBinderForEachExecutionOfDynamicSql() throws SQLException {
+    final Configuration config = new Configuration();
+    config.setParameterBinderCompilationEnabled(true);
+    final SqlSource sqlSource = new DynamicSqlSource(config,
+        new MixedSqlNode(Collections.singletonList(new StaticTextSqlNode("select * from counter where count = #{count}"))));
+    final MappedStatement mappedStatement = new MappedStatement.Builder(config, "testDynamicSelect", sqlSource, SqlCommandType.SELECT).build();
+    final Counter counter = new Counter();
+    final BoundSql first = mappedStatement.getBoundSql(counter);
+    final BoundSql second = mappedStatement.getBoundSql(counter);
+    Assert.assertNotSame(first.getParameterMappings(), second.getParameterMappings());
+
+    final PreparedStatement ps = mock(PreparedStatement.class);
+    new DefaultParameterHandler(mappedStatement, counter, first).setParameters(ps);
+    new DefaultParameterHandler(mappedStatement, counter, second).setParameters(ps);
+
+    verify(ps, times(2)).setInt(1, 5);
+    final ParameterBinderCache cache = mappedStatement.getParameterBinderCache();
+    Assert.assertEquals(1, cache.size());
+    Assert.assertSame(cache.getBinder(config, first.getParameterMappings(), Counter.class),
+        cache.getBinder(config, second.getParameterMappings(), Counter.class));
+  }
+
+  @Test
+  public void setParametersOfMapsWithCompiledBinder() throws SQLException {
+    final MappedStatement mappedStatement = getMappedStatement();
+    final Configuration config = mappedStatement.getConfiguration();
+    config.setParameterBinderCompilationEnabled(true);
+    final List<ParameterMapping> parameterMappings = Collections.singletonList(
+        new ParameterMapping.Builder(config, "counter.count", config.getTypeHandlerRegistry().getTypeHandler(Integer.class)).build());
+    final Map<String, Object> parameterObject = new HashMap<>();
+    parameterObject.put("counter", new Counter());
+    final BoundSql boundSql = new BoundSql(config, "some select statement", parameterMappings, parameterObject);
+
+    final PreparedStatement ps = mock(PreparedStatement.class);
+    new DefaultParameterHandler(mappedStatement, parameterObject, boundSql).setParameters(ps);
+
+    verify(ps).setInt(1, 5);
+  }
+
+  public static class Counter {
+    private Counter owner;
+    private String name;
+
+    public Counter getOwner() {
+      return owner;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public int getCount() {
+      return 5;
+    }
+  }
+
   MappedStatement getMappedStatement() {
     final Configuration config = new Configuration();
     final TypeHandlerRegistry registry = config.getTypeHandlerRegistry();
@@ -0,0 +1,144 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.chunked_query;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class ChunkedQueryTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeClass
+  public static void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/chunked_query/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/chunked_query/CreateDB.sql");
+  }
+
+  private static List<Integer> ids(List<User> users) {
+    List<Integer> ids = new ArrayList<>();
+    for (User user : users) {
+      ids.add(user.getId());
+    }
+    return ids;
+  }
+
+  @Test
+  public void shouldMergeChunksInOrder() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      List<User> users = mapper.getUsersOrdered(Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8, 9, 10));
+      assertEquals(Arrays.asList(10, 9, 8, 7, 6, 5, 4, 3, 2, 1), ids(users));
+    }
+  }
+
+  @Test
+  public void shouldApplyRowBoundsAfterMerging() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      List<User> users = mapper.getUsersOrdered(Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8, 9, 10), new RowBounds(2, 3));
+      assertEquals(Arrays.asList(8, 7, 6), ids(users));
+    }
+  }
+
+  @Test
+  public void shouldPassMergedResultsToResultHandler() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      List<Integer> ids = new ArrayList<>();
+      mapper.getUsersOrdered(Arrays.asList(2, 4, 6, 8), context -> ids.add(context.getResultObject().getId()));
+      assertEquals(Arrays.asList(8, 6, 4, 2), ids);
+    }
+  }
+
+  @Test
+  public void shouldConcatenateUnorderedChunks() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      List<User> users = mapper.getUsers(Arrays.asList(1, 2, 3, 4, 5));
+      assertEquals(Arrays.asList(1, 2, 3, 4, 5), ids(users));
+    }
+  }
+
+  @Test
+  public void shouldNotSplitSmallCollections() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertEquals(Arrays.asList(3, 4), ids(mapper.getUsers(Arrays.asList(3, 4))));
+    }
+  }
+
+  @Test
+  public void shouldSplitArrays() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertEquals(Arrays.asList(1, 2, 3, 5, 7, 8, 9, 10), mapper.getIds(new int[] { 1, 2, 3, 5, 7, 8, 9, 10 }));
+    }
+  }
+
+  @Test
+  public void shouldRunChunksInParallel() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      List<User> users = mapper.getUsersInParallel(Arrays.asList(10, 9, 8, 7, 6, 5, 4, 3, 2, 1), "User5");
+      assertEquals(Arrays.asList(1, 2, 3, 4, 6, 7, 8, 9, 10), ids(users));
+    }
+  }
+
+  @Test
+  public void shouldRunChunksOnTheSessionWhenItHasPendingWrites() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      mapper.insertUser(11, "User11");
+      List<User> users = mapper.getUsersInParallel(Arrays.asList(11, 10, 9, 8, 7, 6, 5, 4, 3, 2, 1), "User5");
+      assertEquals(Arrays.asList(1, 2, 3, 4, 6, 7, 8, 9, 10, 11), ids(users));
+      sqlSession.rollback();
+    }
+  }
+
+  @Test
+  public void shouldRejectCursors() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      try {
+        mapper.getUsersCursor(Arrays.asList(1, 2, 3));
+        fail();
+      } catch (PersistenceException e) {
+        assertTrue(e.getMessage().contains("cannot be queried with a cursor"));
+      }
+    }
+  }
+
+}
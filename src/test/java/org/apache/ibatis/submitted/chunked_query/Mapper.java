@@ -0,0 +1,53 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.chunked_query;
+
+import java.util.List;
+
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+
+public interface Mapper {
+
+  List<User> getUsersOrdered(@Param("ids") List<Integer> ids);
+
+  List<User> getUsersOrdered(@Param("ids") List<Integer> ids, RowBounds rowBounds);
+
+  void getUsersOrdered(@Param("ids") List<Integer> ids, ResultHandler<User> handler);
+
+  List<User> getUsers(List<Integer> ids);
+
+  List<User> getUsersInParallel(@Param("ids") List<Integer> ids, @Param("name") String name);
+
+  @Select("<script>select id from users where id in"
+      + "<foreach collection='array' item='id' open='(' close=')' separator=','>#{id}</foreach> order by id</script>")
+  @Options(chunkBy = "array", chunkSize = 4)
+  List<Integer> getIds(int[] ids);
+
+  @Select("<script>select * from users where id in"
+      + "<foreach collection='list' item='id' open='(' close=')' separator=','>#{id}</foreach></script>")
+  @Options(chunkBy = "list", chunkSize = 2)
+  Cursor<User> getUsersCursor(List<Integer> ids);
+
+  @Insert("insert into users (id, name) values (#{id}, #{name})")
+  void insertUser(@Param("id") Integer id, @Param("name") String name);
+
+}
@@ -0,0 +1,121 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.columnar;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.columnar.ColumnarResult;
+import org.apache.ibatis.columnar.DoubleColumn;
+import org.apache.ibatis.columnar.IntColumn;
+import org.apache.ibatis.columnar.LongColumn;
+import org.apache.ibatis.columnar.ObjectColumn;
+import org.apache.ibatis.columnar.StringColumn;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class ColumnarResultTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeClass
+  public static void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/columnar/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/columnar/CreateDB.sql");
+  }
+
+  @Test
+  public void shouldReadNumericColumnsIntoPrimitiveArrays() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      ColumnarResult sales = sqlSession.getMapper(Mapper.class).getSales();
+      assertEquals(5, sales.getRowCount());
+      assertEquals(Arrays.asList("ID", "REGION", "QUANTITY", "PRICE", "AMOUNT"), sales.getColumnNames());
+
+      IntColumn ids = sales.getIntColumn("id");
+      assertArrayEquals(new int[] { 1, 2, 3, 4, 5 }, ids.toArray());
+
+      LongColumn quantities = sales.getLongColumn("quantity");
+      assertArrayEquals(new long[] { 10, 20, 0, 40, 50 }, quantities.toArray());
+      assertTrue(quantities.isNull(2));
+      assertFalse(quantities.isNull(3));
+      assertNull(quantities.getValue(2));
+      assertEquals(Long.valueOf(40), quantities.getValue(3));
+
+      DoubleColumn prices = sales.getDoubleColumn("price");
+      assertEquals(2.5, prices.getDouble(1), 0);
+      assertTrue(prices.isNull(2));
+    }
+  }
+
+  @Test
+  public void shouldDictionaryEncodeStringColumns() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      StringColumn regions = sqlSession.getMapper(Mapper.class).getSales().getStringColumn("REGION");
+      assertEquals(Arrays.asList("North", "South"), regions.getDictionary());
+      assertArrayEquals(new int[] { 0, 1, 0, StringColumn.NULL_CODE, 1 }, regions.getCodes());
+      assertEquals("South", regions.getString(4));
+      assertNull(regions.getString(3));
+      assertTrue(regions.isNull(3));
+    }
+  }
+
+  @Test
+  public void shouldReadOtherColumnsWithTypeHandlers() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      ObjectColumn amounts = sqlSession.getMapper(Mapper.class).getSales().getObjectColumn("amount");
+      assertEquals(new BigDecimal("50.00"), amounts.getValue(1));
+      assertNull(amounts.getValue(2));
+      assertTrue(amounts.isNull(2));
+    }
+  }
+
+  @Test
+  public void shouldApplyRowBounds() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      ColumnarResult sales = sqlSession.getMapper(Mapper.class).getSales(new RowBounds(1, 3));
+      assertEquals(3, sales.getRowCount());
+      assertArrayEquals(new int[] { 2, 3, 4 }, sales.getIntColumn("ID").toArray());
+    }
+  }
+
+  @Test
+  public void shouldReturnEmptyResult() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      ColumnarResult sales = sqlSession.getMapper(Mapper.class).getNoSales();
+      assertEquals(0, sales.getRowCount());
+      assertEquals(2, sales.getColumnCount());
+      assertEquals(0, sales.getStringColumn("region").getDictionary().size());
+    }
+  }
+
+}
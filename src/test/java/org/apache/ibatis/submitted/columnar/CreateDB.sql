@@ -0,0 +1,31 @@
+--
+--    Copyright 2009-2016 the original author or authors.
+--
+--    Licensed under the Apache License, Version 2.0 (the "License");
+--    you may not use this file except in compliance with the License.
+--    You may obtain a copy of the License at
+--
+--       http://www.apache.org/licenses/LICENSE-2.0
+--
+--    Unless required by applicable law or agreed to in writing, software
+--    distributed under the License is distributed on an "AS IS" BASIS,
+--    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+--    See the License for the specific language governing permissions and
+--    limitations under the License.
+--
+
+drop table sales if exists;
+
+create table sales (
+  id int,
+  region varchar(20),
+  quantity bigint,
+  price double,
+  amount decimal(10, 2)
+);
+
+insert into sales (id, region, quantity, price, amount) values(1, 'North', 10, 1.5, 15.00);
+insert into sales (id, region, quantity, price, amount) values(2, 'South', 20, 2.5, 50.00);
+insert into sales (id, region, quantity, price, amount) values(3, 'North', null, null, null);
+insert into sales (id, region, quantity, price, amount) values(4, null, 40, 4.0, 160.00);
+insert into sales (id, region, quantity, price, amount) values(5, 'South', 50, 5.0, 250.00);
@@ -0,0 +1,117 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.compiled_row_mapper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.Reader;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class CompiledRowMapperTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeClass
+  public static void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/compiled_row_mapper/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/compiled_row_mapper/CreateDB.sql");
+  }
+
+  @Test
+  public void shouldEnableCompilation() {
+    assertTrue(sqlSessionFactory.getConfiguration().isRowMapperCompilationEnabled());
+  }
+
+  @Test
+  public void shouldMapAutomaticMappings() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<User> users = sqlSession.getMapper(Mapper.class).getUsers();
+      assertEquals(3, users.size());
+      assertUser(users.get(0), 1, "User1", 10);
+      assertUser(users.get(1), 2, "User2", null);
+      assertUser(users.get(2), 3, null, 30);
+    }
+  }
+
+  @Test
+  public void shouldMapResultMappings() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<User> users = sqlSession.getMapper(Mapper.class).getUsersWithResultMap();
+      assertEquals(3, users.size());
+      assertUser(users.get(0), 1, "User1", 10);
+      assertUser(users.get(1), 2, "User2", null);
+      assertUser(users.get(2), 3, null, 30);
+    }
+  }
+
+  @Test
+  public void shouldMapConstructorMappings() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<ImmutableUser> users = sqlSession.getMapper(Mapper.class).getImmutableUsers();
+      assertEquals(3, users.size());
+      assertEquals(Integer.valueOf(2), users.get(1).getId());
+      assertEquals("User2", users.get(1).getName());
+      assertEquals(Integer.valueOf(3), users.get(2).getId());
+      assertNull(users.get(2).getName());
+      assertTrue(users.get(0).isCompiled());
+    }
+  }
+
+  @Test
+  public void shouldMapPrimitiveConstructorMappings() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<ImmutableUser> users = sqlSession.getMapper(Mapper.class).getImmutableUsersWithPrimitiveArgs();
+      assertEquals(2, users.size());
+      assertEquals(Integer.valueOf(1), users.get(0).getId());
+      assertEquals(Integer.valueOf(3), users.get(1).getId());
+      assertNull(users.get(1).getName());
+      assertTrue(users.get(0).isCompiled());
+    }
+  }
+
+  @Test
+  public void shouldMapUnsupportedTypesByReflection() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<Map<String, Object>> users = sqlSession.getMapper(Mapper.class).getUsersAsMaps();
+      assertEquals(3, users.size());
+      assertEquals("User2", users.get(1).get("NAME"));
+      assertNull(users.get(1).get("SCORE"));
+    }
+  }
+
+  private void assertUser(User user, int id, String name, Integer score) {
+    assertTrue(user.isCompiled());
+    assertEquals(id, user.getId());
+    assertEquals(name, user.getName());
+    assertEquals(score, user.getScore());
+  }
+
+}
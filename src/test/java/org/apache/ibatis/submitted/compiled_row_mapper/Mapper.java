@@ -0,0 +1,57 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.compiled_row_mapper;
+
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.annotations.Arg;
+import org.apache.ibatis.annotations.ConstructorArgs;
+import org.apache.ibatis.annotations.Result;
+import org.apache.ibatis.annotations.Results;
+import org.apache.ibatis.annotations.Select;
+
+public interface Mapper {
+
+  @Select("select id, name, score from users order by id")
+  List<User> getUsers();
+
+  @Results({
+      @Result(property = "id", column = "user_id"),
+      @Result(property = "name", column = "user_name")
+  })
+  @Select("select id as user_id, name as user_name, score from users order by id")
+  List<User> getUsersWithResultMap();
+
+  @ConstructorArgs({
+      @Arg(column = "id", javaType = Integer.class),
+      @Arg(column = "name", javaType = String.class)
+  })
+  @Select("select id, name from users order by id")
+  List<ImmutableUser> getImmutableUsers();
+
+  @ConstructorArgs({
+      @Arg(column = "id", javaType = int.class),
+      @Arg(column = "name", javaType = String.class),
+      @Arg(column = "score", javaType = int.class)
+  })
+  @Select("select id, name, score from users where score is not null order by id")
+  List<ImmutableUser> getImmutableUsersWithPrimitiveArgs();
+
+  @Select("select id, name, score from users order by id")
+  List<Map<String, Object>> getUsersAsMaps();
+
+}
@@ -0,0 +1,35 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.compiled_row_mapper;
+
+final class RowMappers {
+
+  private RowMappers() {
+  }
+
+  /**
+   * @return whether the calling code runs in a generated row mapper, whose class name ends with $$RowMapper and a counter
+   */
+  static boolean isCalledByCompiledRowMapper() {
+    for (StackTraceElement element : new Throwable().getStackTrace()) {
+      if (element.getClassName().matches(".*\\$\\$RowMapper\\d+")) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+}
@@ -27,7 +27,10 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 
 import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.List;
 
 public class CursorNestedTest {
 
@@ -102,4 +105,55 @@ public class CursorNestedTest {
             Assert.assertTrue(usersCursor.isConsumed());
         }
     }
+
+    @Test
+    public void shouldStreamNestedResultsOneParentAtATime() {
+        sqlSessionFactory.getConfiguration().setNestedResultStreamingEnabled(true);
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Cursor<User> usersCursor = sqlSession.selectCursor("getAllUsersDescending");
+            List<User> users = new ArrayList<>();
+            for (User user : usersCursor) {
+                users.add(user);
+            }
+
+            Assert.assertEquals(4, users.size());
+            Assert.assertEquals("User4", users.get(0).getName());
+            Assert.assertEquals(2, users.get(0).getGroups().size());
+            Assert.assertEquals(2, users.get(0).getRoles().size());
+            Assert.assertEquals("User1", users.get(3).getName());
+            Assert.assertEquals(2, users.get(3).getGroups().size());
+            Assert.assertEquals(3, users.get(3).getRoles().size());
+        } finally {
+            sqlSessionFactory.getConfiguration().setNestedResultStreamingEnabled(false);
+        }
+    }
+
+    @Test
+    public void shouldStreamContiguousParentsInAnyOrder() {
+        sqlSessionFactory.getConfiguration().setNestedResultStreamingEnabled(true);
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Cursor<User> usersCursor = sqlSession.selectCursor("getUsersGroupedByParity");
+            List<String> names = new ArrayList<>();
+            for (User user : usersCursor) {
+                names.add(user.getName());
+            }
+
+            Assert.assertEquals(Arrays.asList("User2", "User4", "User1", "User3"), names);
+        } finally {
+            sqlSessionFactory.getConfiguration().setNestedResultStreamingEnabled(false);
+        }
+    }
+
+    @Test
+    public void shouldEmitParentOnEachKeyChange() {
+        sqlSessionFactory.getConfiguration().setNestedResultStreamingEnabled(true);
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            List<String> names = new ArrayList<>();
+            sqlSession.select("getUsersOrderedByRole", context -> names.add(((User) context.getResultObject()).getName()));
+
+            Assert.assertEquals(Arrays.asList("User1", "User2", "User3", "User4", "User1", "User3", "User4", "User3"), names);
+        } finally {
+            sqlSessionFactory.getConfiguration().setNestedResultStreamingEnabled(false);
+        }
+    }
 }
@@ -32,6 +32,10 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
 
 public class CursorSimpleTest {
 
@@ -361,4 +365,64 @@ public class CursorSimpleTest {
         }
     }
 
+    @Test
+    public void shouldMapUsersWithParallelStream() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            Cursor<User> usersCursor = mapper.getAllUsers();
+
+            List<String> names = usersCursor.parallelStream().map(User::getName).collect(Collectors.toList());
+
+            Assert.assertEquals(5, names.size());
+            for (int i = 0; i < names.size(); i++) {
+                Assert.assertEquals("User" + (i + 1), names.get(i));
+            }
+            Assert.assertFalse(usersCursor.isOpen());
+            Assert.assertTrue(usersCursor.isConsumed());
+        }
+    }
+
+    @Test
+    public void shouldStreamUsersWithRowBound() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Cursor<User> usersCursor = sqlSession.selectCursor("getAllUsers", null, new RowBounds(1, 3));
+
+            List<String> names = usersCursor.stream().map(User::getName).collect(Collectors.toList());
+
+            Assert.assertEquals(3, names.size());
+            Assert.assertEquals("User2", names.get(0));
+            Assert.assertEquals("User4", names.get(2));
+            Assert.assertTrue(usersCursor.isConsumed());
+        }
+    }
+
+    @Test
+    public void shouldMapRowsOnTheThreadProcessingTheBatch() throws Exception {
+        ExecutorService worker = Executors.newSingleThreadExecutor();
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            Cursor<User> usersCursor = mapper.getAllUsers();
+
+            // the rows are read from the database on this thread
+            Spliterator<User> batch = usersCursor.spliterator().trySplit();
+            Assert.assertNotNull(batch);
+            Assert.assertTrue(usersCursor.isConsumed());
+
+            Thread workerThread = worker.submit(Thread::currentThread).get();
+            List<User> users = worker.submit(() -> {
+                List<User> mapped = new ArrayList<>();
+                batch.forEachRemaining(mapped::add);
+                return mapped;
+            }).get();
+
+            Assert.assertEquals(5, users.size());
+            for (int i = 0; i < users.size(); i++) {
+                Assert.assertEquals("User" + (i + 1), users.get(i).getName());
+                Assert.assertSame(workerThread, users.get(i).getMappingThread());
+            }
+        } finally {
+            worker.shutdown();
+        }
+    }
+
 }
@@ -19,6 +19,7 @@ public class User {
 
   private Integer id;
   private String name;
+  private final Thread mappingThread = Thread.currentThread();
 
   public Integer getId() {
     return id;
@@ -36,6 +37,10 @@ public class User {
     this.name = name;
   }
 
+  public Thread getMappingThread() {
+    return mappingThread;
+  }
+
   @Override
   public String toString() {
     return "User{" +
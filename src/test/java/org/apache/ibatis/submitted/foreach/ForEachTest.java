@@ -18,14 +18,18 @@ package org.apache.ibatis.submitted.foreach;
 import java.io.Reader;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import org.apache.ibatis.BaseDataTest;
 import org.apache.ibatis.exceptions.PersistenceException;
 import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.session.SqlSession;
 import org.apache.ibatis.session.SqlSessionFactory;
 import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.type.ArrayTypeHandler;
 import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -138,4 +142,43 @@ public class ForEachTest {
     }
   }
 
+  @Test
+  public void shouldPadItemsToPowerOfTwo() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      Assert.assertEquals(1, mapper.countByIdsPadded(Arrays.asList(1)));
+      Assert.assertEquals(3, mapper.countByIdsPadded(Arrays.asList(1, 2, 3)));
+      Assert.assertEquals(5, mapper.countByIdsPadded(Arrays.asList(1, 2, 3, 4, 5)));
+    }
+    MappedStatement ms = sqlSessionFactory.getConfiguration().getMappedStatement("org.apache.ibatis.submitted.foreach.Mapper.countByIdsPadded");
+    BoundSql three = ms.getBoundSql(Collections.singletonMap("list", Arrays.asList(1, 2, 3)));
+    BoundSql four = ms.getBoundSql(Collections.singletonMap("list", Arrays.asList(1, 2, 3, 4)));
+    Assert.assertEquals(4, three.getParameterMappings().size());
+    Assert.assertEquals(four.getSql(), three.getSql());
+    Assert.assertEquals(3, three.getAdditionalParameter(three.getParameterMappings().get(3).getProperty()));
+  }
+
+  @Test
+  public void shouldBindItemsAsArrayOfElementType() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      Assert.assertEquals(2, mapper.countByIdsTypedArray(Arrays.asList(1, 3)));
+      Assert.assertEquals(0, mapper.countByIdsTypedArray(Collections.<Integer>emptyList()));
+    }
+    MappedStatement ms = sqlSessionFactory.getConfiguration().getMappedStatement("org.apache.ibatis.submitted.foreach.Mapper.countByIdsTypedArray");
+    BoundSql boundSql = ms.getBoundSql(Collections.singletonMap("list", Arrays.<Object>asList(1, 2L)));
+    ArrayTypeHandler.TypedArray array = (ArrayTypeHandler.TypedArray) boundSql.getAdditionalParameter(boundSql.getParameterMappings().get(0).getProperty());
+    Assert.assertEquals("INTEGER", array.getTypeName());
+    Assert.assertArrayEquals(new Object[]{1, 2L}, array.getElements());
+  }
+
+  @Test
+  public void shouldBindEmptyCollectionAsEmptyArray() {
+    MappedStatement ms = sqlSessionFactory.getConfiguration().getMappedStatement("org.apache.ibatis.submitted.foreach.Mapper.countByIdsTypedArray");
+    BoundSql boundSql = ms.getBoundSql(Collections.singletonMap("list", Collections.emptyList()));
+    ArrayTypeHandler.TypedArray array = (ArrayTypeHandler.TypedArray) boundSql.getAdditionalParameter(boundSql.getParameterMappings().get(0).getProperty());
+    Assert.assertEquals("INTEGER", array.getTypeName());
+    Assert.assertEquals(0, array.getElements().length);
+  }
+
 }
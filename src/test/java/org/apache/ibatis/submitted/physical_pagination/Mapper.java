@@ -0,0 +1,47 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.physical_pagination;
+
+import java.util.List;
+
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Result;
+import org.apache.ibatis.annotations.Results;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.Seek;
+
+public interface Mapper {
+
+  @Select("select * from users where id > #{minId} order by id")
+  List<User> getUsers(@Param("minId") int minId, RowBounds rowBounds);
+
+  @Select("select * from users")
+  @Results({
+      @Result(id = true, column = "id", property = "id"),
+      @Result(column = "name", property = "name")
+  })
+  List<User> getUsersAfter(Seek seek);
+
+  @Select("select * from users")
+  @Results({
+      @Result(id = true, column = "id", property = "id"),
+      @Result(column = "name", property = "name")
+  })
+  Cursor<User> getUsersCursorAfter(Seek seek);
+
+}
@@ -0,0 +1,152 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.physical_pagination;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.executor.pagination.LimitOffsetDialect;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.PageRowBounds;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.Seek;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class PhysicalPaginationTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeClass
+  public static void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/physical_pagination/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/physical_pagination/CreateDB.sql");
+  }
+
+  @Test
+  public void shouldConfigureDialect() {
+    assertTrue(sqlSessionFactory.getConfiguration().getPaginationDialect() instanceof LimitOffsetDialect);
+  }
+
+  @Test
+  public void shouldReturnRowsOfPage() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      List<User> users = mapper.getUsers(1, new RowBounds(1, 2));
+      assertEquals(2, users.size());
+      assertEquals("User3", users.get(0).getName());
+      assertEquals("User4", users.get(1).getName());
+    }
+  }
+
+  @Test
+  public void shouldReturnRowsAfterOffsetWithoutLimit() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      List<User> users = mapper.getUsers(0, new RowBounds(3, RowBounds.NO_ROW_LIMIT));
+      assertEquals(2, users.size());
+      assertEquals("User4", users.get(0).getName());
+    }
+  }
+
+  @Test
+  public void shouldCountRowsOfQuery() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      PageRowBounds rowBounds = new PageRowBounds(0, 2);
+      List<User> users = mapper.getUsers(1, rowBounds);
+      assertEquals(2, users.size());
+      assertEquals(Long.valueOf(4), rowBounds.getTotal());
+    }
+  }
+
+  @Test
+  public void shouldSeekPagesByIdColumns() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      Seek seek = new Seek(2);
+      List<User> users = mapper.getUsersAfter(seek);
+      assertEquals(2, users.size());
+      assertEquals("User1", users.get(0).getName());
+      assertEquals("User2", users.get(1).getName());
+
+      seek = seek.getNext();
+      users = mapper.getUsersAfter(seek);
+      assertEquals(2, users.size());
+      assertEquals("User3", users.get(0).getName());
+      assertEquals("User4", users.get(1).getName());
+
+      seek = seek.getNext();
+      users = mapper.getUsersAfter(seek);
+      assertEquals(1, users.size());
+      assertEquals("User5", users.get(0).getName());
+      assertNull(seek.getNext());
+    }
+  }
+
+  @Test
+  public void shouldSeekPagesThroughCursor() throws Exception {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      Seek seek = new Seek(2);
+      List<String> names = new ArrayList<>();
+      try (Cursor<User> users = mapper.getUsersCursorAfter(seek)) {
+        users.forEach(user -> names.add(user.getName()));
+      }
+      assertEquals(Arrays.asList("User1", "User2"), names);
+      assertNotNull(seek.getNext());
+
+      names.clear();
+      try (Cursor<User> users = mapper.getUsersCursorAfter(seek.getNext())) {
+        users.forEach(user -> names.add(user.getName()));
+      }
+      assertEquals(Arrays.asList("User3", "User4"), names);
+    }
+  }
+
+  @Test
+  public void shouldSeekPagesInDescendingOrder() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      Seek seek = new Seek(3, true);
+      List<User> users = mapper.getUsersAfter(seek);
+      assertEquals(3, users.size());
+      assertEquals("User5", users.get(0).getName());
+
+      users = mapper.getUsersAfter(seek.getNext());
+      assertEquals(2, users.size());
+      assertEquals("User2", users.get(0).getName());
+      assertEquals("User1", users.get(1).getName());
+    }
+  }
+
+}
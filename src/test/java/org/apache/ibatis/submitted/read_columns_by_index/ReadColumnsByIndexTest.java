@@ -0,0 +1,89 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.read_columns_by_index;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.Reader;
+import java.util.List;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class ReadColumnsByIndexTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeClass
+  public static void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/read_columns_by_index/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/read_columns_by_index/CreateDB.sql");
+  }
+
+  @Test
+  public void shouldEnableReadingColumnsByIndex() {
+    assertTrue(sqlSessionFactory.getConfiguration().isReadColumnsByIndex());
+  }
+
+  @Test
+  public void shouldReadPrefixedColumns() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<User> users = sqlSession.getMapper(Mapper.class).getUsersWithTeam();
+      assertEquals(2, users.size());
+      assertEquals(Integer.valueOf(1), users.get(0).getId());
+      assertEquals("User1", users.get(0).getName());
+      assertEquals(Integer.valueOf(1), users.get(0).getTeam().getId());
+      assertEquals("Team1", users.get(0).getTeam().getName());
+      assertNull(users.get(1).getName());
+      assertEquals("Team1", users.get(1).getTeam().getName());
+    }
+  }
+
+  @Test
+  public void shouldReadConstructorColumnsByName() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<ImmutableUser> users = sqlSession.getMapper(Mapper.class).getImmutableUsers();
+      assertEquals(2, users.size());
+      assertEquals(Integer.valueOf(1), users.get(0).getId());
+      assertEquals("User1", users.get(0).getName());
+      assertEquals(Integer.valueOf(2), users.get(1).getId());
+      assertNull(users.get(1).getName());
+    }
+  }
+
+  @Test
+  public void shouldReadFirstOfDuplicateLabels() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<User> users = sqlSession.getMapper(Mapper.class).getUsersWithDuplicateLabels();
+      assertEquals(2, users.size());
+      // as ResultSet.getString(String) does, the first column named NAME is read
+      assertEquals("User1", users.get(0).getName());
+      assertNull(users.get(1).getName());
+    }
+  }
+
+}
@@ -0,0 +1,104 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.read_replica;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.Reader;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.datasource.LeastLoadedReplicaSelector;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class ReadReplicaTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeClass
+  public static void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/read_replica/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+
+    Environment environment = sqlSessionFactory.getConfiguration().getEnvironment();
+    BaseDataTest.runScript(environment.getDataSource(),
+        "org/apache/ibatis/submitted/read_replica/CreatePrimaryDB.sql");
+    BaseDataTest.runScript(environment.getReplicaDataSources().get(0),
+        "org/apache/ibatis/submitted/read_replica/CreateReplicaDB.sql");
+  }
+
+  @Test
+  public void shouldConfigureReplicas() {
+    Environment environment = sqlSessionFactory.getConfiguration().getEnvironment();
+    assertTrue(environment.hasReplicas());
+    assertEquals(1, environment.getReplicaDataSources().size());
+    assertTrue(environment.getReplicaSelector() instanceof LeastLoadedReplicaSelector);
+  }
+
+  @Test
+  public void shouldReadFromReplica() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(true)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertEquals("replica", mapper.getName());
+    }
+  }
+
+  @Test
+  public void shouldReadFromPrimaryWhenRequested() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertEquals("primary", mapper.getNameFromPrimary());
+    }
+  }
+
+  @Test
+  public void shouldReadFromPrimaryAfterWrite() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(true)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertEquals("replica", mapper.getName());
+      mapper.touch();
+      assertEquals("primary", mapper.getName());
+    }
+  }
+
+  @Test
+  public void shouldReadFromPrimaryInTransaction() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertEquals("primary", mapper.getName());
+    }
+  }
+
+  @Test
+  public void shouldReleaseReplicaWhenSessionIsClosed() {
+    LeastLoadedReplicaSelector selector = (LeastLoadedReplicaSelector) sqlSessionFactory.getConfiguration()
+        .getEnvironment().getReplicaSelector();
+    Environment environment = sqlSessionFactory.getConfiguration().getEnvironment();
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(true)) {
+      sqlSession.getMapper(Mapper.class).getName();
+      assertEquals(1, selector.getActiveConnections(environment.getReplicaDataSources().get(0)));
+    }
+    assertEquals(0, selector.getActiveConnections(environment.getReplicaDataSources().get(0)));
+  }
+
+}
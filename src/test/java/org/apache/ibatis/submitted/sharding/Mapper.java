@@ -0,0 +1,63 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.sharding;
+
+import java.util.List;
+
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.ResultType;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+
+public interface Mapper {
+
+  @Insert("insert into users (id, name) values (#{id}, #{name})")
+  @Options(shardKey = "id")
+  int insertUser(User user);
+
+  @Insert({"<script>",
+      "insert into users (id, name) values",
+      "<foreach item='user' collection='list' separator=','>(#{user.id}, #{user.name})</foreach>",
+      "</script>"})
+  @Options(shardKey = "id")
+  int insertUsers(List<User> users);
+
+  @Update("update users set name = #{name}")
+  int renameAll(String name);
+
+  @Select("select * from users where id = #{id}")
+  @Options(shardKey = "id")
+  User getUser(Integer id);
+
+  @Select("select * from users order by id")
+  List<User> getUsers(RowBounds rowBounds);
+
+  @Select("select * from users order by name desc")
+  Cursor<User> getUsersByNameDesc();
+
+  @Select("select * from users order by id")
+  @ResultType(User.class)
+  void handleUsers(RowBounds rowBounds, ResultHandler<User> handler);
+
+  @Select("select * from users")
+  @ResultType(User.class)
+  void handleUnorderedUsers(ResultHandler<User> handler);
+
+}
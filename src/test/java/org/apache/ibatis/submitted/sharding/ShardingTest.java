@@ -0,0 +1,232 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.sharding;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.Reader;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.sql.DataSource;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.executor.sharding.HashShardingStrategy;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class ShardingTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeClass
+  public static void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/sharding/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+  }
+
+  @Before
+  public void createTables() throws Exception {
+    for (DataSource shard : sqlSessionFactory.getConfiguration().getEnvironment().getShardDataSources()) {
+      BaseDataTest.runScript(shard, "org/apache/ibatis/submitted/sharding/CreateDB.sql");
+    }
+  }
+
+  private static List<User> users(int count) {
+    List<User> users = new ArrayList<>();
+    for (int i = 1; i <= count; i++) {
+      User user = new User();
+      user.setId(i);
+      user.setName("User" + i);
+      users.add(user);
+    }
+    return users;
+  }
+
+  private static int countRows(int shard) throws Exception {
+    DataSource dataSource = sqlSessionFactory.getConfiguration().getEnvironment().getShardDataSources().get(shard);
+    try (Connection connection = dataSource.getConnection();
+         Statement statement = connection.createStatement();
+         ResultSet rs = statement.executeQuery("select count(*) from users")) {
+      rs.next();
+      return rs.getInt(1);
+    }
+  }
+
+  @Test
+  public void shouldConfigureShards() {
+    Environment environment = sqlSessionFactory.getConfiguration().getEnvironment();
+    assertTrue(environment.isSharded());
+    assertEquals(2, environment.getShardDataSources().size());
+    assertTrue(environment.getShardingStrategy() instanceof HashShardingStrategy);
+  }
+
+  @Test
+  public void shouldRouteStatementsByShardKey() throws Exception {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      for (User user : users(5)) {
+        assertEquals(1, mapper.insertUser(user));
+      }
+      sqlSession.commit();
+      assertEquals("User3", mapper.getUser(3).getName());
+    }
+    assertEquals(2, countRows(0));
+    assertEquals(3, countRows(1));
+  }
+
+  @Test
+  public void shouldPartitionMultiRowInserts() throws Exception {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      assertEquals(6, sqlSession.getMapper(Mapper.class).insertUsers(users(6)));
+      sqlSession.commit();
+    }
+    assertEquals(3, countRows(0));
+    assertEquals(3, countRows(1));
+  }
+
+  @Test
+  public void shouldPartitionBatchInserts() throws Exception {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      for (User user : users(7)) {
+        mapper.insertUser(user);
+      }
+      assertEquals(2, sqlSession.flushStatements().size());
+      sqlSession.commit();
+    }
+    assertEquals(3, countRows(0));
+    assertEquals(4, countRows(1));
+  }
+
+  @Test
+  public void shouldRejectWritesWithoutShardKeyValue() throws Exception {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      User user = new User();
+      user.setName("Nobody");
+      try {
+        mapper.insertUser(user);
+        fail("Should have rejected the insert without an id");
+      } catch (PersistenceException e) {
+        assertTrue(e.getMessage().contains("its shard key 'id' did not resolve to a value"));
+      }
+      try {
+        mapper.renameAll("Everybody");
+        fail("Should have rejected the update without a shard key");
+      } catch (PersistenceException e) {
+        assertTrue(e.getMessage().contains("it has no shard key"));
+      }
+    }
+    assertEquals(0, countRows(0));
+    assertEquals(0, countRows(1));
+  }
+
+  @Test
+  public void shouldMergeOrderedResultsOfAllShards() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      mapper.insertUsers(users(6));
+
+      List<User> users = mapper.getUsers(RowBounds.DEFAULT);
+      assertEquals(6, users.size());
+      for (int i = 0; i < users.size(); i++) {
+        assertEquals(Integer.valueOf(i + 1), users.get(i).getId());
+      }
+
+      users = mapper.getUsers(new RowBounds(1, 3));
+      assertEquals(3, users.size());
+      assertEquals(Integer.valueOf(2), users.get(0).getId());
+      assertEquals(Integer.valueOf(4), users.get(2).getId());
+    }
+  }
+
+  @Test
+  public void shouldStreamMergedCursor() throws Exception {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      mapper.insertUsers(users(4));
+
+      List<String> names = new ArrayList<>();
+      try (Cursor<User> cursor = mapper.getUsersByNameDesc()) {
+        cursor.forEach(user -> names.add(user.getName()));
+        assertTrue(cursor.isConsumed());
+        assertEquals(3, cursor.getCurrentIndex());
+      }
+      assertEquals("[User4, User3, User2, User1]", names.toString());
+    }
+  }
+
+  @Test
+  public void shouldStreamMergedResultsToHandler() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      mapper.insertUsers(users(6));
+
+      List<Integer> ids = new ArrayList<>();
+      mapper.handleUsers(new RowBounds(1, 3), context -> ids.add(context.getResultObject().getId()));
+      assertEquals("[2, 3, 4]", ids.toString());
+    }
+  }
+
+  @Test
+  public void shouldStreamUnorderedResultsOfAllShardsToHandler() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      mapper.insertUsers(users(6));
+
+      Set<Integer> ids = new TreeSet<>();
+      mapper.handleUnorderedUsers(context -> {
+        assertTrue(ids.add(context.getResultObject().getId()));
+        if (ids.size() == 4) {
+          context.stop();
+        }
+      });
+      assertEquals(4, ids.size());
+    }
+  }
+
+  @Test
+  public void shouldApplyInterceptorsToEachShard() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      mapper.insertUsers(users(2));
+
+      ShardQueryCounter.QUERIES.set(0);
+      assertEquals(2, mapper.getUsers(RowBounds.DEFAULT).size());
+      assertEquals(2, ShardQueryCounter.QUERIES.get());
+    }
+  }
+
+}
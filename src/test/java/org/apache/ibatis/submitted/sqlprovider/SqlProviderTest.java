@@ -18,6 +18,7 @@ package org.apache.ibatis.submitted.sqlprovider;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -27,14 +28,17 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.ibatis.BaseDataTest;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.ProviderCacheKey;
 import org.apache.ibatis.annotations.SelectProvider;
 import org.apache.ibatis.builder.BuilderException;
 import org.apache.ibatis.builder.annotation.ProviderContext;
 import org.apache.ibatis.builder.annotation.ProviderSqlSource;
 import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.SqlSession;
 import org.apache.ibatis.session.SqlSessionFactory;
@@ -53,6 +57,7 @@ public class SqlProviderTest {
         .getResourceAsReader("org/apache/ibatis/submitted/sqlprovider/mybatis-config.xml")) {
       sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
       sqlSessionFactory.getConfiguration().addMapper(StaticMethodSqlProviderMapper.class);
+      sqlSessionFactory.getConfiguration().addMapper(CachedSqlProviderMapper.class);
     }
 
     // populate in-memory database
@@ -470,6 +475,74 @@ public class SqlProviderTest {
     void multipleProviderContext();
   }
 
+  @Test
+  public void shouldInvokeProviderOncePerCacheKey() throws NoSuchMethodException {
+    Class<?> mapperType = CachedSqlProviderMapper.class;
+    Method mapperMethod = mapperType.getMethod("getUsersByNameOrderBy", String.class, String.class);
+    ProviderSqlSource sqlSource = new ProviderSqlSource(new Configuration(),
+        mapperMethod.getAnnotation(SelectProvider.class), mapperType, mapperMethod);
+    CachedSqlProviderMapper.SqlProvider.invocations.set(0);
+
+    BoundSql first = sqlSource.getBoundSql(nameAndOrderBy("User1", "id"));
+    BoundSql second = sqlSource.getBoundSql(nameAndOrderBy("User2", "id"));
+    BoundSql third = sqlSource.getBoundSql(nameAndOrderBy("User1", "name"));
+
+    assertEquals(2, CachedSqlProviderMapper.SqlProvider.invocations.get());
+    assertSame(first.getParameterMappings(), second.getParameterMappings());
+    assertEquals(first.getSql(), second.getSql());
+    assertTrue(third.getSql().endsWith("ORDER BY name"));
+  }
+
+  @Test
+  public void shouldCacheProviderSqlWhenDynamicSqlCacheIsDisabled() throws NoSuchMethodException {
+    Class<?> mapperType = CachedSqlProviderMapper.class;
+    Method mapperMethod = mapperType.getMethod("getUsersByNameOrderBy", String.class, String.class);
+    Configuration configuration = new Configuration();
+    configuration.setDynamicSqlCacheSize(0);
+    ProviderSqlSource sqlSource = new ProviderSqlSource(configuration,
+        mapperMethod.getAnnotation(SelectProvider.class), mapperType, mapperMethod);
+    CachedSqlProviderMapper.SqlProvider.invocations.set(0);
+
+    sqlSource.getBoundSql(nameAndOrderBy("User1", "id"));
+    sqlSource.getBoundSql(nameAndOrderBy("User2", "id"));
+
+    assertEquals(1, CachedSqlProviderMapper.SqlProvider.invocations.get());
+  }
+
+  @Test
+  public void shouldInvokeProviderEveryTimeOnceCacheIsFull() throws NoSuchMethodException {
+    Class<?> mapperType = CachedSqlProviderMapper.class;
+    Method mapperMethod = mapperType.getMethod("getUsersByNameOrderByOneCached", String.class, String.class);
+    ProviderSqlSource sqlSource = new ProviderSqlSource(new Configuration(),
+        mapperMethod.getAnnotation(SelectProvider.class), mapperType, mapperMethod);
+    CachedSqlProviderMapper.SqlProvider.invocations.set(0);
+
+    sqlSource.getBoundSql(nameAndOrderBy("User1", "id"));
+    sqlSource.getBoundSql(nameAndOrderBy("User1", "name"));
+    sqlSource.getBoundSql(nameAndOrderBy("User1", "name"));
+    sqlSource.getBoundSql(nameAndOrderBy("User2", "id"));
+
+    assertEquals(3, CachedSqlProviderMapper.SqlProvider.invocations.get());
+  }
+
+  @Test
+  public void shouldQueryWithCachedProviderSql() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      CachedSqlProviderMapper mapper = sqlSession.getMapper(CachedSqlProviderMapper.class);
+      CachedSqlProviderMapper.SqlProvider.invocations.set(0);
+      assertEquals("User1", mapper.getUser(1).getName());
+      assertEquals("User2", mapper.getUser(2).getName());
+      assertEquals(1, CachedSqlProviderMapper.SqlProvider.invocations.get());
+    }
+  }
+
+  private Map<String, Object> nameAndOrderBy(String name, String orderByColumn) {
+    Map<String, Object> params = new HashMap<String, Object>();
+    params.put("name", name);
+    params.put("orderByColumn", orderByColumn);
+    return params;
+  }
+
   public static class ErrorSqlBuilder {
     public void methodNotFound() {
       throw new UnsupportedOperationException("methodNotFound");
@@ -538,4 +611,39 @@ public class SqlProviderTest {
 
   }
 
+  public interface CachedSqlProviderMapper {
+    @SelectProvider(type = SqlProvider.class, method = "getUser")
+    User getUser(Integer id);
+
+    @SelectProvider(type = SqlProvider.class, method = "getUsersByNameOrderBy")
+    List<User> getUsersByNameOrderBy(@Param("name") String name, @Param("orderByColumn") String orderByColumn);
+
+    @SelectProvider(type = SqlProvider.class, method = "getUsersByNameOrderByOneCached")
+    List<User> getUsersByNameOrderByOneCached(@Param("name") String name, @Param("orderByColumn") String orderByColumn);
+
+    class SqlProvider {
+
+      static final AtomicInteger invocations = new AtomicInteger();
+
+      @ProviderCacheKey
+      public static String getUser(ProviderContext context) {
+        invocations.incrementAndGet();
+        return "SELECT * FROM users WHERE id = #{id}";
+      }
+
+      @ProviderCacheKey("orderByColumn")
+      public static String getUsersByNameOrderBy(@Param("name") String name, @Param("orderByColumn") String orderByColumn) {
+        invocations.incrementAndGet();
+        return "SELECT * FROM users WHERE name LIKE #{name} || '%' ORDER BY " + orderByColumn;
+      }
+
+      @ProviderCacheKey(value = "orderByColumn", size = 1)
+      public static String getUsersByNameOrderByOneCached(@Param("name") String name, @Param("orderByColumn") String orderByColumn) {
+        return getUsersByNameOrderBy(name, orderByColumn);
+      }
+
+    }
+
+  }
+
 }
@@ -19,6 +19,7 @@ import org.junit.Test;
 import org.mockito.Mock;
 
 import java.sql.Array;
+import java.sql.Connection;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
@@ -32,6 +33,9 @@ public class ArrayTypeHandlerTest extends BaseTypeHandlerTest {
   @Mock
   Array mockArray;
 
+  @Mock
+  Connection connection;
+
   @Override
   @Test
   public void shouldSetParameter() throws Exception {
@@ -39,6 +43,39 @@ public class ArrayTypeHandlerTest extends BaseTypeHandlerTest {
     verify(ps).setArray(1, mockArray);
   }
 
+  @Test
+  public void shouldSetJavaArrayParameter() throws Exception {
+    Integer[] values = new Integer[]{1, 2};
+    when(ps.getConnection()).thenReturn(connection);
+    when(connection.createArrayOf("INTEGER", values)).thenReturn(mockArray);
+    TYPE_HANDLER.setParameter(ps, 1, values, JdbcType.ARRAY);
+    verify(ps).setArray(1, mockArray);
+    verify(mockArray).free();
+  }
+
+  @Test
+  public void shouldSetPrimitiveArrayParameter() throws Exception {
+    when(ps.getConnection()).thenReturn(connection);
+    when(connection.createArrayOf("BIGINT", new Object[]{1L, 2L})).thenReturn(mockArray);
+    TYPE_HANDLER.setParameter(ps, 1, new long[]{1L, 2L}, JdbcType.ARRAY);
+    verify(ps).setArray(1, mockArray);
+  }
+
+  @Test
+  public void shouldSetTypedArrayParameter() throws Exception {
+    Object[] values = new Object[]{1, 2L};
+    when(ps.getConnection()).thenReturn(connection);
+    when(connection.createArrayOf("BIGINT", values)).thenReturn(mockArray);
+    TYPE_HANDLER.setParameter(ps, 1, new ArrayTypeHandler.TypedArray("BIGINT", values), JdbcType.ARRAY);
+    verify(ps).setArray(1, mockArray);
+    verify(mockArray).free();
+  }
+
+  @Test(expected = TypeException.class)
+  public void shouldFailToSetNonArrayParameter() throws Exception {
+    TYPE_HANDLER.setParameter(ps, 1, "a", JdbcType.ARRAY);
+  }
+
   @Override
   @Test
   public void shouldGetResultFromResultSetByName() throws Exception {
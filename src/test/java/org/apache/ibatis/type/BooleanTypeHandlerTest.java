@@ -17,6 +17,7 @@ package org.apache.ibatis.type;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -25,6 +26,7 @@ import org.junit.Test;
 public class BooleanTypeHandlerTest extends BaseTypeHandlerTest {
 
   private static final TypeHandler<Boolean> TYPE_HANDLER = new BooleanTypeHandler();
+  private static final PrimitiveBooleanTypeHandler PRIMITIVE_TYPE_HANDLER = new BooleanTypeHandler();
 
   @Override
   @Test
@@ -86,4 +88,16 @@ public class BooleanTypeHandlerTest extends BaseTypeHandlerTest {
     assertNull(TYPE_HANDLER.getResult(cs, 1));
   }
 
+  @Test
+  public void shouldSetPrimitiveParameter() throws Exception {
+    PRIMITIVE_TYPE_HANDLER.setBooleanParameter(ps, 1, true);
+    verify(ps).setBoolean(1, true);
+  }
+
+  @Test
+  public void shouldGetPrimitiveResultFromResultSetByPosition() throws Exception {
+    when(rs.getBoolean(1)).thenReturn(true);
+    assertTrue(PRIMITIVE_TYPE_HANDLER.getBooleanResult(rs, 1));
+  }
+
 }
\ No newline at end of file
@@ -25,6 +25,7 @@ import org.junit.Test;
 public class DoubleTypeHandlerTest extends BaseTypeHandlerTest {
 
   private static final TypeHandler<Double> TYPE_HANDLER = new DoubleTypeHandler();
+  private static final PrimitiveDoubleTypeHandler PRIMITIVE_TYPE_HANDLER = new DoubleTypeHandler();
 
   @Override
   @Test
@@ -87,4 +88,16 @@ public class DoubleTypeHandlerTest extends BaseTypeHandlerTest {
     assertNull(TYPE_HANDLER.getResult(cs, 1));
   }
 
+  @Test
+  public void shouldSetPrimitiveParameter() throws Exception {
+    PRIMITIVE_TYPE_HANDLER.setDoubleParameter(ps, 1, 100d);
+    verify(ps).setDouble(1, 100d);
+  }
+
+  @Test
+  public void shouldGetPrimitiveResultFromResultSetByPosition() throws Exception {
+    when(rs.getDouble(1)).thenReturn(100d);
+    assertEquals(100d, PRIMITIVE_TYPE_HANDLER.getDoubleResult(rs, 1), 0);
+  }
+
 }
\ No newline at end of file
@@ -25,6 +25,7 @@ import org.junit.Test;
 public class IntegerTypeHandlerTest extends BaseTypeHandlerTest {
 
   private static final TypeHandler<Integer> TYPE_HANDLER = new IntegerTypeHandler();
+  private static final PrimitiveIntTypeHandler PRIMITIVE_TYPE_HANDLER = new IntegerTypeHandler();
 
   @Override
   @Test
@@ -87,4 +88,16 @@ public class IntegerTypeHandlerTest extends BaseTypeHandlerTest {
     assertNull(TYPE_HANDLER.getResult(cs, 1));
   }
 
+  @Test
+  public void shouldSetPrimitiveParameter() throws Exception {
+    PRIMITIVE_TYPE_HANDLER.setIntParameter(ps, 1, 100);
+    verify(ps).setInt(1, 100);
+  }
+
+  @Test
+  public void shouldGetPrimitiveResultFromResultSetByPosition() throws Exception {
+    when(rs.getInt(1)).thenReturn(100);
+    assertEquals(100, PRIMITIVE_TYPE_HANDLER.getIntResult(rs, 1));
+  }
+
 }
\ No newline at end of file
@@ -25,6 +25,7 @@ import org.junit.Test;
 public class LongTypeHandlerTest extends BaseTypeHandlerTest {
 
   private static final TypeHandler<Long> TYPE_HANDLER = new LongTypeHandler();
+  private static final PrimitiveLongTypeHandler PRIMITIVE_TYPE_HANDLER = new LongTypeHandler();
 
   @Override
   @Test
@@ -87,4 +88,16 @@ public class LongTypeHandlerTest extends BaseTypeHandlerTest {
     assertNull(TYPE_HANDLER.getResult(cs, 1));
   }
 
+  @Test
+  public void shouldSetPrimitiveParameter() throws Exception {
+    PRIMITIVE_TYPE_HANDLER.setLongParameter(ps, 1, 100L);
+    verify(ps).setLong(1, 100L);
+  }
+
+  @Test
+  public void shouldGetPrimitiveResultFromResultSetByPosition() throws Exception {
+    when(rs.getLong(1)).thenReturn(100L);
+    assertEquals(100L, PRIMITIVE_TYPE_HANDLER.getLongResult(rs, 1));
+  }
+
 }
\ No newline at end of file